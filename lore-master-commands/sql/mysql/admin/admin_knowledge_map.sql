@@ -38,6 +38,7 @@ CREATE TABLE IF NOT EXISTS `admin_knowledge_map` (
   UNIQUE KEY `uk_node_code` (`node_code`),
   KEY `idx_parent_code` (`parent_code`),
   KEY `idx_root_code` (`root_code`),
+  KEY `idx_node_path` (`node_path`) COMMENT '子树按路径前缀范围查询、移动子树',
   KEY `idx_level_depth` (`level_depth`),
   KEY `idx_level_type` (`level_type`),
   KEY `idx_node_type` (`node_type`),
@@ -186,6 +187,30 @@ INSERT INTO `admin_knowledge_map` (
 -- 表结构设计说明
 -- ========================================
 
+-- ========================================
+-- 闭包表：每对（祖先, 子孙）一行，由节点增删移动同步维护
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS `admin_knowledge_map_closure` (
+  `ancestor_code` varchar(100) NOT NULL COMMENT '祖先节点编码',
+  `descendant_code` varchar(100) NOT NULL COMMENT '子孙节点编码',
+  `depth` tinyint NOT NULL COMMENT '祖先到子孙的距离，节点到自身为0',
+  PRIMARY KEY (`ancestor_code`, `descendant_code`),
+  KEY `idx_descendant_depth` (`descendant_code`, `depth`) COMMENT '祖先查询',
+  KEY `idx_ancestor_depth` (`ancestor_code`, `depth`) COMMENT '按距离查询子孙'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='技能路线知识图谱闭包表';
+
+-- 按 parent_code 回填示例数据的闭包关系；parent_code 成环时不再扩展回祖先自身，避免重复的(祖先, 子孙)违反主键
+INSERT INTO `admin_knowledge_map_closure` (`ancestor_code`, `descendant_code`, `depth`)
+WITH RECURSIVE closure AS (
+  SELECT `node_code` AS ancestor_code, `node_code` AS descendant_code, 0 AS depth FROM `admin_knowledge_map`
+  UNION ALL
+  SELECT c.ancestor_code, m.`node_code`, c.depth + 1
+  FROM closure c JOIN `admin_knowledge_map` m ON m.`parent_code` = c.descendant_code
+  WHERE c.depth < 10 AND m.`node_code` <> c.ancestor_code
+)
+SELECT ancestor_code, descendant_code, depth FROM closure;
+
 /*
 表结构特点：
 1. 单表设计：避免多表关联的复杂性，所有节点信息存储在一张表中
@@ -0,0 +1,25 @@
+-- 题目和知识点全文检索索引（MySQL 5.7.6+，ngram 分词支持中文）
+--
+-- ngram 把文本切成 ngram_token_size 个字符的词元（默认2，需在 my.cnf 中配置，修改后要重建索引），
+-- 少于 ngram_token_size 个字符的关键词无法命中索引，应用会回退到 LIKE 查询。
+-- ngram 会丢弃包含停用词的词元，默认停用词表中的 a、i 等会使 "java" 这类英文词元全部被丢弃，
+-- 停用词配置在建索引时固定，因此建索引前在当前会话中关闭停用词。
+-- 每张表第一次创建FULLTEXT索引时会重建表，大表请在低峰期执行；InnoDB 每条语句只能创建一个FULLTEXT索引
+
+USE lore_admin;
+
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- 题目：关键词检索标题和内容，标签单独检索
+ALTER TABLE questions
+ADD FULLTEXT INDEX ft_title_content (title, content) WITH PARSER ngram;
+
+ALTER TABLE questions
+ADD FULLTEXT INDEX ft_tags (tags) WITH PARSER ngram;
+
+-- 知识点：关键词检索标题、内容和关键词，标签单独检索
+ALTER TABLE knowledge_points
+ADD FULLTEXT INDEX ft_title_content_keywords (title, content, keywords) WITH PARSER ngram;
+
+ALTER TABLE knowledge_points
+ADD FULLTEXT INDEX ft_tags (tags) WITH PARSER ngram;
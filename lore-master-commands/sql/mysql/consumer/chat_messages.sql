@@ -9,7 +9,7 @@ CREATE TABLE consumer_chat_messages (
     token_count INT COMMENT 'Token使用量',
     create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
     
-    INDEX idx_user_session (user_id, session_id),
+    INDEX idx_user_session_time (user_id, session_id, create_time) COMMENT '会话历史游标分页、记忆窗口加载',
     INDEX idx_session_time (session_id, create_time),
     INDEX idx_user_id (user_id),
     INDEX idx_create_time (create_time)
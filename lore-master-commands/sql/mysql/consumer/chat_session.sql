@@ -0,0 +1,20 @@
+CREATE TABLE chat_session (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    session_id VARCHAR(64) NOT NULL UNIQUE COMMENT '会话ID',
+    user_id VARCHAR(64) NOT NULL COMMENT '用户ID',
+    title VARCHAR(200) NOT NULL COMMENT '会话标题',
+    description TEXT COMMENT '会话描述',
+    session_type VARCHAR(20) NOT NULL DEFAULT 'chat' COMMENT '会话类型：chat, assessment, learning',
+    model_name VARCHAR(50) COMMENT '使用的模型名称',
+    config JSON COMMENT '会话配置',
+    status VARCHAR(20) NOT NULL DEFAULT 'active' COMMENT '会话状态：active, archived, deleted',
+    message_count INT DEFAULT 0 COMMENT '消息总数',
+    total_tokens INT DEFAULT 0 COMMENT '总Token使用量',
+    last_active_time DATETIME COMMENT '最后活跃时间（创建、切换时更新，最近活跃的未归档会话即当前会话）',
+    metadata JSON COMMENT '会话元数据',
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE COMMENT '是否删除',
+    created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    INDEX idx_user_status_active (user_id, status, last_active_time) COMMENT '查询用户当前会话、会话列表'
+) COMMENT '聊天会话表';
@@ -265,6 +265,6 @@ INSERT INTO user_auth_methods (user_id, auth_type, auth_key, auth_secret, is_ver
 -- WHERE u.user_id = 'LM-2025-A8B9-C3D7' AND u.status = 1
 -- GROUP BY u.user_id;
 
--- 获取下一个用户ID
--- UPDATE user_id_sequence SET current_value = current_value + increment_step WHERE sequence_name = 'user_id_seq';
+-- 预取用户ID号段（同一事务内执行，N为号段大小，得到 (current_value - N, current_value]）
+-- UPDATE user_id_sequence SET current_value = current_value + N WHERE sequence_name = 'user_id_seq' AND (max_value IS NULL OR current_value + N <= max_value);
 -- SELECT current_value FROM user_id_sequence WHERE sequence_name = 'user_id_seq';
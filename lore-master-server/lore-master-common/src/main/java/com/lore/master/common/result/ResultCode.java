@@ -29,7 +29,14 @@ public enum ResultCode {
     // 学习目标相关状态码
     LEARNING_GOAL_NOT_FOUND(2001, "学习目标不存在"),
     LEARNING_GOAL_ALREADY_EXISTS(2002, "学习目标已存在"),
-    LEARNING_GOAL_STATUS_ERROR(2003, "学习目标状态错误");
+    LEARNING_GOAL_STATUS_ERROR(2003, "学习目标状态错误"),
+
+    // AI对话相关状态码
+    LLM_BUSY(3001, "AI助手当前繁忙，请稍后再试"),
+    CHAT_SESSION_NOT_FOUND(3002, "聊天会话不存在"),
+
+    // 语音识别相关状态码
+    VOICE_BUSY(3101, "语音识别繁忙，请稍后再试");
 
     private final int code;
     private final String message;
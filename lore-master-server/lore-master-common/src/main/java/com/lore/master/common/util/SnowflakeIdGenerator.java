@@ -0,0 +1,154 @@
+package com.lore.master.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 按时间有序的分布式ID生成器（Snowflake布局）
+ *
+ * 64位ID = 41位毫秒时间戳（自2025-01-01起，约69年） + 10位节点ID + 12位毫秒内序号。
+ * 时间戳和序号合并存放在一个AtomicLong中，用CAS推进，不加锁；同一毫秒内序号用尽时自旋等到下一毫秒，
+ * 逻辑时间不会跑到系统时钟前面。时钟回拨不超过容忍范围时沿用上次的逻辑时间继续递增，保证单调；
+ * 超过时抛出异常，不生成可能重复的ID。
+ *
+ * 字符串形式为定长13位Crockford Base32，字典序与数值序一致，可直接作为有序主键或业务ID
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * 起始时间 2025-01-01T00:00:00Z
+     */
+    public static final long EPOCH_MILLIS = 1735689600000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int STRING_LENGTH = 13;
+
+    private final long nodeId;
+    private final long maxBackwardMillis;
+    private final LongSupplier clock;
+
+    /**
+     * 高位为相对起始时间的逻辑毫秒，低SEQUENCE_BITS位为该毫秒内已分配的最后一个序号
+     */
+    private final AtomicLong state = new AtomicLong(-1L);
+
+    public SnowflakeIdGenerator(long nodeId, long maxBackwardMillis) {
+        this(nodeId, maxBackwardMillis, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long nodeId, long maxBackwardMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点ID超出范围[0, " + MAX_NODE_ID + "]: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.maxBackwardMillis = maxBackwardMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        while (true) {
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long last = state.get();
+            long lastMillis = last >> SEQUENCE_BITS;
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                if (lastMillis - now > maxBackwardMillis) {
+                    throw new IllegalStateException("系统时钟回拨" + (lastMillis - now) + "ms，超过容忍范围" + maxBackwardMillis + "ms");
+                }
+                if ((last & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                    // 本毫秒序号用尽，等待时钟前进
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // 沿用逻辑时间
+                next = last + 1;
+            }
+            if (state.compareAndSet(last, next)) {
+                long millis = next >> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (millis << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * 生成下一个ID的字符串形式（13位Crockford Base32）
+     */
+    public String nextIdString() {
+        return toString(nextId());
+    }
+
+    /**
+     * 节点ID
+     */
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 把ID编码为定长13位Crockford Base32
+     */
+    public static String toString(long id) {
+        char[] chars = new char[STRING_LENGTH];
+        // 首位只承载最高4位
+        for (int i = STRING_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 解析13位Crockford Base32形式的ID
+     */
+    public static long parse(String text) {
+        if (text == null || text.length() != STRING_LENGTH) {
+            throw new IllegalArgumentException("无效的ID: " + text);
+        }
+        long id = 0;
+        for (int i = 0; i < STRING_LENGTH; i++) {
+            int value = decode(text.charAt(i));
+            if (value < 0 || (i == 0 && value > 15)) {
+                throw new IllegalArgumentException("无效的ID: " + text);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+
+    /**
+     * 从ID中取出生成时间（毫秒时间戳）
+     */
+    public static long extractTimestamp(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    /**
+     * 从ID中取出节点ID
+     */
+    public static long extractNodeId(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    private static int decode(char c) {
+        char upper = Character.toUpperCase(c);
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i] == upper) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
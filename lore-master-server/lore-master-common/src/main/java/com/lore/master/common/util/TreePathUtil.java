@@ -0,0 +1,68 @@
+package com.lore.master.common.util;
+
+/**
+ * 物化路径（用/分隔的编码路径，如 java/l1/basic）工具类
+ */
+public class TreePathUtil {
+
+    public static final String SEPARATOR = "/";
+
+    /**
+     * LIKE 转义字符，查询中需配合 ESCAPE '!' 使用
+     */
+    public static final char LIKE_ESCAPE = '!';
+
+    private TreePathUtil() {
+    }
+
+    /**
+     * 匹配所有子孙节点路径的 LIKE 模式。编码中的 _ 和 % 会被转义，避免匹配到无关节点
+     */
+    public static String descendantPattern(String path) {
+        return escapeLike(path) + SEPARATOR + "%";
+    }
+
+    /**
+     * 匹配以 prefix 开头的路径的 LIKE 模式，同样需配合 ESCAPE '!' 使用
+     */
+    public static String prefixPattern(String prefix) {
+        return escapeLike(prefix) + "%";
+    }
+
+    /**
+     * candidatePath 是否为 path 本身或其子孙
+     */
+    public static boolean isSelfOrDescendant(String path, String candidatePath) {
+        return candidatePath.equals(path) || candidatePath.startsWith(path + SEPARATOR);
+    }
+
+    /**
+     * 路径的层级深度，根节点为1
+     */
+    public static int depth(String path) {
+        int depth = 1;
+        for (int i = path.indexOf(SEPARATOR); i >= 0; i = path.indexOf(SEPARATOR, i + 1)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * 路径的最后一段，即节点自身的路径段
+     */
+    public static String lastSegment(String path) {
+        return path.substring(path.lastIndexOf(SEPARATOR) + 1);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.lore.master.common.util;
+
+import cn.hutool.core.util.IdUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 有序ID生成 vs 原有随机ID生成 的吞吐对比
+ *
+ * 原消息ID为 "msg_"+毫秒时间戳+UUID前8位，原文件ID为Hutool的simpleUUID，二者都依赖SecureRandom。
+ * 直接运行main方法即可，默认分别以1线程和4线程运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 5000);
+
+    @Benchmark
+    public long snowflakeId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String snowflakeIdString() {
+        return generator.nextIdString();
+    }
+
+    @Benchmark
+    public String legacyMessageId() {
+        return "msg_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String legacyFileId() {
+        return IdUtil.simpleUUID();
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[]{1, 4}) {
+            new Runner(new OptionsBuilder()
+                    .include(SnowflakeIdGeneratorBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
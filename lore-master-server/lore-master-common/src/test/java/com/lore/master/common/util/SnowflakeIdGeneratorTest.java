@@ -0,0 +1,135 @@
+package com.lore.master.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SnowflakeIdGenerator 并发唯一性、单调性和时钟回拨测试
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 200_000;
+
+    @Test
+    void concurrentIdsAreUniqueAndMonotonicPerThread() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 5000);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<long[]> task = () -> {
+                    barrier.await();
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                };
+                futures.add(executor.submit(task));
+            }
+
+            Set<Long> all = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "同一线程内ID应递增");
+                    }
+                    assertEquals(7, SnowflakeIdGenerator.extractNodeId(ids[i]));
+                    assertTrue(all.add(ids[i]), "ID重复: " + ids[i]);
+                }
+            }
+            assertEquals(THREADS * IDS_PER_THREAD, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void stringFormPreservesOrderAndRoundTrips() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1023, 5000);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            String text = SnowflakeIdGenerator.toString(id);
+            assertEquals(13, text.length());
+            assertTrue(text.compareTo(SnowflakeIdGenerator.toString(previous)) > 0, "字符串顺序应与数值顺序一致");
+            assertEquals(id, SnowflakeIdGenerator.parse(text));
+            assertEquals(id, SnowflakeIdGenerator.parse(text.toLowerCase()));
+            previous = id;
+        }
+        assertEquals(Long.MAX_VALUE, SnowflakeIdGenerator.parse(SnowflakeIdGenerator.toString(Long.MAX_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> SnowflakeIdGenerator.parse("msg_12345678"));
+    }
+
+    @Test
+    void sequenceOverflowWaitsForNextMillisecond() {
+        long base = SnowflakeIdGenerator.EPOCH_MILLIS + 1000;
+        // 每读取10000次时钟前进1毫秒
+        AtomicLong reads = new AtomicLong();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, 5000, () -> base + reads.incrementAndGet() / 10_000);
+        long last = 0;
+        int inFirstMillis = 0;
+        for (int i = 0; i < 5000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            if (SnowflakeIdGenerator.extractTimestamp(id) == base) {
+                inFirstMillis++;
+            }
+            last = id;
+        }
+        // 每毫秒最多4096个，用尽后等到时钟前进而不是借用未来时间
+        assertEquals(4096, inFirstMillis);
+        assertEquals(base + 1, SnowflakeIdGenerator.extractTimestamp(last));
+        assertTrue(reads.get() >= 10_000);
+    }
+
+    @Test
+    void clockRollbackWithinToleranceStaysMonotonic() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 10_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 5000, clock::get);
+        long before = generator.nextId();
+
+        clock.addAndGet(-3000);
+        long during = generator.nextId();
+        assertTrue(during > before);
+        assertEquals(SnowflakeIdGenerator.extractTimestamp(before), SnowflakeIdGenerator.extractTimestamp(during));
+
+        clock.addAndGet(4000);
+        long after = generator.nextId();
+        assertTrue(after > during);
+        assertEquals(clock.get(), SnowflakeIdGenerator.extractTimestamp(after));
+    }
+
+    @Test
+    void clockRollbackBeyondToleranceFails() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 10_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 5000, clock::get);
+        generator.nextId();
+
+        clock.addAndGet(-6000);
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void invalidNodeIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, 5000));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024, 5000));
+    }
+}
@@ -0,0 +1,44 @@
+package com.lore.master.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TreePathUtil 路径前缀匹配和环检测测试
+ */
+class TreePathUtilTest {
+
+    @Test
+    void descendantPatternEscapesLikeWildcards() {
+        assertEquals("java/java!_l1/%", TreePathUtil.descendantPattern("java/java_l1"));
+        assertEquals("a!%b/c!!d/%", TreePathUtil.descendantPattern("a%b/c!d"));
+    }
+
+    @Test
+    void prefixPatternEscapesLikeWildcards() {
+        assertEquals("java/java!_%", TreePathUtil.prefixPattern("java/java_"));
+    }
+
+    @Test
+    void selfOrDescendantMatchesWholeSegmentsOnly() {
+        assertTrue(TreePathUtil.isSelfOrDescendant("java/l1", "java/l1"));
+        assertTrue(TreePathUtil.isSelfOrDescendant("java/l1", "java/l1/basic"));
+        assertFalse(TreePathUtil.isSelfOrDescendant("java/l1", "java/l10"));
+        assertFalse(TreePathUtil.isSelfOrDescendant("java/l1", "java"));
+    }
+
+    @Test
+    void depthCountsSegments() {
+        assertEquals(1, TreePathUtil.depth("java"));
+        assertEquals(4, TreePathUtil.depth("java/l1/basic/variables"));
+    }
+
+    @Test
+    void lastSegmentIsNodeOwnSegment() {
+        assertEquals("java", TreePathUtil.lastSegment("java"));
+        assertEquals("basic", TreePathUtil.lastSegment("java_expert/l1/basic"));
+    }
+}
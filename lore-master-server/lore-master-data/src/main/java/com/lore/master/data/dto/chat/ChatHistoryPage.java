@@ -0,0 +1,33 @@
+package com.lore.master.data.dto.chat;
+
+import com.lore.master.data.entity.consumer.ConsumerChatMessage;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 聊天历史游标分页结果
+ */
+@Data
+public class ChatHistoryPage {
+
+    /**
+     * 会话ID
+     */
+    private String sessionId;
+
+    /**
+     * 本页消息（按时间倒序，最新的在前面）
+     */
+    private List<ConsumerChatMessage> messages;
+
+    /**
+     * 下一页游标，没有更多消息时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更早的消息
+     */
+    private Boolean hasMore;
+}
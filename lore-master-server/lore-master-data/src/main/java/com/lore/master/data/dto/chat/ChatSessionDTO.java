@@ -49,6 +49,11 @@ public class ChatSessionDTO {
      */
     private String status;
 
+    /**
+     * 是否为用户当前会话
+     */
+    private Boolean current;
+
     /**
      * 消息总数
      */
@@ -0,0 +1,30 @@
+package com.lore.master.data.dto.chat;
+
+import lombok.Data;
+
+/**
+ * 聊天会话操作请求参数
+ */
+@Data
+public class ChatSessionRequest {
+
+    /**
+     * 会话ID（切换、归档时必填）
+     */
+    private String sessionId;
+
+    /**
+     * 会话标题（创建时可选）
+     */
+    private String title;
+
+    /**
+     * 会话类型：chat, assessment, learning（创建时可选）
+     */
+    private String sessionType;
+
+    /**
+     * 会话状态筛选：active, archived（列表查询时可选）
+     */
+    private String status;
+}
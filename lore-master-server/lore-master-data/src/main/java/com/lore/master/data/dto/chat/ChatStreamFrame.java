@@ -0,0 +1,56 @@
+package com.lore.master.data.dto.chat;
+
+import lombok.Data;
+
+/**
+ * 流式聊天帧（WebSocket下行）
+ *
+ * 一次回答的帧序列为 start -> delta* -> end，异常结束时以 error/busy/stopped 代替 end；
+ * 语音输入时回答前还有识别帧 partial* -> transcript，seq接着识别帧继续递增。
+ * seq在一次回答内从0递增，客户端可据此发现丢帧
+ */
+@Data
+public class ChatStreamFrame {
+
+    public static final String START = "start";
+    public static final String DELTA = "delta";
+    public static final String END = "end";
+    public static final String ERROR = "error";
+    public static final String BUSY = "busy";
+    public static final String STOPPED = "stopped";
+    public static final String PARTIAL = "partial";
+    public static final String TRANSCRIPT = "transcript";
+
+    /**
+     * 帧类型：start, delta, end, error, busy, stopped, partial, transcript
+     */
+    private String type;
+
+    /**
+     * 帧序号
+     */
+    private Long seq;
+
+    /**
+     * 客户端请求中的messageId，原样带回
+     */
+    private String messageId;
+
+    /**
+     * 增量文本（delta帧）；partial帧为当前已识别的文本，transcript帧为最终识别文本
+     */
+    private String delta;
+
+    /**
+     * 提示信息（error、busy帧）
+     */
+    private String message;
+
+    public static ChatStreamFrame of(String type, long seq, String messageId) {
+        ChatStreamFrame frame = new ChatStreamFrame();
+        frame.setType(type);
+        frame.setSeq(seq);
+        frame.setMessageId(messageId);
+        return frame;
+    }
+}
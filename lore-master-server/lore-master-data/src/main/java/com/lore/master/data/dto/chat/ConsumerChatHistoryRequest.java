@@ -9,6 +9,18 @@ import lombok.Data;
 public class ConsumerChatHistoryRequest {
     private String userId;
     private String content;
+    /**
+     * 流式对话的请求ID，SSE断线重连时用同一ID续传
+     */
+    private String messageId;
+    /**
+     * 会话ID，为空时使用用户当前会话
+     */
+    private String sessionId;
+    /**
+     * 游标分页：上一页返回的nextCursor，为空时从最新消息开始
+     */
+    private String cursor;
     private Integer maxMessages;
     private int page = 0;
     private int size = 50;
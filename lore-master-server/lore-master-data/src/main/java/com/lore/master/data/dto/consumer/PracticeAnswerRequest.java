@@ -0,0 +1,42 @@
+package com.lore.master.data.dto.consumer;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 练习答案批量提交请求
+ */
+@Data
+public class PracticeAnswerRequest {
+
+    /**
+     * 本批答案
+     */
+    @Valid
+    @NotEmpty(message = "答案不能为空")
+    private List<Answer> answers;
+
+    @Data
+    public static class Answer {
+
+        /**
+         * 题目ID
+         */
+        @NotNull(message = "题目ID不能为空")
+        private Long questionId;
+
+        /**
+         * 用户答案：单选/判断为选项或对错，多选为选项字母（如 "AC"、"A,C"），填空为文本
+         */
+        private String answer;
+
+        /**
+         * 自评结果，仅用于无法自动判分的简答题和编程题
+         */
+        private Boolean correct;
+    }
+}
@@ -0,0 +1,57 @@
+package com.lore.master.data.entity.admin;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 知识图谱闭包表实体类
+ *
+ * 每对（祖先, 子孙）一行，包括节点到自身（depth=0），祖先、子孙查询和祖先判断都是单次索引查询。
+ * 与 node_path 一样覆盖所有状态的节点，查询时再按节点状态过滤
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(AdminKnowledgeMapClosure.Key.class)
+@Table(name = "admin_knowledge_map_closure", indexes = {
+    @Index(name = "idx_descendant_depth", columnList = "descendant_code, depth"),
+    @Index(name = "idx_ancestor_depth", columnList = "ancestor_code, depth")
+})
+public class AdminKnowledgeMapClosure {
+
+    /**
+     * 祖先节点编码
+     */
+    @Id
+    @Column(name = "ancestor_code", nullable = false, length = 100)
+    private String ancestorCode;
+
+    /**
+     * 子孙节点编码
+     */
+    @Id
+    @Column(name = "descendant_code", nullable = false, length = 100)
+    private String descendantCode;
+
+    /**
+     * 祖先到子孙的距离，节点到自身为0
+     */
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+
+    /**
+     * 联合主键
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String ancestorCode;
+        private String descendantCode;
+    }
+}
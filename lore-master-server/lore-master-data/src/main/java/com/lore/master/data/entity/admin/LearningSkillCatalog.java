@@ -15,12 +15,12 @@ import java.time.LocalDateTime;
 @Accessors(chain = true)
 @Entity
 @Table(name = "learning_skill_catalog", indexes = {
-    @Index(name = "idx_skill_code", columnList = "skillCode", unique = true),
-    @Index(name = "idx_skill_path", columnList = "skillPath"),
+    @Index(name = "idx_skill_code", columnList = "skill_code", unique = true),
+    @Index(name = "idx_skill_path", columnList = "skill_path"),
     @Index(name = "idx_level", columnList = "level"),
-    @Index(name = "idx_parent_code", columnList = "parentCode"),
-    @Index(name = "idx_sort_order", columnList = "sortOrder"),
-    @Index(name = "idx_is_active", columnList = "isActive")
+    @Index(name = "idx_parent_code", columnList = "parent_code"),
+    @Index(name = "idx_sort_order", columnList = "sort_order"),
+    @Index(name = "idx_is_active", columnList = "is_active")
 })
 public class LearningSkillCatalog {
 
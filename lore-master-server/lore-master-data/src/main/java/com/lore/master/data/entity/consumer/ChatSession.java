@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "chat_session")
+@Table(name = "chat_session", indexes = {
+        @Index(name = "idx_user_status_active", columnList = "user_id, status, last_active_time")
+})
 @EqualsAndHashCode(callSuper = false)
 public class ChatSession {
 
@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "consumer_chat_messages")
+@Table(name = "consumer_chat_messages", indexes = {
+        @Index(name = "idx_user_session_time", columnList = "user_id, session_id, create_time")
+})
 public class ConsumerChatMessage {
 
     @Id
@@ -0,0 +1,129 @@
+package com.lore.master.data.repository;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 动态查询条件构造
+ *
+ * 只为有值的条件生成谓词，null和空字符串直接跳过。
+ * (:x IS NULL OR col = :x) 写法对每种条件组合都是同一条SQL，MySQL难以据此选索引；
+ * 这里每种组合生成的SQL只包含实际使用的列，优化器可以按条件选择索引。
+ *
+ * 用法：repository.findAll(new SpecificationBuilder&lt;T&gt;().eq("status", status).contains("title", title).build(), pageable)
+ */
+public class SpecificationBuilder<T> {
+
+    /**
+     * LIKE 转义字符，与 TreePathUtil 一致
+     */
+    private static final char LIKE_ESCAPE = '!';
+
+    private final List<Specification<T>> specs = new ArrayList<>();
+
+    /**
+     * 等值条件
+     */
+    public SpecificationBuilder<T> eq(String attribute, Object value) {
+        if (hasValue(value)) {
+            specs.add((root, query, cb) -> cb.equal(root.get(attribute), value));
+        }
+        return this;
+    }
+
+    /**
+     * 包含匹配，值中的 % _ 按字面匹配
+     */
+    public SpecificationBuilder<T> contains(String attribute, String value) {
+        if (StringUtils.hasText(value)) {
+            String pattern = "%" + escapeLike(value) + "%";
+            specs.add((root, query, cb) -> cb.like(root.get(attribute), pattern, LIKE_ESCAPE));
+        }
+        return this;
+    }
+
+    /**
+     * 任意一列包含匹配，各列之间为 OR
+     */
+    public SpecificationBuilder<T> containsAny(String value, String... attributes) {
+        if (StringUtils.hasText(value)) {
+            String pattern = "%" + escapeLike(value) + "%";
+            specs.add((root, query, cb) -> {
+                Predicate[] likes = new Predicate[attributes.length];
+                for (int i = 0; i < attributes.length; i++) {
+                    likes[i] = cb.like(root.get(attributes[i]), pattern, LIKE_ESCAPE);
+                }
+                return cb.or(likes);
+            });
+        }
+        return this;
+    }
+
+    /**
+     * 前缀匹配，可以使用该列上的索引做范围扫描
+     */
+    public SpecificationBuilder<T> startsWith(String attribute, String value) {
+        if (StringUtils.hasText(value)) {
+            String pattern = escapeLike(value) + "%";
+            specs.add((root, query, cb) -> cb.like(root.get(attribute), pattern, LIKE_ESCAPE));
+        }
+        return this;
+    }
+
+    /**
+     * 大于等于
+     */
+    public <Y extends Comparable<? super Y>> SpecificationBuilder<T> ge(String attribute, Y value) {
+        if (value != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get(attribute), value));
+        }
+        return this;
+    }
+
+    /**
+     * 小于等于
+     */
+    public <Y extends Comparable<? super Y>> SpecificationBuilder<T> le(String attribute, Y value) {
+        if (value != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get(attribute), value));
+        }
+        return this;
+    }
+
+    /**
+     * condition 为 true 时加入自定义条件
+     */
+    public SpecificationBuilder<T> when(boolean condition, Specification<T> spec) {
+        if (condition) {
+            specs.add(spec);
+        }
+        return this;
+    }
+
+    /**
+     * 所有条件 AND 组合，没有条件时查询全部
+     */
+    public Specification<T> build() {
+        return Specification.allOf(specs);
+    }
+
+    private static boolean hasValue(Object value) {
+        return value instanceof String text ? StringUtils.hasText(text) : value != null;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
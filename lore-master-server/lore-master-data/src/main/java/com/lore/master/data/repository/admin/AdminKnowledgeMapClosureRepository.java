@@ -0,0 +1,100 @@
+package com.lore.master.data.repository.admin;
+
+import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.entity.admin.AdminKnowledgeMapClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 知识图谱闭包表Repository
+ */
+@Repository
+public interface AdminKnowledgeMapClosureRepository extends JpaRepository<AdminKnowledgeMapClosure, AdminKnowledgeMapClosure.Key> {
+
+    /**
+     * 查询节点的所有祖先，从根节点开始
+     */
+    @Query("SELECT akm FROM AdminKnowledgeMapClosure c JOIN AdminKnowledgeMap akm ON akm.nodeCode = c.ancestorCode " +
+           "WHERE c.descendantCode = :nodeCode AND c.depth > 0 AND akm.status = :status ORDER BY c.depth DESC")
+    List<AdminKnowledgeMap> findAncestors(@Param("nodeCode") String nodeCode, @Param("status") String status);
+
+    /**
+     * 查询节点指定距离内的子孙，按距离和排序序号排列
+     */
+    @Query("SELECT akm FROM AdminKnowledgeMapClosure c JOIN AdminKnowledgeMap akm ON akm.nodeCode = c.descendantCode " +
+           "WHERE c.ancestorCode = :nodeCode AND c.depth BETWEEN 1 AND :maxDepth AND akm.status = :status " +
+           "ORDER BY c.depth, akm.sortOrder")
+    List<AdminKnowledgeMap> findDescendants(@Param("nodeCode") String nodeCode,
+                                            @Param("maxDepth") int maxDepth,
+                                            @Param("status") String status);
+
+    /**
+     * ancestorCode 是否为 descendantCode 的祖先（不含自身）
+     */
+    boolean existsByAncestorCodeAndDescendantCodeAndDepthGreaterThan(String ancestorCode, String descendantCode, Integer depth);
+
+    /**
+     * 批量查询节点的所有祖先关系（含自身）
+     */
+    List<AdminKnowledgeMapClosure> findByDescendantCodeIn(Collection<String> descendantCodes);
+
+    /**
+     * 新增节点：复制父节点的所有祖先关系并加上自身关系，父节点为空时只有自身关系
+     */
+    @Modifying
+    @Query(value = "INSERT INTO admin_knowledge_map_closure (ancestor_code, descendant_code, depth) " +
+                   "SELECT ancestor_code, :nodeCode, depth + 1 FROM admin_knowledge_map_closure WHERE descendant_code = :parentCode " +
+                   "UNION ALL SELECT :nodeCode, :nodeCode, 0", nativeQuery = true)
+    int insertNode(@Param("nodeCode") String nodeCode, @Param("parentCode") String parentCode);
+
+    /**
+     * 移动子树第一步：删除子树外祖先到子树内节点的关系，子树内部关系保留
+     */
+    @Modifying
+    @Query(value = "DELETE c FROM admin_knowledge_map_closure c " +
+                   "JOIN admin_knowledge_map_closure s ON s.descendant_code = c.descendant_code AND s.ancestor_code = :nodeCode " +
+                   "LEFT JOIN admin_knowledge_map_closure x ON x.ancestor_code = :nodeCode AND x.descendant_code = c.ancestor_code " +
+                   "WHERE x.ancestor_code IS NULL", nativeQuery = true)
+    int detachSubtree(@Param("nodeCode") String nodeCode);
+
+    /**
+     * 移动子树第二步：新父节点的每个祖先（含自身）与子树内每个节点建立关系
+     */
+    @Modifying
+    @Query(value = "INSERT INTO admin_knowledge_map_closure (ancestor_code, descendant_code, depth) " +
+                   "SELECT a.ancestor_code, s.descendant_code, a.depth + s.depth + 1 " +
+                   "FROM admin_knowledge_map_closure a JOIN admin_knowledge_map_closure s ON s.ancestor_code = :nodeCode " +
+                   "WHERE a.descendant_code = :parentCode", nativeQuery = true)
+    int attachSubtree(@Param("nodeCode") String nodeCode, @Param("parentCode") String parentCode);
+
+    /**
+     * 重建第一步：清空闭包表
+     */
+    @Modifying
+    @Query(value = "DELETE FROM admin_knowledge_map_closure", nativeQuery = true)
+    int deleteAllRows();
+
+    /**
+     * 重建第二步：每个节点到自身的关系
+     */
+    @Modifying
+    @Query(value = "INSERT INTO admin_knowledge_map_closure (ancestor_code, descendant_code, depth) " +
+                   "SELECT node_code, node_code, 0 FROM admin_knowledge_map", nativeQuery = true)
+    int insertSelfRows();
+
+    /**
+     * 重建第三步：由距离 depth-1 的关系沿 parent_code 向下扩展一层，返回0时重建完成
+     */
+    @Modifying
+    @Query(value = "INSERT INTO admin_knowledge_map_closure (ancestor_code, descendant_code, depth) " +
+                   "SELECT c.ancestor_code, m.node_code, c.depth + 1 FROM admin_knowledge_map_closure c " +
+                   "JOIN admin_knowledge_map m ON m.parent_code = c.descendant_code " +
+                   "WHERE c.depth = :depth - 1", nativeQuery = true)
+    int insertRowsAtDepth(@Param("depth") int depth);
+}
@@ -1,14 +1,19 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.repository.SpecificationBuilder;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +21,7 @@ import java.util.Optional;
  * 管理端知识图谱Repository
  */
 @Repository
-public interface AdminKnowledgeMapRepository extends JpaRepository<AdminKnowledgeMap, Long> {
+public interface AdminKnowledgeMapRepository extends JpaRepository<AdminKnowledgeMap, Long>, JpaSpecificationExecutor<AdminKnowledgeMap> {
     
     /**
      * 根据节点编码查询节点
@@ -27,6 +32,11 @@ public interface AdminKnowledgeMapRepository extends JpaRepository<AdminKnowledg
      * 检查节点编码是否存在
      */
     boolean existsByNodeCode(String nodeCode);
+
+    /**
+     * 根据节点编码批量查询，不区分状态
+     */
+    List<AdminKnowledgeMap> findByNodeCodeIn(Collection<String> nodeCodes);
     
     /**
      * 根据父节点编码查询子节点列表
@@ -59,25 +69,23 @@ public interface AdminKnowledgeMapRepository extends JpaRepository<AdminKnowledg
     List<AdminKnowledgeMap> findByRootCodeAndDifficultyLevelAndStatusOrderBySortOrder(String rootCode, String difficultyLevel, String status);
     
     /**
-     * 多条件分页查询
+     * 多条件分页查询，只按有值的条件过滤；未指定排序时按根节点、层级、排序序号排序
      */
-    @Query("SELECT akm FROM AdminKnowledgeMap akm WHERE " +
-           "(:rootCode IS NULL OR akm.rootCode = :rootCode) AND " +
-           "(:nodeType IS NULL OR akm.nodeType = :nodeType) AND " +
-           "(:levelDepth IS NULL OR akm.levelDepth = :levelDepth) AND " +
-           "(:levelType IS NULL OR akm.levelType = :levelType) AND " +
-           "(:difficultyLevel IS NULL OR akm.difficultyLevel = :difficultyLevel) AND " +
-           "(:status IS NULL OR akm.status = :status) AND " +
-           "(:keyword IS NULL OR akm.nodeName LIKE %:keyword% OR akm.description LIKE %:keyword%) " +
-           "ORDER BY akm.rootCode, akm.levelDepth, akm.sortOrder")
-    Page<AdminKnowledgeMap> findByConditions(@Param("rootCode") String rootCode,
-                                           @Param("nodeType") String nodeType,
-                                           @Param("levelDepth") Integer levelDepth,
-                                           @Param("levelType") String levelType,
-                                           @Param("difficultyLevel") String difficultyLevel,
-                                           @Param("status") String status,
-                                           @Param("keyword") String keyword,
-                                           Pageable pageable);
+    default Page<AdminKnowledgeMap> findByConditions(String rootCode, String nodeType, Integer levelDepth,
+                                                   String levelType, String difficultyLevel, String status,
+                                                   String keyword, Pageable pageable) {
+        Pageable sorted = pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("rootCode", "levelDepth", "sortOrder"));
+        return findAll(new SpecificationBuilder<AdminKnowledgeMap>()
+                .eq("rootCode", rootCode)
+                .eq("nodeType", nodeType)
+                .eq("levelDepth", levelDepth)
+                .eq("levelType", levelType)
+                .eq("difficultyLevel", difficultyLevel)
+                .eq("status", status)
+                .containsAny(keyword, "nodeName", "description")
+                .build(), sorted);
+    }
     
     /**
      * 批量更新排序序号
@@ -98,6 +106,29 @@ public interface AdminKnowledgeMapRepository extends JpaRepository<AdminKnowledg
                               @Param("levelDepth") Integer levelDepth,
                               @Param("updatedBy") String updatedBy);
     
+    /**
+     * 移动子树：子树根及所有子孙节点（含已停用节点）的路径前缀替换为新路径，层级深度和根节点编码同步调整，一条语句完成
+     *
+     * @param descendantPattern 子孙节点路径的LIKE模式，见 TreePathUtil.descendantPattern
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AdminKnowledgeMap akm SET akm.nodePath = CONCAT(:newPath, SUBSTRING(akm.nodePath, LENGTH(:oldPath) + 1)), " +
+           "akm.levelDepth = akm.levelDepth + :depthDelta, akm.rootCode = :rootCode, " +
+           "akm.updatedBy = :updatedBy, akm.updatedTime = CURRENT_TIMESTAMP " +
+           "WHERE akm.nodePath = :oldPath OR akm.nodePath LIKE :descendantPattern ESCAPE '!'")
+    int moveSubtree(@Param("oldPath") String oldPath,
+                    @Param("descendantPattern") String descendantPattern,
+                    @Param("newPath") String newPath,
+                    @Param("depthDelta") int depthDelta,
+                    @Param("rootCode") String rootCode,
+                    @Param("updatedBy") String updatedBy);
+
+    /**
+     * 查询子树的最大层级深度
+     */
+    @Query("SELECT MAX(akm.levelDepth) FROM AdminKnowledgeMap akm WHERE akm.nodePath = :nodePath OR akm.nodePath LIKE :descendantPattern ESCAPE '!'")
+    Integer findMaxLevelDepthOfSubtree(@Param("nodePath") String nodePath, @Param("descendantPattern") String descendantPattern);
+
     /**
      * 软删除节点
      */
@@ -146,4 +177,16 @@ public interface AdminKnowledgeMapRepository extends JpaRepository<AdminKnowledg
      */
     @Query("SELECT COALESCE(MAX(akm.sortOrder), 0) FROM AdminKnowledgeMap akm WHERE akm.parentCode IS NULL AND akm.nodeType = 'ROOT'")
     Integer findMaxSortOrderForRootNodes();
+
+    /**
+     * 批量查询各父节点下的最大排序序号，返回 [parentCode, maxSortOrder]
+     */
+    @Query("SELECT akm.parentCode, MAX(akm.sortOrder) FROM AdminKnowledgeMap akm WHERE akm.parentCode IN :parentCodes GROUP BY akm.parentCode")
+    List<Object[]> findMaxSortOrderByParentCodes(@Param("parentCodes") Collection<String> parentCodes);
+
+    /**
+     * 所有节点的父子关系，每行为 [节点编码, 父节点编码]，不含没有父节点的节点
+     */
+    @Query("SELECT akm.nodeCode, akm.parentCode FROM AdminKnowledgeMap akm WHERE akm.parentCode IS NOT NULL")
+    List<Object[]> findAllParentLinks();
 }
@@ -1,20 +1,25 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.AdminUser;
+import com.lore.master.data.repository.SpecificationBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * 管理员用户Repository
  */
 @Repository
-public interface AdminUserRepository extends JpaRepository<AdminUser, Long> {
+public interface AdminUserRepository extends JpaRepository<AdminUser, Long>, JpaSpecificationExecutor<AdminUser> {
     
     /**
      * 根据用户名查询用户
@@ -47,20 +52,18 @@ public interface AdminUserRepository extends JpaRepository<AdminUser, Long> {
     boolean existsByPhoneAndIdNot(String phone, Long id);
     
     /**
-     * 分页查询管理员用户
+     * 分页查询管理员用户，只按有值的条件过滤
      */
-    @Query("SELECT u FROM AdminUser u WHERE " +
-           "(:username IS NULL OR u.username LIKE %:username%) AND " +
-           "(:realName IS NULL OR u.realName LIKE %:realName%) AND " +
-           "(:email IS NULL OR u.email LIKE %:email%) AND " +
-           "(:role IS NULL OR u.role = :role) AND " +
-           "(:status IS NULL OR u.status = :status)")
-    Page<AdminUser> findByConditions(@Param("username") String username,
-                                   @Param("realName") String realName,
-                                   @Param("email") String email,
-                                   @Param("role") String role,
-                                   @Param("status") Integer status,
-                                   Pageable pageable);
+    default Page<AdminUser> findByConditions(String username, String realName, String email, String role,
+                                            Integer status, Pageable pageable) {
+        return findAll(new SpecificationBuilder<AdminUser>()
+                .contains("username", username)
+                .contains("realName", realName)
+                .contains("email", email)
+                .eq("role", role)
+                .eq("status", status)
+                .build(), pageable);
+    }
     
     /**
      * 获取统计信息
@@ -72,4 +75,17 @@ public interface AdminUserRepository extends JpaRepository<AdminUser, Long> {
            "SUM(CASE WHEN DATE(u.createTime) = CURRENT_DATE THEN 1 ELSE 0 END) as todayCount " +
            "FROM AdminUser u")
     Object[] getStatistics();
+    
+    /**
+     * 批量查询存在的用户，返回 [id, role]
+     */
+    @Query("SELECT u.id, u.role FROM AdminUser u WHERE u.id IN :ids")
+    List<Object[]> findIdAndRoleByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 批量删除
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AdminUser u WHERE u.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
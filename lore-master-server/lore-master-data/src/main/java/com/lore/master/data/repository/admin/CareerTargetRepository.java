@@ -1,11 +1,12 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.CareerTarget;
+import com.lore.master.data.repository.SpecificationBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,7 +16,7 @@ import java.util.Optional;
  * 职业目标Repository
  */
 @Repository
-public interface CareerTargetRepository extends JpaRepository<CareerTarget, Long> {
+public interface CareerTargetRepository extends JpaRepository<CareerTarget, Long>, JpaSpecificationExecutor<CareerTarget> {
     
     /**
      * 根据编码查询职业目标
@@ -33,20 +34,18 @@ public interface CareerTargetRepository extends JpaRepository<CareerTarget, Long
     List<CareerTarget> findByStatusOrderBySortOrderAscCreateTimeDesc(Integer status);
     
     /**
-     * 分页查询职业目标
+     * 分页查询职业目标，只按有值的条件过滤
      */
-    @Query("SELECT ct FROM CareerTarget ct WHERE " +
-           "(:name IS NULL OR ct.name LIKE %:name%) AND " +
-           "(:code IS NULL OR ct.code LIKE %:code%) AND " +
-           "(:category IS NULL OR ct.category = :category) AND " +
-           "(:difficultyLevel IS NULL OR ct.difficultyLevel = :difficultyLevel) AND " +
-           "(:status IS NULL OR ct.status = :status)")
-    Page<CareerTarget> findByConditions(@Param("name") String name,
-                                       @Param("code") String code,
-                                       @Param("category") String category,
-                                       @Param("difficultyLevel") Integer difficultyLevel,
-                                       @Param("status") Integer status,
-                                       Pageable pageable);
+    default Page<CareerTarget> findByConditions(String name, String code, String category,
+                                               Integer difficultyLevel, Integer status, Pageable pageable) {
+        return findAll(new SpecificationBuilder<CareerTarget>()
+                .contains("name", name)
+                .contains("code", code)
+                .eq("category", category)
+                .eq("difficultyLevel", difficultyLevel)
+                .eq("status", status)
+                .build(), pageable);
+    }
     
     /**
      * 根据分类查询职业目标
@@ -1,14 +1,17 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.KnowledgePoint;
+import com.lore.master.data.repository.SpecificationBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +19,7 @@ import java.util.Optional;
  * 知识点Repository
  */
 @Repository
-public interface KnowledgePointRepository extends JpaRepository<KnowledgePoint, Long> {
+public interface KnowledgePointRepository extends JpaRepository<KnowledgePoint, Long>, JpaSpecificationExecutor<KnowledgePoint> {
     
     /**
      * 根据编码查询知识点
@@ -39,40 +42,56 @@ public interface KnowledgePointRepository extends JpaRepository<KnowledgePoint,
     List<KnowledgePoint> findByParentIdAndStatusOrderBySortOrderAscCreateTimeDesc(Long parentId, Integer status);
     
     /**
-     * 分页查询知识点
+     * 分页查询知识点，只按有值的条件过滤
      */
-    @Query("SELECT kp FROM KnowledgePoint kp WHERE " +
-           "(:title IS NULL OR kp.title LIKE %:title%) AND " +
-           "(:code IS NULL OR kp.code LIKE %:code%) AND " +
-           "(:subjectId IS NULL OR kp.subjectId = :subjectId) AND " +
-           "(:parentId IS NULL OR kp.parentId = :parentId) AND " +
-           "(:difficultyLevel IS NULL OR kp.difficultyLevel = :difficultyLevel) AND " +
-           "(:importance IS NULL OR kp.importance = :importance) AND " +
-           "(:status IS NULL OR kp.status = :status) AND " +
-           "(:keywords IS NULL OR kp.keywords LIKE %:keywords%)")
-    Page<KnowledgePoint> findByConditions(@Param("title") String title,
-                                         @Param("code") String code,
-                                         @Param("subjectId") Long subjectId,
-                                         @Param("parentId") Long parentId,
-                                         @Param("difficultyLevel") Integer difficultyLevel,
-                                         @Param("importance") Integer importance,
-                                         @Param("status") Integer status,
-                                         @Param("keywords") String keywords,
-                                         Pageable pageable);
+    default Page<KnowledgePoint> findByConditions(String title, String code, Long subjectId, Long parentId,
+                                                 Integer difficultyLevel, Integer importance, Integer status,
+                                                 String keywords, Pageable pageable) {
+        return findAll(new SpecificationBuilder<KnowledgePoint>()
+                .contains("title", title)
+                .contains("code", code)
+                .eq("subjectId", subjectId)
+                .eq("parentId", parentId)
+                .eq("difficultyLevel", difficultyLevel)
+                .eq("importance", importance)
+                .eq("status", status)
+                .contains("keywords", keywords)
+                .build(), pageable);
+    }
     
     /**
-     * 根据标签搜索知识点
+     * 根据标签搜索知识点（LIKE，全表扫描，仅用于全文索引无法匹配的短关键词）
      */
     @Query("SELECT kp FROM KnowledgePoint kp WHERE kp.status = 1 AND kp.tags LIKE %:tag%")
     List<KnowledgePoint> findByTag(@Param("tag") String tag);
     
     /**
-     * 全文搜索知识点
+     * 搜索知识点标题、内容和关键词（LIKE，全表扫描，仅用于全文索引无法匹配的短关键词）
      */
     @Query("SELECT kp FROM KnowledgePoint kp WHERE kp.status = 1 AND " +
            "(kp.title LIKE %:keyword% OR kp.content LIKE %:keyword% OR kp.keywords LIKE %:keyword%)")
     Page<KnowledgePoint> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
+    /**
+     * 全文检索知识点标题、内容和关键词，按相关度降序，使用 ft_title_content_keywords 索引；pageable 不能带排序
+     */
+    @Query(value = "SELECT * FROM knowledge_points WHERE status = 1 AND " +
+                   "MATCH(title, content, keywords) AGAINST (:keyword IN NATURAL LANGUAGE MODE) " +
+                   "ORDER BY MATCH(title, content, keywords) AGAINST (:keyword IN NATURAL LANGUAGE MODE) DESC, id",
+           countQuery = "SELECT COUNT(*) FROM knowledge_points WHERE status = 1 AND " +
+                        "MATCH(title, content, keywords) AGAINST (:keyword IN NATURAL LANGUAGE MODE)",
+           nativeQuery = true)
+    Page<KnowledgePoint> searchByFulltext(@Param("keyword") String keyword, Pageable pageable);
+    
+    /**
+     * 按标签全文检索知识点，phrase 为布尔模式的短语（带双引号），使用 ft_tags 索引
+     */
+    @Query(value = "SELECT * FROM knowledge_points WHERE status = 1 AND " +
+                   "MATCH(tags) AGAINST (:phrase IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(tags) AGAINST (:phrase IN BOOLEAN MODE) DESC, id",
+           nativeQuery = true)
+    List<KnowledgePoint> findByTagFulltext(@Param("phrase") String phrase);
+    
     /**
      * 获取热门知识点（按浏览次数排序）
      */
@@ -122,4 +141,25 @@ public interface KnowledgePointRepository extends JpaRepository<KnowledgePoint,
      */
     @Query("SELECT COALESCE(MAX(kp.sortOrder), 0) FROM KnowledgePoint kp WHERE kp.parentId = :parentId")
     Integer getMaxSortOrderByParent(@Param("parentId") Long parentId);
+    
+    /**
+     * 批量查询存在的知识点ID
+     */
+    @Query("SELECT kp.id FROM KnowledgePoint kp WHERE kp.id IN :ids")
+    List<Long> findIdByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按父级分组统计子知识点数量，excludeIds 中的知识点不计入，返回 [parentId, count]
+     */
+    @Query("SELECT kp.parentId, COUNT(kp) FROM KnowledgePoint kp " +
+           "WHERE kp.parentId IN :parentIds AND kp.id NOT IN :excludeIds GROUP BY kp.parentId")
+    List<Object[]> countChildrenByParentIds(@Param("parentIds") Collection<Long> parentIds,
+                                            @Param("excludeIds") Collection<Long> excludeIds);
+    
+    /**
+     * 批量删除
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM KnowledgePoint kp WHERE kp.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
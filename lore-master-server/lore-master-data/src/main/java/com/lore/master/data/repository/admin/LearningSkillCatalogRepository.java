@@ -1,27 +1,39 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.LearningSkillCatalog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 学习技能目录Repository
  */
 @Repository
-public interface LearningSkillCatalogRepository extends JpaRepository<LearningSkillCatalog, Long> {
+public interface LearningSkillCatalogRepository extends JpaRepository<LearningSkillCatalog, Long>, JpaSpecificationExecutor<LearningSkillCatalog> {
 
     /**
      * 根据技能编码查询
      */
     Optional<LearningSkillCatalog> findBySkillCode(String skillCode);
 
+    /**
+     * 根据技能编码批量查询
+     */
+    List<LearningSkillCatalog> findBySkillCodeIn(Collection<String> skillCodes);
+
     /**
      * 根据技能编码和是否启用查询
      */
@@ -128,6 +140,61 @@ public interface LearningSkillCatalogRepository extends JpaRepository<LearningSk
     @Query("SELECT s FROM LearningSkillCatalog s WHERE s.estimatedHours BETWEEN :minHours AND :maxHours AND s.isActive = :isActive ORDER BY s.estimatedHours")
     List<LearningSkillCatalog> findByEstimatedHoursRange(@Param("minHours") Integer minHours, @Param("maxHours") Integer maxHours, @Param("isActive") Boolean isActive);
 
+    /**
+     * 批量查询存在的技能，返回 [id, skillCode]
+     */
+    @Query("SELECT s.id, s.skillCode FROM LearningSkillCatalog s WHERE s.id IN :ids")
+    List<Object[]> findIdAndCodeByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按父级分组统计启用的子技能数量，excludeIds 中的技能不计入，返回 [parentCode, count]
+     */
+    @Query("SELECT s.parentCode, COUNT(s) FROM LearningSkillCatalog s " +
+           "WHERE s.parentCode IN :parentCodes AND s.isActive = true AND s.id NOT IN :excludeIds GROUP BY s.parentCode")
+    List<Object[]> countActiveChildrenByParentCodes(@Param("parentCodes") Collection<String> parentCodes,
+                                                     @Param("excludeIds") Collection<Long> excludeIds);
+
+    /**
+     * 按当前排序查询同级技能ID
+     */
+    @Query("SELECT s.id FROM LearningSkillCatalog s WHERE " +
+           "(s.parentCode = :parentCode OR (:parentCode IS NULL AND s.parentCode IS NULL)) ORDER BY s.sortOrder, s.id")
+    List<Long> findSiblingIds(@Param("parentCode") String parentCode);
+
+    /**
+     * 批量启用/禁用
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LearningSkillCatalog s SET s.isActive = :isActive, s.updatedTime = CURRENT_TIMESTAMP WHERE s.id IN :ids")
+    int updateIsActiveByIdIn(@Param("ids") Collection<Long> ids, @Param("isActive") Boolean isActive);
+
+    /**
+     * 批量删除
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM LearningSkillCatalog s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 移动子树：子树根及所有子孙技能的路径前缀替换为新路径，层级同步调整，一条语句完成
+     *
+     * @param descendantPattern 子孙技能路径的LIKE模式，见 TreePathUtil.descendantPattern
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LearningSkillCatalog s SET s.skillPath = CONCAT(:newPath, SUBSTRING(s.skillPath, LENGTH(:oldPath) + 1)), " +
+           "s.level = s.level + :levelDelta, s.updatedTime = CURRENT_TIMESTAMP " +
+           "WHERE s.skillPath = :oldPath OR s.skillPath LIKE :descendantPattern ESCAPE '!'")
+    int moveSubtree(@Param("oldPath") String oldPath,
+                    @Param("descendantPattern") String descendantPattern,
+                    @Param("newPath") String newPath,
+                    @Param("levelDelta") int levelDelta);
+
+    /**
+     * 查询子树的最大层级
+     */
+    @Query("SELECT MAX(s.level) FROM LearningSkillCatalog s WHERE s.skillPath = :skillPath OR s.skillPath LIKE :descendantPattern ESCAPE '!'")
+    Integer findMaxLevelOfSubtree(@Param("skillPath") String skillPath, @Param("descendantPattern") String descendantPattern);
+
     /**
      * 获取下一个排序序号
      */
@@ -139,4 +206,37 @@ public interface LearningSkillCatalogRepository extends JpaRepository<LearningSk
      */
     @Query("SELECT COALESCE(MAX(s.sortOrder), 0) + 1 FROM LearningSkillCatalog s WHERE s.level = :level AND s.parentCode = :parentCode")
     Integer getNextSortOrderByLevel(@Param("level") Integer level, @Param("parentCode") String parentCode);
+
+    /**
+     * 批量查询各父级下的最大排序序号，返回 [parentCode, maxSortOrder]
+     */
+    @Query("SELECT s.parentCode, MAX(s.sortOrder) FROM LearningSkillCatalog s WHERE s.parentCode IN :parentCodes GROUP BY s.parentCode")
+    List<Object[]> findMaxSortOrderByParentCodes(@Param("parentCodes") Collection<String> parentCodes);
+
+    /**
+     * 一级分类的最大排序序号
+     */
+    @Query("SELECT COALESCE(MAX(s.sortOrder), 0) FROM LearningSkillCatalog s WHERE s.parentCode IS NULL")
+    Integer findMaxSortOrderOfTopLevel();
+
+    /**
+     * 流式查询导出数据，需在事务内使用并关闭Stream。
+     * fetchSize为Integer.MIN_VALUE时MySQL驱动逐行读取结果集，不一次性加载到内存
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM LearningSkillCatalog s WHERE " +
+           "(:level IS NULL OR s.level = :level) AND " +
+           "(:parentCode IS NULL OR s.parentCode = :parentCode) AND " +
+           "(:isActive IS NULL OR s.isActive = :isActive) AND " +
+           "(:difficultyLevel IS NULL OR s.difficultyLevel = :difficultyLevel) AND " +
+           "(:pathPattern IS NULL OR s.skillPath LIKE :pathPattern ESCAPE '!') " +
+           "ORDER BY s.level, s.sortOrder, s.id")
+    Stream<LearningSkillCatalog> streamForExport(@Param("level") Integer level,
+                                                 @Param("parentCode") String parentCode,
+                                                 @Param("isActive") Boolean isActive,
+                                                 @Param("difficultyLevel") String difficultyLevel,
+                                                 @Param("pathPattern") String pathPattern);
 }
@@ -1,9 +1,11 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.LevelConfig;
+import com.lore.master.data.repository.SpecificationBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,7 +17,7 @@ import java.util.Optional;
  * 等级配置Repository
  */
 @Repository
-public interface LevelConfigRepository extends JpaRepository<LevelConfig, Long> {
+public interface LevelConfigRepository extends JpaRepository<LevelConfig, Long>, JpaSpecificationExecutor<LevelConfig> {
     
     /**
      * 根据等级查询配置
@@ -39,20 +41,18 @@ public interface LevelConfigRepository extends JpaRepository<LevelConfig, Long>
     Optional<LevelConfig> findByScoreRange(@Param("score") Integer score);
     
     /**
-     * 分页查询等级配置
+     * 分页查询等级配置，只按有值的条件过滤
      */
-    @Query("SELECT lc FROM LevelConfig lc WHERE " +
-           "(:name IS NULL OR lc.name LIKE %:name%) AND " +
-           "(:level IS NULL OR lc.level = :level) AND " +
-           "(:minScore IS NULL OR lc.minScore >= :minScore) AND " +
-           "(:maxScore IS NULL OR lc.maxScore <= :maxScore) AND " +
-           "(:status IS NULL OR lc.status = :status)")
-    Page<LevelConfig> findByConditions(@Param("name") String name,
-                                      @Param("level") Integer level,
-                                      @Param("minScore") Integer minScore,
-                                      @Param("maxScore") Integer maxScore,
-                                      @Param("status") Integer status,
-                                      Pageable pageable);
+    default Page<LevelConfig> findByConditions(String name, Integer level, Integer minScore, Integer maxScore,
+                                              Integer status, Pageable pageable) {
+        return findAll(new SpecificationBuilder<LevelConfig>()
+                .contains("name", name)
+                .eq("level", level)
+                .ge("minScore", minScore)
+                .le("maxScore", maxScore)
+                .eq("status", status)
+                .build(), pageable);
+    }
     
     /**
      * 获取等级配置统计信息
@@ -1,21 +1,27 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.Question;
+import com.lore.master.data.repository.SpecificationBuilder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 题目Repository
  */
 @Repository
-public interface QuestionRepository extends JpaRepository<Question, Long> {
+public interface QuestionRepository extends JpaRepository<Question, Long>, JpaSpecificationExecutor<Question> {
     
     /**
      * 根据学科ID查询题目
@@ -33,50 +39,59 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByTypeAndStatusOrderByCreateTimeDesc(Integer type, Integer status);
     
     /**
-     * 分页查询题目
+     * 分页查询题目，只按有值的条件过滤
      */
-    @Query("SELECT q FROM Question q WHERE " +
-           "(:title IS NULL OR q.title LIKE %:title%) AND " +
-           "(:type IS NULL OR q.type = :type) AND " +
-           "(:subjectId IS NULL OR q.subjectId = :subjectId) AND " +
-           "(:knowledgePointId IS NULL OR q.knowledgePointId = :knowledgePointId) AND " +
-           "(:difficultyLevel IS NULL OR q.difficultyLevel = :difficultyLevel) AND " +
-           "(:status IS NULL OR q.status = :status) AND " +
-           "(:tags IS NULL OR q.tags LIKE %:tags%)")
-    Page<Question> findByConditions(@Param("title") String title,
-                                   @Param("type") Integer type,
-                                   @Param("subjectId") Long subjectId,
-                                   @Param("knowledgePointId") Long knowledgePointId,
-                                   @Param("difficultyLevel") Integer difficultyLevel,
-                                   @Param("status") Integer status,
-                                   @Param("tags") String tags,
-                                   Pageable pageable);
+    default Page<Question> findByConditions(String title, Integer type, Long subjectId, Long knowledgePointId,
+                                           Integer difficultyLevel, Integer status, String tags, Pageable pageable) {
+        return findAll(new SpecificationBuilder<Question>()
+                .contains("title", title)
+                .eq("type", type)
+                .eq("subjectId", subjectId)
+                .eq("knowledgePointId", knowledgePointId)
+                .eq("difficultyLevel", difficultyLevel)
+                .eq("status", status)
+                .contains("tags", tags)
+                .build(), pageable);
+    }
     
     /**
-     * 根据标签搜索题目
+     * 根据标签搜索题目（LIKE，全表扫描，仅用于全文索引无法匹配的短关键词）
      */
     @Query("SELECT q FROM Question q WHERE q.status = 1 AND q.tags LIKE %:tag%")
     List<Question> findByTag(@Param("tag") String tag);
     
     /**
-     * 全文搜索题目
+     * 搜索题目标题和内容（LIKE，全表扫描，仅用于全文索引无法匹配的短关键词）
      */
     @Query("SELECT q FROM Question q WHERE q.status = 1 AND " +
            "(q.title LIKE %:keyword% OR q.content LIKE %:keyword%)")
     Page<Question> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
     /**
-     * 随机获取题目
+     * 全文检索题目标题和内容，按相关度降序，使用 ft_title_content 索引；pageable 不能带排序
      */
     @Query(value = "SELECT * FROM questions WHERE status = 1 AND " +
-                   "(:subjectId IS NULL OR subject_id = :subjectId) AND " +
-                   "(:difficultyLevel IS NULL OR difficulty_level = :difficultyLevel) AND " +
-                   "(:type IS NULL OR type = :type) " +
-                   "ORDER BY RAND() LIMIT :limit", nativeQuery = true)
-    List<Question> findRandomQuestions(@Param("subjectId") Long subjectId,
-                                      @Param("difficultyLevel") Integer difficultyLevel,
-                                      @Param("type") Integer type,
-                                      @Param("limit") Integer limit);
+                   "MATCH(title, content) AGAINST (:keyword IN NATURAL LANGUAGE MODE) " +
+                   "ORDER BY MATCH(title, content) AGAINST (:keyword IN NATURAL LANGUAGE MODE) DESC, id",
+           countQuery = "SELECT COUNT(*) FROM questions WHERE status = 1 AND " +
+                        "MATCH(title, content) AGAINST (:keyword IN NATURAL LANGUAGE MODE)",
+           nativeQuery = true)
+    Page<Question> searchByFulltext(@Param("keyword") String keyword, Pageable pageable);
+    
+    /**
+     * 按标签全文检索题目，phrase 为布尔模式的短语（带双引号），使用 ft_tags 索引
+     */
+    @Query(value = "SELECT * FROM questions WHERE status = 1 AND " +
+                   "MATCH(tags) AGAINST (:phrase IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(tags) AGAINST (:phrase IN BOOLEAN MODE) DESC, id",
+           nativeQuery = true)
+    List<Question> findByTagFulltext(@Param("phrase") String phrase);
+    
+    /**
+     * 查询所有启用题目的抽样分组字段：[id, subjectId, difficultyLevel, type, knowledgePointId]，用于构建内存题目池
+     */
+    @Query("SELECT q.id, q.subjectId, q.difficultyLevel, q.type, q.knowledgePointId FROM Question q WHERE q.status = 1")
+    List<Object[]> findSamplingKeys();
     
     /**
      * 增加使用次数
@@ -123,4 +138,24 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
      */
     @Query("SELECT q.subjectName, COUNT(q) FROM Question q WHERE q.status = 1 GROUP BY q.subjectName ORDER BY COUNT(q) DESC")
     Object[][] getQuestionCountBySubject();
+
+    /**
+     * 流式查询导出数据，需在事务内使用并关闭Stream，MySQL驱动逐行读取结果集
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT q FROM Question q WHERE " +
+           "(:type IS NULL OR q.type = :type) AND " +
+           "(:subjectId IS NULL OR q.subjectId = :subjectId) AND " +
+           "(:knowledgePointId IS NULL OR q.knowledgePointId = :knowledgePointId) AND " +
+           "(:difficultyLevel IS NULL OR q.difficultyLevel = :difficultyLevel) AND " +
+           "(:status IS NULL OR q.status = :status) " +
+           "ORDER BY q.id")
+    Stream<Question> streamForExport(@Param("type") Integer type,
+                                     @Param("subjectId") Long subjectId,
+                                     @Param("knowledgePointId") Long knowledgePointId,
+                                     @Param("difficultyLevel") Integer difficultyLevel,
+                                     @Param("status") Integer status);
 }
@@ -1,9 +1,11 @@
 package com.lore.master.data.repository.admin;
 
 import com.lore.master.data.entity.admin.Subject;
+import com.lore.master.data.repository.SpecificationBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,7 +17,7 @@ import java.util.Optional;
  * 学科Repository
  */
 @Repository
-public interface SubjectRepository extends JpaRepository<Subject, Long> {
+public interface SubjectRepository extends JpaRepository<Subject, Long>, JpaSpecificationExecutor<Subject> {
     
     /**
      * 根据编码查询学科
@@ -38,20 +40,18 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     List<Subject> findByParentIdAndStatusOrderBySortOrderAsc(Long parentId, Integer status);
     
     /**
-     * 分页查询学科
+     * 分页查询学科，只按有值的条件过滤
      */
-    @Query("SELECT s FROM Subject s WHERE " +
-           "(:name IS NULL OR s.name LIKE %:name%) AND " +
-           "(:code IS NULL OR s.code LIKE %:code%) AND " +
-           "(:parentId IS NULL OR s.parentId = :parentId) AND " +
-           "(:level IS NULL OR s.level = :level) AND " +
-           "(:status IS NULL OR s.status = :status)")
-    Page<Subject> findByConditions(@Param("name") String name,
-                                  @Param("code") String code,
-                                  @Param("parentId") Long parentId,
-                                  @Param("level") Integer level,
-                                  @Param("status") Integer status,
-                                  Pageable pageable);
+    default Page<Subject> findByConditions(String name, String code, Long parentId, Integer level,
+                                          Integer status, Pageable pageable) {
+        return findAll(new SpecificationBuilder<Subject>()
+                .contains("name", name)
+                .contains("code", code)
+                .eq("parentId", parentId)
+                .eq("level", level)
+                .eq("status", status)
+                .build(), pageable);
+    }
     
     /**
      * 获取学科统计信息
@@ -1,15 +1,19 @@
 package com.lore.master.data.repository.business;
 
 import com.lore.master.data.entity.business.BusinessCourse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 课程数据访问层
@@ -135,4 +139,22 @@ public interface BusinessCourseRepository extends JpaRepository<BusinessCourse,
             @Param("difficultyLevel") String difficultyLevel,
             @Param("author") String author,
             Pageable pageable);
+
+    /**
+     * 流式查询导出数据，需在事务内使用并关闭Stream，MySQL驱动逐行读取结果集
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM BusinessCourse c WHERE c.isDeleted = false AND " +
+           "(:courseType IS NULL OR c.courseType = :courseType) AND " +
+           "(:status IS NULL OR c.status = :status) AND " +
+           "(:difficultyLevel IS NULL OR c.difficultyLevel = :difficultyLevel) AND " +
+           "(:author IS NULL OR c.author = :author) " +
+           "ORDER BY c.id")
+    Stream<BusinessCourse> streamForExport(@Param("courseType") String courseType,
+                                           @Param("status") String status,
+                                           @Param("difficultyLevel") String difficultyLevel,
+                                           @Param("author") String author);
 }
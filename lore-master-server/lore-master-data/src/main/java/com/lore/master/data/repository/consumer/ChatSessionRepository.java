@@ -24,6 +24,11 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
      */
     Optional<ChatSession> findBySessionId(String sessionId);
 
+    /**
+     * 查找用户最近活跃的指定状态会话（当前会话）
+     */
+    Optional<ChatSession> findFirstByUserIdAndStatusAndIsDeletedFalseOrderByLastActiveTimeDesc(String userId, String status);
+
     /**
      * 根据用户ID查找会话列表（按最后活跃时间排序）
      */
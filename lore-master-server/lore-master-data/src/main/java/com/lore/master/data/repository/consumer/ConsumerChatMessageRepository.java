@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -39,6 +40,24 @@ public interface ConsumerChatMessageRepository extends JpaRepository<ConsumerCha
     List<ConsumerChatMessage> findByUserIdOrderByCreateTimeAsc(
             String userId, Pageable pageable);
 
+    /**
+     * 游标分页第一页：会话最新的消息（按时间、ID倒序）
+     */
+    List<ConsumerChatMessage> findByUserIdAndSessionIdOrderByCreateTimeDescIdDesc(
+            String userId, String sessionId, Pageable pageable);
+
+    /**
+     * 游标分页后续页：早于游标(createTime, id)的消息，走(user_id, session_id, create_time)索引
+     */
+    @Query("SELECT m FROM ConsumerChatMessage m WHERE m.userId = :userId AND m.sessionId = :sessionId " +
+            "AND (m.createTime < :createTime OR (m.createTime = :createTime AND m.id < :id)) " +
+            "ORDER BY m.createTime DESC, m.id DESC")
+    List<ConsumerChatMessage> findMessagesBefore(@Param("userId") String userId,
+                                                 @Param("sessionId") String sessionId,
+                                                 @Param("createTime") LocalDateTime createTime,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
     /**
      * 获取用户会话的最近N条消息（用于ChatMemory）
      */
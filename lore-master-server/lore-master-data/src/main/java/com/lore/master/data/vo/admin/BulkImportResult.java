@@ -0,0 +1,69 @@
+package com.lore.master.data.vo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果
+ */
+@Data
+public class BulkImportResult {
+
+    /**
+     * 提交的行数
+     */
+    private int total;
+
+    /**
+     * 成功导入的行数
+     */
+    private int imported;
+
+    /**
+     * 编码已存在而跳过的行数
+     */
+    private int skipped;
+
+    /**
+     * 校验失败的行数
+     */
+    private int failed;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long costMillis;
+
+    /**
+     * 失败行明细，按行号排序
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 失败行
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 行号，从0开始，对应提交列表中的下标
+         */
+        private int row;
+
+        /**
+         * 该行的编码
+         */
+        private String code;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.lore.master.data.vo.consumer;
+
+import lombok.Data;
+
+/**
+ * 练习答案判分结果VO
+ */
+@Data
+public class PracticeAnswerResultVO {
+
+    /**
+     * 题目ID
+     */
+    private Long questionId;
+
+    /**
+     * 是否答对，题目不存在或无法判分时为null
+     */
+    private Boolean correct;
+
+    /**
+     * 正确答案
+     */
+    private String correctAnswer;
+
+    /**
+     * 答案解析
+     */
+    private String explanation;
+
+    /**
+     * 知识点ID
+     */
+    private Long knowledgePointId;
+
+    /**
+     * 作答后的知识点掌握度（0~1），未关联知识点时为null
+     */
+    private Double mastery;
+}
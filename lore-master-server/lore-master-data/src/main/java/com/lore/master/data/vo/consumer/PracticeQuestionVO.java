@@ -0,0 +1,60 @@
+package com.lore.master.data.vo.consumer;
+
+import lombok.Data;
+
+/**
+ * 练习题目VO，不含答案和解析
+ */
+@Data
+public class PracticeQuestionVO {
+
+    /**
+     * 题目ID
+     */
+    private Long id;
+
+    /**
+     * 题目标题
+     */
+    private String title;
+
+    /**
+     * 题目内容
+     */
+    private String content;
+
+    /**
+     * 题目类型：1-单选，2-多选，3-判断，4-填空，5-简答，6-编程
+     */
+    private Integer type;
+
+    /**
+     * 选项（JSON格式）
+     */
+    private String options;
+
+    /**
+     * 难度等级：1-入门，2-初级，3-中级，4-高级，5-专家
+     */
+    private Integer difficultyLevel;
+
+    /**
+     * 知识点ID
+     */
+    private Long knowledgePointId;
+
+    /**
+     * 知识点名称
+     */
+    private String knowledgePointName;
+
+    /**
+     * 当前知识点掌握度（0~1）
+     */
+    private Double mastery;
+
+    /**
+     * 预计用时（秒）
+     */
+    private Integer estimatedTime;
+}
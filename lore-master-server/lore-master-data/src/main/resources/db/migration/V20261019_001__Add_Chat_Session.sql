@@ -0,0 +1,35 @@
+-- 多会话聊天：新增会话表，消息表改用(user_id, session_id, create_time)复合索引
+
+USE lore_consumer;
+
+CREATE TABLE IF NOT EXISTS chat_session (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    session_id VARCHAR(64) NOT NULL UNIQUE COMMENT '会话ID',
+    user_id VARCHAR(64) NOT NULL COMMENT '用户ID',
+    title VARCHAR(200) NOT NULL COMMENT '会话标题',
+    description TEXT COMMENT '会话描述',
+    session_type VARCHAR(20) NOT NULL DEFAULT 'chat' COMMENT '会话类型：chat, assessment, learning',
+    model_name VARCHAR(50) COMMENT '使用的模型名称',
+    config JSON COMMENT '会话配置',
+    status VARCHAR(20) NOT NULL DEFAULT 'active' COMMENT '会话状态：active, archived, deleted',
+    message_count INT DEFAULT 0 COMMENT '消息总数',
+    total_tokens INT DEFAULT 0 COMMENT '总Token使用量',
+    last_active_time DATETIME COMMENT '最后活跃时间（创建、切换时更新，最近活跃的未归档会话即当前会话）',
+    metadata JSON COMMENT '会话元数据',
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE COMMENT '是否删除',
+    created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    INDEX idx_user_status_active (user_id, status, last_active_time) COMMENT '查询用户当前会话、会话列表'
+) COMMENT '聊天会话表';
+
+-- 新索引覆盖原idx_user_session的全部用途
+ALTER TABLE consumer_chat_messages
+ADD INDEX idx_user_session_time (user_id, session_id, create_time),
+DROP INDEX idx_user_session;
+
+-- 旧版本每个用户只有一个固定会话，为已有聊天记录补建会话
+INSERT IGNORE INTO chat_session (session_id, user_id, title, status, message_count, last_active_time)
+SELECT session_id, user_id, '历史对话', 'active', COUNT(*), MAX(create_time)
+FROM consumer_chat_messages
+GROUP BY user_id, session_id;
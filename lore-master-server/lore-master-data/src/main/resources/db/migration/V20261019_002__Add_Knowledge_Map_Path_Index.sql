@@ -0,0 +1,6 @@
+-- 知识图谱子树查询和移动按 node_path 前缀范围扫描，补充路径索引（learning_skill_catalog 已有 idx_skill_path）
+
+USE lore_admin;
+
+ALTER TABLE admin_knowledge_map
+ADD INDEX idx_node_path (node_path);
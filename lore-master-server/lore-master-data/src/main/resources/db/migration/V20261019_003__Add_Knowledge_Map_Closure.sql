@@ -0,0 +1,26 @@
+-- 知识图谱闭包表：祖先、子孙查询和祖先判断改为单次索引查询，并按 parent_code 回填已有数据
+-- 之后可通过管理端 /api/admin/knowledge-map/rebuildClosure 重建
+
+USE lore_admin;
+
+CREATE TABLE IF NOT EXISTS `admin_knowledge_map_closure` (
+  `ancestor_code` varchar(100) NOT NULL COMMENT '祖先节点编码',
+  `descendant_code` varchar(100) NOT NULL COMMENT '子孙节点编码',
+  `depth` tinyint NOT NULL COMMENT '祖先到子孙的距离，节点到自身为0',
+  PRIMARY KEY (`ancestor_code`, `descendant_code`),
+  KEY `idx_descendant_depth` (`descendant_code`, `depth`) COMMENT '祖先查询',
+  KEY `idx_ancestor_depth` (`ancestor_code`, `depth`) COMMENT '按距离查询子孙'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='技能路线知识图谱闭包表';
+
+-- 每个节点只有一个父节点，向下扩展只有回到起点祖先时才会重复经过节点。parent_code 成环时不再扩展回祖先自身，
+-- 避免推导出重复的(祖先, 子孙)违反主键；环上的节点不挂在任何根节点下，回填后修正其父节点，
+-- 再调用 rebuildClosure 重建（重建前会检查并报告成环的节点）
+INSERT INTO `admin_knowledge_map_closure` (`ancestor_code`, `descendant_code`, `depth`)
+WITH RECURSIVE closure AS (
+  SELECT `node_code` AS ancestor_code, `node_code` AS descendant_code, 0 AS depth FROM `admin_knowledge_map`
+  UNION ALL
+  SELECT c.ancestor_code, m.`node_code`, c.depth + 1
+  FROM closure c JOIN `admin_knowledge_map` m ON m.`parent_code` = c.descendant_code
+  WHERE c.depth < 10 AND m.`node_code` <> c.ancestor_code
+)
+SELECT ancestor_code, descendant_code, depth FROM closure;
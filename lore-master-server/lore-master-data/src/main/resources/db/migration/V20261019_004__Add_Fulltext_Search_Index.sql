@@ -0,0 +1,20 @@
+-- 题目和知识点全文检索索引（ngram 分词），替代 LIKE '%关键词%' 全表扫描
+-- 停用词、ngram_token_size 和执行注意事项见 lore-master-commands/sql/mysql/admin/fulltext_search_index.sql
+
+USE lore_admin;
+
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- 题目：关键词检索标题和内容，标签单独检索
+ALTER TABLE questions
+ADD FULLTEXT INDEX ft_title_content (title, content) WITH PARSER ngram;
+
+ALTER TABLE questions
+ADD FULLTEXT INDEX ft_tags (tags) WITH PARSER ngram;
+
+-- 知识点：关键词检索标题、内容和关键词，标签单独检索
+ALTER TABLE knowledge_points
+ADD FULLTEXT INDEX ft_title_content_keywords (title, content, keywords) WITH PARSER ngram;
+
+ALTER TABLE knowledge_points
+ADD FULLTEXT INDEX ft_tags (tags) WITH PARSER ngram;
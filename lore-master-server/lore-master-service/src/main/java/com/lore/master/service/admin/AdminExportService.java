@@ -0,0 +1,34 @@
+package com.lore.master.service.admin;
+
+import com.lore.master.data.dto.admin.LearningSkillCatalogQueryDTO;
+import com.lore.master.data.dto.business.CourseQueryDTO;
+import com.lore.master.service.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 管理端数据导出服务
+ * 数据从数据库逐行读取后直接写到输出流，不在内存中保留完整结果
+ */
+public interface AdminExportService {
+
+    /**
+     * 导出技能目录，支持按层级、父级、启用状态、难度和路径前缀过滤
+     * @return 导出行数
+     */
+    long exportSkillCatalog(LearningSkillCatalogQueryDTO queryDTO, ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * 导出课程（不含正文内容），支持按课程类型、状态、难度和作者过滤
+     * @return 导出行数
+     */
+    long exportCourses(CourseQueryDTO queryDTO, ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * 导出题目，参数为空时不过滤
+     * @return 导出行数
+     */
+    long exportQuestions(Integer type, Long subjectId, Long knowledgePointId, Integer difficultyLevel, Integer status,
+                         ExportFormat format, OutputStream out) throws IOException;
+}
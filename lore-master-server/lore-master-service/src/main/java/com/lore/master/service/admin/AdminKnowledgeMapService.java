@@ -1,9 +1,11 @@
 package com.lore.master.service.admin;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.lore.master.data.dto.admin.AdminKnowledgeMapQueryRequest;
 import com.lore.master.data.dto.admin.AdminKnowledgeMapRequest;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapResponse;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapTreeResponse;
+import com.lore.master.data.vo.admin.BulkImportResult;
 
 import java.util.List;
 import java.util.Map;
@@ -63,6 +65,13 @@ public interface AdminKnowledgeMapService {
      */
     AdminKnowledgeMapTreeResponse getSkillTree(String rootCode);
 
+    /**
+     * 查询完整的技能树结构，返回预先序列化的JSON，可直接作为响应数据写出
+     * @param rootCode 根节点编码
+     * @return 技能树结构JSON
+     */
+    RawValue getSkillTreeJson(String rootCode);
+
     /**
      * 查询指定层级的节点列表
      * @param rootCode 根节点编码
@@ -92,4 +101,39 @@ public interface AdminKnowledgeMapService {
      */
     Boolean moveNode(String nodeCode, String newParentCode);
 
+    /**
+     * 查询节点的所有祖先节点，从根节点开始
+     * @param nodeCode 节点编码
+     * @return 祖先节点列表
+     */
+    List<AdminKnowledgeMapResponse> getAncestors(String nodeCode);
+
+    /**
+     * 查询节点指定距离内的子孙节点，按距离和排序序号排列
+     * @param nodeCode 节点编码
+     * @param depthLimit 最大距离，为空时查询全部子孙
+     * @return 子孙节点列表
+     */
+    List<AdminKnowledgeMapResponse> getDescendants(String nodeCode, Integer depthLimit);
+
+    /**
+     * 判断一个节点是否为另一个节点的祖先（不含自身）
+     * @param ancestorCode 祖先节点编码
+     * @param descendantCode 子孙节点编码
+     * @return 是否为祖先
+     */
+    Boolean isAncestor(String ancestorCode, String descendantCode);
+
+    /**
+     * 按 parent_code 重建闭包表，用于首次回填或修复
+     * @return 重建后的关系行数
+     */
+    Integer rebuildClosure();
+
+    /**
+     * 批量导入节点：整批在内存中校验并解析路径和闭包关系，合法的节点批量插入，编码已存在的节点跳过
+     * @return 导入结果，包含每个失败行的原因
+     */
+    BulkImportResult importNodes(List<AdminKnowledgeMapRequest> requests);
+
 }
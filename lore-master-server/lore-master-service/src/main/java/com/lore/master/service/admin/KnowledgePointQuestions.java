@@ -0,0 +1,83 @@
+package com.lore.master.service.admin;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * 一个学科下各知识点的启用题目ID，按难度分桶，随题目池一起构建，构建后不再修改
+ *
+ * 知识点按ID升序编号，下标可以直接作为数组下标使用；题目池重建后编号可能变化，以 version 区分
+ */
+public final class KnowledgePointQuestions {
+
+    public static final KnowledgePointQuestions EMPTY = new KnowledgePointQuestions(0, new long[0], new long[0][][]);
+
+    /**
+     * 难度桶数量：0 为未设置难度，1-5 对应难度等级
+     */
+    public static final int DIFFICULTY_BUCKETS = 6;
+
+    private static final long[] NO_QUESTIONS = new long[0];
+
+    private final long version;
+    private final long[] knowledgePointIds;
+    // [知识点下标][难度桶] -> 题目ID
+    private final long[][][] questionIds;
+
+    /**
+     * @param knowledgePointIds 升序排列，每个知识点至少有一道题目
+     * @param questionIds 与 knowledgePointIds 对应，每个知识点 DIFFICULTY_BUCKETS 个桶
+     */
+    public KnowledgePointQuestions(long version, long[] knowledgePointIds, long[][][] questionIds) {
+        this.version = version;
+        this.knowledgePointIds = knowledgePointIds;
+        this.questionIds = questionIds;
+    }
+
+    /**
+     * 所属题目池的构建序号
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 知识点数量
+     */
+    public int size() {
+        return knowledgePointIds.length;
+    }
+
+    public long knowledgePointId(int index) {
+        return knowledgePointIds[index];
+    }
+
+    /**
+     * 知识点的下标，不存在时返回负数
+     */
+    public int indexOf(long knowledgePointId) {
+        return Arrays.binarySearch(knowledgePointIds, knowledgePointId);
+    }
+
+    /**
+     * 在知识点下随机取一道难度最接近 difficulty 的题目，距离相同时先取较低难度，都没有时取未设置难度的题目
+     */
+    public long pick(int index, int difficulty, RandomGenerator random) {
+        long[][] buckets = questionIds[index];
+        for (int distance = 0; distance < DIFFICULTY_BUCKETS; distance++) {
+            long[] lower = bucket(buckets, difficulty - distance);
+            if (lower.length > 0) {
+                return lower[random.nextInt(lower.length)];
+            }
+            long[] upper = bucket(buckets, difficulty + distance);
+            if (upper.length > 0) {
+                return upper[random.nextInt(upper.length)];
+            }
+        }
+        return buckets[0][random.nextInt(buckets[0].length)];
+    }
+
+    private static long[] bucket(long[][] buckets, int level) {
+        return level >= 1 && level < DIFFICULTY_BUCKETS ? buckets[level] : NO_QUESTIONS;
+    }
+}
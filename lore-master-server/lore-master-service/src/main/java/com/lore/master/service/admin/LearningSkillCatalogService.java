@@ -2,6 +2,7 @@ package com.lore.master.service.admin;
 
 import com.lore.master.data.dto.admin.LearningSkillCatalogDTO;
 import com.lore.master.data.dto.admin.LearningSkillCatalogQueryDTO;
+import com.lore.master.data.vo.admin.BulkImportResult;
 import com.lore.master.data.vo.admin.LearningSkillCatalogVO;
 import org.springframework.data.domain.Page;
 
@@ -92,6 +93,15 @@ public interface LearningSkillCatalogService {
      */
     void adjustSortOrder(Long id, Integer newSortOrder);
 
+    /**
+     * 按给定顺序重排同一父级下的技能目录，排序序号从1开始依次分配，
+     * 未传入的同级技能按原有顺序排在后面
+     *
+     * @param parentCode 父级编码，为空时重排一级分类
+     * @param orderedIds 排序后的技能目录ID
+     */
+    void reorderSkillCatalog(String parentCode, List<Long> orderedIds);
+
     /**
      * 移动技能目录到新的父级
      */
@@ -128,9 +138,11 @@ public interface LearningSkillCatalogService {
     Integer getNextSortOrder(String parentCode, Integer level);
 
     /**
-     * 导入技能目录数据
+     * 批量导入技能目录数据：整批在内存中校验并解析路径，合法的行批量插入，编码已存在的行跳过
+     *
+     * @return 导入结果，包含每个失败行的原因
      */
-    void importSkillCatalogData(List<LearningSkillCatalogDTO> dataList);
+    BulkImportResult importSkillCatalogData(List<LearningSkillCatalogDTO> dataList);
 
     /**
      * 导出技能目录数据
@@ -0,0 +1,35 @@
+package com.lore.master.service.admin;
+
+import com.lore.master.data.entity.admin.Question;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 题目抽样服务
+ * 从内存中的启用题目ID池随机抽取，再按ID一次查出题目
+ */
+public interface QuestionSamplingService {
+
+    /**
+     * 随机抽取不重复的启用题目，条件为null时不限，满足条件的题目不足时全部返回
+     */
+    List<Question> randomQuestions(Long subjectId, Integer difficultyLevel, Integer type, int count);
+
+    /**
+     * 生成练习卷：按难度分层抽题，结果按难度升序排列
+     *
+     * @param difficultyWeights 难度等级 -> 权重，为空时按各难度的题目数量分配；某难度题目不足时由其他难度补足
+     */
+    List<Question> generatePracticeTest(Long subjectId, Integer type, int count, Map<Integer, Integer> difficultyWeights);
+
+    /**
+     * 学科下各知识点的启用题目，随题目池一起重建；学科没有关联知识点的题目时返回 KnowledgePointQuestions.EMPTY
+     */
+    KnowledgePointQuestions knowledgePointQuestions(Long subjectId);
+
+    /**
+     * 题目新增、修改、删除或状态变化后调用，当前事务提交后重建题目池
+     */
+    void onQuestionsChanged();
+}
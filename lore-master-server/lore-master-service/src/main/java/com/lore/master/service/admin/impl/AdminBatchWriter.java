@@ -0,0 +1,95 @@
+package com.lore.master.service.admin.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管理端库的JDBC批量写入
+ *
+ * 管理端实体使用自增主键，Hibernate无法对这类INSERT做批处理，批量导入直接走JDBC批处理，
+ * 配合连接参数 rewriteBatchedStatements=true，驱动会把一批INSERT合并为多值INSERT一次发送。
+ * 在 adminTransactionManager 事务内调用时与JPA使用同一个连接，随事务一起提交或回滚。
+ *
+ * 排序调整同样走JDBC：行数不固定的 CASE 语句无法写成 @Query，在这里拼接后一次执行。
+ *
+ * 不注册为JdbcTemplate Bean，避免替换掉指向消费者库的默认JdbcTemplate
+ */
+@Slf4j
+@Component
+public class AdminBatchWriter {
+
+    /**
+     * 每批提交的行数
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AdminBatchWriter(@Qualifier("adminDataSource") DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * 按 BATCH_SIZE 分批执行，返回提交的行数
+     */
+    public <T> int batchUpdate(String sql, Collection<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, setter);
+        log.debug("批量写入{}行，耗时{}ms", rows.size(), System.currentTimeMillis() - start);
+        return rows.size();
+    }
+
+    /**
+     * 一条 CASE 语句批量改写排序序号，超过 BATCH_SIZE 时分批执行，返回匹配的行数
+     *
+     * @param table 表名，仅限代码内常量
+     * @param keyColumn 定位行的列，仅限代码内常量
+     * @param sortOrders 键值到新排序序号的映射
+     * @param updatedBy 更新人，为空时不修改
+     */
+    public <K> int updateSortOrders(String table, String keyColumn, Map<K, Integer> sortOrders, String updatedBy) {
+        if (sortOrders.isEmpty()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        List<Map.Entry<K, Integer>> entries = new ArrayList<>(sortOrders.entrySet());
+        int rows = 0;
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            List<Map.Entry<K, Integer>> chunk = entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()));
+            StringBuilder sql = new StringBuilder("UPDATE ").append(table)
+                    .append(" SET sort_order = CASE ").append(keyColumn);
+            List<Object> args = new ArrayList<>(chunk.size() * 3 + 1);
+            for (Map.Entry<K, Integer> entry : chunk) {
+                sql.append(" WHEN ? THEN ?");
+                args.add(entry.getKey());
+                args.add(entry.getValue());
+            }
+            sql.append(" END, updated_time = NOW()");
+            if (updatedBy != null) {
+                sql.append(", updated_by = ?");
+                args.add(updatedBy);
+            }
+            sql.append(" WHERE ").append(keyColumn).append(" IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args.add(chunk.get(i).getKey());
+            }
+            sql.append(')');
+            rows += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+        log.debug("批量更新排序{}行，耗时{}ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+}
@@ -0,0 +1,174 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.common.util.TreePathUtil;
+import com.lore.master.data.dto.admin.LearningSkillCatalogQueryDTO;
+import com.lore.master.data.dto.business.CourseQueryDTO;
+import com.lore.master.data.entity.admin.LearningSkillCatalog;
+import com.lore.master.data.entity.admin.Question;
+import com.lore.master.data.entity.business.BusinessCourse;
+import com.lore.master.data.repository.admin.LearningSkillCatalogRepository;
+import com.lore.master.data.repository.admin.QuestionRepository;
+import com.lore.master.data.repository.business.BusinessCourseRepository;
+import com.lore.master.service.admin.AdminExportService;
+import com.lore.master.service.export.ExportColumn;
+import com.lore.master.service.export.ExportFormat;
+import com.lore.master.service.export.StreamingExportWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 管理端数据导出服务实现
+ *
+ * 使用只读事务内的JPA Stream逐行读取，每行写出后立即从持久化上下文中移除，
+ * 内存中只保留当前行和输出缓冲区
+ */
+@Slf4j
+@Service
+public class AdminExportServiceImpl implements AdminExportService {
+
+    @Autowired
+    private LearningSkillCatalogRepository skillCatalogRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private BusinessCourseRepository courseRepository;
+
+    @PersistenceContext(unitName = "admin")
+    private EntityManager adminEntityManager;
+
+    @PersistenceContext(unitName = "business")
+    private EntityManager businessEntityManager;
+
+    private static final List<ExportColumn<LearningSkillCatalog>> SKILL_CATALOG_COLUMNS = List.of(
+            ExportColumn.of("id", "ID", LearningSkillCatalog::getId),
+            ExportColumn.of("skillCode", "技能编码", LearningSkillCatalog::getSkillCode),
+            ExportColumn.of("skillName", "技能名称", LearningSkillCatalog::getSkillName),
+            ExportColumn.of("skillPath", "技能路径", LearningSkillCatalog::getSkillPath),
+            ExportColumn.of("level", "层级", LearningSkillCatalog::getLevel),
+            ExportColumn.of("parentCode", "父级编码", LearningSkillCatalog::getParentCode),
+            ExportColumn.of("icon", "图标", LearningSkillCatalog::getIcon),
+            ExportColumn.of("description", "描述", LearningSkillCatalog::getDescription),
+            ExportColumn.of("sortOrder", "排序", LearningSkillCatalog::getSortOrder),
+            ExportColumn.of("isActive", "是否启用", LearningSkillCatalog::getIsActive),
+            ExportColumn.of("difficultyLevel", "难度等级", LearningSkillCatalog::getDifficultyLevel),
+            ExportColumn.of("estimatedHours", "预估学时", LearningSkillCatalog::getEstimatedHours),
+            ExportColumn.of("tags", "标签", LearningSkillCatalog::getTags),
+            ExportColumn.of("createdTime", "创建时间", LearningSkillCatalog::getCreatedTime),
+            ExportColumn.of("updatedTime", "更新时间", LearningSkillCatalog::getUpdatedTime),
+            ExportColumn.of("createdBy", "创建人", LearningSkillCatalog::getCreatedBy),
+            ExportColumn.of("updatedBy", "更新人", LearningSkillCatalog::getUpdatedBy));
+
+    private static final List<ExportColumn<BusinessCourse>> COURSE_COLUMNS = List.of(
+            ExportColumn.of("id", "ID", BusinessCourse::getId),
+            ExportColumn.of("courseCode", "课程编码", BusinessCourse::getCourseCode),
+            ExportColumn.of("title", "标题", BusinessCourse::getTitle),
+            ExportColumn.of("description", "描述", BusinessCourse::getDescription),
+            ExportColumn.of("author", "作者", BusinessCourse::getAuthor),
+            ExportColumn.of("courseType", "课程类型", BusinessCourse::getCourseType),
+            ExportColumn.of("contentType", "内容类型", BusinessCourse::getContentType),
+            ExportColumn.of("difficultyLevel", "难度等级", BusinessCourse::getDifficultyLevel),
+            ExportColumn.of("parentCourseId", "父课程ID", BusinessCourse::getParentCourseId),
+            ExportColumn.of("sortOrder", "排序", BusinessCourse::getSortOrder),
+            ExportColumn.of("status", "状态", BusinessCourse::getStatus),
+            ExportColumn.of("tags", "标签", BusinessCourse::getTags),
+            ExportColumn.of("durationMinutes", "时长（分钟）", BusinessCourse::getDurationMinutes),
+            ExportColumn.of("viewCount", "浏览数", BusinessCourse::getViewCount),
+            ExportColumn.of("likeCount", "点赞数", BusinessCourse::getLikeCount),
+            ExportColumn.of("collectCount", "收藏数", BusinessCourse::getCollectCount),
+            ExportColumn.of("contentUrl", "内容地址", BusinessCourse::getContentUrl),
+            ExportColumn.of("coverImageUrl", "封面地址", BusinessCourse::getCoverImageUrl),
+            ExportColumn.of("publishTime", "发布时间", BusinessCourse::getPublishTime),
+            ExportColumn.of("createdTime", "创建时间", BusinessCourse::getCreatedTime),
+            ExportColumn.of("updatedTime", "更新时间", BusinessCourse::getUpdatedTime));
+
+    private static final List<ExportColumn<Question>> QUESTION_COLUMNS = List.of(
+            ExportColumn.of("id", "ID", Question::getId),
+            ExportColumn.of("title", "标题", Question::getTitle),
+            ExportColumn.of("content", "内容", Question::getContent),
+            ExportColumn.of("type", "题型", Question::getType),
+            ExportColumn.of("subjectId", "学科ID", Question::getSubjectId),
+            ExportColumn.of("subjectName", "学科", Question::getSubjectName),
+            ExportColumn.of("knowledgePointId", "知识点ID", Question::getKnowledgePointId),
+            ExportColumn.of("knowledgePointName", "知识点", Question::getKnowledgePointName),
+            ExportColumn.of("difficultyLevel", "难度等级", Question::getDifficultyLevel),
+            ExportColumn.of("options", "选项", Question::getOptions),
+            ExportColumn.of("correctAnswer", "正确答案", Question::getCorrectAnswer),
+            ExportColumn.of("explanation", "解析", Question::getExplanation),
+            ExportColumn.of("tags", "标签", Question::getTags),
+            ExportColumn.of("score", "分值", Question::getScore),
+            ExportColumn.of("estimatedTime", "预计用时", Question::getEstimatedTime),
+            ExportColumn.of("usageCount", "使用次数", Question::getUsageCount),
+            ExportColumn.of("accuracyRate", "正确率", Question::getAccuracyRate),
+            ExportColumn.of("status", "状态", Question::getStatus),
+            ExportColumn.of("creatorName", "创建人", Question::getCreatorName),
+            ExportColumn.of("createTime", "创建时间", Question::getCreateTime),
+            ExportColumn.of("modifyTime", "修改时间", Question::getModifyTime));
+
+    @Override
+    @Transactional(value = "adminTransactionManager", readOnly = true)
+    public long exportSkillCatalog(LearningSkillCatalogQueryDTO queryDTO, ExportFormat format, OutputStream out) throws IOException {
+        String pathPattern = StringUtils.hasText(queryDTO.getSkillPathPrefix())
+                ? TreePathUtil.prefixPattern(queryDTO.getSkillPathPrefix()) : null;
+        try (Stream<LearningSkillCatalog> rows = skillCatalogRepository.streamForExport(
+                queryDTO.getLevel(),
+                StringUtils.hasText(queryDTO.getParentCode()) ? queryDTO.getParentCode() : null,
+                // 与原导出接口一致，默认只导出启用的技能
+                queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true,
+                StringUtils.hasText(queryDTO.getDifficultyLevel()) ? queryDTO.getDifficultyLevel() : null,
+                pathPattern)) {
+            return write("技能目录", rows, adminEntityManager, SKILL_CATALOG_COLUMNS, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(value = "businessTransactionManager", readOnly = true)
+    public long exportCourses(CourseQueryDTO queryDTO, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BusinessCourse> rows = courseRepository.streamForExport(
+                StringUtils.hasText(queryDTO.getCourseType()) ? queryDTO.getCourseType() : null,
+                StringUtils.hasText(queryDTO.getStatus()) ? queryDTO.getStatus() : null,
+                StringUtils.hasText(queryDTO.getDifficultyLevel()) ? queryDTO.getDifficultyLevel() : null,
+                StringUtils.hasText(queryDTO.getAuthor()) ? queryDTO.getAuthor() : null)) {
+            return write("课程", rows, businessEntityManager, COURSE_COLUMNS, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(value = "adminTransactionManager", readOnly = true)
+    public long exportQuestions(Integer type, Long subjectId, Long knowledgePointId, Integer difficultyLevel, Integer status,
+                                ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Question> rows = questionRepository.streamForExport(type, subjectId, knowledgePointId, difficultyLevel, status)) {
+            return write("题目", rows, adminEntityManager, QUESTION_COLUMNS, format, out);
+        }
+    }
+
+    private <T> long write(String name, Stream<T> rows, EntityManager entityManager,
+                           List<ExportColumn<T>> columns, ExportFormat format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        StreamingExportWriter<T> writer = new StreamingExportWriter<>(out, format, columns);
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            writer.write(row);
+            // 只读查询的实体仍会留在持久化上下文中，写出后移除，避免随行数增长
+            entityManager.detach(row);
+            count++;
+        }
+        writer.finish();
+        log.info("导出{}完成: 格式={}, 行数={}, 耗时={}ms", name, format, count, System.currentTimeMillis() - start);
+        return count;
+    }
+}
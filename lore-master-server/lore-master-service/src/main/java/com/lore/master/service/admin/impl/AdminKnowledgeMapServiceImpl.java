@@ -1,15 +1,21 @@
 package com.lore.master.service.admin.impl;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.lore.master.common.exception.BusinessException;
 import com.lore.master.common.result.ResultCode;
+import com.lore.master.common.util.TreePathUtil;
 import com.lore.master.data.dto.admin.AdminKnowledgeMapQueryRequest;
 import com.lore.master.data.dto.admin.AdminKnowledgeMapRequest;
 import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.entity.admin.AdminKnowledgeMapClosure;
+import com.lore.master.data.repository.admin.AdminKnowledgeMapClosureRepository;
 import com.lore.master.data.repository.admin.AdminKnowledgeMapRepository;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapResponse;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapTreeResponse;
+import com.lore.master.data.vo.admin.BulkImportResult;
 import com.lore.master.service.admin.AdminKnowledgeMapService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -19,6 +25,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,8 +40,35 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
     @Autowired
     private AdminKnowledgeMapRepository adminKnowledgeMapRepository;
 
+    @Autowired
+    private AdminKnowledgeMapClosureRepository closureRepository;
+
+    @Autowired
+    private SkillTreeCache skillTreeCache;
+
+    @Autowired
+    private AdminBatchWriter adminBatchWriter;
+
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 技能树最大层级深度
+     */
+    private static final int MAX_LEVEL_DEPTH = 10;
+
+    /**
+     * node_path 列长度
+     */
+    private static final int MAX_NODE_PATH_LENGTH = 500;
+
+    private static final String INSERT_NODE_SQL = "INSERT INTO admin_knowledge_map (node_code, node_name, node_type, parent_code, "
+            + "root_code, node_path, level_depth, level_type, sort_order, skill_catalog_code, description, difficulty_level, "
+            + "estimated_hours, status, created_by, created_time, updated_by, updated_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CLOSURE_SQL =
+            "INSERT INTO admin_knowledge_map_closure (ancestor_code, descendant_code, depth) VALUES (?, ?, ?)";
+
     /**
      * 实体转换为响应DTO
      */
@@ -102,6 +136,8 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
 
         // 保存实体
         AdminKnowledgeMap savedEntity = adminKnowledgeMapRepository.save(entity);
+        closureRepository.insertNode(savedEntity.getNodeCode(), savedEntity.getParentCode());
+        skillTreeCache.onChanged(savedEntity.getRootCode());
 
         log.info("添加知识图谱节点成功，节点ID：{}", savedEntity.getId());
         return savedEntity.getId();
@@ -122,8 +158,10 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
             throw new BusinessException(ResultCode.PARAM_ERROR, "存在子节点，无法删除");
         }
 
-        // 软删除节点
+        // 软删除节点，闭包关系保留（节点编码不会复用，查询时按状态过滤，重新启用后关系仍然有效）
+        Optional<AdminKnowledgeMap> optionalEntity = adminKnowledgeMapRepository.findByNodeCodeAndStatus(nodeCode, "ACTIVE");
         int rows = adminKnowledgeMapRepository.softDeleteByNodeCode(nodeCode, "system");
+        optionalEntity.ifPresent(entity -> skillTreeCache.onChanged(entity.getRootCode()));
 
         log.info("删除知识图谱节点成功，节点编码：{}，影响行数：{}", nodeCode, rows);
         return rows > 0;
@@ -181,6 +219,7 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
 
         // 保存更新
         adminKnowledgeMapRepository.save(entity);
+        skillTreeCache.onChanged(entity.getRootCode());
 
         log.info("更新知识图谱节点成功，节点编码：{}", request.getNodeCode());
         return true;
@@ -273,37 +312,26 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
     public AdminKnowledgeMapTreeResponse getSkillTree(String rootCode) {
         log.info("查询技能树结构，根节点编码：{}", rootCode);
 
+        SkillTreeCache.Snapshot snapshot = getSkillTreeSnapshot(rootCode);
+
+        log.info("查询技能树结构成功，根节点编码：{}，总节点数：{}", rootCode, snapshot.nodeCount());
+        return snapshot.tree();
+    }
+
+    @Override
+    public RawValue getSkillTreeJson(String rootCode) {
+        return getSkillTreeSnapshot(rootCode).json();
+    }
+
+    private SkillTreeCache.Snapshot getSkillTreeSnapshot(String rootCode) {
         if (!StringUtils.hasText(rootCode)) {
             throw new BusinessException(ResultCode.PARAM_ERROR, "根节点编码不能为空");
         }
-
-        // 查询所有节点
-        List<AdminKnowledgeMap> allEntities = adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc(rootCode, "ACTIVE");
-
-        if (allEntities.isEmpty()) {
+        SkillTreeCache.Snapshot snapshot = skillTreeCache.get(rootCode);
+        if (snapshot == null) {
             throw new BusinessException(ResultCode.PARAM_ERROR, "技能树不存在：" + rootCode);
         }
-
-        List<AdminKnowledgeMapResponse> allNodes = convertToResponseList(allEntities);
-
-        // 构建树形结构
-        AdminKnowledgeMapTreeResponse treeResponse = new AdminKnowledgeMapTreeResponse();
-
-        // 找到根节点
-        AdminKnowledgeMapResponse rootNode = allNodes.stream()
-            .filter(node -> "ROOT".equals(node.getNodeType()))
-            .findFirst()
-            .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "根节点不存在"));
-
-        treeResponse.setRootCode(rootNode.getNodeCode());
-        treeResponse.setRootName(rootNode.getNodeName());
-
-        // 构建子节点树
-        List<AdminKnowledgeMapTreeResponse.TreeNode> children = buildTreeNodes(allNodes, rootCode);
-        treeResponse.setChildren(children);
-
-        log.info("查询技能树结构成功，根节点编码：{}，总节点数：{}", rootCode, allNodes.size());
-        return treeResponse;
+        return snapshot;
     }
 
     @Override
@@ -344,7 +372,7 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
             throw new BusinessException(ResultCode.PARAM_ERROR, "排序列表不能为空");
         }
 
-        int totalUpdated = 0;
+        Map<String, Integer> sortOrders = new LinkedHashMap<>();
         for (Map<String, Object> item : sortList) {
             String nodeCode = (String) item.get("nodeCode");
             Integer sortOrder = (Integer) item.get("sortOrder");
@@ -352,11 +380,15 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
             if (!StringUtils.hasText(nodeCode) || sortOrder == null) {
                 throw new BusinessException(ResultCode.PARAM_ERROR, "节点编码和排序序号不能为空");
             }
-
-            int updated = adminKnowledgeMapRepository.updateSortOrder(nodeCode, sortOrder, "system");
-            totalUpdated += updated;
+            sortOrders.put(nodeCode, sortOrder);
         }
 
+        // 一条 CASE 语句更新所有节点
+        int totalUpdated = adminBatchWriter.updateSortOrders("admin_knowledge_map", "node_code", sortOrders, "system");
+
+        // 排序可能涉及多棵技能树，全部刷新
+        skillTreeCache.onChanged(null);
+
         log.info("批量更新节点排序成功，影响行数：{}", totalUpdated);
         return true;
     }
@@ -377,73 +409,231 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
         }
 
         AdminKnowledgeMap entity = optionalEntity.get();
+        String oldPath = entity.getNodePath();
+        String oldRootCode = entity.getRootCode();
+
+        // 计算新的节点路径和所属技能树，节点自身的路径段保持不变
+        String segment = TreePathUtil.lastSegment(oldPath);
+        String parentCode = StringUtils.hasText(newParentCode) ? newParentCode : null;
+        String newPath;
+        String newRootCode;
+        if (parentCode != null) {
+            AdminKnowledgeMap parent = adminKnowledgeMapRepository.findByNodeCodeAndStatus(parentCode, "ACTIVE")
+                .orElseThrow(() -> new BusinessException(ResultCode.PARAM_ERROR, "父节点不存在：" + parentCode));
+            // 新父节点在子树内会形成环
+            if (parentCode.equals(nodeCode) || isAncestor(nodeCode, parentCode)) {
+                throw new BusinessException(ResultCode.PARAM_ERROR, "不能将节点移动到自身或其子节点下");
+            }
+            newPath = parent.getNodePath() + TreePathUtil.SEPARATOR + segment;
+            newRootCode = parent.getRootCode();
+        } else {
+            newPath = segment;
+            newRootCode = nodeCode;
+        }
+
+        // 校验移动后的层级深度
+        String descendantPattern = TreePathUtil.descendantPattern(oldPath);
+        int depthDelta = TreePathUtil.depth(newPath) - entity.getLevelDepth();
+        Integer maxDepth = adminKnowledgeMapRepository.findMaxLevelDepthOfSubtree(oldPath, descendantPattern);
+        if (maxDepth != null && maxDepth + depthDelta > MAX_LEVEL_DEPTH) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "移动后层级深度超过10层");
+        }
+
+        // 排在新父节点的最后，随子树路径更新一起刷入
+        Integer maxSort = parentCode != null
+            ? adminKnowledgeMapRepository.findMaxSortOrderByParentCode(parentCode)
+            : adminKnowledgeMapRepository.findMaxSortOrderForRootNodes();
+        entity.setParentCode(parentCode);
+        entity.setSortOrder((maxSort != null ? maxSort : 0) + 1);
+        entity.setUpdatedBy("system");
 
-        // 构建新的节点路径
-        String newNodePath = buildNodePath(newParentCode, nodeCode);
+        // 一条语句改写整棵子树的路径、层级和根节点编码
+        int rows = adminKnowledgeMapRepository.moveSubtree(oldPath, descendantPattern, newPath, depthDelta, newRootCode, "system");
 
-        // 计算新的层级深度
-        Integer newLevelDepth = StringUtils.hasText(newParentCode) ?
-            newNodePath.split("/").length : 1;
+        // 闭包表：断开子树与原祖先的关系，再接到新父节点的祖先链上
+        closureRepository.detachSubtree(nodeCode);
+        if (parentCode != null) {
+            closureRepository.attachSubtree(nodeCode, parentCode);
+        }
 
-        // 更新节点信息
-        entity.setParentCode(newParentCode);
-        entity.setNodePath(newNodePath);
-        entity.setLevelDepth(newLevelDepth);
-        entity.setUpdatedBy("system");
+        skillTreeCache.onChanged(oldRootCode);
+        if (!newRootCode.equals(oldRootCode)) {
+            skillTreeCache.onChanged(newRootCode);
+        }
 
-        adminKnowledgeMapRepository.save(entity);
+        log.info("移动节点成功，节点编码：{}，新路径：{}，移动节点数：{}", nodeCode, newPath, rows);
+        return true;
+    }
 
-        // 递归更新所有子节点的路径和层级
-        updateChildrenPaths(nodeCode, newNodePath, newLevelDepth);
+    @Override
+    public List<AdminKnowledgeMapResponse> getAncestors(String nodeCode) {
+        if (!StringUtils.hasText(nodeCode)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "节点编码不能为空");
+        }
+        return convertToResponseList(closureRepository.findAncestors(nodeCode, "ACTIVE"));
+    }
 
-        log.info("移动节点成功，节点编码：{}", nodeCode);
-        return true;
+    @Override
+    public List<AdminKnowledgeMapResponse> getDescendants(String nodeCode, Integer depthLimit) {
+        if (!StringUtils.hasText(nodeCode)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "节点编码不能为空");
+        }
+        if (depthLimit != null && (depthLimit < 1 || depthLimit >= MAX_LEVEL_DEPTH)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "距离必须在1-" + (MAX_LEVEL_DEPTH - 1) + "之间");
+        }
+        int maxDepth = depthLimit != null ? depthLimit : MAX_LEVEL_DEPTH - 1;
+        return convertToResponseList(closureRepository.findDescendants(nodeCode, maxDepth, "ACTIVE"));
     }
 
-    // 私有方法：构建树形节点
-    private List<AdminKnowledgeMapTreeResponse.TreeNode> buildTreeNodes(
-            List<AdminKnowledgeMapResponse> allNodes, String parentCode) {
-
-        return allNodes.stream()
-            .filter(node -> Objects.equals(node.getParentCode(), parentCode))
-            .sorted(Comparator.comparing(AdminKnowledgeMapResponse::getSortOrder))
-            .map(node -> {
-                AdminKnowledgeMapTreeResponse.TreeNode treeNode = new AdminKnowledgeMapTreeResponse.TreeNode();
-                treeNode.setNodeCode(node.getNodeCode());
-                treeNode.setNodeName(node.getNodeName());
-                treeNode.setNodeNameStr(node.getNodeNameStr()); // 设置nodeNameStr字段
-                treeNode.setNodeType(node.getNodeType());
-                treeNode.setLevelDepth(node.getLevelDepth());
-                treeNode.setLevelType(node.getLevelType());
-                treeNode.setSortOrder(node.getSortOrder());
-                treeNode.setDifficultyLevel(node.getDifficultyLevel());
-                treeNode.setEstimatedHours(node.getEstimatedHours());
-                treeNode.setDescription(node.getDescription());
-
-                // 递归构建子节点
-                List<AdminKnowledgeMapTreeResponse.TreeNode> children = buildTreeNodes(allNodes, node.getNodeCode());
-                treeNode.setChildren(children);
-
-                return treeNode;
-            })
-            .collect(Collectors.toList());
+    @Override
+    public Boolean isAncestor(String ancestorCode, String descendantCode) {
+        if (!StringUtils.hasText(ancestorCode) || !StringUtils.hasText(descendantCode)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "节点编码不能为空");
+        }
+        return closureRepository.existsByAncestorCodeAndDescendantCodeAndDepthGreaterThan(ancestorCode, descendantCode, 0);
     }
 
-    // 私有方法：递归更新子节点路径
-    private void updateChildrenPaths(String parentCode, String parentPath, Integer parentLevel) {
-        // 查询所有子节点
-        List<AdminKnowledgeMap> childEntities = adminKnowledgeMapRepository.findByParentCodeAndStatusOrderBySortOrder(parentCode, "ACTIVE");
+    @Override
+    @Transactional("adminTransactionManager")
+    public Integer rebuildClosure() {
+        log.info("开始重建知识图谱闭包表");
+        long start = System.currentTimeMillis();
+
+        // 父子关系成环时逐层扩展会再次推导出已有的(祖先, 子孙)，违反主键，先检查并报告成环的节点
+        Map<String, String> parentByCode = new HashMap<>();
+        for (Object[] link : adminKnowledgeMapRepository.findAllParentLinks()) {
+            parentByCode.put((String) link[0], (String) link[1]);
+        }
+        List<String> cyclicCodes = findCycles(parentByCode);
+        if (!cyclicCodes.isEmpty()) {
+            log.error("知识图谱父子关系成环，无法重建闭包表，成环节点：{}", cyclicCodes);
+            throw new BusinessException(ResultCode.ERROR, "父子关系成环，请先修正以下节点的父节点：" + cyclicCodes);
+        }
+
+        closureRepository.deleteAllRows();
+        int total = closureRepository.insertSelfRows();
+        // 每轮沿parent_code向下扩展一层，最多扩展到最大层级
+        int inserted = 0;
+        for (int depth = 1; depth <= MAX_LEVEL_DEPTH; depth++) {
+            inserted = closureRepository.insertRowsAtDepth(depth);
+            total += inserted;
+            if (inserted == 0) {
+                break;
+            }
+        }
+        if (inserted > 0) {
+            log.warn("知识图谱存在超过{}层的节点，闭包表只展开到距离{}", MAX_LEVEL_DEPTH, MAX_LEVEL_DEPTH);
+        }
+
+        log.info("重建知识图谱闭包表完成，关系行数：{}，耗时：{}ms", total, System.currentTimeMillis() - start);
+        return total;
+    }
 
-        for (AdminKnowledgeMap childEntity : childEntities) {
-            String newChildPath = parentPath + "/" + childEntity.getNodeCode();
-            Integer newChildLevel = parentLevel + 1;
+    /**
+     * 沿父节点编码查找成环的节点，每个节点最多访问一次
+     *
+     * @param parentByCode 节点编码 -> 父节点编码
+     * @return 位于环上的节点编码，按发现顺序排列，没有环时为空
+     */
+    static List<String> findCycles(Map<String, String> parentByCode) {
+        // 已确定不在新环上的节点
+        Set<String> done = new HashSet<>();
+        List<String> cyclicCodes = new ArrayList<>();
+        for (String code : parentByCode.keySet()) {
+            // 本次向上遍历经过的节点及其位置
+            Map<String, Integer> walk = new LinkedHashMap<>();
+            String current = code;
+            while (current != null && !done.contains(current) && !walk.containsKey(current)) {
+                walk.put(current, walk.size());
+                current = parentByCode.get(current);
+            }
+            if (current != null && walk.containsKey(current)) {
+                int cycleStart = walk.get(current);
+                walk.forEach((node, index) -> {
+                    if (index >= cycleStart) {
+                        cyclicCodes.add(node);
+                    }
+                });
+            }
+            done.addAll(walk.keySet());
+        }
+        return cyclicCodes;
+    }
 
-            // 更新子节点路径和层级
-            adminKnowledgeMapRepository.updateNodePathAndLevel(childEntity.getNodeCode(), newChildPath, newChildLevel, "system");
+    @Override
+    @Transactional("adminTransactionManager")
+    public BulkImportResult importNodes(List<AdminKnowledgeMapRequest> requests) {
+        log.info("批量导入知识图谱节点，节点数：{}", requests.size());
+        long start = System.currentTimeMillis();
+        NodeImport nodeImport = new NodeImport(requests, LocalDateTime.now());
+        Map<String, AdminKnowledgeMap> imported = nodeImport.resolve();
+
+        adminBatchWriter.batchUpdate(INSERT_NODE_SQL, imported.values(), (ps, entity) -> {
+            ps.setString(1, entity.getNodeCode());
+            ps.setString(2, entity.getNodeName());
+            ps.setString(3, entity.getNodeType());
+            ps.setString(4, entity.getParentCode());
+            ps.setString(5, entity.getRootCode());
+            ps.setString(6, entity.getNodePath());
+            ps.setInt(7, entity.getLevelDepth());
+            ps.setString(8, entity.getLevelType());
+            ps.setInt(9, entity.getSortOrder());
+            ps.setString(10, entity.getSkillCatalogCode());
+            ps.setString(11, entity.getDescription());
+            ps.setString(12, entity.getDifficultyLevel());
+            ps.setInt(13, entity.getEstimatedHours());
+            ps.setString(14, entity.getStatus());
+            ps.setString(15, entity.getCreatedBy());
+            ps.setObject(16, entity.getCreatedTime());
+            ps.setString(17, entity.getUpdatedBy());
+            ps.setObject(18, entity.getUpdatedTime());
+        });
+        List<AdminKnowledgeMapClosure> closureRows = buildImportedClosureRows(imported.values(), nodeImport.existingCodes());
+        adminBatchWriter.batchUpdate(INSERT_CLOSURE_SQL, closureRows, (ps, closure) -> {
+            ps.setString(1, closure.getAncestorCode());
+            ps.setString(2, closure.getDescendantCode());
+            ps.setInt(3, closure.getDepth());
+        });
+        imported.values().stream()
+                .map(AdminKnowledgeMap::getRootCode)
+                .distinct()
+                .forEach(skillTreeCache::onChanged);
+
+        BulkImportResult result = nodeImport.finish(imported.size(), start);
+        log.info("批量导入知识图谱节点完成，总数：{}，导入：{}，跳过：{}，失败：{}，闭包关系：{}，耗时：{}ms",
+                result.getTotal(), result.getImported(), result.getSkipped(), result.getFailed(),
+                closureRows.size(), result.getCostMillis());
+        return result;
+    }
 
-            // 递归更新子节点的子节点
-            updateChildrenPaths(childEntity.getNodeCode(), newChildPath, newChildLevel);
+    /**
+     * 在内存中生成新节点的闭包关系：自身关系加上父节点的每个祖先关系距离+1。
+     * 节点按层级从上到下排列，父节点是批内新节点时其关系已先生成，是已有节点时从闭包表一次预取
+     */
+    private List<AdminKnowledgeMapClosure> buildImportedClosureRows(Collection<AdminKnowledgeMap> nodes, Set<String> existingCodes) {
+        Set<String> existingParents = nodes.stream()
+                .map(AdminKnowledgeMap::getParentCode)
+                .filter(parentCode -> parentCode != null && existingCodes.contains(parentCode))
+                .collect(Collectors.toSet());
+        Map<String, List<AdminKnowledgeMapClosure>> ancestorRows = new HashMap<>();
+        for (List<String> chunk : ListUtils.partition(new ArrayList<>(existingParents), AdminBatchWriter.BATCH_SIZE)) {
+            closureRepository.findByDescendantCodeIn(chunk).forEach(closure ->
+                    ancestorRows.computeIfAbsent(closure.getDescendantCode(), key -> new ArrayList<>()).add(closure));
+        }
+
+        List<AdminKnowledgeMapClosure> rows = new ArrayList<>();
+        for (AdminKnowledgeMap node : nodes) {
+            List<AdminKnowledgeMapClosure> nodeRows = new ArrayList<>();
+            nodeRows.add(new AdminKnowledgeMapClosure(node.getNodeCode(), node.getNodeCode(), 0));
+            if (node.getParentCode() != null) {
+                for (AdminKnowledgeMapClosure parentRow : ancestorRows.getOrDefault(node.getParentCode(), List.of())) {
+                    nodeRows.add(new AdminKnowledgeMapClosure(parentRow.getAncestorCode(), node.getNodeCode(), parentRow.getDepth() + 1));
+                }
+            }
+            ancestorRows.put(node.getNodeCode(), nodeRows);
+            rows.addAll(nodeRows);
         }
+        return rows;
     }
 
     // 私有方法：构建节点路径
@@ -463,4 +653,128 @@ public class AdminKnowledgeMapServiceImpl implements AdminKnowledgeMapService {
         return parentPath + "/" + nodeCode;
     }
 
+    /**
+     * 知识图谱节点导入：除层级外还要求父节点有效、根节点编码与父节点一致，路径不超过列长度
+     */
+    private final class NodeImport extends TreeImport<AdminKnowledgeMapRequest, AdminKnowledgeMap> {
+
+        private final LocalDateTime now;
+
+        private NodeImport(List<AdminKnowledgeMapRequest> requests, LocalDateTime now) {
+            super(requests);
+            this.now = now;
+        }
+
+        @Override
+        protected void validate(AdminKnowledgeMapRequest request) {
+            validateAddNodeRequest(request);
+        }
+
+        @Override
+        protected String code(AdminKnowledgeMapRequest request) {
+            return request.getNodeCode();
+        }
+
+        @Override
+        protected String rawParentCode(AdminKnowledgeMapRequest request) {
+            return request.getParentCode();
+        }
+
+        @Override
+        protected Integer level(AdminKnowledgeMapRequest request) {
+            return request.getLevelDepth();
+        }
+
+        @Override
+        protected Integer sortOrder(AdminKnowledgeMapRequest request) {
+            return request.getSortOrder();
+        }
+
+        @Override
+        protected String entityCode(AdminKnowledgeMap entity) {
+            return entity.getNodeCode();
+        }
+
+        @Override
+        protected List<AdminKnowledgeMap> findExisting(List<String> codes) {
+            return adminKnowledgeMapRepository.findByNodeCodeIn(codes);
+        }
+
+        @Override
+        protected List<Object[]> findMaxSortOrders(List<String> parentCodes) {
+            return adminKnowledgeMapRepository.findMaxSortOrderByParentCodes(parentCodes);
+        }
+
+        @Override
+        protected Integer findTopLevelMaxSortOrder() {
+            return adminKnowledgeMapRepository.findMaxSortOrderForRootNodes();
+        }
+
+        @Override
+        protected String duplicateMessage(int firstRow) {
+            return "节点编码与第" + firstRow + "行重复";
+        }
+
+        @Override
+        protected String parentFailedMessage() {
+            return "父节点导入失败：";
+        }
+
+        @Override
+        protected String parentMissingMessage() {
+            return "父节点不存在：";
+        }
+
+        @Override
+        protected String levelMismatchMessage() {
+            return "层级深度与父节点不一致：";
+        }
+
+        @Override
+        protected String check(AdminKnowledgeMapRequest request, AdminKnowledgeMap parent) {
+            if (parent != null) {
+                if (!"ACTIVE".equals(parent.getStatus())) {
+                    return parentMissingMessage() + parent.getNodeCode();
+                }
+                if (parent.getLevelDepth() + 1 != request.getLevelDepth()) {
+                    return levelMismatchMessage() + parent.getNodeCode();
+                }
+                if (!parent.getRootCode().equals(request.getRootCode())) {
+                    return "根节点编码与父节点不一致：" + parent.getNodeCode();
+                }
+            }
+            if (nodePath(request, parent).length() > MAX_NODE_PATH_LENGTH) {
+                return "节点路径超过" + MAX_NODE_PATH_LENGTH + "个字符";
+            }
+            return null;
+        }
+
+        @Override
+        protected AdminKnowledgeMap build(AdminKnowledgeMapRequest request, AdminKnowledgeMap parent, int sortOrder) {
+            AdminKnowledgeMap entity = new AdminKnowledgeMap();
+            BeanUtils.copyProperties(request, entity);
+            if (StringUtils.hasText(request.getNodeNameStr())) {
+                entity.setNodeName(request.getNodeNameStr());
+            }
+            entity.setParentCode(parent != null ? parent.getNodeCode() : null);
+            entity.setNodePath(nodePath(request, parent));
+            entity.setStatus(StringUtils.hasText(request.getStatus()) ? request.getStatus() : "ACTIVE");
+            // 与表结构的默认值一致
+            if (entity.getDifficultyLevel() == null) {
+                entity.setDifficultyLevel("BEGINNER");
+            }
+            if (entity.getEstimatedHours() == null) {
+                entity.setEstimatedHours(0);
+            }
+            entity.setSortOrder(sortOrder);
+            entity.setCreatedBy("system");
+            entity.setCreatedTime(now);
+            entity.setUpdatedTime(now);
+            return entity;
+        }
+
+        private String nodePath(AdminKnowledgeMapRequest request, AdminKnowledgeMap parent) {
+            return parent != null ? parent.getNodePath() + TreePathUtil.SEPARATOR + request.getNodeCode() : request.getNodeCode();
+        }
+    }
 }
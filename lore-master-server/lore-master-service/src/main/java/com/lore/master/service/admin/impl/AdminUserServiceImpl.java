@@ -216,12 +216,28 @@ public class AdminUserServiceImpl implements AdminUserService {
     }
 
     @Override
-    @Transactional
+    @Transactional("adminTransactionManager")
     public boolean batchDeleteAdminUsers(Long[] ids) {
         try {
-            for (Long id : ids) {
-                deleteAdminUser(id);
+            Set<Long> idSet = new LinkedHashSet<>(Arrays.asList(ids));
+            if (idSet.isEmpty()) {
+                return true;
+            }
+
+            Map<Long, String> roles = new HashMap<>();
+            adminUserRepository.findIdAndRoleByIdIn(idSet).forEach(row -> roles.put((Long) row[0], (String) row[1]));
+            List<Long> missing = idSet.stream().filter(id -> !roles.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("用户不存在: " + missing);
+            }
+
+            // 不能删除超级管理员
+            if (roles.containsValue("super_admin")) {
+                throw new RuntimeException("不能删除超级管理员");
             }
+
+            int rows = adminUserRepository.deleteByIdIn(idSet);
+            log.info("批量删除管理员用户完成: 删除数量={}", rows);
             return true;
         } catch (Exception e) {
             log.error("批量删除管理员用户失败: {}", e.getMessage(), e);
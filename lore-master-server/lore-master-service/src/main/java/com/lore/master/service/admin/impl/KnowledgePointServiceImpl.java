@@ -3,6 +3,7 @@ package com.lore.master.service.admin.impl;
 import com.lore.master.data.entity.admin.KnowledgePoint;
 import com.lore.master.data.repository.admin.KnowledgePointRepository;
 import com.lore.master.service.admin.KnowledgePointService;
+import com.lore.master.service.search.SearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -22,6 +23,8 @@ public class KnowledgePointServiceImpl implements KnowledgePointService {
     
     private final KnowledgePointRepository knowledgePointRepository;
     
+    private final SearchService searchService;
+    
     @Override
     public KnowledgePoint getById(Long id) {
         return knowledgePointRepository.findById(id).orElse(null);
@@ -145,6 +148,9 @@ public class KnowledgePointServiceImpl implements KnowledgePointService {
             if (knowledgePoint == null) {
                 throw new RuntimeException("知识点不存在");
             }
+            if (!knowledgePointRepository.countChildrenByParentIds(List.of(id), List.of(id)).isEmpty()) {
+                throw new RuntimeException("该知识点下还有子知识点，无法删除");
+            }
             
             knowledgePointRepository.deleteById(id);
             return true;
@@ -155,12 +161,30 @@ public class KnowledgePointServiceImpl implements KnowledgePointService {
     }
     
     @Override
-    @Transactional
+    @Transactional("adminTransactionManager")
     public boolean batchDeleteKnowledgePoints(Long[] ids) {
         try {
-            for (Long id : ids) {
-                deleteKnowledgePoint(id);
+            Set<Long> idSet = new LinkedHashSet<>(Arrays.asList(ids));
+            if (idSet.isEmpty()) {
+                return true;
+            }
+            
+            Set<Long> existing = new HashSet<>(knowledgePointRepository.findIdByIdIn(idSet));
+            List<Long> missing = idSet.stream().filter(id -> !existing.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("知识点不存在: " + missing);
+            }
+            
+            // 一次分组统计所有待删除知识点的子知识点，同批删除的子知识点不算
+            List<Long> blocked = knowledgePointRepository.countChildrenByParentIds(idSet, idSet).stream()
+                    .map(row -> (Long) row[0])
+                    .toList();
+            if (!blocked.isEmpty()) {
+                throw new RuntimeException("知识点下还有子知识点，无法删除: " + blocked);
             }
+            
+            int rows = knowledgePointRepository.deleteByIdIn(idSet);
+            log.info("批量删除知识点完成: 删除数量={}", rows);
             return true;
         } catch (Exception e) {
             log.error("批量删除知识点失败: {}", e.getMessage(), e);
@@ -188,12 +212,12 @@ public class KnowledgePointServiceImpl implements KnowledgePointService {
     
     @Override
     public List<KnowledgePoint> searchByTag(String tag) {
-        return knowledgePointRepository.findByTag(tag);
+        return searchService.searchKnowledgePointsByTag(tag);
     }
     
     @Override
     public Page<KnowledgePoint> searchByKeyword(String keyword, Pageable pageable) {
-        return knowledgePointRepository.searchByKeyword(keyword, pageable);
+        return searchService.searchKnowledgePoints(keyword, pageable);
     }
     
     @Override
@@ -1,10 +1,13 @@
 package com.lore.master.service.admin.impl;
 
 import com.alibaba.fastjson2.JSON;
+import com.lore.master.common.util.TreePathUtil;
 import com.lore.master.data.dto.admin.LearningSkillCatalogDTO;
 import com.lore.master.data.dto.admin.LearningSkillCatalogQueryDTO;
 import com.lore.master.data.entity.admin.LearningSkillCatalog;
+import com.lore.master.data.repository.SpecificationBuilder;
 import com.lore.master.data.repository.admin.LearningSkillCatalogRepository;
+import com.lore.master.data.vo.admin.BulkImportResult;
 import com.lore.master.data.vo.admin.LearningSkillCatalogVO;
 import com.lore.master.service.admin.LearningSkillCatalogService;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +17,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -32,6 +36,11 @@ import java.util.stream.Collectors;
 public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogService {
 
     private final LearningSkillCatalogRepository skillCatalogRepository;
+    private final AdminBatchWriter adminBatchWriter;
+
+    private static final String INSERT_SQL = "INSERT INTO learning_skill_catalog (skill_code, skill_name, skill_path, level, "
+            + "parent_code, icon, description, sort_order, is_active, difficulty_level, estimated_hours, tags, "
+            + "created_time, updated_time, created_by, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     @Override
     @Transactional
@@ -132,13 +141,26 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
     }
 
     @Override
-    @Transactional
+    @Transactional("adminTransactionManager")
     public void batchDeleteSkillCatalog(List<Long> ids) {
         log.info("批量删除技能目录: ids={}", ids);
-        
-        for (Long id : ids) {
-            deleteSkillCatalog(id);
+        if (CollectionUtils.isEmpty(ids)) {
+            return;
+        }
+
+        Set<Long> idSet = new LinkedHashSet<>(ids);
+        Map<Long, String> skillCodes = findSkillCodes(idSet);
+
+        // 一次分组统计所有待删除技能的子技能，同批删除的子技能不算
+        List<String> blocked = skillCatalogRepository.countActiveChildrenByParentCodes(skillCodes.values(), idSet).stream()
+                .map(row -> (String) row[0])
+                .collect(Collectors.toList());
+        if (!blocked.isEmpty()) {
+            throw new RuntimeException("该技能目录下还有子技能，无法删除: " + blocked);
         }
+
+        int rows = skillCatalogRepository.deleteByIdIn(idSet);
+        log.info("批量删除技能目录完成: 删除数量={}", rows);
     }
 
     @Override
@@ -160,10 +182,7 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
     @Override
     public Page<LearningSkillCatalogVO> querySkillCatalogPage(LearningSkillCatalogQueryDTO queryDTO) {
         Pageable pageable = createPageable(queryDTO);
-        
-        // 这里简化处理，实际应该根据查询条件构建动态查询
-        Page<LearningSkillCatalog> entityPage = skillCatalogRepository.findByIsActiveOrderByLevelAscSortOrderAsc(
-                queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true, pageable);
+        Page<LearningSkillCatalog> entityPage = skillCatalogRepository.findAll(buildSpecification(queryDTO), pageable);
         
         return entityPage.map(this::convertToVO);
     }
@@ -216,11 +235,15 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
     }
 
     @Override
-    @Transactional
+    @Transactional("adminTransactionManager")
     public void batchToggleSkillCatalogStatus(List<Long> ids, Boolean isActive) {
-        for (Long id : ids) {
-            toggleSkillCatalogStatus(id, isActive);
+        if (CollectionUtils.isEmpty(ids)) {
+            return;
         }
+        Set<Long> idSet = new LinkedHashSet<>(ids);
+        findSkillCodes(idSet);
+        int rows = skillCatalogRepository.updateIsActiveByIdIn(idSet, isActive);
+        log.info("批量切换技能目录状态: isActive={}, 更新数量={}", isActive, rows);
     }
 
     @Override
@@ -235,15 +258,68 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
     }
 
     @Override
-    @Transactional
+    @Transactional("adminTransactionManager")
+    public void reorderSkillCatalog(String parentCode, List<Long> orderedIds) {
+        String parent = StringUtils.hasText(parentCode) ? parentCode : null;
+        Set<Long> ordered = new LinkedHashSet<>(orderedIds);
+        if (ordered.size() != orderedIds.size()) {
+            throw new RuntimeException("排序列表中存在重复的技能目录");
+        }
+
+        List<Long> siblingIds = skillCatalogRepository.findSiblingIds(parent);
+        Set<Long> siblings = new HashSet<>(siblingIds);
+        List<Long> foreign = ordered.stream().filter(id -> !siblings.contains(id)).collect(Collectors.toList());
+        if (!foreign.isEmpty()) {
+            throw new RuntimeException("技能目录不属于该父级: " + foreign);
+        }
+
+        // 未传入的同级技能保持原有相对顺序，排在后面，避免与新序号重复
+        ordered.addAll(siblingIds);
+        Map<Long, Integer> sortOrders = new LinkedHashMap<>();
+        for (Long id : ordered) {
+            sortOrders.put(id, sortOrders.size() + 1);
+        }
+
+        int rows = adminBatchWriter.updateSortOrders("learning_skill_catalog", "id", sortOrders, null);
+        log.info("重排技能目录: parentCode={}, 更新数量={}", parent, rows);
+    }
+
+    @Override
+    @Transactional("adminTransactionManager")
     public void moveSkillCatalog(Long id, String newParentCode) {
         LearningSkillCatalog entity = skillCatalogRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("技能目录不存在: " + id));
-        
-        entity.setParentCode(newParentCode);
-        entity.setSkillPath(generateSkillPath(newParentCode, entity.getSkillCode()));
+
+        String oldPath = entity.getSkillPath();
+        String parentCode = StringUtils.hasText(newParentCode) ? newParentCode : null;
+        String newPath;
+        if (parentCode != null) {
+            LearningSkillCatalog parent = skillCatalogRepository.findBySkillCode(parentCode)
+                    .orElseThrow(() -> new RuntimeException("父级技能目录不存在: " + parentCode));
+            // 新父级在子树内会形成环
+            if (TreePathUtil.isSelfOrDescendant(oldPath, parent.getSkillPath())) {
+                throw new RuntimeException("不能将技能目录移动到自身或其下级");
+            }
+            newPath = parent.getSkillPath() + TreePathUtil.SEPARATOR + entity.getSkillCode();
+        } else {
+            newPath = entity.getSkillCode();
+        }
+
+        // 校验移动后的层级
+        String descendantPattern = TreePathUtil.descendantPattern(oldPath);
+        int levelDelta = TreePathUtil.depth(newPath) - entity.getLevel();
+        Integer maxLevel = skillCatalogRepository.findMaxLevelOfSubtree(oldPath, descendantPattern);
+        if (maxLevel != null && maxLevel + levelDelta > 3) {
+            throw new RuntimeException("移动后层级超过3级");
+        }
+
+        // 父级变更随子树路径更新一起刷入
+        entity.setParentCode(parentCode);
         entity.setUpdatedTime(LocalDateTime.now());
-        skillCatalogRepository.save(entity);
+
+        // 一条语句改写整棵子树的路径和层级
+        int rows = skillCatalogRepository.moveSubtree(oldPath, descendantPattern, newPath, levelDelta);
+        log.info("移动技能目录: id={}, 新路径={}, 移动数量={}", id, newPath, rows);
     }
 
     @Override
@@ -316,19 +392,49 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
     }
 
     @Override
-    @Transactional
-    public void importSkillCatalogData(List<LearningSkillCatalogDTO> dataList) {
+    @Transactional("adminTransactionManager")
+    public BulkImportResult importSkillCatalogData(List<LearningSkillCatalogDTO> dataList) {
         log.info("导入技能目录数据: {} 条", dataList.size());
+        long start = System.currentTimeMillis();
+        SkillCatalogImport catalogImport = new SkillCatalogImport(dataList, LocalDateTime.now());
+        Map<String, LearningSkillCatalog> imported = catalogImport.resolve();
+
+        adminBatchWriter.batchUpdate(INSERT_SQL, imported.values(), (ps, entity) -> {
+            ps.setString(1, entity.getSkillCode());
+            ps.setString(2, entity.getSkillName());
+            ps.setString(3, entity.getSkillPath());
+            ps.setInt(4, entity.getLevel());
+            ps.setString(5, entity.getParentCode());
+            ps.setString(6, entity.getIcon());
+            ps.setString(7, entity.getDescription());
+            ps.setObject(8, entity.getSortOrder());
+            ps.setObject(9, entity.getIsActive());
+            ps.setString(10, entity.getDifficultyLevel());
+            ps.setObject(11, entity.getEstimatedHours());
+            ps.setString(12, entity.getTags());
+            ps.setObject(13, entity.getCreatedTime());
+            ps.setObject(14, entity.getUpdatedTime());
+            ps.setString(15, entity.getCreatedBy());
+            ps.setString(16, entity.getUpdatedBy());
+        });
+
+        BulkImportResult result = catalogImport.finish(imported.size(), start);
+        log.info("导入技能目录数据完成: 总数={}, 导入={}, 跳过={}, 失败={}, 耗时={}ms",
+                result.getTotal(), result.getImported(), result.getSkipped(), result.getFailed(), result.getCostMillis());
+        return result;
+    }
 
-        for (LearningSkillCatalogDTO dto : dataList) {
-            try {
-                if (!existsBySkillCode(dto.getSkillCode())) {
-                    createSkillCatalog(dto);
-                }
-            } catch (Exception e) {
-                log.error("导入技能目录失败: {}, error: {}", dto.getSkillCode(), e.getMessage());
-            }
+    /**
+     * 批量查询技能编码，有不存在的ID时抛出异常
+     */
+    private Map<Long, String> findSkillCodes(Set<Long> ids) {
+        Map<Long, String> skillCodes = new HashMap<>();
+        skillCatalogRepository.findIdAndCodeByIdIn(ids).forEach(row -> skillCodes.put((Long) row[0], (String) row[1]));
+        if (skillCodes.size() != ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !skillCodes.containsKey(id)).collect(Collectors.toList());
+            throw new RuntimeException("技能目录不存在: " + missing);
         }
+        return skillCodes;
     }
 
     @Override
@@ -358,37 +464,31 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
      * 构建查询结果
      */
     private List<LearningSkillCatalog> buildQueryResult(LearningSkillCatalogQueryDTO queryDTO) {
-        // 简化实现，实际应该使用Specification或QueryDSL构建动态查询
-        if (StringUtils.hasText(queryDTO.getSkillCode())) {
-            return skillCatalogRepository.findBySkillCode(queryDTO.getSkillCode())
-                    .map(Collections::singletonList)
-                    .orElse(Collections.emptyList());
-        }
-
-        if (queryDTO.getLevel() != null && StringUtils.hasText(queryDTO.getParentCode())) {
-            return skillCatalogRepository.findByLevelAndParentCodeAndIsActiveOrderBySortOrder(
-                    queryDTO.getLevel(), queryDTO.getParentCode(),
-                    queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true);
-        }
-
-        if (queryDTO.getLevel() != null) {
-            return skillCatalogRepository.findByLevelAndIsActiveOrderBySortOrder(
-                    queryDTO.getLevel(), queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true);
-        }
-
-        if (StringUtils.hasText(queryDTO.getParentCode())) {
-            return skillCatalogRepository.findByParentCodeAndIsActiveOrderBySortOrder(
-                    queryDTO.getParentCode(), queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true);
-        }
+        return skillCatalogRepository.findAll(buildSpecification(queryDTO), Sort.by("level", "sortOrder"));
+    }
 
-        if (StringUtils.hasText(queryDTO.getSkillPathPrefix())) {
-            return skillCatalogRepository.findBySkillPathStartingWithAndIsActiveOrderByLevelAscSortOrderAsc(
-                    queryDTO.getSkillPathPrefix(), queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true);
+    /**
+     * 按查询条件构建动态查询，只包含有值的条件；未指定启用状态时只查启用的技能
+     */
+    static Specification<LearningSkillCatalog> buildSpecification(LearningSkillCatalogQueryDTO queryDTO) {
+        SpecificationBuilder<LearningSkillCatalog> builder = new SpecificationBuilder<LearningSkillCatalog>()
+                .eq("skillCode", queryDTO.getSkillCode())
+                .contains("skillName", queryDTO.getSkillName())
+                .startsWith("skillPath", queryDTO.getSkillPathPrefix())
+                .eq("level", queryDTO.getLevel())
+                .eq("parentCode", queryDTO.getParentCode())
+                .eq("isActive", queryDTO.getIsActive() != null ? queryDTO.getIsActive() : Boolean.TRUE)
+                .eq("difficultyLevel", queryDTO.getDifficultyLevel())
+                .ge("estimatedHours", queryDTO.getMinEstimatedHours())
+                .le("estimatedHours", queryDTO.getMaxEstimatedHours())
+                .contains("tags", queryDTO.getTag())
+                .eq("createdBy", queryDTO.getCreatedBy())
+                .eq("updatedBy", queryDTO.getUpdatedBy())
+                .when(Boolean.TRUE.equals(queryDTO.getRootNodesOnly()), (root, query, cb) -> cb.isNull(root.get("parentCode")));
+        if (!CollectionUtils.isEmpty(queryDTO.getTags())) {
+            queryDTO.getTags().forEach(tag -> builder.contains("tags", tag));
         }
-
-        // 默认查询所有启用的技能
-        return skillCatalogRepository.findByIsActiveOrderByLevelAscSortOrderAsc(
-                queryDTO.getIsActive() != null ? queryDTO.getIsActive() : true);
+        return builder.build();
     }
 
     /**
@@ -533,4 +633,107 @@ public class LearningSkillCatalogServiceImpl implements LearningSkillCatalogServ
                     .ifPresent(parent -> buildPathNames(parent, pathNames));
         }
     }
+
+    /**
+     * 技能目录导入：子级的层级必须是父级的下一级
+     */
+    private final class SkillCatalogImport extends TreeImport<LearningSkillCatalogDTO, LearningSkillCatalog> {
+
+        private final LocalDateTime now;
+
+        private SkillCatalogImport(List<LearningSkillCatalogDTO> dataList, LocalDateTime now) {
+            super(dataList);
+            this.now = now;
+        }
+
+        @Override
+        protected void validate(LearningSkillCatalogDTO dto) {
+            validateSkillCatalog(dto);
+        }
+
+        @Override
+        protected String code(LearningSkillCatalogDTO dto) {
+            return dto.getSkillCode();
+        }
+
+        @Override
+        protected String rawParentCode(LearningSkillCatalogDTO dto) {
+            return dto.getParentCode();
+        }
+
+        @Override
+        protected Integer level(LearningSkillCatalogDTO dto) {
+            return dto.getLevel();
+        }
+
+        @Override
+        protected Integer sortOrder(LearningSkillCatalogDTO dto) {
+            return dto.getSortOrder();
+        }
+
+        @Override
+        protected String entityCode(LearningSkillCatalog entity) {
+            return entity.getSkillCode();
+        }
+
+        @Override
+        protected List<LearningSkillCatalog> findExisting(List<String> codes) {
+            return skillCatalogRepository.findBySkillCodeIn(codes);
+        }
+
+        @Override
+        protected List<Object[]> findMaxSortOrders(List<String> parentCodes) {
+            return skillCatalogRepository.findMaxSortOrderByParentCodes(parentCodes);
+        }
+
+        @Override
+        protected Integer findTopLevelMaxSortOrder() {
+            return skillCatalogRepository.findMaxSortOrderOfTopLevel();
+        }
+
+        @Override
+        protected String duplicateMessage(int firstRow) {
+            return "技能编码与第" + firstRow + "行重复";
+        }
+
+        @Override
+        protected String parentFailedMessage() {
+            return "父级导入失败: ";
+        }
+
+        @Override
+        protected String parentMissingMessage() {
+            return "父级不存在: ";
+        }
+
+        @Override
+        protected String levelMismatchMessage() {
+            return "层级与父级不匹配: ";
+        }
+
+        @Override
+        protected String check(LearningSkillCatalogDTO dto, LearningSkillCatalog parent) {
+            if (parent != null && parent.getLevel() + 1 != dto.getLevel()) {
+                return levelMismatchMessage() + parent.getSkillCode();
+            }
+            return null;
+        }
+
+        @Override
+        protected LearningSkillCatalog build(LearningSkillCatalogDTO dto, LearningSkillCatalog parent, int sortOrder) {
+            LearningSkillCatalog entity = convertToEntity(dto);
+            entity.setParentCode(parent != null ? parent.getSkillCode() : null);
+            entity.setSkillPath(parent != null ? parent.getSkillPath() + TreePathUtil.SEPARATOR + dto.getSkillCode() : dto.getSkillCode());
+            entity.setSortOrder(sortOrder);
+            entity.setCreatedTime(now);
+            entity.setUpdatedTime(now);
+            if (entity.getCreatedBy() == null) {
+                entity.setCreatedBy("system");
+            }
+            if (entity.getUpdatedBy() == null) {
+                entity.setUpdatedBy("system");
+            }
+            return entity;
+        }
+    }
 }
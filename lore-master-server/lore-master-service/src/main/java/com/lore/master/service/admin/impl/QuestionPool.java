@@ -0,0 +1,258 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.service.admin.KnowledgePointQuestions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+import java.util.stream.LongStream;
+
+/**
+ * 启用题目的ID池
+ *
+ * 题目ID按 (学科, 难度, 题型) 分组存放在 long[] 中，构建后不再修改，多个线程共享同一份。
+ * 抽样时把满足条件的各组看作一个连续数组做部分 Fisher–Yates 洗牌，
+ * 交换过的位置记在HashMap中而不修改数组，耗时和额外内存只与抽取数量有关。
+ * 关联了知识点的题目另按 (学科, 知识点, 难度) 分桶，供自适应练习选题
+ */
+final class QuestionPool {
+
+    private final Map<Key, long[]> groups;
+    // 学科ID -> 各知识点的题目，用于自适应练习
+    private final Map<Long, KnowledgePointQuestions> knowledgePoints;
+    private final int size;
+    private final long version;
+    private final long builtAt;
+
+    private QuestionPool(Map<Key, long[]> groups, Map<Long, KnowledgePointQuestions> knowledgePoints, long version) {
+        this.groups = groups;
+        this.knowledgePoints = knowledgePoints;
+        this.size = groups.values().stream().mapToInt(ids -> ids.length).sum();
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 构建题目池
+     *
+     * @param rows 每行为 [id, subjectId, difficultyLevel, type, knowledgePointId]
+     * @param version 构建序号，序号大的题目池读取的数据更新
+     */
+    static QuestionPool build(List<Object[]> rows, long version) {
+        Map<Key, LongStream.Builder> builders = new HashMap<>();
+        // 学科ID -> 知识点ID -> 难度桶
+        Map<Long, Map<Long, LongStream.Builder[]>> knowledgePointBuilders = new HashMap<>();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            Long subjectId = (Long) row[1];
+            Integer difficultyLevel = (Integer) row[2];
+            Key key = new Key(subjectId, difficultyLevel, (Integer) row[3]);
+            builders.computeIfAbsent(key, k -> LongStream.builder()).add(id);
+
+            Long knowledgePointId = (Long) row[4];
+            if (subjectId != null && knowledgePointId != null) {
+                LongStream.Builder[] buckets = knowledgePointBuilders
+                        .computeIfAbsent(subjectId, k -> new HashMap<>())
+                        .computeIfAbsent(knowledgePointId, k -> new LongStream.Builder[KnowledgePointQuestions.DIFFICULTY_BUCKETS]);
+                int bucket = difficultyLevel != null && difficultyLevel >= 1
+                        && difficultyLevel < KnowledgePointQuestions.DIFFICULTY_BUCKETS ? difficultyLevel : 0;
+                if (buckets[bucket] == null) {
+                    buckets[bucket] = LongStream.builder();
+                }
+                buckets[bucket].add(id);
+            }
+        }
+        Map<Key, long[]> groups = new HashMap<>(builders.size() * 2);
+        builders.forEach((key, builder) -> groups.put(key, builder.build().toArray()));
+        Map<Long, KnowledgePointQuestions> knowledgePoints = new HashMap<>(knowledgePointBuilders.size() * 2);
+        knowledgePointBuilders.forEach((subjectId, bySubject) ->
+                knowledgePoints.put(subjectId, buildKnowledgePoints(bySubject, version)));
+        return new QuestionPool(groups, knowledgePoints, version);
+    }
+
+    private static KnowledgePointQuestions buildKnowledgePoints(Map<Long, LongStream.Builder[]> builders, long version) {
+        long[] knowledgePointIds = builders.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        long[][][] questionIds = new long[knowledgePointIds.length][][];
+        for (int i = 0; i < knowledgePointIds.length; i++) {
+            LongStream.Builder[] buckets = builders.get(knowledgePointIds[i]);
+            questionIds[i] = new long[buckets.length][];
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                questionIds[i][bucket] = buckets[bucket] != null ? buckets[bucket].build().toArray() : new long[0];
+            }
+        }
+        return new KnowledgePointQuestions(version, knowledgePointIds, questionIds);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long version() {
+        return version;
+    }
+
+    long builtAt() {
+        return builtAt;
+    }
+
+    /**
+     * 学科下各知识点的题目，没有关联知识点的题目时返回 EMPTY
+     */
+    KnowledgePointQuestions knowledgePoints(Long subjectId) {
+        return knowledgePoints.getOrDefault(subjectId, KnowledgePointQuestions.EMPTY);
+    }
+
+    /**
+     * 随机抽取不重复的题目ID，条件为null时不限，满足条件的题目不足时全部返回（顺序随机）
+     */
+    long[] sample(Long subjectId, Integer difficultyLevel, Integer type, int count, RandomGenerator random) {
+        return sample(select(subjectId, difficultyLevel, type), count, random);
+    }
+
+    /**
+     * 按难度分层抽样，结果按难度升序排列，同一难度内顺序随机
+     *
+     * @param weights 难度等级 -> 权重，为空时按各难度的题目数量分配
+     */
+    long[] sampleStratified(Long subjectId, Integer type, int count, Map<Integer, Integer> weights, RandomGenerator random) {
+        SortedMap<Integer, Integer> allocation = allocate(count, countByDifficulty(subjectId, type), weights);
+        long[] result = new long[allocation.values().stream().mapToInt(Integer::intValue).sum()];
+        int position = 0;
+        for (Map.Entry<Integer, Integer> entry : allocation.entrySet()) {
+            long[] ids = sample(subjectId, entry.getKey(), type, entry.getValue(), random);
+            System.arraycopy(ids, 0, result, position, ids.length);
+            position += ids.length;
+        }
+        return result;
+    }
+
+    /**
+     * 各难度等级下满足条件的题目数量，未设置难度的题目不参与分层
+     */
+    SortedMap<Integer, Integer> countByDifficulty(Long subjectId, Integer type) {
+        SortedMap<Integer, Integer> counts = new TreeMap<>();
+        groups.forEach((key, ids) -> {
+            if (key.difficultyLevel() != null && key.matches(subjectId, null, type)) {
+                counts.merge(key.difficultyLevel(), ids.length, Integer::sum);
+            }
+        });
+        return counts;
+    }
+
+    private List<long[]> select(Long subjectId, Integer difficultyLevel, Integer type) {
+        List<long[]> selected = new ArrayList<>();
+        groups.forEach((key, ids) -> {
+            if (key.matches(subjectId, difficultyLevel, type)) {
+                selected.add(ids);
+            }
+        });
+        return selected;
+    }
+
+    /**
+     * 从多个分组组成的连续数组中抽取 count 个不重复元素
+     *
+     * 第 i 步在 [i, total) 中随机选位置 j，取出 j 上的元素并把 i 上的元素换到 j。
+     * 数组本身不修改，swapped 记录被换过的位置当前存放的下标
+     */
+    static long[] sample(List<long[]> pools, int count, RandomGenerator random) {
+        int[] offsets = new int[pools.size() + 1];
+        for (int i = 0; i < pools.size(); i++) {
+            offsets[i + 1] = offsets[i] + pools.get(i).length;
+        }
+        int total = offsets[pools.size()];
+        int n = Math.max(0, Math.min(count, total));
+        long[] result = new long[n];
+        Map<Integer, Integer> swapped = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            int j = i + random.nextInt(total - i);
+            int picked = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            result[i] = idAt(pools, offsets, picked);
+        }
+        return result;
+    }
+
+    private static long idAt(List<long[]> pools, int[] offsets, int index) {
+        // 分组都不为空，offsets 严格递增
+        int pool = Arrays.binarySearch(offsets, index);
+        if (pool < 0) {
+            pool = -pool - 2;
+        }
+        return pools.get(pool)[index - offsets[pool]];
+    }
+
+    /**
+     * 按权重把 count 道题分配到各难度，每个难度不超过可用数量
+     *
+     * 每轮按最大余数法分配剩余数量，超出可用数量的难度取满后退出下一轮，
+     * 差额由其余难度按权重补足；所有难度取满后不再分配
+     *
+     * @param available 难度等级 -> 可用题目数量
+     * @param weights 难度等级 -> 权重，为空时使用可用数量作为权重
+     * @return 难度等级 -> 抽取数量，不含数量为0的难度
+     */
+    static SortedMap<Integer, Integer> allocate(int count, SortedMap<Integer, Integer> available, Map<Integer, Integer> weights) {
+        boolean proportional = weights == null || weights.isEmpty();
+        Map<Integer, Integer> active = new TreeMap<>();
+        available.forEach((level, capacity) -> {
+            int weight = proportional ? capacity : weights.getOrDefault(level, 0);
+            if (weight > 0 && capacity > 0) {
+                active.put(level, weight);
+            }
+        });
+
+        SortedMap<Integer, Integer> allocation = new TreeMap<>();
+        int remaining = count;
+        while (remaining > 0 && !active.isEmpty()) {
+            double totalWeight = active.values().stream().mapToDouble(Integer::doubleValue).sum();
+            Map<Integer, Integer> quotas = new HashMap<>();
+            Map<Integer, Double> fractions = new HashMap<>();
+            int floorSum = 0;
+            for (Map.Entry<Integer, Integer> entry : active.entrySet()) {
+                double exact = remaining * entry.getValue() / totalWeight;
+                int quota = (int) exact;
+                quotas.put(entry.getKey(), quota);
+                fractions.put(entry.getKey(), exact - quota);
+                floorSum += quota;
+            }
+            // 余数大的难度各多分一道，余数相同时优先低难度
+            List<Integer> byFraction = new ArrayList<>(active.keySet());
+            byFraction.sort(Comparator.comparing((Integer level) -> fractions.get(level)).reversed()
+                    .thenComparing(Comparator.naturalOrder()));
+            for (int i = 0; i < remaining - floorSum; i++) {
+                quotas.merge(byFraction.get(i), 1, Integer::sum);
+            }
+
+            for (Map.Entry<Integer, Integer> entry : quotas.entrySet()) {
+                int level = entry.getKey();
+                int allocated = allocation.getOrDefault(level, 0);
+                int granted = Math.min(entry.getValue(), available.get(level) - allocated);
+                if (granted > 0) {
+                    allocation.put(level, allocated + granted);
+                    remaining -= granted;
+                }
+                if (allocation.getOrDefault(level, 0) >= available.get(level)) {
+                    active.remove(level);
+                }
+            }
+        }
+        return allocation;
+    }
+
+    private record Key(Long subjectId, Integer difficultyLevel, Integer type) {
+
+        boolean matches(Long subjectId, Integer difficultyLevel, Integer type) {
+            return (subjectId == null || Objects.equals(subjectId, this.subjectId))
+                    && (difficultyLevel == null || Objects.equals(difficultyLevel, this.difficultyLevel))
+                    && (type == null || Objects.equals(type, this.type));
+        }
+    }
+}
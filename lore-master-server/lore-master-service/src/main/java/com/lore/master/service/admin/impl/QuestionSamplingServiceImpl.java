@@ -0,0 +1,210 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.data.entity.admin.Question;
+import com.lore.master.data.repository.admin.QuestionRepository;
+import com.lore.master.service.admin.KnowledgePointQuestions;
+import com.lore.master.service.admin.QuestionSamplingService;
+import com.lore.master.service.config.ChatClusterConfig;
+import com.lore.master.service.middleware.message.ClusterMessageBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 题目抽样服务实现
+ *
+ * 替代 ORDER BY RAND()：抽样在内存题目池中完成，数据库只执行一次按主键的 IN 查询。
+ * 题目变更的事务提交后重建题目池并整体替换，重建期间继续使用旧的题目池；
+ * 变更通过集群消息总线通知其他节点。题目池超过 MAX_POOL_AGE_MS 未重建时在后台重建，
+ * 覆盖直接改库等不经过本服务的写入
+ */
+@Slf4j
+@Service
+public class QuestionSamplingServiceImpl implements QuestionSamplingService {
+
+    /**
+     * 单次最多抽取的题目数量，限制 IN 查询的参数个数
+     */
+    private static final int MAX_SAMPLE_SIZE = 200;
+
+    private static final long MAX_POOL_AGE_MS = 10 * 60 * 1000L;
+
+    private static final int ACTIVE_STATUS = 1;
+
+    @Resource
+    private QuestionRepository questionRepository;
+
+    @Resource
+    private ChatClusterConfig chatClusterConfig;
+
+    @Resource
+    private ClusterMessageBus clusterMessageBus;
+
+    private final AtomicReference<QuestionPool> pool = new AtomicReference<>();
+
+    // 尚未开始读库的重建任务，期间的变更合并到同一次重建
+    private final AtomicReference<CompletableFuture<Void>> pendingRebuild = new AtomicReference<>();
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile boolean rebuilding;
+
+    private Runnable unsubscribe;
+
+    @PostConstruct
+    public void init() {
+        unsubscribe = clusterMessageBus.subscribe(channel(), message -> rebuild());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribe.run();
+    }
+
+    @Override
+    public List<Question> randomQuestions(Long subjectId, Integer difficultyLevel, Integer type, int count) {
+        checkCount(count);
+        long[] ids = currentPool().sample(subjectId, difficultyLevel, type, count, ThreadLocalRandom.current());
+        return hydrate(ids);
+    }
+
+    @Override
+    public List<Question> generatePracticeTest(Long subjectId, Integer type, int count, Map<Integer, Integer> difficultyWeights) {
+        checkCount(count);
+        if (difficultyWeights != null && difficultyWeights.values().stream().anyMatch(weight -> weight == null || weight < 0)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "难度权重不能为负数");
+        }
+        long[] ids = currentPool().sampleStratified(subjectId, type, count, difficultyWeights, ThreadLocalRandom.current());
+        return hydrate(ids);
+    }
+
+    @Override
+    public KnowledgePointQuestions knowledgePointQuestions(Long subjectId) {
+        return currentPool().knowledgePoints(subjectId);
+    }
+
+    @Override
+    public void onQuestionsChanged() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish();
+            }
+        });
+    }
+
+    private void publish() {
+        // 先重建本节点，保证修改后立即抽题能抽到新题目
+        rebuild().join();
+        try {
+            clusterMessageBus.publish(channel(), "*");
+        } catch (Exception e) {
+            log.warn("通知其他节点题目变化失败: error={}", e.getMessage());
+        }
+    }
+
+    private QuestionPool currentPool() {
+        QuestionPool current = pool.get();
+        if (current == null) {
+            rebuild().join();
+            current = pool.get();
+            if (current == null) {
+                throw new BusinessException(ResultCode.ERROR, "题目池加载失败");
+            }
+        } else if (System.currentTimeMillis() - current.builtAt() > MAX_POOL_AGE_MS
+                && !rebuilding && pendingRebuild.get() == null) {
+            // 后台重建，本次仍使用旧的题目池
+            rebuild();
+        }
+        return current;
+    }
+
+    /**
+     * 在后台重新加载题目池，返回的Future在加载结束后完成（失败时只记录日志）
+     */
+    private CompletableFuture<Void> rebuild() {
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        CompletableFuture<Void> existing = pendingRebuild.compareAndExchange(null, pending);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture.runAsync(() -> {
+            // 读库前移除，此后的变更会触发新的重建
+            pendingRebuild.compareAndSet(pending, null);
+            rebuilding = true;
+            try {
+                load();
+            } catch (Exception e) {
+                log.error("重建题目池失败", e);
+            } finally {
+                rebuilding = false;
+                pending.complete(null);
+            }
+        });
+        return pending;
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        long version = versions.incrementAndGet();
+        QuestionPool loaded = QuestionPool.build(questionRepository.findSamplingKeys(), version);
+        // 并发重建时保留后开始读库的结果
+        QuestionPool current = pool.accumulateAndGet(loaded,
+                (previous, next) -> previous == null || next.version() > previous.version() ? next : previous);
+        log.info("重建题目池: 题目数={}, 耗时={}ms, 已替换={}",
+                loaded.size(), System.currentTimeMillis() - start, current == loaded);
+    }
+
+    /**
+     * 一次 IN 查询取出题目并按抽样顺序返回；题目池重建前已删除或停用的题目直接跳过
+     */
+    private List<Question> hydrate(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        Map<Long, Question> questions = new HashMap<>(ids.length * 2);
+        for (Question question : questionRepository.findAllById(Arrays.stream(ids).boxed().toList())) {
+            if (Integer.valueOf(ACTIVE_STATUS).equals(question.getStatus())) {
+                questions.put(question.getId(), question);
+            }
+        }
+        List<Question> result = new ArrayList<>(questions.size());
+        for (long id : ids) {
+            Question question = questions.get(id);
+            if (question != null) {
+                result.add(question);
+            }
+        }
+        return result;
+    }
+
+    private static void checkCount(int count) {
+        if (count <= 0 || count > MAX_SAMPLE_SIZE) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "抽题数量必须在1到" + MAX_SAMPLE_SIZE + "之间");
+        }
+    }
+
+    private String channel() {
+        return chatClusterConfig.getChannel() + ":questions";
+    }
+}
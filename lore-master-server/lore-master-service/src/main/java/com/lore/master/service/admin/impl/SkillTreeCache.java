@@ -0,0 +1,236 @@
+package com.lore.master.service.admin.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.repository.admin.AdminKnowledgeMapRepository;
+import com.lore.master.data.vo.admin.AdminKnowledgeMapTreeResponse;
+import com.lore.master.service.config.ChatClusterConfig;
+import com.lore.master.service.config.SkillTreeConfig;
+import com.lore.master.service.middleware.message.ClusterMessageBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 技能树快照缓存
+ *
+ * 每个根节点对应一份构建好的不可变快照（树结构 + 预先序列化的JSON），读取时直接返回，不再查库和建树。
+ * 节点变更的事务提交后重新构建快照并整体替换，构建期间读请求继续拿到旧快照；
+ * 变更通过集群消息总线通知其他节点（包括消费者端）刷新。
+ * 通知是发布订阅，节点断线期间的消息会丢失，快照另按 refreshAfterWriteSeconds 定期在后台重建，
+ * 并在 expireAfterWriteSeconds 后过期，作为兜底
+ */
+@Slf4j
+@Component
+public class SkillTreeCache {
+
+    /**
+     * 通知消息，表示刷新所有已缓存的技能树
+     */
+    private static final String ALL_ROOTS = "*";
+
+    private static final int MAX_ROOTS = 1000;
+
+    private static final Comparator<AdminKnowledgeMap> SORT_ORDER =
+            Comparator.comparing(AdminKnowledgeMap::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Resource
+    private AdminKnowledgeMapRepository adminKnowledgeMapRepository;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private ChatClusterConfig chatClusterConfig;
+
+    @Resource
+    private ClusterMessageBus clusterMessageBus;
+
+    @Resource
+    private SkillTreeConfig skillTreeConfig;
+
+    // 根节点编码 -> 快照，技能树不存在时不缓存
+    private LoadingCache<String, Snapshot> snapshots;
+    private Runnable unsubscribe;
+
+    // 刷新和过期计时用的时钟，测试中替换
+    Ticker ticker = Ticker.systemTicker();
+
+    @PostConstruct
+    public void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(MAX_ROOTS)
+                .refreshAfterWrite(skillTreeConfig.getRefreshAfterWriteSeconds(), TimeUnit.SECONDS)
+                .expireAfterWrite(skillTreeConfig.getExpireAfterWriteSeconds(), TimeUnit.SECONDS)
+                .ticker(ticker)
+                .build(this::load);
+        unsubscribe = clusterMessageBus.subscribe(channel(), this::refresh);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribe.run();
+    }
+
+    /**
+     * 获取技能树快照，技能树不存在时返回null
+     */
+    public Snapshot get(String rootCode) {
+        return snapshots.get(rootCode);
+    }
+
+    /**
+     * 技能树发生变化：当前事务提交后刷新本节点快照并通知其他节点，没有事务时立即执行
+     *
+     * @param rootCode 根节点编码，为null时刷新所有技能树
+     */
+    public void onChanged(String rootCode) {
+        String message = rootCode != null ? rootCode : ALL_ROOTS;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(message);
+            }
+        });
+    }
+
+    private void publish(String message) {
+        // 先刷新本节点，保证修改后立即查询能读到新数据
+        refresh(message).join();
+        try {
+            clusterMessageBus.publish(channel(), message);
+        } catch (Exception e) {
+            log.warn("通知其他节点技能树变化失败: rootCode={}, error={}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * 在后台重新构建已缓存的快照，完成后替换旧快照
+     */
+    private CompletableFuture<Void> refresh(String message) {
+        List<String> rootCodes = ALL_ROOTS.equals(message)
+                ? new ArrayList<>(snapshots.asMap().keySet())
+                : List.of(message);
+        return CompletableFuture.allOf(rootCodes.stream()
+                .map(rootCode -> CompletableFuture.runAsync(() -> rebuild(rootCode)).exceptionally(e -> {
+                    log.error("刷新技能树快照失败: rootCode={}", rootCode, e);
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 重建并替换已缓存的快照，返回时新快照已生效；构建期间读请求仍拿到旧快照。
+     * 不用Caffeine的refresh：它返回的future完成时新值不一定已写入缓存，且重建中的变更会合并到已开始的重建里读到旧数据；
+     * 这里同一技能树的重建依次执行，后提交的变更一定会再建一次
+     */
+    private void rebuild(String rootCode) {
+        snapshots.asMap().computeIfPresent(rootCode, (key, old) -> {
+            try {
+                return load(key);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("序列化技能树失败: " + key, e);
+            }
+        });
+    }
+
+    /**
+     * 查询根节点下的所有节点并构建快照；返回null时Caffeine不缓存，已缓存的快照被移除
+     */
+    private Snapshot load(String rootCode) throws JsonProcessingException {
+        long start = System.currentTimeMillis();
+        List<AdminKnowledgeMap> entities = adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc(rootCode, "ACTIVE");
+        AdminKnowledgeMap root = entities.stream()
+                .filter(entity -> "ROOT".equals(entity.getNodeType()))
+                .findFirst()
+                .orElse(null);
+        if (root == null) {
+            log.info("技能树不存在或没有根节点: rootCode={}", rootCode);
+            return null;
+        }
+
+        // 父节点编码 -> 子节点，一次遍历建立索引
+        Map<String, List<AdminKnowledgeMap>> childrenIndex = new HashMap<>();
+        for (AdminKnowledgeMap entity : entities) {
+            if (entity.getParentCode() != null) {
+                childrenIndex.computeIfAbsent(entity.getParentCode(), key -> new ArrayList<>()).add(entity);
+            }
+        }
+        childrenIndex.values().forEach(children -> children.sort(SORT_ORDER));
+
+        AdminKnowledgeMapTreeResponse tree = new AdminKnowledgeMapTreeResponse();
+        tree.setRootCode(root.getNodeCode());
+        tree.setRootName(root.getNodeName());
+        tree.setChildren(buildChildren(childrenIndex, rootCode));
+
+        String json = objectMapper.writeValueAsString(tree);
+        SerializedString serialized = new SerializedString(json);
+        // 预先编码UTF-8字节，响应时直接写出
+        serialized.asUnquotedUTF8();
+
+        log.info("构建技能树快照: rootCode={}, 节点数={}, JSON字节数={}, 耗时={}ms",
+                rootCode, entities.size(), serialized.asUnquotedUTF8().length, System.currentTimeMillis() - start);
+        return new Snapshot(tree, new RawValue(serialized), entities.size());
+    }
+
+    private List<AdminKnowledgeMapTreeResponse.TreeNode> buildChildren(
+            Map<String, List<AdminKnowledgeMap>> childrenIndex, String parentCode) {
+        List<AdminKnowledgeMap> children = childrenIndex.get(parentCode);
+        if (children == null) {
+            return List.of();
+        }
+        List<AdminKnowledgeMapTreeResponse.TreeNode> nodes = new ArrayList<>(children.size());
+        for (AdminKnowledgeMap child : children) {
+            AdminKnowledgeMapTreeResponse.TreeNode treeNode = new AdminKnowledgeMapTreeResponse.TreeNode();
+            treeNode.setNodeCode(child.getNodeCode());
+            treeNode.setNodeName(child.getNodeName());
+            treeNode.setNodeNameStr(child.getNodeName());
+            treeNode.setNodeType(child.getNodeType());
+            treeNode.setLevelDepth(child.getLevelDepth());
+            treeNode.setLevelType(child.getLevelType());
+            treeNode.setSortOrder(child.getSortOrder());
+            treeNode.setDifficultyLevel(child.getDifficultyLevel());
+            treeNode.setEstimatedHours(child.getEstimatedHours());
+            treeNode.setDescription(child.getDescription());
+            treeNode.setChildren(buildChildren(childrenIndex, child.getNodeCode()));
+            nodes.add(treeNode);
+        }
+        return List.copyOf(nodes);
+    }
+
+    private String channel() {
+        return chatClusterConfig.getChannel() + ":skill-tree";
+    }
+
+    /**
+     * 技能树快照，构建后不再修改，多个请求共享同一份
+     *
+     * @param tree 树结构，子节点列表不可修改
+     * @param json 预先序列化的树结构JSON，可直接作为响应数据写出
+     * @param nodeCount 节点总数（含根节点）
+     */
+    public record Snapshot(AdminKnowledgeMapTreeResponse tree, RawValue json, int nodeCount) {
+    }
+}
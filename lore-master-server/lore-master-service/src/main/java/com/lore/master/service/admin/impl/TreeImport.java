@@ -0,0 +1,209 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.data.vo.admin.BulkImportResult;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 树形数据批量导入的公共流程，知识图谱节点和技能目录共用
+ *
+ * 逐行校验，批内重复的编码只保留第一行；一次预取批内编码和批外父级，编码已存在的行跳过；
+ * 按层级从上到下解析，父级总是先于子级，父级失败的行随之失败。子类只负责字段读取、查询和实体构建，
+ * 解析结果由调用方批量写库后调用 {@link #finish(int, long)} 汇总
+ *
+ * @param <R> 导入行
+ * @param <E> 实体
+ */
+abstract class TreeImport<R, E> {
+
+    private final List<R> rows;
+    private final BulkImportResult result = new BulkImportResult();
+
+    // 编码 -> 第一次出现的行号，只含通过校验的行
+    private final Map<String, Integer> rowByCode = new HashMap<>();
+    // 失败行的编码，子级随之失败
+    private final Set<String> failedCodes = new HashSet<>();
+    private final Map<String, E> existing = new HashMap<>();
+
+    TreeImport(List<R> rows) {
+        this.rows = rows;
+        result.setTotal(rows.size());
+    }
+
+    /**
+     * 校验并解析整批数据
+     *
+     * @return 编码 -> 待插入的实体，按层级从上到下排列
+     */
+    Map<String, E> resolve() {
+        List<Integer> validRows = new ArrayList<>();
+        for (int row = 0; row < rows.size(); row++) {
+            R data = rows.get(row);
+            try {
+                validate(data);
+            } catch (RuntimeException e) {
+                addError(row, code(data), e.getMessage(), true);
+                continue;
+            }
+            Integer firstRow = rowByCode.putIfAbsent(code(data), row);
+            if (firstRow != null) {
+                addError(row, code(data), duplicateMessage(firstRow), false);
+                continue;
+            }
+            validRows.add(row);
+        }
+
+        // 一次预取批内编码和批外父级
+        Set<String> codes = new HashSet<>(rowByCode.keySet());
+        Set<String> autoSortParents = new HashSet<>();
+        boolean autoSortTopLevel = false;
+        for (int row : validRows) {
+            R data = rows.get(row);
+            String parentCode = parentCode(data);
+            if (parentCode != null) {
+                codes.add(parentCode);
+                if (sortOrder(data) == null) {
+                    autoSortParents.add(parentCode);
+                }
+            } else if (sortOrder(data) == null) {
+                autoSortTopLevel = true;
+            }
+        }
+        for (List<String> chunk : ListUtils.partition(new ArrayList<>(codes), AdminBatchWriter.BATCH_SIZE)) {
+            findExisting(chunk).forEach(entity -> existing.put(entityCode(entity), entity));
+        }
+        // 父级编码 -> 已分配的最大排序序号，顶层的父级为null
+        Map<String, Integer> maxSortOrders = new HashMap<>();
+        for (List<String> chunk : ListUtils.partition(new ArrayList<>(autoSortParents), AdminBatchWriter.BATCH_SIZE)) {
+            findMaxSortOrders(chunk).forEach(max -> maxSortOrders.put((String) max[0], (Integer) max[1]));
+        }
+        if (autoSortTopLevel) {
+            maxSortOrders.put(null, findTopLevelMaxSortOrder());
+        }
+
+        // 按层级从上到下处理，父级总是先于子级解析
+        validRows.sort(Comparator.comparing(row -> level(rows.get(row))));
+        Map<String, E> imported = new LinkedHashMap<>();
+        for (int row : validRows) {
+            R data = rows.get(row);
+            String code = code(data);
+            if (existing.containsKey(code)) {
+                result.setSkipped(result.getSkipped() + 1);
+                continue;
+            }
+
+            String parentCode = parentCode(data);
+            E parent = null;
+            if (parentCode != null) {
+                parent = imported.containsKey(parentCode) ? imported.get(parentCode) : existing.get(parentCode);
+                if (parent == null) {
+                    // 父级在批内但尚未解析，说明层级不在父级的下一层
+                    String message = failedCodes.contains(parentCode) ? parentFailedMessage()
+                            : rowByCode.containsKey(parentCode) ? levelMismatchMessage() : parentMissingMessage();
+                    addError(row, code, message + parentCode, true);
+                    continue;
+                }
+            }
+            String error = check(data, parent);
+            if (error != null) {
+                addError(row, code, error, true);
+                continue;
+            }
+            Integer sortOrder = sortOrder(data) != null ? sortOrder(data) : maxSortOrders.merge(parentCode, 1, Integer::sum);
+            imported.put(code, build(data, parent, sortOrder));
+        }
+        return imported;
+    }
+
+    /**
+     * 已存在的编码，包括批内已存在而跳过的行和批外的父级
+     */
+    Set<String> existingCodes() {
+        return existing.keySet();
+    }
+
+    /**
+     * 写库完成后汇总结果
+     */
+    BulkImportResult finish(int imported, long start) {
+        result.setImported(imported);
+        result.setFailed(result.getErrors().size());
+        result.getErrors().sort(Comparator.comparingInt(BulkImportResult.RowError::getRow));
+        result.setCostMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 记录失败行；propagate 为true时记下该编码，其子级随之失败
+     */
+    private void addError(int row, String code, String message, boolean propagate) {
+        result.getErrors().add(new BulkImportResult.RowError(row, code, message));
+        if (propagate && code != null) {
+            failedCodes.add(code);
+        }
+    }
+
+    /**
+     * 父级编码，为空时返回null
+     */
+    private String parentCode(R data) {
+        String parentCode = rawParentCode(data);
+        return StringUtils.hasText(parentCode) ? parentCode : null;
+    }
+
+    /**
+     * 单行校验，不通过时抛出异常，异常信息作为失败原因
+     */
+    protected abstract void validate(R data);
+
+    protected abstract String code(R data);
+
+    protected abstract String rawParentCode(R data);
+
+    protected abstract Integer level(R data);
+
+    protected abstract Integer sortOrder(R data);
+
+    protected abstract String entityCode(E entity);
+
+    protected abstract List<E> findExisting(List<String> codes);
+
+    /**
+     * 各父级下的最大排序序号，每行为 [父级编码, 最大排序序号]
+     */
+    protected abstract List<Object[]> findMaxSortOrders(List<String> parentCodes);
+
+    protected abstract Integer findTopLevelMaxSortOrder();
+
+    protected abstract String duplicateMessage(int firstRow);
+
+    protected abstract String parentFailedMessage();
+
+    protected abstract String parentMissingMessage();
+
+    protected abstract String levelMismatchMessage();
+
+    /**
+     * 与父级的一致性等检查，返回失败原因，通过时返回null
+     *
+     * @param parent 父级实体，顶层时为null
+     */
+    protected abstract String check(R data, E parent);
+
+    /**
+     * 构建待插入的实体
+     *
+     * @param parent    父级实体，顶层时为null
+     * @param sortOrder 排序序号，未指定时已按父级分配
+     */
+    protected abstract E build(R data, E parent, int sortOrder);
+}
@@ -1,9 +1,6 @@
 package com.lore.master.service.ai;
 
 import dev.langchain4j.memory.ChatMemory;
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
-import dev.langchain4j.model.chat.ChatLanguageModel;
-import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.service.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,16 +24,26 @@ public class AssistantServiceConf {
         TokenStream stream(@UserMessage String message, @V("current_date") String currentDate);
     }
 
+    /**
+     * 按用户隔离记忆的Assistant，memoryId即用户ID
+     */
+    public interface UserAssistant {
+        String chat(@MemoryId String userId, @UserMessage String message);
+
+        // 流式响应
+        TokenStream stream(@MemoryId String userId, @UserMessage String message);
+    }
+
 
     @Bean
-    public Assistant assistant(ChatLanguageModel ollamaChatLanguageModel
-            , StreamingChatLanguageModel ollamaStreamingChatModel
+    public Assistant assistant(LlmRouter llmRouter
+            , ChatMemorySummarizer chatMemorySummarizer
 //            , ToolsService toolsService
 //            , EmbeddingStore embeddingStore
 //            , QwenEmbeddingModel qwenEmbeddingModel
     ) {
         // 对话记忆
-        ChatMemory chatMemory = MessageWindowChatMemory.withMaxMessages(10);
+        ChatMemory chatMemory = chatMemorySummarizer.newChatMemory("assistant");
 
         // 内容检索器
 //        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
@@ -50,12 +57,26 @@ public class AssistantServiceConf {
         Assistant assistant = AiServices.builder(Assistant.class)
 //                .tools(toolsService)
 //                .contentRetriever(contentRetriever)
-                .chatLanguageModel(ollamaChatLanguageModel)
-                .streamingChatLanguageModel(ollamaStreamingChatModel)
+                .chatLanguageModel(llmRouter.chatModel())
+                .streamingChatLanguageModel(llmRouter.streamingModel())
                 .chatMemory(chatMemory)
                 .build();
 
         return assistant;
     }
 
+    /**
+     * 全局唯一的用户Assistant，通过ChatMemoryProvider按用户绑定记忆，避免每条消息重新构建动态代理；
+     * 模型调用经LlmRouter限流并在Ollama和千问之间切换
+     */
+    @Bean
+    public UserAssistant userAssistant(LlmRouter llmRouter
+            , UserChatMemoryProvider userChatMemoryProvider) {
+        return AiServices.builder(UserAssistant.class)
+                .chatLanguageModel(llmRouter.chatModel())
+                .streamingChatLanguageModel(llmRouter.streamingModel())
+                .chatMemoryProvider(userChatMemoryProvider)
+                .build();
+    }
+
 }
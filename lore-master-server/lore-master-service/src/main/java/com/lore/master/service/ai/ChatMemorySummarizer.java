@@ -0,0 +1,142 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.service.config.ChatMemoryConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.model.Tokenizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChatMemory摘要器：创建按Token预算裁剪的ChatMemory，并在后台线程中把移出窗口的早期对话折叠成摘要
+ */
+@Slf4j
+@Component
+public class ChatMemorySummarizer {
+
+    /**
+     * 摘要任务队列上限，超出后直接丢弃待折叠的消息（聊天记录仍在数据库中）
+     */
+    private static final int MAX_QUEUED_JOBS = 1000;
+
+    private static final String SUMMARY_PROMPT = """
+            请把下面的对话历史压缩成一段不超过%d字的中文摘要，保留用户的身份背景、学习目标、关键问题和已经得出的结论，
+            不要添加对话中没有的信息，直接输出摘要正文。
+            %s
+            对话历史：
+            %s
+            """;
+
+    /**
+     * 摘要与对话共用后端的并发许可、排队和故障切换
+     */
+    @Resource
+    private LlmRouter llmRouter;
+
+    @Resource
+    private ChatMemoryConfig chatMemoryConfig;
+
+    private final Tokenizer tokenizer = new EstimatingTokenizer();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        int threads = chatMemoryConfig.getSummarizerThreads();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_JOBS), runnable -> {
+            Thread thread = new Thread(runnable, "chat-memory-summarizer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 创建按Token预算裁剪的ChatMemory
+     */
+    public ChatMemory newChatMemory(Object memoryId) {
+        return new SummarizingChatMemory(memoryId, chatMemoryConfig.getMaxTokens(), tokenizer,
+                Boolean.TRUE.equals(chatMemoryConfig.getSummaryEnabled()) ? this : null);
+    }
+
+    /**
+     * 提交摘要任务
+     */
+    void submit(SummarizingChatMemory memory) {
+        try {
+            executor.execute(() -> summarize(memory));
+        } catch (RejectedExecutionException e) {
+            log.warn("摘要任务队列已满，丢弃待折叠的对话: memoryId={}", memory.id());
+            memory.drainPending();
+            memory.completeSummary(memory.generation(), null);
+        }
+    }
+
+    private void summarize(SummarizingChatMemory memory) {
+        int generation = memory.generation();
+        String previousSummary = memory.currentSummary();
+        List<ChatMessage> messages = memory.drainPending();
+        if (messages.isEmpty()) {
+            memory.completeSummary(generation, null);
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        String summary = null;
+        try {
+            int maxChars = chatMemoryConfig.getSummaryMaxTokens();
+            String prompt = String.format(SUMMARY_PROMPT, maxChars,
+                    previousSummary != null ? "已有摘要：\n" + previousSummary + "\n" : "",
+                    formatMessages(messages));
+            summary = truncate(llmRouter.chatModel().chat(prompt).trim());
+            log.debug("对话摘要完成: memoryId={}, foldedMessages={}, summaryLength={}, cost={}ms",
+                    memory.id(), messages.size(), summary.length(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("对话摘要失败，保留原摘要: memoryId={}, error={}", memory.id(), e.getMessage());
+        } finally {
+            memory.completeSummary(generation, summary);
+        }
+    }
+
+    private String formatMessages(List<ChatMessage> messages) {
+        StringBuilder builder = new StringBuilder();
+        for (ChatMessage message : messages) {
+            if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+                builder.append("用户：").append(userMessage.singleText()).append('\n');
+            } else if (message instanceof AiMessage aiMessage && aiMessage.text() != null) {
+                builder.append("助手：").append(aiMessage.text()).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 模型不一定遵守字数要求，超出摘要预算时按估算比例截断
+     */
+    private String truncate(String summary) {
+        int maxTokens = chatMemoryConfig.getSummaryMaxTokens();
+        int tokens = tokenizer.estimateTokenCountInText(summary);
+        if (tokens <= maxTokens) {
+            return summary;
+        }
+        return summary.substring(0, (int) ((long) summary.length() * maxTokens / tokens));
+    }
+}
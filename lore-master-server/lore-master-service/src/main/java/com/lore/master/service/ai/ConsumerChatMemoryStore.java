@@ -0,0 +1,84 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.data.entity.consumer.ConsumerChatMessage;
+import com.lore.master.data.repository.consumer.ConsumerChatMessageRepository;
+import com.lore.master.service.config.ChatMemoryConfig;
+import com.lore.master.service.consumer.chat.ChatSessionService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于consumer_chat_messages表的ChatMemoryStore，memoryId即用户ID，读取用户当前会话
+ *
+ * 消息在写入链路上已由ConsumerChatMessageService落库，这里只负责从数据库重建最近的记忆窗口，
+ * 因此updateMessages/deleteMessages不修改数据库（清除记忆不等于删除聊天记录）
+ */
+@Slf4j
+@Component
+public class ConsumerChatMemoryStore implements ChatMemoryStore {
+
+    @Resource
+    @Qualifier("consumerChatMessageRepository")
+    private ConsumerChatMessageRepository consumerChatMessageRepository;
+
+    @Resource
+    private ChatMemoryConfig chatMemoryConfig;
+
+    @Resource
+    private ChatSessionService chatSessionService;
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        String userId = String.valueOf(memoryId);
+        return getMessages(userId, chatSessionService.getActiveSessionId(userId));
+    }
+
+    /**
+     * 读取指定会话最近的记忆窗口，只扫描(user_id, session_id, create_time)索引末尾的maxMessages条
+     */
+    public List<ChatMessage> getMessages(String userId, String sessionId) {
+        List<ConsumerChatMessage> recentMessages = consumerChatMessageRepository.findRecentMessages(
+                userId, sessionId, PageRequest.of(0, chatMemoryConfig.getMaxMessages()));
+
+        // 查询结果按时间倒序，ChatMemory需要正序
+        List<ChatMessage> messages = new ArrayList<>(recentMessages.size());
+        for (int i = recentMessages.size() - 1; i >= 0; i--) {
+            ConsumerChatMessage msg = recentMessages.get(i);
+            switch (msg.getRole()) {
+                case user:
+                    messages.add(UserMessage.from(msg.getContent()));
+                    break;
+                case assistant:
+                    messages.add(AiMessage.from(msg.getContent()));
+                    break;
+                case system:
+                    messages.add(SystemMessage.from(msg.getContent()));
+                    break;
+            }
+        }
+
+        log.debug("从数据库重建ChatMemory: userId={}, sessionId={}, messageCount={}", userId, sessionId, messages.size());
+        return messages;
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        // 消息已在写入链路落库，无需重复写入
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        // 仅清除内存中的记忆，不删除聊天记录
+    }
+}
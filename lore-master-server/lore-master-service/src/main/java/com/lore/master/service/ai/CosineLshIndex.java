@@ -0,0 +1,188 @@
+package com.lore.master.service.ai;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 基于随机超平面LSH的余弦近似最近邻索引
+ *
+ * 每个哈希表用若干随机超平面把向量映射成位签名，方向相近的向量大概率落在同一个桶中；
+ * 查询时在每个表中探测签名本身及其汉明距离为1的相邻桶，再对候选集做精确的余弦计算。
+ * 要求传入的向量已归一化，此时余弦相似度即点积。非线程安全，由调用方加锁
+ */
+public class CosineLshIndex<T> {
+
+    private final int tables;
+    private final int bits;
+    private final long seed;
+
+    // [表][位][维度]，首次写入时按向量维度生成
+    private float[][][] planes;
+    private int dimension = -1;
+
+    private final List<Map<Integer, Set<Long>>> buckets;
+    private final Map<Long, Item<T>> items = new HashMap<>();
+    private long nextId;
+
+    public CosineLshIndex(int tables, int bits, long seed) {
+        if (bits < 1 || bits > 30) {
+            throw new IllegalArgumentException("LSH签名位数必须在1到30之间: " + bits);
+        }
+        this.tables = tables;
+        this.bits = bits;
+        this.seed = seed;
+        this.buckets = new ArrayList<>(tables);
+        for (int i = 0; i < tables; i++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 写入向量，返回条目ID；向量维度与已有数据不同（例如更换了Embedding模型）时清空索引
+     */
+    public long add(float[] vector, T value) {
+        if (vector.length != dimension) {
+            clear();
+            initPlanes(vector.length);
+        }
+        long id = nextId++;
+        int[] signatures = new int[tables];
+        for (int table = 0; table < tables; table++) {
+            signatures[table] = signature(table, vector);
+            buckets.get(table).computeIfAbsent(signatures[table], key -> new HashSet<>()).add(id);
+        }
+        items.put(id, new Item<>(vector, value, signatures));
+        return id;
+    }
+
+    public void remove(long id) {
+        Item<T> item = items.remove(id);
+        if (item == null) {
+            return;
+        }
+        for (int table = 0; table < tables; table++) {
+            Map<Integer, Set<Long>> tableBuckets = buckets.get(table);
+            Set<Long> bucket = tableBuckets.get(item.signatures[table]);
+            if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                tableBuckets.remove(item.signatures[table]);
+            }
+        }
+    }
+
+    /**
+     * 查找相似度不低于minScore的最近条目，accept返回false的条目跳过，没有时返回null
+     */
+    public Match<T> nearest(float[] vector, double minScore, Predicate<T> accept) {
+        if (vector.length != dimension || items.isEmpty()) {
+            return null;
+        }
+        Set<Long> candidates = new HashSet<>();
+        for (int table = 0; table < tables; table++) {
+            Map<Integer, Set<Long>> tableBuckets = buckets.get(table);
+            int signature = signature(table, vector);
+            collect(tableBuckets, signature, candidates);
+            for (int bit = 0; bit < bits; bit++) {
+                collect(tableBuckets, signature ^ (1 << bit), candidates);
+            }
+        }
+
+        Match<T> best = null;
+        for (Long id : candidates) {
+            Item<T> item = items.get(id);
+            double score = dot(vector, item.vector);
+            if (score >= minScore && (best == null || score > best.score) && accept.test(item.value)) {
+                best = new Match<>(id, item.value, score);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 遍历所有条目，predicate返回true的条目被删除，返回删除数量
+     */
+    public int removeIf(Predicate<T> predicate) {
+        List<Long> removed = new ArrayList<>();
+        for (Map.Entry<Long, Item<T>> entry : items.entrySet()) {
+            if (predicate.test(entry.getValue().value)) {
+                removed.add(entry.getKey());
+            }
+        }
+        removed.forEach(this::remove);
+        return removed.size();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public void clear() {
+        items.clear();
+        buckets.forEach(Map::clear);
+    }
+
+    private void initPlanes(int newDimension) {
+        Random random = new Random(seed);
+        planes = new float[tables][bits][newDimension];
+        for (float[][] tablePlanes : planes) {
+            for (float[] plane : tablePlanes) {
+                for (int i = 0; i < newDimension; i++) {
+                    plane[i] = (float) random.nextGaussian();
+                }
+            }
+        }
+        dimension = newDimension;
+    }
+
+    private int signature(int table, float[] vector) {
+        int signature = 0;
+        float[][] tablePlanes = planes[table];
+        for (int bit = 0; bit < bits; bit++) {
+            if (dot(vector, tablePlanes[bit]) >= 0) {
+                signature |= 1 << bit;
+            }
+        }
+        return signature;
+    }
+
+    private static void collect(Map<Integer, Set<Long>> tableBuckets, int signature, Set<Long> candidates) {
+        Set<Long> bucket = tableBuckets.get(signature);
+        if (bucket != null) {
+            candidates.addAll(bucket);
+        }
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 把向量归一化为单位长度，零向量原样返回
+     */
+    public static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        if (norm == 0) {
+            return vector;
+        }
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    public record Match<T>(long id, T value, double score) {
+    }
+
+    private record Item<T>(float[] vector, T value, int[] signatures) {
+    }
+}
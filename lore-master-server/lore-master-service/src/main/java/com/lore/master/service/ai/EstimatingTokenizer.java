@@ -0,0 +1,112 @@
+package com.lore.master.service.ai;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.Tokenizer;
+
+/**
+ * 本地Token数估算器，不依赖具体模型的词表
+ *
+ * 按Qwen等中文模型的经验值估算：每个汉字/假名/谚文约1个Token，连续的字母数字约4个字符1个Token，
+ * 空白不计，其余标点符号各计1个Token；每条消息另加角色标记开销
+ */
+public class EstimatingTokenizer implements Tokenizer {
+
+    /**
+     * 每条消息的角色、分隔符等固定开销
+     */
+    private static final int TOKENS_PER_MESSAGE = 4;
+
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+
+    @Override
+    public int estimateTokenCountInText(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int tokens = 0;
+        int wordChars = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (Character.isLetterOrDigit(codePoint) && !isCjk(codePoint)) {
+                wordChars++;
+                continue;
+            }
+
+            tokens += wordTokens(wordChars);
+            wordChars = 0;
+            if (!Character.isWhitespace(codePoint)) {
+                tokens++;
+            }
+        }
+        return tokens + wordTokens(wordChars);
+    }
+
+    @Override
+    public int estimateTokenCountInMessage(ChatMessage message) {
+        int tokens = TOKENS_PER_MESSAGE;
+        if (message instanceof UserMessage userMessage) {
+            tokens += userMessage.hasSingleText() ? estimateTokenCountInText(userMessage.singleText()) : 0;
+        } else if (message instanceof AiMessage aiMessage) {
+            tokens += estimateTokenCountInText(aiMessage.text());
+            if (aiMessage.hasToolExecutionRequests()) {
+                tokens += estimateTokenCountInToolExecutionRequests(aiMessage.toolExecutionRequests());
+            }
+        } else if (message instanceof SystemMessage systemMessage) {
+            tokens += estimateTokenCountInText(systemMessage.text());
+        } else if (message instanceof ToolExecutionResultMessage resultMessage) {
+            tokens += estimateTokenCountInText(resultMessage.text());
+        }
+        return tokens;
+    }
+
+    @Override
+    public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+        int tokens = 0;
+        for (ChatMessage message : messages) {
+            tokens += estimateTokenCountInMessage(message);
+        }
+        return tokens;
+    }
+
+    @Override
+    public int estimateTokenCountInToolSpecifications(Iterable<ToolSpecification> toolSpecifications) {
+        int tokens = 0;
+        for (ToolSpecification specification : toolSpecifications) {
+            tokens += estimateTokenCountInText(specification.name());
+            tokens += estimateTokenCountInText(specification.description());
+            tokens += estimateTokenCountInText(String.valueOf(specification.parameters()));
+        }
+        return tokens;
+    }
+
+    @Override
+    public int estimateTokenCountInToolExecutionRequests(Iterable<ToolExecutionRequest> toolExecutionRequests) {
+        int tokens = 0;
+        for (ToolExecutionRequest request : toolExecutionRequests) {
+            tokens += estimateTokenCountInText(request.name());
+            tokens += estimateTokenCountInText(request.arguments());
+        }
+        return tokens;
+    }
+
+    private static int wordTokens(int wordChars) {
+        return (wordChars + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
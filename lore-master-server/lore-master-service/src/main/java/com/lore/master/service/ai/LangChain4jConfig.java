@@ -5,7 +5,9 @@ import dev.langchain4j.community.model.dashscope.QwenStreamingChatModel;
 
 
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.ollama.OllamaChatModel;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
 import dev.langchain4j.model.ollama.OllamaStreamingChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -29,6 +31,8 @@ public class LangChain4jConfig {
     private String ollamaUrl;
     @Value("${llm.ollama.model:qwen3:0.6b}")
     private String ollamaModelName;
+    @Value("${llm.ollama.embedding-model:nomic-embed-text}")
+    private String ollamaEmbeddingModelName;
 
     @Value("${langchain4j.openai.temperature:0.7}")
     private Float temperature;
@@ -100,6 +104,17 @@ public class LangChain4jConfig {
                 .build();
     }
 
+    /**
+     * 向量模型
+     */
+    @Bean(name = "ollamaEmbeddingModel")
+    public EmbeddingModel ollamaEmbeddingModel() {
+        return OllamaEmbeddingModel.builder()
+                .baseUrl(ollamaUrl)
+                .modelName(ollamaEmbeddingModelName)
+                .build();
+    }
+
 
     public static void main(String[] args) {
 //        qwenChatTest();
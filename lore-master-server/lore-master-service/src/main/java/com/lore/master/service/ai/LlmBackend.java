@@ -0,0 +1,187 @@
+package com.lore.master.service.ai;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 路由中的单个LLM后端：并发许可、有界公平等待队列、健康状态和指标
+ *
+ * 许可不足时请求按到达顺序排队，释放许可时直接交给队首请求，排队不占用线程；
+ * 队列已满立即拒绝，排队超时回调onTimeout。连续失败达到阈值后进入冷却期，
+ * 冷却期内视为不健康，冷却结束后放行请求探测，成功一次即恢复
+ */
+public class LlmBackend {
+
+    private final String name;
+    private final ChatLanguageModel chatModel;
+    private final StreamingChatLanguageModel streamingModel;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final ScheduledExecutorService timer;
+
+    // 以下字段由this锁保护
+    private int available;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private int maxQueueDepth;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long unhealthyUntil;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder queueTimeoutCount = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder grantedCount = new LongAdder();
+
+    public LlmBackend(String name, ChatLanguageModel chatModel, StreamingChatLanguageModel streamingModel,
+                      int maxConcurrent, int maxQueue, ScheduledExecutorService timer) {
+        this.name = name;
+        this.chatModel = chatModel;
+        this.streamingModel = streamingModel;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.timer = timer;
+        this.available = maxConcurrent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ChatLanguageModel getChatModel() {
+        return chatModel;
+    }
+
+    public StreamingChatLanguageModel getStreamingModel() {
+        return streamingModel;
+    }
+
+    /**
+     * 申请一个许可
+     *
+     * @param onGranted 获得许可后执行，可能在释放许可的线程中执行
+     * @param onTimeout 排队超时后在定时线程中执行
+     * @return false表示队列已满被拒绝，两个回调都不会执行
+     */
+    public boolean acquire(long timeoutMillis, Runnable onGranted, Runnable onTimeout) {
+        requestCount.increment();
+        Waiter waiter;
+        synchronized (this) {
+            if (available > 0 && waiters.isEmpty()) {
+                available--;
+                waiter = null;
+            } else if (waiters.size() >= maxQueue) {
+                rejectedCount.increment();
+                return false;
+            } else {
+                waiter = new Waiter(onGranted, onTimeout, System.nanoTime());
+                waiters.addLast(waiter);
+                maxQueueDepth = Math.max(maxQueueDepth, waiters.size());
+                waiter.timeout = timer.schedule(() -> expire(waiter), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (waiter == null) {
+            grantedCount.increment();
+            onGranted.run();
+        }
+        return true;
+    }
+
+    /**
+     * 释放许可，有排队请求时直接转交给队首
+     */
+    public void release() {
+        Waiter next;
+        synchronized (this) {
+            next = waiters.pollFirst();
+            if (next == null) {
+                available++;
+                return;
+            }
+        }
+        next.timeout.cancel(false);
+        queueWaitNanos.add(System.nanoTime() - next.enqueuedAt);
+        grantedCount.increment();
+        next.onGranted.run();
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!waiters.remove(waiter)) {
+                // 已经拿到许可
+                return;
+            }
+        }
+        queueTimeoutCount.increment();
+        waiter.onTimeout.run();
+    }
+
+    public boolean isHealthy() {
+        return System.currentTimeMillis() >= unhealthyUntil;
+    }
+
+    public void recordSuccess(long elapsedNanos) {
+        successCount.increment();
+        latencyNanos.add(elapsedNanos);
+        consecutiveFailures.set(0);
+        unhealthyUntil = 0;
+    }
+
+    public void recordFailure(int failureThreshold, long cooldownMillis) {
+        failureCount.increment();
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            unhealthyUntil = System.currentTimeMillis() + cooldownMillis;
+        }
+    }
+
+    /**
+     * 后端指标
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        synchronized (this) {
+            result.put("active", maxConcurrent - available);
+            result.put("queueDepth", waiters.size());
+            result.put("maxQueueDepth", maxQueueDepth);
+        }
+        long successes = successCount.sum();
+        long granted = grantedCount.sum();
+        result.put("maxConcurrent", maxConcurrent);
+        result.put("maxQueue", maxQueue);
+        result.put("healthy", isHealthy());
+        result.put("consecutiveFailures", consecutiveFailures.get());
+        result.put("requestCount", requestCount.sum());
+        result.put("successCount", successes);
+        result.put("failureCount", failureCount.sum());
+        result.put("rejectedCount", rejectedCount.sum());
+        result.put("queueTimeoutCount", queueTimeoutCount.sum());
+        result.put("averageLatencyMillis", successes == 0 ? 0.0 : latencyNanos.sum() / 1_000_000.0 / successes);
+        result.put("averageQueueWaitMillis", granted == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / granted);
+        return result;
+    }
+
+    private static final class Waiter {
+        private final Runnable onGranted;
+        private final Runnable onTimeout;
+        private final long enqueuedAt;
+        private ScheduledFuture<?> timeout;
+
+        private Waiter(Runnable onGranted, Runnable onTimeout, long enqueuedAt) {
+            this.onGranted = onGranted;
+            this.onTimeout = onTimeout;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
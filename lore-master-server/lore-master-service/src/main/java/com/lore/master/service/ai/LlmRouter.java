@@ -0,0 +1,303 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.service.config.LlmRouterConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.Response;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LLM后端路由器
+ *
+ * 对外提供路由后的同步/流式模型，内部按主备顺序选择后端：主后端不健康或排队已满时切换到备用后端，
+ * 所有后端都无法接收时抛出LLM_BUSY。请求失败且尚未向用户输出内容时，在备用后端上重试一次
+ */
+@Slf4j
+@Component
+public class LlmRouter {
+
+    @Resource(name = "ollamaChatLanguageModel")
+    private ChatLanguageModel ollamaChatLanguageModel;
+
+    @Resource(name = "ollamaStreamingChatModel")
+    private StreamingChatLanguageModel ollamaStreamingChatModel;
+
+    @Resource(name = "qwenChatLanguageModel")
+    private ChatLanguageModel qwenChatLanguageModel;
+
+    @Resource(name = "qwenStreamingChatLanguageModel")
+    private StreamingChatLanguageModel qwenStreamingChatLanguageModel;
+
+    @Resource
+    private LlmRouterConfig llmRouterConfig;
+
+    private ScheduledThreadPoolExecutor timer;
+    private final Map<String, LlmBackend> backends = new HashMap<>();
+
+    private final RoutingChatModel chatModel = new RoutingChatModel();
+    private final RoutingStreamingChatModel streamingModel = new RoutingStreamingChatModel();
+
+    @PostConstruct
+    public void init() {
+        timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "llm-router-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+
+        LlmRouterConfig.Backend ollama = llmRouterConfig.getOllama();
+        backends.put("ollama", new LlmBackend("ollama", ollamaChatLanguageModel, ollamaStreamingChatModel,
+                ollama.getMaxConcurrent(), ollama.getMaxQueue(), timer));
+        LlmRouterConfig.Backend qwen = llmRouterConfig.getQwen();
+        backends.put("qwen", new LlmBackend("qwen", qwenChatLanguageModel, qwenStreamingChatLanguageModel,
+                qwen.getMaxConcurrent(), qwen.getMaxQueue(), timer));
+
+        if (!backends.containsKey(llmRouterConfig.getPrimary())) {
+            throw new IllegalStateException("未知的LLM主后端: " + llmRouterConfig.getPrimary());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * 路由后的同步模型
+     */
+    public ChatLanguageModel chatModel() {
+        return chatModel;
+    }
+
+    /**
+     * 路由后的流式模型
+     */
+    public StreamingChatLanguageModel streamingModel() {
+        return streamingModel;
+    }
+
+    /**
+     * 各后端指标
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("primary", llmRouterConfig.getPrimary());
+        result.put("secondary", llmRouterConfig.getSecondary());
+        for (LlmBackend backend : backends.values()) {
+            result.put(backend.getName(), backend.getStats());
+        }
+        return result;
+    }
+
+    /**
+     * 按优先级排列的候选后端：健康的在前；全部不健康时仍保留主后端，让请求去探测
+     */
+    private List<LlmBackend> candidates() {
+        LlmBackend primary = backends.get(llmRouterConfig.getPrimary());
+        LlmBackend secondary = Boolean.TRUE.equals(llmRouterConfig.getFailoverEnabled())
+                ? backends.get(llmRouterConfig.getSecondary()) : null;
+        if (secondary == primary) {
+            secondary = null;
+        }
+
+        List<LlmBackend> candidates = new ArrayList<>(2);
+        if (primary.isHealthy()) {
+            candidates.add(primary);
+        }
+        if (secondary != null && secondary.isHealthy()) {
+            candidates.add(secondary);
+        }
+        if (candidates.isEmpty()) {
+            candidates.add(primary);
+        }
+        return candidates;
+    }
+
+    private BusinessException busy() {
+        return new BusinessException(ResultCode.LLM_BUSY);
+    }
+
+    private void recordFailure(LlmBackend backend, Throwable error) {
+        backend.recordFailure(llmRouterConfig.getFailureThreshold(), llmRouterConfig.getCooldownMillis());
+        log.warn("LLM后端调用失败: backend={}, healthy={}, error={}", backend.getName(), backend.isHealthy(), error.getMessage());
+    }
+
+    private ChatResponse chat(ChatRequest request) {
+        RuntimeException lastError = null;
+        for (LlmBackend backend : candidates()) {
+            CompletableFuture<Void> granted = new CompletableFuture<>();
+            if (!backend.acquire(llmRouterConfig.getQueueTimeoutMillis(),
+                    () -> granted.complete(null), () -> granted.completeExceptionally(busy()))) {
+                continue;
+            }
+            try {
+                granted.join();
+            } catch (CompletionException e) {
+                continue;
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                ChatResponse response = backend.getChatModel().chat(request);
+                backend.recordSuccess(System.nanoTime() - startTime);
+                return response;
+            } catch (RuntimeException e) {
+                recordFailure(backend, e);
+                lastError = e;
+            } finally {
+                backend.release();
+            }
+        }
+        throw lastError != null ? lastError : busy();
+    }
+
+    private void stream(ChatRequest request, StreamingChatResponseHandler handler, List<LlmBackend> candidates, int index) {
+        if (index >= candidates.size()) {
+            handler.onError(busy());
+            return;
+        }
+        LlmBackend backend = candidates.get(index);
+        boolean accepted = backend.acquire(llmRouterConfig.getQueueTimeoutMillis(),
+                () -> startStream(request, handler, candidates, index, backend),
+                () -> handler.onError(busy()));
+        if (!accepted) {
+            stream(request, handler, candidates, index + 1);
+        }
+    }
+
+    private void startStream(ChatRequest request, StreamingChatResponseHandler handler,
+                             List<LlmBackend> candidates, int index, LlmBackend backend) {
+        long startTime = System.nanoTime();
+        AtomicBoolean emitted = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+
+        StreamingChatResponseHandler routed = new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                emitted.set(true);
+                handler.onPartialResponse(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                if (finished.compareAndSet(false, true)) {
+                    backend.recordSuccess(System.nanoTime() - startTime);
+                    backend.release();
+                    handler.onCompleteResponse(completeResponse);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (!finished.compareAndSet(false, true)) {
+                    return;
+                }
+                backend.release();
+                if (error instanceof CancellationException) {
+                    // 调用方主动取消，不算后端故障
+                    handler.onError(error);
+                    return;
+                }
+                recordFailure(backend, error);
+                // 已经输出过内容时不能换后端重来，否则用户会看到两段拼接的回答
+                if (!emitted.get() && index + 1 < candidates.size()) {
+                    log.info("LLM流式请求切换后端: from={}, to={}", backend.getName(), candidates.get(index + 1).getName());
+                    stream(request, handler, candidates, index + 1);
+                } else {
+                    handler.onError(error);
+                }
+            }
+        };
+
+        try {
+            backend.getStreamingModel().chat(request, routed);
+        } catch (RuntimeException e) {
+            routed.onError(e);
+        }
+    }
+
+    private class RoutingChatModel implements ChatLanguageModel {
+
+        @Override
+        public ChatResponse chat(ChatRequest request) {
+            return LlmRouter.this.chat(request);
+        }
+
+        /**
+         * 当前版本中generate仍是接口的抽象方法，必须实现；只委托给chat，不在别处调用
+         */
+        @Override
+        @SuppressWarnings("removal")
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            return Response.from(chat(ChatRequest.builder().messages(messages).build()).aiMessage());
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return backends.get(llmRouterConfig.getPrimary()).getChatModel().supportedCapabilities();
+        }
+    }
+
+    private class RoutingStreamingChatModel implements StreamingChatLanguageModel {
+
+        @Override
+        public void chat(ChatRequest request, StreamingChatResponseHandler handler) {
+            stream(request, handler, candidates(), 0);
+        }
+
+        /**
+         * 同上，只委托给chat
+         */
+        @Override
+        @SuppressWarnings("removal")
+        public void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+            chat(ChatRequest.builder().messages(messages).build(), new StreamingChatResponseHandler() {
+                @Override
+                public void onPartialResponse(String partialResponse) {
+                    handler.onNext(partialResponse);
+                }
+
+                @Override
+                public void onCompleteResponse(ChatResponse completeResponse) {
+                    handler.onComplete(Response.from(completeResponse.aiMessage(),
+                            completeResponse.tokenUsage(), completeResponse.finishReason()));
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    handler.onError(error);
+                }
+            });
+        }
+
+        @Override
+        public Set<Capability> supportedCapabilities() {
+            return backends.get(llmRouterConfig.getPrimary()).getStreamingModel().supportedCapabilities();
+        }
+    }
+}
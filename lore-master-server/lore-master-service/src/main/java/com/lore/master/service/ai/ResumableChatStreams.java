@@ -0,0 +1,170 @@
+package com.lore.master.service.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.data.dto.chat.ChatStreamFrame;
+import com.lore.master.service.config.ChatStreamConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 可续传的流式回答
+ *
+ * 每次回答按 用户ID+messageId 登记，生成与订阅解耦：客户端断开不会中断生成，
+ * 生成出的帧保存在定长环形缓冲中，重连时从Last-Event-ID之后的帧开始重放再接上实时输出。
+ * 生成在boundedElastic线程上启动，加载记忆、语义缓存探测和消息入队都不占用请求线程
+ */
+@Slf4j
+@Component
+public class ResumableChatStreams {
+
+    @Resource
+    private ChatStreamConfig chatStreamConfig;
+
+    private Cache<String, ResumableStream> streams;
+
+    @PostConstruct
+    public void init() {
+        streams = Caffeine.newBuilder()
+                .maximumSize(chatStreamConfig.getSseMaxStreams())
+                .expireAfterAccess(Duration.ofSeconds(chatStreamConfig.getSseRetentionSeconds()))
+                .build();
+    }
+
+    /**
+     * 订阅一次回答：已存在时从lastSeq之后续传；不存在时只有新请求（lastSeq为-1且source不为null）才用source启动新的生成。
+     * 续传请求找不到回答（已过期、被淘汰或在其他节点上）时返回终止的error帧而不重新生成，
+     * 否则新生成的回答会从序号0开始拼接在客户端已收到的帧后面
+     *
+     * @param lastSeq 客户端已收到的最后一帧序号，-1表示从头开始
+     * @param source 生成回答的数据源，为null时只续传已有的回答
+     */
+    public Flux<ChatStreamFrame> subscribe(String userId, String messageId, long lastSeq, Supplier<Flux<String>> source) {
+        String key = userId + ":" + messageId;
+        ResumableStream stream;
+        if (lastSeq < 0 && source != null) {
+            stream = streams.get(key, k -> new ResumableStream(k, messageId));
+            stream.startOnce(source);
+        } else {
+            stream = streams.getIfPresent(key);
+            if (stream == null) {
+                log.info("SSE续传失败，回答不存在: key={}, lastSeq={}", key, lastSeq);
+                ChatStreamFrame frame = ChatStreamFrame.of(ChatStreamFrame.ERROR, lastSeq + 1, messageId);
+                frame.setMessage("回答已过期或不在当前服务器，无法续传，请重新发起对话");
+                return Flux.just(frame);
+            }
+        }
+        // 写出连接可能阻塞，放到独立线程上，避免慢客户端在锁内拖住生成和其他订阅者
+        return Flux.<ChatStreamFrame>create(sink -> stream.attach(sink, lastSeq))
+                .publishOn(Schedulers.boundedElastic());
+    }
+
+    private boolean isBusy(Throwable error) {
+        return error instanceof BusinessException businessException
+                && businessException.getCode() == ResultCode.LLM_BUSY.getCode();
+    }
+
+    /**
+     * 一次回答的帧缓冲和实时订阅者
+     */
+    private final class ResumableStream {
+        private final String key;
+        private final String messageId;
+        private final ChatStreamFrame[] ring;
+        private final List<FluxSink<ChatStreamFrame>> listeners = new ArrayList<>();
+        private long nextSeq;
+        private boolean started;
+        private boolean finished;
+
+        private ResumableStream(String key, String messageId) {
+            this.key = key;
+            this.messageId = messageId;
+            this.ring = new ChatStreamFrame[chatStreamConfig.getSseReplayFrames()];
+        }
+
+        void startOnce(Supplier<Flux<String>> source) {
+            synchronized (this) {
+                if (started) {
+                    return;
+                }
+                started = true;
+            }
+            publish(ChatStreamFrame.START, null, null);
+            TokenCoalescer.coalesce(Flux.defer(source).subscribeOn(Schedulers.boundedElastic()), chatStreamConfig)
+                    .subscribe(
+                            delta -> publish(ChatStreamFrame.DELTA, delta, null),
+                            error -> {
+                                if (isBusy(error)) {
+                                    publish(ChatStreamFrame.BUSY, null, error.getMessage());
+                                } else {
+                                    log.error("SSE流式响应错误: key={}", key, error);
+                                    publish(ChatStreamFrame.ERROR, null, error.getMessage());
+                                }
+                            },
+                            () -> publish(ChatStreamFrame.END, null, null));
+        }
+
+        /**
+         * 先重放缓冲中lastSeq之后的帧，再登记为实时订阅者；两步在同一把锁内完成，不会漏帧或重复
+         */
+        synchronized void attach(FluxSink<ChatStreamFrame> sink, long lastSeq) {
+            long oldest = Math.max(0, nextSeq - ring.length);
+            if (lastSeq + 1 < oldest) {
+                ChatStreamFrame frame = ChatStreamFrame.of(ChatStreamFrame.ERROR, oldest, messageId);
+                frame.setMessage("续传位置已超出缓存范围，请重新发起对话");
+                sink.next(frame);
+                sink.complete();
+                return;
+            }
+            for (long seq = lastSeq + 1; seq < nextSeq; seq++) {
+                sink.next(ring[(int) (seq % ring.length)]);
+            }
+            if (finished) {
+                sink.complete();
+                return;
+            }
+            listeners.add(sink);
+            sink.onDispose(() -> detach(sink));
+        }
+
+        private synchronized void detach(FluxSink<ChatStreamFrame> sink) {
+            listeners.remove(sink);
+        }
+
+        private void publish(String type, String delta, String message) {
+            List<FluxSink<ChatStreamFrame>> completed = null;
+            synchronized (this) {
+                ChatStreamFrame frame = ChatStreamFrame.of(type, nextSeq, messageId);
+                frame.setDelta(delta);
+                frame.setMessage(message);
+                ring[(int) (nextSeq % ring.length)] = frame;
+                nextSeq++;
+                for (FluxSink<ChatStreamFrame> listener : listeners) {
+                    listener.next(frame);
+                }
+                if (!ChatStreamFrame.START.equals(type) && !ChatStreamFrame.DELTA.equals(type)) {
+                    finished = true;
+                    completed = new ArrayList<>(listeners);
+                    listeners.clear();
+                }
+            }
+            // 刷新访问时间，生成中的回答不会因超时被淘汰
+            streams.getIfPresent(key);
+            if (completed != null) {
+                completed.forEach(FluxSink::complete);
+            }
+        }
+    }
+}
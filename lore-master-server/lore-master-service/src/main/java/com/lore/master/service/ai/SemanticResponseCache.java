@@ -0,0 +1,272 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.service.config.SemanticCacheConfig;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LLM语义响应缓存
+ *
+ * 问题经Embedding模型向量化后在近期问答对的LSH索引中查找，余弦相似度达到阈值即直接返回缓存的回答。
+ * 只缓存不依赖个人记忆的通用问题：带有“我的”“刚才”等特征词或过长的问题直接跳过，
+ * 这类问题的回答取决于用户上下文，不能复用给其他用户。特征词只检查问题本身，
+ * 带记忆生成的回答由调用方保证只在用户记忆为空时写入
+ */
+@Slf4j
+@Component
+public class SemanticResponseCache {
+
+    /**
+     * 每写入多少条清理一次过期条目
+     */
+    private static final int PURGE_EVERY_STORES = 256;
+
+    private static final long LSH_SEED = 0x5EED_CAC4EL;
+
+    @Resource(name = "ollamaEmbeddingModel")
+    private EmbeddingModel embeddingModel;
+
+    @Resource
+    private SemanticCacheConfig semanticCacheConfig;
+
+    // 以下字段由this锁保护
+    private CosineLshIndex<Entry> index;
+    private final LinkedHashMap<Long, Entry> lru = new LinkedHashMap<>(16, 0.75f, true);
+    private long storesSincePurge;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder bypassCount = new LongAdder();
+    private final LongAdder storeCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder embeddingFailureCount = new LongAdder();
+    private final LongAdder embeddingNanos = new LongAdder();
+    private final LongAdder savedMillis = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        index = new CosineLshIndex<>(semanticCacheConfig.getLshTables(), semanticCacheConfig.getLshBits(), LSH_SEED);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(semanticCacheConfig.getEnabled());
+    }
+
+    /**
+     * 问题是否可以走语义缓存
+     */
+    public boolean isCacheable(String question) {
+        if (!isEnabled() || question == null || question.isBlank()
+                || question.length() > semanticCacheConfig.getMaxQuestionLength()) {
+            return false;
+        }
+        for (String keyword : semanticCacheConfig.getPersonalKeywords()) {
+            if (question.contains(keyword)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 查询缓存，问题不可缓存或向量化失败时返回null，调用方按未启用缓存处理
+     */
+    public Probe probe(String question) {
+        if (!isCacheable(question)) {
+            bypassCount.increment();
+            return null;
+        }
+
+        long startTime = System.nanoTime();
+        float[] vector;
+        try {
+            vector = CosineLshIndex.normalize(embeddingModel.embed(question).content().vector());
+        } catch (Exception e) {
+            embeddingFailureCount.increment();
+            bypassCount.increment();
+            log.warn("语义缓存向量化失败，跳过缓存: error={}", e.getMessage());
+            return null;
+        }
+        embeddingNanos.add(System.nanoTime() - startTime);
+
+        Entry hit;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            List<Long> expired = new ArrayList<>();
+            CosineLshIndex.Match<Entry> match = index.nearest(vector, semanticCacheConfig.getSimilarityThreshold(), entry -> {
+                if (entry.expireAt <= now) {
+                    expired.add(entry.id);
+                    return false;
+                }
+                return true;
+            });
+            expired.forEach(this::removeEntry);
+            expiredCount.add(expired.size());
+
+            hit = match != null ? match.value() : null;
+            if (hit != null) {
+                // 刷新LRU顺序
+                lru.get(hit.id);
+            }
+        }
+
+        long lookupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (hit == null) {
+            missCount.increment();
+            return new Probe(question, vector, null);
+        }
+        hitCount.increment();
+        savedMillis.add(Math.max(0, hit.generationMillis - lookupMillis));
+        log.debug("语义缓存命中: question={}, cachedQuestion={}, lookup={}ms", question, hit.question, lookupMillis);
+        return new Probe(question, vector, hit.answer);
+    }
+
+    /**
+     * 写入未命中的问题的回答
+     *
+     * @param generationMillis 模型生成该回答的耗时，用于估算命中节省的时间
+     */
+    public void store(Probe probe, String answer, long generationMillis) {
+        if (probe == null || probe.isHit() || answer == null || answer.isBlank()) {
+            return;
+        }
+        long expireAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(semanticCacheConfig.getTtlMinutes());
+        synchronized (this) {
+            Entry entry = new Entry(probe.question, answer, generationMillis, expireAt);
+            int sizeBefore = index.size();
+            entry.id = index.add(probe.vector, entry);
+            if (index.size() <= sizeBefore) {
+                // 向量维度变化导致索引被清空
+                lru.clear();
+            }
+            lru.put(entry.id, entry);
+
+            if (++storesSincePurge >= PURGE_EVERY_STORES) {
+                storesSincePurge = 0;
+                long now = System.currentTimeMillis();
+                List<Long> expired = new ArrayList<>();
+                lru.forEach((id, cached) -> {
+                    if (cached.expireAt <= now) {
+                        expired.add(id);
+                    }
+                });
+                expired.forEach(this::removeEntry);
+                expiredCount.add(expired.size());
+            }
+
+            Iterator<Long> eldest = lru.keySet().iterator();
+            while (lru.size() > semanticCacheConfig.getMaxEntries() && eldest.hasNext()) {
+                long id = eldest.next();
+                eldest.remove();
+                index.remove(id);
+                evictionCount.increment();
+            }
+        }
+        storeCount.increment();
+    }
+
+    /**
+     * 把缓存的回答切分成若干段，用于模拟流式输出
+     */
+    public List<String> split(String answer) {
+        int chunkChars = semanticCacheConfig.getReplayChunkChars();
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < answer.length()) {
+            int codePoints = answer.codePointCount(start, answer.length());
+            int end = answer.offsetByCodePoints(start, Math.min(chunkChars, codePoints));
+            chunks.add(answer.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        lru.clear();
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long lookups = hits + misses;
+        int entries;
+        synchronized (this) {
+            entries = lru.size();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("entries", entries);
+        result.put("hitCount", hits);
+        result.put("missCount", misses);
+        result.put("bypassCount", bypassCount.sum());
+        result.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        result.put("storeCount", storeCount.sum());
+        result.put("evictionCount", evictionCount.sum());
+        result.put("expiredCount", expiredCount.sum());
+        result.put("embeddingFailureCount", embeddingFailureCount.sum());
+        result.put("averageEmbeddingMillis", lookups == 0 ? 0.0 : embeddingNanos.sum() / 1_000_000.0 / lookups);
+        result.put("savedMillis", savedMillis.sum());
+        return result;
+    }
+
+    private void removeEntry(long id) {
+        lru.remove(id);
+        index.remove(id);
+    }
+
+    /**
+     * 一次缓存查询的结果，未命中时用于写回
+     */
+    public static final class Probe {
+        private final String question;
+        private final float[] vector;
+        private final String answer;
+
+        private Probe(String question, float[] vector, String answer) {
+            this.question = question;
+            this.vector = vector;
+            this.answer = answer;
+        }
+
+        public boolean isHit() {
+            return answer != null;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+    }
+
+    private static final class Entry {
+        private long id;
+        private final String question;
+        private final String answer;
+        private final long generationMillis;
+        private final long expireAt;
+
+        private Entry(String question, String answer, long generationMillis, long expireAt) {
+            this.question = question;
+            this.answer = answer;
+            this.generationMillis = generationMillis;
+            this.expireAt = expireAt;
+        }
+    }
+}
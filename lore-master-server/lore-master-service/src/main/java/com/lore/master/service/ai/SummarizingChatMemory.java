@@ -0,0 +1,189 @@
+package com.lore.master.service.ai;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.model.Tokenizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 按Token预算裁剪的ChatMemory，超出预算的早期对话交给后台任务折叠成摘要
+ *
+ * 消息窗口、摘要和系统消息共用同一个Token预算：每次add后立即把最早的消息移出窗口，
+ * 保证下一轮发送给模型的上下文不超过预算；被移出的消息排队等待ChatMemorySummarizer
+ * 异步合并进摘要，摘要完成前这部分内容暂时不出现在上下文中
+ */
+public class SummarizingChatMemory implements ChatMemory {
+
+    private static final String SUMMARY_PREFIX = "以下是此前对话的摘要，请结合摘要继续回答：\n";
+
+    private final Object id;
+    private final int maxTokens;
+    private final Tokenizer tokenizer;
+    private final ChatMemorySummarizer summarizer;
+
+    private SystemMessage systemMessage;
+    private int systemTokens;
+
+    private SystemMessage summaryMessage;
+    private int summaryTokens;
+
+    private final Deque<Entry> window = new ArrayDeque<>();
+    private int windowTokens;
+
+    private List<ChatMessage> pending = new ArrayList<>();
+    private boolean summarizing;
+
+    // 每次clear递增，用于丢弃clear之前提交的摘要结果
+    private int generation;
+
+    /**
+     * @param summarizer 为null时退化为普通的Token窗口，移出的消息直接丢弃
+     */
+    public SummarizingChatMemory(Object id, int maxTokens, Tokenizer tokenizer, ChatMemorySummarizer summarizer) {
+        this.id = id;
+        this.maxTokens = maxTokens;
+        this.tokenizer = tokenizer;
+        this.summarizer = summarizer;
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    @Override
+    public synchronized void add(ChatMessage message) {
+        append(message);
+        evict();
+    }
+
+    /**
+     * 用已持久化的历史消息填充新建的记忆：超出预算的早期消息直接丢弃，不提交摘要任务。
+     * 缓存淘汰后的每次重建都会回放同一批消息，重新摘要只会重复消耗模型
+     */
+    public synchronized void restore(List<ChatMessage> messages) {
+        messages.forEach(this::append);
+        trimWindow();
+        pending.clear();
+    }
+
+    @Override
+    public synchronized List<ChatMessage> messages() {
+        List<ChatMessage> messages = new ArrayList<>(window.size() + 2);
+        if (systemMessage != null) {
+            messages.add(systemMessage);
+        }
+        if (summaryMessage != null) {
+            messages.add(summaryMessage);
+        }
+        for (Entry entry : window) {
+            messages.add(entry.message);
+        }
+        return messages;
+    }
+
+    @Override
+    public synchronized void clear() {
+        systemMessage = null;
+        systemTokens = 0;
+        summaryMessage = null;
+        summaryTokens = 0;
+        window.clear();
+        windowTokens = 0;
+        pending = new ArrayList<>();
+        generation++;
+    }
+
+    /**
+     * 当前上下文的估算Token数
+     */
+    public synchronized int tokenCount() {
+        return systemTokens + summaryTokens + windowTokens;
+    }
+
+    /**
+     * 取出待折叠的消息，由摘要线程调用
+     */
+    synchronized List<ChatMessage> drainPending() {
+        List<ChatMessage> drained = pending;
+        pending = new ArrayList<>();
+        return drained;
+    }
+
+    synchronized int generation() {
+        return generation;
+    }
+
+    /**
+     * 当前摘要文本，没有摘要时返回null
+     */
+    synchronized String currentSummary() {
+        return summaryMessage != null ? summaryMessage.text().substring(SUMMARY_PREFIX.length()) : null;
+    }
+
+    /**
+     * 摘要任务结束，summary为null表示本次摘要失败，保留原摘要
+     */
+    synchronized void completeSummary(int summaryGeneration, String summary) {
+        summarizing = false;
+        if (summaryGeneration == generation && summary != null && !summary.isBlank()) {
+            summaryMessage = SystemMessage.from(SUMMARY_PREFIX + summary);
+            summaryTokens = tokenizer.estimateTokenCountInMessage(summaryMessage);
+        }
+        evict();
+    }
+
+    /**
+     * 把最早的消息移出窗口直到满足预算，至少保留最新的一条
+     */
+    private void evict() {
+        trimWindow();
+
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (summarizer == null) {
+            pending.clear();
+        } else if (!summarizing) {
+            summarizing = true;
+            summarizer.submit(this);
+        }
+    }
+
+    private void trimWindow() {
+        int budget = maxTokens - systemTokens - summaryTokens;
+        while (windowTokens > budget && window.size() > 1) {
+            evictFirst();
+            // 按整轮对话移出，保证窗口以用户消息开头，AI回复和工具调用结果不会脱离对应的提问
+            while (window.size() > 1 && !(window.peekFirst().message instanceof UserMessage)) {
+                evictFirst();
+            }
+        }
+    }
+
+    private void append(ChatMessage message) {
+        if (message instanceof SystemMessage newSystemMessage) {
+            systemMessage = newSystemMessage;
+            systemTokens = tokenizer.estimateTokenCountInMessage(newSystemMessage);
+        } else {
+            int tokens = tokenizer.estimateTokenCountInMessage(message);
+            window.addLast(new Entry(message, tokens));
+            windowTokens += tokens;
+        }
+    }
+
+    private void evictFirst() {
+        Entry evicted = window.removeFirst();
+        windowTokens -= evicted.tokens;
+        pending.add(evicted.message);
+    }
+
+    private record Entry(ChatMessage message, int tokens) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.service.config.ChatStreamConfig;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式输出的token合并器
+ *
+ * 小模型每秒能吐出上百个只有一两个字的token，逐个发送时每个token都是一次帧编码和一次系统调用。
+ * 合并策略类似Nagle：距上次发送已超过maxDelay时立即发送，保证首字和慢速输出不增加延迟；
+ * 否则先缓冲，累计到maxBytes或距上次发送满maxDelay时再合并成一帧发送
+ */
+public final class TokenCoalescer {
+
+    private TokenCoalescer() {
+    }
+
+    /**
+     * 按配置合并，未开启合并时原样返回
+     */
+    public static Flux<String> coalesce(Flux<String> tokens, ChatStreamConfig config) {
+        if (!Boolean.TRUE.equals(config.getCoalesceEnabled())) {
+            return tokens;
+        }
+        return coalesce(tokens, Duration.ofMillis(config.getMaxDelayMillis()), config.getMaxBytes());
+    }
+
+    public static Flux<String> coalesce(Flux<String> tokens, Duration maxDelay, int maxBytes) {
+        return coalesce(tokens, maxDelay, maxBytes, Schedulers.parallel());
+    }
+
+    public static Flux<String> coalesce(Flux<String> tokens, Duration maxDelay, int maxBytes, Scheduler scheduler) {
+        return Flux.create(sink -> {
+            Buffer buffer = new Buffer(sink, maxDelay.toNanos(), maxBytes, scheduler);
+            Disposable upstream = tokens.subscribe(buffer::onToken, buffer::onError, buffer::onComplete);
+            sink.onDispose(() -> {
+                upstream.dispose();
+                buffer.cancelTimer();
+            });
+        });
+    }
+
+    /**
+     * 字符串按UTF-8编码后的字节数
+     */
+    static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                // 代理对共4字节，每半计2
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static final class Buffer {
+
+        private final FluxSink<String> sink;
+        private final long maxDelayNanos;
+        private final int maxBytes;
+        private final Scheduler scheduler;
+
+        private final StringBuilder pending = new StringBuilder();
+        private int pendingBytes;
+        private long lastFlushNanos;
+        private Disposable timer;
+
+        private Buffer(FluxSink<String> sink, long maxDelayNanos, int maxBytes, Scheduler scheduler) {
+            this.sink = sink;
+            this.maxDelayNanos = maxDelayNanos;
+            this.maxBytes = maxBytes;
+            this.scheduler = scheduler;
+            // 第一个token立即发送
+            this.lastFlushNanos = System.nanoTime() - maxDelayNanos;
+        }
+
+        synchronized void onToken(String token) {
+            pending.append(token);
+            pendingBytes += utf8Length(token);
+            long now = System.nanoTime();
+            long sinceFlush = now - lastFlushNanos;
+            if (pendingBytes >= maxBytes || sinceFlush >= maxDelayNanos) {
+                flush(now);
+            } else if (timer == null) {
+                timer = scheduler.schedule(this::onTimer, maxDelayNanos - sinceFlush, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void onTimer() {
+            timer = null;
+            if (pending.length() > 0) {
+                flush(System.nanoTime());
+            }
+        }
+
+        synchronized void onComplete() {
+            if (pending.length() > 0) {
+                flush(System.nanoTime());
+            }
+            cancelTimer();
+            sink.complete();
+        }
+
+        synchronized void onError(Throwable error) {
+            if (pending.length() > 0) {
+                flush(System.nanoTime());
+            }
+            cancelTimer();
+            sink.error(error);
+        }
+
+        synchronized void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+        }
+
+        private void flush(long now) {
+            cancelTimer();
+            sink.next(pending.toString());
+            pending.setLength(0);
+            pendingBytes = 0;
+            lastFlushNanos = now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.service.consumer.chat.UserChatMemoryService;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 用户ChatMemory提供者，memoryId即用户ID
+ *
+ * AiServices会按memoryId长期持有provider返回的对象，因此这里只返回一个轻量的委托视图，
+ * 真正的消息由UserChatMemoryService缓存管理，缓存被清除后下一轮对话会自动重新加载
+ */
+@Component
+public class UserChatMemoryProvider implements ChatMemoryProvider {
+
+    @Resource
+    private UserChatMemoryService userChatMemoryService;
+
+    @Override
+    public ChatMemory get(Object memoryId) {
+        return new UserChatMemoryView(String.valueOf(memoryId));
+    }
+
+    /**
+     * 委托给UserChatMemoryService的ChatMemory视图
+     */
+    private class UserChatMemoryView implements ChatMemory {
+
+        private final String userId;
+
+        private UserChatMemoryView(String userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public Object id() {
+            return userId;
+        }
+
+        @Override
+        public void add(ChatMessage message) {
+            userChatMemoryService.getUserChatMemory(userId).add(message);
+        }
+
+        @Override
+        public List<ChatMessage> messages() {
+            return userChatMemoryService.getUserChatMemory(userId).messages();
+        }
+
+        @Override
+        public void clear() {
+            userChatMemoryService.getUserChatMemory(userId).clear();
+        }
+    }
+}
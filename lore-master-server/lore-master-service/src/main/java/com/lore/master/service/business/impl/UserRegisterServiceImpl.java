@@ -133,7 +133,7 @@ public class UserRegisterServiceImpl implements UserRegisterService {
      */
     private User createUser(UserRegisterStrategy strategy, UserRegisterRequest request) {
         User user = new User();
-        user.setUserId(userIdGenerator.generateUniqueUserId());
+        user.setUserId(userIdGenerator.generateUserId());
         user.setNickname(strategy.getDefaultNickname(request));
         
         // 设置性别
@@ -0,0 +1,39 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 聊天WebSocket集群配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.chat.cluster")
+public class ChatClusterConfig {
+
+    /**
+     * 节点间消息传输方式：redis（Redis发布订阅）、memory（进程内，单机或测试使用）
+     */
+    private String transport = "redis";
+
+    /**
+     * 节点间消息频道
+     */
+    private String channel = "lore:chat:ws";
+
+    /**
+     * 节点ID，为空时启动时随机生成
+     */
+    private String nodeId;
+
+    /**
+     * 扇出发送线程数
+     */
+    private Integer fanoutThreads = 4;
+
+    /**
+     * 每个连接待发送队列的消息数上限，超出时关闭连接
+     */
+    private Integer sessionQueueCapacity = 1000;
+}
@@ -0,0 +1,59 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户ChatMemory缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.chat.memory")
+public class ChatMemoryConfig {
+
+    /**
+     * 最多缓存的用户数，超出后按最近最少使用淘汰
+     */
+    private Long maxUsers = 10000L;
+
+    /**
+     * 空闲过期时间（分钟），超过该时间未访问的用户记忆会被淘汰
+     */
+    private Long idleMinutes = 30L;
+
+    /**
+     * 从数据库重建记忆时读取的最近消息数
+     */
+    private Integer maxMessages = 20;
+
+    /**
+     * 每个用户记忆的Token预算（系统消息、摘要和消息窗口合计）
+     */
+    private Integer maxTokens = 2048;
+
+    /**
+     * 是否把超出预算的早期对话折叠成摘要，关闭时直接丢弃
+     */
+    private Boolean summaryEnabled = true;
+
+    /**
+     * 摘要的Token上限
+     */
+    private Integer summaryMaxTokens = 256;
+
+    /**
+     * 后台摘要线程数
+     */
+    private Integer summarizerThreads = 2;
+
+    /**
+     * 异步加载记忆的线程数
+     */
+    private Integer loaderThreads = 4;
+
+    /**
+     * 统计接口返回的占用最大的用户数
+     */
+    private Integer statsTopUsers = 20;
+}
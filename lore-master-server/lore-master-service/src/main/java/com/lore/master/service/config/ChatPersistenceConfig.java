@@ -0,0 +1,50 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 聊天消息异步落库配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.chat.persistence")
+public class ChatPersistenceConfig {
+
+    /**
+     * 是否异步批量落库，关闭时每条消息同步保存
+     */
+    private Boolean asyncEnabled = true;
+
+    /**
+     * 内存队列容量，队列满时消息仍保留在本地spool中，由后台从spool回放
+     */
+    private Integer queueCapacity = 10000;
+
+    /**
+     * 单批插入的最大消息数
+     */
+    private Integer batchSize = 200;
+
+    /**
+     * 刷盘间隔（毫秒）
+     */
+    private Long flushIntervalMillis = 200L;
+
+    /**
+     * 失败重试间隔（毫秒）
+     */
+    private Long retryIntervalMillis = 5000L;
+
+    /**
+     * 本地spool目录，未落库的消息先追加到这里，进程崩溃后启动时回放。
+     * 每个实例使用以节点ID（lore.id.node-id）命名的子目录，已退出实例的子目录由其他实例启动时接管
+     */
+    private String spoolDir = "logs/chat-spool";
+
+    /**
+     * 每次追加spool后是否fsync，开启后可在断电时不丢消息，但写入延迟更高
+     */
+    private Boolean spoolFsync = false;
+}
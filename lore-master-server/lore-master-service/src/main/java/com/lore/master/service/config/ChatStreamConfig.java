@@ -0,0 +1,49 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 流式聊天输出配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.chat.stream")
+public class ChatStreamConfig {
+
+    /**
+     * 是否合并token后再发送
+     */
+    private Boolean coalesceEnabled = true;
+
+    /**
+     * 合并等待的最长时间（毫秒）
+     */
+    private Long maxDelayMillis = 50L;
+
+    /**
+     * 单帧累计到该字节数时立即发送
+     */
+    private Integer maxBytes = 1024;
+
+    /**
+     * SSE每次回答保留的最近帧数，断线重连时按Last-Event-ID从中续传
+     */
+    private Integer sseReplayFrames = 512;
+
+    /**
+     * 回答结束后保留续传数据的时间（秒）
+     */
+    private Integer sseRetentionSeconds = 120;
+
+    /**
+     * SSE心跳注释的发送间隔（秒）
+     */
+    private Integer sseHeartbeatSeconds = 15;
+
+    /**
+     * 同时保留的可续传回答数上限
+     */
+    private Integer sseMaxStreams = 10000;
+}
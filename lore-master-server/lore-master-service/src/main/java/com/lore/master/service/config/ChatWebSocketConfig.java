@@ -0,0 +1,34 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 聊天WebSocket配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.chat.websocket")
+public class ChatWebSocketConfig {
+
+    /**
+     * 单次发送的最长时间（毫秒），客户端接收过慢超过该时间时关闭连接
+     */
+    private Integer sendTimeLimitMillis = 10000;
+
+    /**
+     * 每个连接待发送缓冲的上限（字节），超出时关闭连接
+     */
+    private Integer sendBufferSizeLimit = 512 * 1024;
+
+    /**
+     * 每个用户同时进行的生成数上限（跨连接）
+     */
+    private Integer maxConcurrentGenerationsPerUser = 2;
+
+    /**
+     * 单个二进制消息（语音帧）的最大字节数
+     */
+    private Integer maxBinaryMessageBytes = 64 * 1024;
+}
@@ -0,0 +1,77 @@
+package com.lore.master.service.config;
+
+import com.lore.master.common.util.SnowflakeIdGenerator;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 分布式ID生成配置
+ */
+@Slf4j
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "lore.id")
+public class IdGeneratorConfig {
+
+    /**
+     * 节点ID，取值0~1023，同一数据库上的所有应用和节点必须不同；未配置时启动失败
+     */
+    private Long nodeId;
+
+    /**
+     * 未配置节点ID时是否取本机IP的低10位，仅供单机开发使用。
+     * getLocalHost常解析为127.0.1.1或容器内地址，多个应用和节点会推导出相同的ID
+     */
+    private Boolean deriveNodeId = false;
+
+    /**
+     * 可容忍的时钟回拨毫秒数，回拨期间沿用上次的逻辑时间，超过时生成ID失败
+     */
+    private Long maxBackwardMillis = 5000L;
+
+    /**
+     * 用户ID号段大小，每次从序列表预取的序列值个数
+     */
+    private Integer userIdBlockSize = 100;
+
+    /**
+     * 有序ID生成器
+     */
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator() {
+        long resolvedNodeId;
+        if (nodeId != null) {
+            resolvedNodeId = nodeId;
+        } else if (Boolean.TRUE.equals(deriveNodeId)) {
+            resolvedNodeId = nodeIdFromAddress();
+        } else {
+            throw new IllegalStateException("未配置lore.id.node-id（环境变量LORE_NODE_ID），"
+                    + "请为每个应用实例分配不同的节点ID；单机开发可设置lore.id.derive-node-id=true按本机IP推导");
+        }
+        log.info("ID生成器启动: nodeId={}, maxBackwardMillis={}", resolvedNodeId, maxBackwardMillis);
+        return new SnowflakeIdGenerator(resolvedNodeId, maxBackwardMillis);
+    }
+
+    private long nodeIdFromAddress() {
+        InetAddress localHost;
+        try {
+            localHost = InetAddress.getLocalHost();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("无法获取本机地址，请配置lore.id.node-id", e);
+        }
+        if (localHost.isLoopbackAddress()) {
+            throw new IllegalStateException("本机地址为回环地址" + localHost.getHostAddress() + "，无法推导节点ID，请配置lore.id.node-id");
+        }
+        byte[] address = localHost.getAddress();
+        long derived = (((address[address.length - 2] & 0xFF) << 8) | (address[address.length - 1] & 0xFF))
+                & SnowflakeIdGenerator.MAX_NODE_ID;
+        log.warn("未配置lore.id.node-id，按本机IP {} 推导节点ID: {}，仅适用于单机开发", localHost.getHostAddress(), derived);
+        return derived;
+    }
+}
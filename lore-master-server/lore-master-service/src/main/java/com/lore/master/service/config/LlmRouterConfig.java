@@ -0,0 +1,72 @@
+package com.lore.master.service.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * LLM后端路由配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.llm.router")
+public class LlmRouterConfig {
+
+    /**
+     * 主后端（ollama或qwen）
+     */
+    private String primary = "ollama";
+
+    /**
+     * 备用后端，主后端排队已满或不健康时切换，为空时不切换
+     */
+    private String secondary = "qwen";
+
+    /**
+     * 是否允许切换到备用后端
+     */
+    private Boolean failoverEnabled = true;
+
+    /**
+     * 排队等待许可的最长时间（毫秒），超时按繁忙处理
+     */
+    private Long queueTimeoutMillis = 10000L;
+
+    /**
+     * 连续失败多少次后把后端标记为不健康
+     */
+    private Integer failureThreshold = 3;
+
+    /**
+     * 不健康后端的冷却时间（毫秒），冷却结束后重新放行请求探测
+     */
+    private Long cooldownMillis = 30000L;
+
+    /**
+     * 本地Ollama后端
+     */
+    private Backend ollama = new Backend(4, 32);
+
+    /**
+     * 通义千问后端
+     */
+    private Backend qwen = new Backend(8, 64);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Backend {
+
+        /**
+         * 最大并发生成数
+         */
+        private Integer maxConcurrent;
+
+        /**
+         * 最大排队数，超出后直接拒绝
+         */
+        private Integer maxQueue;
+    }
+}
@@ -0,0 +1,19 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 运维接口配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.ops")
+public class OpsConfig {
+
+    /**
+     * 运维接口访问令牌，请求头 X-Ops-Token 必须与之相同；为空时运维接口全部拒绝
+     */
+    private String token;
+}
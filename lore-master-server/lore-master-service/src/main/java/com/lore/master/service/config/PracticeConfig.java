@@ -0,0 +1,44 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 练习答题和自适应选题配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.practice")
+public class PracticeConfig {
+
+    /**
+     * 作答统计写库间隔（秒）
+     */
+    private Integer flushIntervalSeconds = 10;
+
+    /**
+     * 单次提交的最多答案数
+     */
+    private Integer maxBatchSize = 100;
+
+    /**
+     * 最多缓存的掌握度向量数（用户 × 学科），超出后按最近最少使用淘汰
+     */
+    private Long maxUsers = 10000L;
+
+    /**
+     * 空闲过期时间（分钟），超过该时间未练习的掌握度向量会被淘汰
+     */
+    private Long idleMinutes = 120L;
+
+    /**
+     * 掌握度学习率：每次作答后掌握度向本次结果（答对1，答错0）移动的比例
+     */
+    private Double learningRate = 0.3;
+
+    /**
+     * 选题时尽量避开的最近题目数
+     */
+    private Integer recentSize = 10;
+}
@@ -0,0 +1,63 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LLM语义响应缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.consumer.chat.semantic-cache")
+public class SemanticCacheConfig {
+
+    /**
+     * 是否启用语义缓存，默认关闭
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 命中所需的最小余弦相似度
+     */
+    private Double similarityThreshold = 0.92;
+
+    /**
+     * 最多缓存的问答对数量，超出后按最近最少使用淘汰
+     */
+    private Integer maxEntries = 5000;
+
+    /**
+     * 缓存有效期（分钟）
+     */
+    private Long ttlMinutes = 60L;
+
+    /**
+     * 超过该长度的问题通常带有具体上下文，不参与缓存
+     */
+    private Integer maxQuestionLength = 200;
+
+    /**
+     * LSH哈希表数量，越多召回率越高
+     */
+    private Integer lshTables = 4;
+
+    /**
+     * 每个LSH哈希表的签名位数，越多候选集越小
+     */
+    private Integer lshBits = 12;
+
+    /**
+     * 流式回放时每段的字符数
+     */
+    private Integer replayChunkChars = 16;
+
+    /**
+     * 依赖个人记忆或上文的问题特征词，命中任一时不走缓存
+     */
+    private List<String> personalKeywords = new ArrayList<>(List.of(
+            "我的", "我是", "我叫", "我在", "我们", "刚才", "上面", "前面", "之前", "上次", "继续", "你说的", "这个", "那个"));
+}
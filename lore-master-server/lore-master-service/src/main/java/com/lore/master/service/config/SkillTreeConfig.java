@@ -0,0 +1,25 @@
+package com.lore.master.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 技能树快照缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "lore.skill-tree")
+public class SkillTreeConfig {
+
+    /**
+     * 快照构建后超过该时间（秒），下次读取时在后台重建，期间仍返回旧快照。
+     * 变更通知丢失（如Redis短暂不可用）时，各节点最迟在该时间后读到新数据
+     */
+    private Long refreshAfterWriteSeconds = 300L;
+
+    /**
+     * 快照构建后超过该时间（秒）仍未刷新成功则丢弃，下次读取时同步重建，需大于刷新时间
+     */
+    private Long expireAfterWriteSeconds = 3600L;
+}
@@ -1,12 +1,17 @@
 package com.lore.master.service.config;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 用户ID生成器
@@ -14,7 +19,10 @@ import java.time.LocalDateTime;
  *
  * 格式说明：
  * - YYYY: 年份前缀
- * - XXXXXXXX: 8位随机字母数字组合
+ * - XXXXXXXX: 序列值经可逆置换后的8位34进制编码
+ *
+ * 序列值按号段从 user_id_sequence 预取（hi/lo），号段内用AtomicLong分配，不访问数据库。
+ * 8位编码与序列值一一对应，序列值不重复则ID不重复，无需再查询是否已存在
  */
 @Slf4j
 @Component
@@ -23,117 +31,70 @@ public class UserIdGenerator {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    @Autowired
+    @Qualifier("consumerTransactionManager")
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdGeneratorConfig idGeneratorConfig;
+
     private static final String SEQUENCE_NAME = "user_id_seq";
-    private static final String[] CHARS = {
-        "0", "1", "2", "3", "4", "5", "6", "7", "8", "9",
-        "A", "B", "C", "D", "E", "F", "G", "H", "J", "K",
-        "L", "M", "N", "P", "Q", "R", "S", "T", "U", "V",
-        "W", "X", "Y", "Z"  // 排除了容易混淆的字符：I, O
+    private static final char[] CHARS = {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+        'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'J', 'K',
+        'L', 'M', 'N', 'P', 'Q', 'R', 'S', 'T', 'U', 'V',
+        'W', 'X', 'Y', 'Z'  // 排除了容易混淆的字符：I, O
     };
+    private static final int CODE_LENGTH = 8;
 
     /**
-     * 生成用户ID - 方式1：基于序列表（推荐）
-     * 格式：YYYYXXXXXXXX
+     * 8位编码拆成两个4位的半区做Feistel置换，34^8 = (34^4)^2
      */
-    public String generateUserIdFromSequence() {
-        try {
-            // 获取并更新序列值
-            String sql = "UPDATE user_id_sequence SET current_value = current_value + increment_step WHERE sequence_name = ?";
-            jdbcTemplate.update(sql, SEQUENCE_NAME);
-
-            // 获取当前序列值
-            String querySql = "SELECT current_value FROM user_id_sequence WHERE sequence_name = ?";
-            Long sequenceValue = jdbcTemplate.queryForObject(querySql, Long.class, SEQUENCE_NAME);
-
-            if (sequenceValue == null) {
-                throw new RuntimeException("无法获取用户ID序列值");
-            }
-
-            // 生成格式：YYYYXXXXXXXX
-            String userId = generateFormattedUserId(sequenceValue, "SEQ");
-
-            log.debug("基于序列生成用户ID: {}", userId);
-            return userId;
-
-        } catch (Exception e) {
-            log.error("从序列生成用户ID失败", e);
-            // 降级到时间戳方式
-            return generateUserIdFromTimestamp();
-        }
-    }
+    private static final long HALF = 34L * 34 * 34 * 34;
+    private static final long CODE_SPACE = HALF * HALF;
 
     /**
-     * 生成用户ID - 方式2：基于时间戳（备用方案）
-     * 格式：YYYYXXXXXXXX
+     * 置换轮密钥。修改后新旧ID的对应关系会变化，可能与已发放的ID冲突，上线后不可修改
      */
-    public String generateUserIdFromTimestamp() {
-        try {
-            // 使用当前时间戳作为种子
-            long timestamp = System.currentTimeMillis();
+    private static final long[] ROUND_KEYS = {
+        0x5DEECE66DL, 0x2545F4914F6CDD1DL, 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL
+    };
 
-            // 生成格式：YYYYXXXXXXXX
-            String userId = generateFormattedUserId(timestamp, "TIME");
+    private static final String ALLOCATE_SQL = "UPDATE user_id_sequence SET current_value = current_value + ? "
+            + "WHERE sequence_name = ? AND (max_value IS NULL OR current_value + ? <= max_value)";
+    private static final String CURRENT_SQL = "SELECT current_value FROM user_id_sequence WHERE sequence_name = ?";
 
-            log.debug("基于时间戳生成用户ID: {}", userId);
-            return userId;
+    private TransactionTemplate allocateTransaction;
 
-        } catch (Exception e) {
-            log.error("基于时间戳生成用户ID失败", e);
-            // 最后的降级方案
-            return generateUserIdRandom();
-        }
-    }
+    // 当前号段，初始为空号段，首次使用时预取
+    private volatile Block block = new Block(1, 0);
 
-    /**
-     * 生成用户ID - 方式3：纯随机（最后降级方案）
-     * 格式：YYYYXXXXXXXX
-     */
-    public String generateUserIdRandom() {
-        // 使用随机数作为种子
-        long randomSeed = SECURE_RANDOM.nextLong();
-
-        // 生成格式：YYYYXXXXXXXX
-        String userId = generateFormattedUserId(Math.abs(randomSeed), "RAND");
-
-        log.debug("随机生成用户ID: {}", userId);
-        return userId;
+    @PostConstruct
+    public void init() {
+        allocateTransaction = new TransactionTemplate(transactionManager);
+        // 独立事务，号段行锁在预取完成后立即释放，不随注册事务持有
+        allocateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     /**
-     * 生成格式化的用户ID
+     * 生成用户ID - 主入口方法
      * 格式：YYYYXXXXXXXX
      */
-    private String generateFormattedUserId(long seed, String type) {
-        // 获取当前年份
-        String year = String.valueOf(LocalDateTime.now().getYear());
-
-        // 生成8位随机码
-        String randomPart = generateRandomCode(8, seed + type.hashCode());
-
-        return year + randomPart;
+    public String generateUserId() {
+        String userId = String.valueOf(LocalDateTime.now().getYear()) + encode(nextSequence());
+        log.debug("生成用户ID: {}", userId);
+        return userId;
     }
 
     /**
-     * 生成随机码
+     * 批量生成用户ID（用于测试或批量导入）
      */
-    private String generateRandomCode(int length, long seed) {
-        StringBuilder sb = new StringBuilder();
-        SecureRandom random = new SecureRandom();
-        random.setSeed(seed + System.nanoTime());
-
-        for (int i = 0; i < length; i++) {
-            sb.append(CHARS[random.nextInt(CHARS.length)]);
+    public String[] generateUserIds(int count) {
+        String[] userIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            userIds[i] = generateUserId();
         }
-        return sb.toString();
-    }
-
-    /**
-     * 生成用户ID - 主入口方法
-     * 优先使用序列方式，失败时自动降级
-     */
-    public String generateUserId() {
-        return generateUserIdFromSequence();
+        return userIds;
     }
 
     /**
@@ -146,7 +107,7 @@ public class UserIdGenerator {
         }
 
         // 检查格式：YYYYXXXXXXXX
-        if (!userId.matches("^\\d{4}[0-9A-Z]{8}$")) {
+        if (!userId.matches("^\\d{4}[0-9A-HJ-NP-Z]{8}$")) {
             return false;
         }
 
@@ -161,79 +122,135 @@ public class UserIdGenerator {
     }
 
     /**
-     * 获取用户ID的生成方式（通过最后一位校验码推断）
+     * 把序列值编码为8位字符
      */
-    public String getUserIdGenerationType(String userId) {
-        if (!isValidUserId(userId)) {
-            return "invalid";
+    static String encode(long sequence) {
+        if (sequence < 0 || sequence >= CODE_SPACE) {
+            throw new IllegalArgumentException("序列值超出编码范围: " + sequence);
+        }
+        long value = permute(sequence);
+        char[] chars = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CHARS[(int) (value % CHARS.length)];
+            value /= CHARS.length;
         }
+        return new String(chars);
+    }
 
-        // 通过最后一位字符推断生成方式（这只是示例，实际可以更复杂）
-        char lastChar = userId.charAt(userId.length() - 1);
-        if (lastChar >= '0' && lastChar <= '9') {
-            return "sequence";
-        } else if (lastChar >= 'A' && lastChar <= 'M') {
-            return "timestamp";
-        } else {
-            return "random";
+    /**
+     * 从8位字符还原序列值
+     */
+    static long decode(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            throw new IllegalArgumentException("无效的用户ID编码: " + code);
+        }
+        long value = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            int digit = indexOf(code.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("无效的用户ID编码: " + code);
+            }
+            value = value * CHARS.length + digit;
         }
+        return unpermute(value);
     }
 
     /**
-     * 批量生成用户ID（用于测试或批量导入）
+     * 从用户ID还原序列值
      */
-    public String[] generateUserIds(int count) {
-        String[] userIds = new String[count];
-        for (int i = 0; i < count; i++) {
-            userIds[i] = generateUserId();
-            
-            // 避免在同一毫秒内生成重复ID
-            if (i % 100 == 0) {
-                try {
-                    Thread.sleep(1);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+    public long toSequence(String userId) {
+        if (!isValidUserId(userId)) {
+            throw new IllegalArgumentException("无效的用户ID: " + userId);
+        }
+        return decode(userId.substring(4));
+    }
+
+    private long nextSequence() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value <= current.last) {
+                return value;
+            }
+            synchronized (this) {
+                if (block == current) {
+                    block = allocateBlock();
                 }
             }
         }
-        return userIds;
     }
 
     /**
-     * 检查用户ID是否已存在
+     * 预取一个号段：在同一事务内推进序列并读回，行锁保证各节点拿到的号段不重叠
      */
-    public boolean isUserIdExists(String userId) {
-        try {
-            String sql = "SELECT COUNT(*) FROM users WHERE user_id = ?";
-            Integer count = jdbcTemplate.queryForObject(sql, Integer.class, userId);
-            return count != null && count > 0;
-        } catch (Exception e) {
-            log.error("检查用户ID是否存在失败: {}", userId, e);
-            return false;
+    private Block allocateBlock() {
+        long size = idGeneratorConfig.getUserIdBlockSize();
+        Long last = allocateTransaction.execute(status -> {
+            int updated = jdbcTemplate.update(ALLOCATE_SQL, size, SEQUENCE_NAME, size);
+            if (updated == 0) {
+                throw new IllegalStateException("用户ID序列不存在或已耗尽: " + SEQUENCE_NAME);
+            }
+            return jdbcTemplate.queryForObject(CURRENT_SQL, Long.class, SEQUENCE_NAME);
+        });
+        if (last == null) {
+            throw new IllegalStateException("无法获取用户ID序列值");
         }
+        log.info("预取用户ID号段: ({}, {}]", last - size, last);
+        return new Block(last - size + 1, last);
     }
 
     /**
-     * 生成唯一的用户ID（确保不重复）
+     * 4轮平衡Feistel网络，在[0, 34^8)上构成置换，相邻序列值的编码没有规律
      */
-    public String generateUniqueUserId() {
-        String userId;
-        int attempts = 0;
-        int maxAttempts = 12;
-        
-        do {
-            userId = generateUserId();
-            attempts++;
-            
-            if (attempts > maxAttempts) {
-                log.error("生成唯一用户ID失败，尝试次数超过限制: {}", maxAttempts);
-                throw new RuntimeException("无法生成唯一用户ID");
+    private static long permute(long value) {
+        long left = value / HALF;
+        long right = value % HALF;
+        for (long key : ROUND_KEYS) {
+            long mixed = Math.floorMod(left + round(right, key), HALF);
+            left = right;
+            right = mixed;
+        }
+        return left * HALF + right;
+    }
+
+    private static long unpermute(long value) {
+        long left = value / HALF;
+        long right = value % HALF;
+        for (int i = ROUND_KEYS.length - 1; i >= 0; i--) {
+            long previous = Math.floorMod(right - round(left, ROUND_KEYS[i]), HALF);
+            right = left;
+            left = previous;
+        }
+        return left * HALF + right;
+    }
+
+    private static long round(long half, long key) {
+        long h = (half + key) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 29;
+        return Math.floorMod(h, HALF);
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < CHARS.length; i++) {
+            if (CHARS[i] == c) {
+                return i;
             }
-            
-        } while (isUserIdExists(userId));
-        
-        log.info("生成唯一用户ID成功: {} (尝试次数: {})", userId, attempts);
-        return userId;
+        }
+        return -1;
+    }
+
+    /**
+     * 已预取的号段[next, last]
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
     }
 }
@@ -64,4 +64,31 @@ public class XfyunVoiceConfig {
      * 读取超时时间（毫秒）
      */
     private Long readTimeout = 30000L;
+    
+    /**
+     * 单次识别的总超时时间（毫秒），从建立连接开始计算，包含按帧间隔发送音频的时间；
+     * 讯飞单次最长接受60秒音频，60秒的录音按实时速率发送也需要60秒
+     */
+    private Long recognizeTimeout = 70000L;
+    
+    /**
+     * 同时进行的识别数上限，超出时直接返回繁忙
+     */
+    private Integer maxConcurrent = 20;
+    
+    /**
+     * 每个音频帧的字节数
+     */
+    private Integer frameBytes = 1280;
+
+    /**
+     * 音频帧的发送间隔（毫秒）。讯飞实时听写要求按音频的实际时长匀速发送，
+     * 16k采样16位单声道时1280字节为40ms；小于等于0时不限速，仅用于测试
+     */
+    private Long frameIntervalMillis = 40L;
+
+    /**
+     * 每次识别待发送的音频帧上限，队列已满时写入方等待发送，不在内存中积压整段音频；50帧约2秒
+     */
+    private Integer maxPendingFrames = 50;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.lore.master.service.consumer;
+
+import com.lore.master.data.dto.consumer.PracticeAnswerRequest;
+import com.lore.master.data.vo.consumer.PracticeAnswerResultVO;
+import com.lore.master.data.vo.consumer.PracticeQuestionVO;
+
+import java.util.List;
+
+/**
+ * C端自适应练习服务接口
+ */
+public interface PracticeService {
+
+    /**
+     * 为当前用户选下一道练习题，掌握越差的知识点越容易被选中，题目难度随掌握度提高
+     * @param subjectId 学科ID
+     * @return 题目，学科下没有关联知识点的题目时返回null
+     */
+    PracticeQuestionVO nextQuestion(Long subjectId);
+
+    /**
+     * 批量提交答案：判分、更新当前用户的知识点掌握度，并累计题目作答统计
+     * @return 与提交顺序一致的判分结果
+     */
+    List<PracticeAnswerResultVO> submitAnswers(PracticeAnswerRequest request);
+}
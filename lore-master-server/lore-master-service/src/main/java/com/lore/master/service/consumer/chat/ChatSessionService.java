@@ -0,0 +1,37 @@
+package com.lore.master.service.consumer.chat;
+
+import com.lore.master.data.dto.chat.ChatSessionDTO;
+import com.lore.master.data.dto.chat.ChatSessionRequest;
+
+import java.util.List;
+
+/**
+ * 聊天会话服务接口
+ */
+public interface ChatSessionService {
+
+    /**
+     * 获取用户当前会话ID，用户还没有会话时创建默认会话
+     */
+    String getActiveSessionId(String userId);
+
+    /**
+     * 创建新会话并切换为当前会话
+     */
+    ChatSessionDTO createSession(String userId, ChatSessionRequest request);
+
+    /**
+     * 获取用户的会话列表（按最后活跃时间倒序）
+     */
+    List<ChatSessionDTO> listSessions(String userId, ChatSessionRequest request);
+
+    /**
+     * 切换当前会话，已归档的会话切换后恢复为活跃
+     */
+    ChatSessionDTO switchSession(String userId, String sessionId);
+
+    /**
+     * 归档会话，归档当前会话后自动切换到最近活跃的其他会话
+     */
+    void archiveSession(String userId, String sessionId);
+}
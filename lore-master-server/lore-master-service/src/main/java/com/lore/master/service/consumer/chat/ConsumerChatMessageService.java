@@ -1,5 +1,6 @@
 package com.lore.master.service.consumer.chat;
 
+import com.lore.master.data.dto.chat.ChatHistoryPage;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
 import com.lore.master.data.entity.consumer.ConsumerChatMessage;
 import java.util.List;
@@ -19,6 +20,16 @@ public interface ConsumerChatMessageService {
      */
     ConsumerChatMessage saveAssistantMessage(ConsumerChatHistoryRequest request, String content, String modelName);
 
+    /**
+     * 异步保存用户消息：只写入本地spool和内存队列，由后台批量落库，不等待数据库
+     */
+    ConsumerChatMessage saveUserMessageAsync(ConsumerChatHistoryRequest request);
+
+    /**
+     * 异步保存AI响应消息：只写入本地spool和内存队列，由后台批量落库，不等待数据库
+     */
+    ConsumerChatMessage saveAssistantMessageAsync(ConsumerChatHistoryRequest request, String content, String modelName);
+
     /**
      * 获取用户的最近消息（用于ChatMemory）
      */
@@ -29,6 +40,11 @@ public interface ConsumerChatMessageService {
      */
     List<ConsumerChatMessage> getUserMessages(ConsumerChatHistoryRequest request);
 
+    /**
+     * 按游标分页获取会话消息（按时间倒序）
+     */
+    ChatHistoryPage getMessagesByCursor(ConsumerChatHistoryRequest request);
+
     /**
      * 获取用户消息总数
      */
@@ -3,6 +3,9 @@ package com.lore.master.service.consumer.chat;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
 import dev.langchain4j.memory.ChatMemory;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 用户ChatMemory管理服务接口
  */
@@ -13,6 +16,11 @@ public interface UserChatMemoryService {
      */
     ChatMemory getUserChatMemory(String userId);
 
+    /**
+     * 异步获取用户的ChatMemory（冷加载不阻塞调用线程）
+     */
+    CompletableFuture<ChatMemory> getUserChatMemoryAsync(String userId);
+
     /**
      * 添加用户消息到ChatMemory
      */
@@ -37,4 +45,9 @@ public interface UserChatMemoryService {
      * 获取用户记忆消息数
      */
     int getMemoryMessageCount(ConsumerChatHistoryRequest request);
+
+    /**
+     * 获取ChatMemory缓存统计（命中率、淘汰数、每个缓存用户的内存占用估算）
+     */
+    Map<String, Object> getMemoryCacheStats();
 }
\ No newline at end of file
@@ -0,0 +1,504 @@
+package com.lore.master.service.consumer.chat.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.lore.master.common.util.SnowflakeIdGenerator;
+import com.lore.master.data.entity.consumer.ConsumerChatMessage;
+import com.lore.master.service.config.ChatPersistenceConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 聊天消息异步批量写入器
+ *
+ * 写入链路只做两件事：把消息追加到本地spool文件、放入内存队列，不访问数据库；
+ * 后台刷盘线程定期切换spool分段、取出队列中的消息，用JDBC批量INSERT IGNORE落库，成功后删除已落库的分段。
+ * message_id唯一，重复回放不会产生重复记录，因此进程崩溃后启动时直接回放残留的spool分段即可。
+ *
+ * 每个实例独占以节点ID命名的子目录，并持有目录下锁文件的排他锁；启动时只接管锁已释放（实例已退出）的其他目录中的分段。
+ * 写入之间不互斥，只在切换分段时与刷盘线程互斥；开启fsync时并发写入合并为一次fsync（组提交）
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO consumer_chat_messages " +
+            "(message_id, user_id, session_id, role, content, model_name, token_count, create_time) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 按会话重新统计消息数；只更新message_count，last_active_time只在创建、切换会话时更新（它决定用户的当前会话）。
+     * 用重新统计而不是累加，spool回放和失败重试时重复INSERT IGNORE的消息不会被多计
+     */
+    private static final String SESSION_COUNT_SQL = "UPDATE chat_session SET message_count = " +
+            "(SELECT COUNT(*) FROM consumer_chat_messages m WHERE m.user_id = ? AND m.session_id = ?) " +
+            "WHERE session_id = ?";
+
+    private static final String NODE_DIR_PREFIX = "node-";
+    private static final String LOCK_FILE = ".lock";
+    private static final String SEGMENT_PREFIX = "chat-spool-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private ChatPersistenceConfig chatPersistenceConfig;
+
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    private BlockingQueue<ConsumerChatMessage> queue;
+
+    private Path spoolDir;
+    private FileChannel lockChannel;
+    private FileLock spoolLock;
+
+    // 写入持有读锁，切换分段持有写锁
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private Segment segment;
+    private long segmentIndex;
+    private volatile boolean overflowed;
+
+    // 以下字段仅由刷盘线程访问
+    private final List<Path> closedSegments = new ArrayList<>();
+    private List<ConsumerChatMessage> retryMessages = new ArrayList<>();
+    private boolean replayFromSpool;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() throws IOException {
+        openSpool();
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-message-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        closeSpool();
+    }
+
+    /**
+     * 锁定本实例的spool目录，收集本目录和已退出实例目录中的残留分段，打开第一个分段
+     */
+    void openSpool() throws IOException {
+        queue = new ArrayBlockingQueue<>(chatPersistenceConfig.getQueueCapacity());
+        Path root = Paths.get(chatPersistenceConfig.getSpoolDir());
+        spoolDir = root.resolve(NODE_DIR_PREFIX + snowflakeIdGenerator.getNodeId());
+        Files.createDirectories(spoolDir);
+
+        lockChannel = FileChannel.open(spoolDir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        spoolLock = tryLock(lockChannel);
+        if (spoolLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("聊天消息spool目录已被其他实例占用，请检查节点ID是否重复: " + spoolDir);
+        }
+
+        // 上次未落库的分段，首次刷盘时回放
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(this::isSegment).sorted().forEach(closedSegments::add);
+        }
+        segmentIndex = Math.max(System.currentTimeMillis(), lastSegmentIndex() + 1);
+        adoptOrphanedSegments(root);
+        if (!closedSegments.isEmpty()) {
+            replayFromSpool = true;
+            log.warn("发现未落库的聊天消息spool分段，启动后回放: count={}", closedSegments.size());
+        }
+        segment = openSegment();
+    }
+
+    /**
+     * 关闭当前分段并释放目录锁；当前分段为空时直接删除
+     */
+    void closeSpool() {
+        segmentLock.writeLock().lock();
+        try {
+            if (segment != null) {
+                segment.close();
+                if (segment.written == 0) {
+                    deleteSegment(segment.path);
+                }
+                segment = null;
+            }
+        } finally {
+            segmentLock.writeLock().unlock();
+        }
+        try {
+            spoolLock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("释放聊天消息spool目录锁失败: dir={}", spoolDir, e);
+        }
+    }
+
+    /**
+     * 写入一条消息，只写本地spool和内存队列，不等待数据库
+     */
+    public void write(ConsumerChatMessage message) {
+        byte[] line = (JSON.toJSONString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        segmentLock.readLock().lock();
+        try {
+            if (segment == null) {
+                throw new IllegalStateException("聊天消息写入器已关闭");
+            }
+            long end = segment.append(line);
+            if (Boolean.TRUE.equals(chatPersistenceConfig.getSpoolFsync())) {
+                segment.sync(end);
+            }
+            if (!queue.offer(message)) {
+                // 队列已满，消息已在spool中，交给刷盘线程从spool回放
+                overflowed = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入聊天消息spool失败: " + segment.path, e);
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                long interval = flushOnce()
+                        ? chatPersistenceConfig.getFlushIntervalMillis()
+                        : chatPersistenceConfig.getRetryIntervalMillis();
+                TimeUnit.MILLISECONDS.sleep(interval);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.error("聊天消息刷盘线程异常", e);
+            }
+        }
+        // 退出前尽量把剩余消息落库，失败的保留在spool中下次启动回放
+        flushOnce();
+    }
+
+    /**
+     * 执行一次刷盘
+     *
+     * @return 是否成功（没有待落库的消息也视为成功）
+     */
+    boolean flushOnce() {
+        List<ConsumerChatMessage> batch = new ArrayList<>();
+        segmentLock.writeLock().lock();
+        try {
+            if (segment == null) {
+                return false;
+            }
+            if (segment.written == 0 && queue.isEmpty() && !overflowed && closedSegments.isEmpty()) {
+                return true;
+            }
+            // 切换分段：此后队列中取出的消息都已写入已关闭的分段
+            if (segment.written > 0) {
+                segment.close();
+                closedSegments.add(segment.path);
+                segment = openSegment();
+            }
+            queue.drainTo(batch);
+            replayFromSpool |= overflowed;
+            overflowed = false;
+        } catch (IOException e) {
+            log.error("切换聊天消息spool分段失败: dir={}", spoolDir, e);
+            return false;
+        } finally {
+            segmentLock.writeLock().unlock();
+        }
+
+        if (replayFromSpool) {
+            // 队列中的消息都在分段里，逐个分段回放
+            retryMessages = new ArrayList<>();
+            return replaySegments();
+        }
+
+        List<ConsumerChatMessage> messages = retryMessages;
+        messages.addAll(batch);
+        try {
+            insertBatch(messages);
+        } catch (Exception e) {
+            log.error("聊天消息批量落库失败，稍后重试: pending={}, error={}", messages.size(), e.getMessage());
+            // 内存中的重试消息过多时丢弃，之后从spool回放
+            if (messages.size() > chatPersistenceConfig.getQueueCapacity()) {
+                replayFromSpool = true;
+                retryMessages = new ArrayList<>();
+            } else {
+                retryMessages = messages;
+            }
+            return false;
+        }
+
+        closedSegments.forEach(this::deleteSegment);
+        closedSegments.clear();
+        retryMessages = new ArrayList<>();
+        return true;
+    }
+
+    /**
+     * 逐个分段流式读取并按批落库，每个分段落库后立即删除，内存中最多保留一批消息；
+     * 失败时已落库的分段不再回放，当前分段下次从头回放（INSERT IGNORE去重）
+     */
+    private boolean replaySegments() {
+        int batchSize = chatPersistenceConfig.getBatchSize();
+        Iterator<Path> iterator = closedSegments.iterator();
+        while (iterator.hasNext()) {
+            Path path = iterator.next();
+            int replayed = 0;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                List<ConsumerChatMessage> chunk = new ArrayList<>(batchSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    ConsumerChatMessage message = parseLine(path, line);
+                    if (message == null) {
+                        continue;
+                    }
+                    chunk.add(message);
+                    if (chunk.size() >= batchSize) {
+                        insertBatch(chunk);
+                        replayed += chunk.size();
+                        chunk = new ArrayList<>(batchSize);
+                    }
+                }
+                insertBatch(chunk);
+                replayed += chunk.size();
+            } catch (Exception e) {
+                log.error("回放聊天消息spool分段失败，稍后重试: path={}, remaining={}, error={}",
+                        path, closedSegments.size(), e.getMessage());
+                return false;
+            }
+            log.info("回放聊天消息spool分段: path={}, count={}", path, replayed);
+            deleteSegment(path);
+            iterator.remove();
+        }
+        replayFromSpool = false;
+        return true;
+    }
+
+    private void insertBatch(List<ConsumerChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, chatPersistenceConfig.getBatchSize(), (ps, message) -> {
+            ps.setString(1, message.getMessageId());
+            ps.setString(2, message.getUserId());
+            ps.setString(3, message.getSessionId());
+            ps.setString(4, message.getRole().name());
+            ps.setString(5, message.getContent());
+            ps.setString(6, message.getModelName());
+            if (message.getTokenCount() != null) {
+                ps.setInt(7, message.getTokenCount());
+            } else {
+                ps.setNull(7, Types.INTEGER);
+            }
+            ps.setTimestamp(8, Timestamp.valueOf(message.getCreateTime()));
+        });
+        updateSessionCounts(messages);
+        log.debug("聊天消息批量落库: count={}, cost={}ms", messages.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private void updateSessionCounts(List<ConsumerChatMessage> messages) {
+        Map<String, String> sessionUsers = new LinkedHashMap<>();
+        for (ConsumerChatMessage message : messages) {
+            sessionUsers.put(message.getSessionId(), message.getUserId());
+        }
+        try {
+            jdbcTemplate.batchUpdate(SESSION_COUNT_SQL, new ArrayList<>(sessionUsers.entrySet()), sessionUsers.size(),
+                    (ps, entry) -> {
+                        ps.setString(1, entry.getValue());
+                        ps.setString(2, entry.getKey());
+                        ps.setString(3, entry.getKey());
+                    });
+        } catch (Exception e) {
+            // 消息已落库，会话统计失败不影响消息本身，下一批消息落库时会重新统计
+            log.warn("更新会话消息数失败: sessions={}, error={}", sessionUsers.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 解析一行spool记录，崩溃时写了一半的行返回null
+     */
+    private ConsumerChatMessage parseLine(Path path, String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return JSON.parseObject(line, ConsumerChatMessage.class);
+        } catch (Exception e) {
+            log.warn("跳过无法解析的spool记录: path={}", path);
+            return null;
+        }
+    }
+
+    /**
+     * 接管其他节点目录中的残留分段：只有拿到目录锁（原实例已退出）才移入本目录，正在运行的实例的目录不动
+     */
+    private void adoptOrphanedSegments(Path root) throws IOException {
+        List<Path> nodeDirs;
+        try (Stream<Path> files = Files.list(root)) {
+            nodeDirs = files.filter(Files::isDirectory)
+                    .filter(dir -> dir.getFileName().toString().startsWith(NODE_DIR_PREFIX))
+                    .filter(dir -> !dir.equals(spoolDir))
+                    .sorted()
+                    .toList();
+        }
+        for (Path dir : nodeDirs) {
+            try (FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = tryLock(channel);
+                if (lock == null) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(dir)) {
+                    for (Path orphan : files.filter(this::isSegment).sorted().toList()) {
+                        Path adopted = nextSegmentPath();
+                        Files.move(orphan, adopted);
+                        closedSegments.add(adopted);
+                        log.warn("接管已退出实例的聊天消息spool分段: from={}, to={}", orphan, adopted);
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * 尝试获取排他锁，已被其他进程或本进程持有时返回null
+     */
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        while (true) {
+            Path path = nextSegmentPath();
+            try {
+                return new Segment(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+            } catch (FileAlreadyExistsException e) {
+                // 时钟回拨等情况下编号可能已被占用，继续递增
+            }
+        }
+    }
+
+    private Path nextSegmentPath() {
+        return spoolDir.resolve(SEGMENT_PREFIX + (segmentIndex++) + SEGMENT_SUFFIX);
+    }
+
+    private long lastSegmentIndex() {
+        long last = 0;
+        for (Path path : closedSegments) {
+            String name = path.getFileName().toString();
+            try {
+                last = Math.max(last, Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                // 非本写入器命名的分段，不影响编号
+            }
+        }
+        return last;
+    }
+
+    private void deleteSegment(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除聊天消息spool分段失败: path={}", path, e);
+        }
+    }
+
+    private boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * spool分段：追加由分段自身串行化，fsync按已写入的偏移组提交
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final Object syncLock = new Object();
+        private volatile long written;
+        private long synced;
+
+        private Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        /**
+         * 追加一行
+         *
+         * @return 追加后的文件长度
+         */
+        private synchronized long append(byte[] line) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written += line.length;
+            return written;
+        }
+
+        /**
+         * 确保offset之前的数据已落盘；一次fsync覆盖调用时已追加的所有数据，等待中的写入看到已覆盖时直接返回
+         */
+        private void sync(long offset) throws IOException {
+            synchronized (syncLock) {
+                if (synced >= offset) {
+                    return;
+                }
+                long target = written;
+                channel.force(false);
+                synced = target;
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("关闭聊天消息spool分段失败: path={}", path, e);
+            }
+        }
+    }
+}
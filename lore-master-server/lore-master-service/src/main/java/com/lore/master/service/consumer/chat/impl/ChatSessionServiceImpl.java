@@ -0,0 +1,205 @@
+package com.lore.master.service.consumer.chat.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.data.dto.chat.ChatSessionDTO;
+import com.lore.master.data.dto.chat.ChatSessionRequest;
+import com.lore.master.data.entity.consumer.ChatSession;
+import com.lore.master.data.repository.consumer.ChatSessionRepository;
+import com.lore.master.service.config.ChatClusterConfig;
+import com.lore.master.service.config.ChatMemoryConfig;
+import com.lore.master.service.consumer.chat.ChatSessionService;
+import com.lore.master.service.middleware.message.ClusterMessageBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 聊天会话服务实现类
+ *
+ * 用户的当前会话即最近活跃的未归档会话，切换会话只需刷新其最后活跃时间。
+ * 当前会话ID缓存在本地，会话变化时通过集群消息总线通知其他节点失效
+ */
+@Slf4j
+@Service
+public class ChatSessionServiceImpl implements ChatSessionService {
+
+    private static final String STATUS_ACTIVE = "active";
+    private static final String STATUS_ARCHIVED = "archived";
+
+    /**
+     * 当前会话ID的本地缓存时间，集群通知丢失时最多在这段时间后纠正
+     */
+    private static final Duration ACTIVE_SESSION_TTL = Duration.ofMinutes(5);
+
+    @Resource
+    private ChatSessionRepository chatSessionRepository;
+
+    @Resource
+    private ChatMemoryConfig chatMemoryConfig;
+
+    @Resource
+    private ChatClusterConfig chatClusterConfig;
+
+    @Resource
+    private ClusterMessageBus clusterMessageBus;
+
+    // 用户ID -> 当前会话ID
+    private Cache<String, String> activeSessions;
+    private Runnable unsubscribe;
+
+    @PostConstruct
+    public void init() {
+        activeSessions = Caffeine.newBuilder()
+                .maximumSize(chatMemoryConfig.getMaxUsers())
+                .expireAfterWrite(ACTIVE_SESSION_TTL)
+                .build();
+        unsubscribe = clusterMessageBus.subscribe(sessionChannel(), activeSessions::invalidate);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribe.run();
+    }
+
+    /**
+     * 获取用户当前会话ID
+     */
+    public String getActiveSessionId(String userId) {
+        return activeSessions.get(userId, this::loadActiveSessionId);
+    }
+
+    /**
+     * 创建新会话并切换为当前会话
+     */
+    public ChatSessionDTO createSession(String userId, ChatSessionRequest request) {
+        ChatSession session = newSession(userId, "session_" + UUID.randomUUID().toString().replace("-", ""));
+        if (StringUtils.hasText(request.getTitle())) {
+            session.setTitle(request.getTitle());
+        }
+        if (StringUtils.hasText(request.getSessionType())) {
+            session.setSessionType(request.getSessionType());
+        }
+        ChatSession saved = chatSessionRepository.save(session);
+        onActiveSessionChanged(userId, saved.getSessionId());
+        log.info("创建聊天会话: userId={}, sessionId={}", userId, saved.getSessionId());
+        return toDTO(saved, true);
+    }
+
+    /**
+     * 获取用户的会话列表
+     */
+    public List<ChatSessionDTO> listSessions(String userId, ChatSessionRequest request) {
+        String activeSessionId = getActiveSessionId(userId);
+        List<ChatSession> sessions = StringUtils.hasText(request.getStatus())
+                ? chatSessionRepository.findByUserIdAndStatusAndIsDeletedFalseOrderByLastActiveTimeDesc(userId, request.getStatus())
+                : chatSessionRepository.findByUserIdAndIsDeletedFalseOrderByLastActiveTimeDesc(userId);
+        return sessions.stream()
+                .map(session -> toDTO(session, session.getSessionId().equals(activeSessionId)))
+                .toList();
+    }
+
+    /**
+     * 切换当前会话
+     */
+    public ChatSessionDTO switchSession(String userId, String sessionId) {
+        ChatSession session = getOwnedSession(userId, sessionId);
+        session.setStatus(STATUS_ACTIVE);
+        session.setLastActiveTime(LocalDateTime.now());
+        ChatSession saved = chatSessionRepository.save(session);
+        onActiveSessionChanged(userId, sessionId);
+        log.info("切换聊天会话: userId={}, sessionId={}", userId, sessionId);
+        return toDTO(saved, true);
+    }
+
+    /**
+     * 归档会话
+     */
+    public void archiveSession(String userId, String sessionId) {
+        ChatSession session = getOwnedSession(userId, sessionId);
+        session.setStatus(STATUS_ARCHIVED);
+        chatSessionRepository.save(session);
+        // 当前会话可能已变化，下次访问时重新查询
+        onActiveSessionChanged(userId, null);
+        log.info("归档聊天会话: userId={}, sessionId={}", userId, sessionId);
+    }
+
+    private ChatSession getOwnedSession(String userId, String sessionId) {
+        return chatSessionRepository.findBySessionId(sessionId)
+                .filter(session -> session.getUserId().equals(userId) && !Boolean.TRUE.equals(session.getIsDeleted()))
+                .orElseThrow(() -> new BusinessException(ResultCode.CHAT_SESSION_NOT_FOUND));
+    }
+
+    /**
+     * 查询最近活跃的未归档会话；没有时创建默认会话。
+     * 用户的第一个会话沿用旧版本按用户固定的会话ID，已有聊天记录直接归入该会话
+     */
+    private String loadActiveSessionId(String userId) {
+        return chatSessionRepository.findFirstByUserIdAndStatusAndIsDeletedFalseOrderByLastActiveTimeDesc(userId, STATUS_ACTIVE)
+                .map(ChatSession::getSessionId)
+                .orElseGet(() -> createDefaultSession(userId));
+    }
+
+    private String createDefaultSession(String userId) {
+        String legacySessionId = "session_" + userId;
+        String sessionId = chatSessionRepository.findBySessionId(legacySessionId).isPresent()
+                ? "session_" + UUID.randomUUID().toString().replace("-", "")
+                : legacySessionId;
+        try {
+            chatSessionRepository.save(newSession(userId, sessionId));
+            log.info("创建默认聊天会话: userId={}, sessionId={}", userId, sessionId);
+            return sessionId;
+        } catch (DataIntegrityViolationException e) {
+            // 其他节点同时创建了默认会话
+            return chatSessionRepository.findFirstByUserIdAndStatusAndIsDeletedFalseOrderByLastActiveTimeDesc(userId, STATUS_ACTIVE)
+                    .map(ChatSession::getSessionId)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private ChatSession newSession(String userId, String sessionId) {
+        ChatSession session = new ChatSession();
+        session.setSessionId(sessionId);
+        session.setUserId(userId);
+        session.setTitle("新对话");
+        session.setStatus(STATUS_ACTIVE);
+        session.setLastActiveTime(LocalDateTime.now());
+        return session;
+    }
+
+    private void onActiveSessionChanged(String userId, String sessionId) {
+        if (sessionId != null) {
+            activeSessions.put(userId, sessionId);
+        } else {
+            activeSessions.invalidate(userId);
+        }
+        try {
+            clusterMessageBus.publish(sessionChannel(), userId);
+        } catch (Exception e) {
+            log.warn("通知其他节点会话变化失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    private String sessionChannel() {
+        return chatClusterConfig.getChannel() + ":session";
+    }
+
+    private ChatSessionDTO toDTO(ChatSession session, boolean current) {
+        ChatSessionDTO dto = new ChatSessionDTO();
+        BeanUtils.copyProperties(session, dto);
+        dto.setCurrent(current);
+        return dto;
+    }
+}
@@ -1,22 +1,29 @@
 package com.lore.master.service.consumer.chat.impl;
 
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.util.SnowflakeIdGenerator;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.data.dto.chat.ChatHistoryPage;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
 import com.lore.master.data.entity.consumer.ConsumerChatMessage;
 import com.lore.master.data.repository.consumer.ConsumerChatMessageRepository;
+import com.lore.master.service.config.ChatPersistenceConfig;
+import com.lore.master.service.consumer.chat.ChatSessionService;
 import com.lore.master.service.consumer.chat.ConsumerChatMessageService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import jakarta.annotation.Resource;
 import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 用户聊天消息服务实现类
@@ -25,42 +32,92 @@ import java.util.UUID;
 @Service
 public class ConsumerChatMessageServiceImpl implements ConsumerChatMessageService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = ",";
+
     @Resource
     @Qualifier("consumerChatMessageRepository")
     private ConsumerChatMessageRepository consumerChatMessageRepository;
 
+    @Resource
+    private ChatMessageWriter chatMessageWriter;
+
+    @Resource
+    private ChatPersistenceConfig chatPersistenceConfig;
+
+    @Resource
+    private ChatSessionService chatSessionService;
+
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
     /**
      * 保存用户消息
      */
     @Transactional
     public ConsumerChatMessage saveUserMessage(ConsumerChatHistoryRequest request) {
+        ConsumerChatMessage saved = consumerChatMessageRepository.save(buildUserMessage(request));
+        log.info("保存用户消息: userId={}, messageId={}", saved.getUserId(), saved.getMessageId());
+        return saved;
+    }
+
+    /**
+     * 保存AI响应消息
+     */
+    @Transactional
+    public ConsumerChatMessage saveAssistantMessage(ConsumerChatHistoryRequest request, String content, String modelName) {
+        ConsumerChatMessage saved = consumerChatMessageRepository.save(buildAssistantMessage(request, content, modelName));
+        log.info("保存AI响应消息: userId={}, messageId={}, contentLength={}",
+                saved.getUserId(), saved.getMessageId(), content.length());
+        return saved;
+    }
+
+    /**
+     * 异步保存用户消息
+     */
+    public ConsumerChatMessage saveUserMessageAsync(ConsumerChatHistoryRequest request) {
+        if (!Boolean.TRUE.equals(chatPersistenceConfig.getAsyncEnabled())) {
+            return saveUserMessage(request);
+        }
+        ConsumerChatMessage message = buildUserMessage(request);
+        chatMessageWriter.write(message);
+        log.debug("用户消息进入落库队列: userId={}, messageId={}", message.getUserId(), message.getMessageId());
+        return message;
+    }
+
+    /**
+     * 异步保存AI响应消息
+     */
+    public ConsumerChatMessage saveAssistantMessageAsync(ConsumerChatHistoryRequest request, String content, String modelName) {
+        if (!Boolean.TRUE.equals(chatPersistenceConfig.getAsyncEnabled())) {
+            return saveAssistantMessage(request, content, modelName);
+        }
+        ConsumerChatMessage message = buildAssistantMessage(request, content, modelName);
+        chatMessageWriter.write(message);
+        log.debug("AI响应消息进入落库队列: userId={}, messageId={}, contentLength={}",
+                message.getUserId(), message.getMessageId(), content.length());
+        return message;
+    }
+
+    private ConsumerChatMessage buildUserMessage(ConsumerChatHistoryRequest request) {
         String userId = request.getUserId();
-        String content = request.getContent();
-        String sessionId = "session_" + userId; // 简化：每个用户一个会话
+        String sessionId = resolveSessionId(request);
 
-        ConsumerChatMessage message = ConsumerChatMessage.builder()
+        return ConsumerChatMessage.builder()
                 .messageId(generateMessageId())
                 .userId(userId)
                 .sessionId(sessionId)
                 .role(ConsumerChatMessage.MessageRole.user)
-                .content(content)
+                .content(request.getContent())
                 .createTime(LocalDateTime.now())
                 .build();
-
-        ConsumerChatMessage saved = consumerChatMessageRepository.save(message);
-        log.info("保存用户消息: userId={}, messageId={}", userId, saved.getMessageId());
-        return saved;
     }
 
-    /**
-     * 保存AI响应消息
-     */
-    @Transactional
-    public ConsumerChatMessage saveAssistantMessage(ConsumerChatHistoryRequest request, String content, String modelName) {
+    private ConsumerChatMessage buildAssistantMessage(ConsumerChatHistoryRequest request, String content, String modelName) {
         String userId = request.getUserId();
-        String sessionId = "session_" + userId; // 简化：每个用户一个会话
+        String sessionId = resolveSessionId(request);
 
-        ConsumerChatMessage message = ConsumerChatMessage.builder()
+        return ConsumerChatMessage.builder()
                 .messageId(generateMessageId())
                 .userId(userId)
                 .sessionId(sessionId)
@@ -69,11 +126,6 @@ public class ConsumerChatMessageServiceImpl implements ConsumerChatMessageServic
                 .modelName(modelName)
                 .createTime(LocalDateTime.now())
                 .build();
-
-        ConsumerChatMessage saved = consumerChatMessageRepository.save(message);
-        log.info("保存AI响应消息: userId={}, messageId={}, contentLength={}",
-                userId, saved.getMessageId(), content.length());
-        return saved;
     }
 
     /**
@@ -82,7 +134,7 @@ public class ConsumerChatMessageServiceImpl implements ConsumerChatMessageServic
     public List<ConsumerChatMessage> getRecentMessages(ConsumerChatHistoryRequest request) {
         String userId = request.getUserId();
         int maxMessages = request.getMaxMessages() != null ? request.getMaxMessages() : 20; // 默认值
-        String sessionId = "session_" + userId;
+        String sessionId = resolveSessionId(request);
         Pageable pageable = PageRequest.of(0, maxMessages);
         List<ConsumerChatMessage> messages = consumerChatMessageRepository.findRecentMessages(userId, sessionId, pageable);
 
@@ -98,7 +150,7 @@ public class ConsumerChatMessageServiceImpl implements ConsumerChatMessageServic
      */
     public List<ConsumerChatMessage> getUserMessages(ConsumerChatHistoryRequest request) {
         String userId = request.getUserId();
-        String sessionId = "session_" + userId;
+        String sessionId = resolveSessionId(request);
         Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
         
         // 使用会话ID查询消息，按创建时间倒序排列（最新的在前面）
@@ -111,19 +163,67 @@ public class ConsumerChatMessageServiceImpl implements ConsumerChatMessageServic
         return messages;
     }
 
+    /**
+     * 按游标分页获取会话消息
+     * 游标为上一页最后一条消息的(createTime, id)，每页都是索引上的一次范围扫描，不随页码变深而变慢
+     */
+    public ChatHistoryPage getMessagesByCursor(ConsumerChatHistoryRequest request) {
+        String userId = request.getUserId();
+        String sessionId = resolveSessionId(request);
+        int size = Math.max(1, Math.min(request.getSize(), MAX_PAGE_SIZE));
+        // 多取一条判断是否还有下一页
+        Pageable pageable = PageRequest.of(0, size + 1);
+
+        List<ConsumerChatMessage> messages;
+        if (StringUtils.hasText(request.getCursor())) {
+            String[] cursor = request.getCursor().split(CURSOR_SEPARATOR, 2);
+            try {
+                messages = consumerChatMessageRepository.findMessagesBefore(userId, sessionId,
+                        LocalDateTime.parse(cursor[0]), Long.parseLong(cursor[1]), pageable);
+            } catch (RuntimeException e) {
+                throw new BusinessException(ResultCode.PARAM_ERROR, "无效的分页游标");
+            }
+        } else {
+            messages = consumerChatMessageRepository.findByUserIdAndSessionIdOrderByCreateTimeDescIdDesc(userId, sessionId, pageable);
+        }
+
+        ChatHistoryPage page = new ChatHistoryPage();
+        page.setSessionId(sessionId);
+        page.setHasMore(messages.size() > size);
+        if (messages.size() > size) {
+            messages = new ArrayList<>(messages.subList(0, size));
+        }
+        page.setMessages(messages);
+        if (page.getHasMore()) {
+            ConsumerChatMessage last = messages.get(messages.size() - 1);
+            page.setNextCursor(last.getCreateTime() + CURSOR_SEPARATOR + last.getId());
+        }
+        return page;
+    }
+
     /**
      * 获取用户消息总数
      */
     public long getUserMessageCount(ConsumerChatHistoryRequest request) {
         String userId = request.getUserId();
-        String sessionId = "session_" + userId;
+        String sessionId = resolveSessionId(request);
         return consumerChatMessageRepository.countByUserIdAndSessionId(userId, sessionId);
     }
 
     /**
-     * 生成消息ID
+     * 请求中指定了会话时使用该会话，否则使用用户当前会话
+     */
+    private String resolveSessionId(ConsumerChatHistoryRequest request) {
+        if (StringUtils.hasText(request.getSessionId())) {
+            return request.getSessionId();
+        }
+        return chatSessionService.getActiveSessionId(request.getUserId());
+    }
+
+    /**
+     * 生成消息ID，按生成时间有序
      */
     public String generateMessageId() {
-        return "msg_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+        return snowflakeIdGenerator.nextIdString();
     }
 }
@@ -1,20 +1,24 @@
 package com.lore.master.service.consumer.chat.impl;
 
+import com.lore.master.common.exception.BusinessException;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
 import com.lore.master.service.ai.AssistantServiceConf;
+import com.lore.master.service.ai.SemanticResponseCache;
 import com.lore.master.service.consumer.chat.LLMChatService;
 import com.lore.master.service.consumer.chat.ConsumerChatMessageService;
 import com.lore.master.service.consumer.chat.UserChatMemoryService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.ChatMemory;
-import dev.langchain4j.model.chat.ChatLanguageModel;
-import dev.langchain4j.model.chat.StreamingChatLanguageModel;
-import dev.langchain4j.service.AiServices;
 import dev.langchain4j.service.TokenStream;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * LLM聊天服务实现类
  * 支持OpenAI API和兼容的API服务
@@ -30,13 +34,13 @@ public class LLMChatServiceImpl implements LLMChatService {
     private ConsumerChatMessageService chatMessageService;
 
     @Resource
-    private UserChatMemoryService userChatMemoryService;
+    private AssistantServiceConf.UserAssistant userAssistant;
 
-    @Resource(name = "ollamaChatLanguageModel")
-    private ChatLanguageModel ollamaChatLanguageModel;
+    @Resource
+    private UserChatMemoryService userChatMemoryService;
 
-    @Resource(name = "ollamaStreamingChatModel")
-    private StreamingChatLanguageModel ollamaStreamingChatModel;
+    @Resource
+    private SemanticResponseCache semanticResponseCache;
 
     @Override
     public Flux<String> sendMessageStream(String message, String userId) {
@@ -44,32 +48,38 @@ public class LLMChatServiceImpl implements LLMChatService {
 
         try {
 
-            // 1. 保存用户消息到数据库
+            // 0. 先确保用户ChatMemory已加载，否则冷加载会把下面刚保存的用户消息重复读入记忆
+            ChatMemory memory = userChatMemoryService.getUserChatMemory(userId);
+            // 回答由带用户记忆的userAssistant生成，只有记忆中还没有对话时回答才与用户无关，可以查询和写入共享的语义缓存
+            boolean memoryFree = hasNoConversation(memory);
+
+            // 1. 保存用户消息（异步批量落库）
             ConsumerChatHistoryRequest userMsgRequest = new ConsumerChatHistoryRequest();
             userMsgRequest.setUserId(userId);
             userMsgRequest.setContent(message);
-            chatMessageService.saveUserMessage(userMsgRequest);
+            // 回答写入与提问相同的会话，生成期间用户切换会话也不会错位
+            String sessionId = chatMessageService.saveUserMessageAsync(userMsgRequest).getSessionId();
 
-            // 2. 获取用户的ChatMemory
-            ChatMemory chatMemory = userChatMemoryService.getUserChatMemory(userId);
+            // 语义缓存命中时直接回放缓存的回答，不调用模型；已有对话时提问可能是追问，不查缓存
+            SemanticResponseCache.Probe probe = memoryFree ? semanticResponseCache.probe(message) : null;
+            if (probe != null && probe.isHit()) {
+                return replayCachedAnswer(userId, sessionId, message, probe.getAnswer());
+            }
+            long startTime = System.currentTimeMillis();
 
-            // 3. 添加当前消息到ChatMemory
-            userChatMemoryService.addUserMessage(userId, message);
-
-            // 4. 创建带有ChatMemory的Assistant
-            AssistantServiceConf.Assistant assistantWithMemory = AiServices.builder(AssistantServiceConf.Assistant.class)
-                    .chatLanguageModel(ollamaChatLanguageModel)
-                    .streamingChatLanguageModel(ollamaStreamingChatModel)
-                    .chatMemory(chatMemory)
-                    .build();
-
-            // 5. 准备保存AI响应
+            // 2. 准备保存AI响应（用户消息和AI响应由userAssistant按用户ID写入ChatMemory）
             StringBuilder responseBuilder = new StringBuilder();
 
             return Flux.create(sink -> {
+                // 订阅方取消（连接关闭或用户停止）后，在下一个token到达时抛出异常中断模型的HTTP流
+                AtomicBoolean cancelled = new AtomicBoolean();
+                sink.onCancel(() -> cancelled.set(true));
                 try {
-                    TokenStream stream = assistantWithMemory.stream(message);
+                    TokenStream stream = userAssistant.stream(userId, message);
                     stream.onPartialResponse(partialResponse -> {
+                        if (cancelled.get()) {
+                            throw new CancellationException("生成已取消");
+                        }
                         log.debug("接收到部分响应: {}", partialResponse);
                         responseBuilder.append(partialResponse);
                         sink.next(partialResponse);
@@ -77,19 +87,24 @@ public class LLMChatServiceImpl implements LLMChatService {
                     .onCompleteResponse(completeResponse -> {
                         log.debug("流式响应完成");
 
-                        // 保存完整的AI响应到数据库
+                        // 保存完整的AI响应（异步批量落库，不阻塞模型回调线程）
                         String fullResponse = responseBuilder.toString();
                         ConsumerChatHistoryRequest assistantMsgRequest = new ConsumerChatHistoryRequest();
                         assistantMsgRequest.setUserId(userId);
-                        chatMessageService.saveAssistantMessage(assistantMsgRequest, fullResponse, "ollama");
-
-                        // 添加AI响应到ChatMemory
-                        userChatMemoryService.addAssistantMessage(userId, fullResponse);
+                        assistantMsgRequest.setSessionId(sessionId);
+                        chatMessageService.saveAssistantMessageAsync(assistantMsgRequest, fullResponse, "ollama");
+                        if (memoryFree) {
+                            semanticResponseCache.store(probe, fullResponse, System.currentTimeMillis() - startTime);
+                        }
 
                         log.info("AI响应完成并已保存: userId={}, responseLength={}", userId, fullResponse.length());
                         sink.complete();
                     })
                     .onError(error -> {
+                        if (cancelled.get()) {
+                            savePartialResponse(userId, sessionId, responseBuilder.toString());
+                            return;
+                        }
                         log.error("流式响应出错: userId={}, error={}", userId, error.getMessage(), error);
                         sink.error(error);
                     })
@@ -115,7 +130,11 @@ public class LLMChatServiceImpl implements LLMChatService {
         }
 
         try {
+            // 共享的assistant只有一份全局记忆，回答受其他用户的对话影响，不读写语义缓存
             return callLLMAPI(message);
+        } catch (BusinessException e) {
+            log.warn("LLM服务繁忙: userId={}, error={}", userId, e.getMessage());
+            return e.getMessage();
         } catch (Exception e) {
             log.error("LLM请求失败: userId={}, error={}", userId, e.getMessage(), e);
             return "抱歉，处理您的请求时出现了错误：" + e.getMessage();
@@ -127,6 +146,41 @@ public class LLMChatServiceImpl implements LLMChatService {
         return true;
     }
 
+    private static boolean hasNoConversation(ChatMemory memory) {
+        return memory.messages().stream().noneMatch(message -> message instanceof UserMessage || message instanceof AiMessage);
+    }
+
+    /**
+     * 生成被取消时保存用户已经看到的部分回答，保持聊天记录和记忆与前端一致
+     */
+    private void savePartialResponse(String userId, String sessionId, String partialResponse) {
+        log.info("流式响应已取消: userId={}, partialLength={}", userId, partialResponse.length());
+        if (partialResponse.isEmpty()) {
+            return;
+        }
+        userChatMemoryService.addAssistantMessage(userId, partialResponse);
+        ConsumerChatHistoryRequest assistantMsgRequest = new ConsumerChatHistoryRequest();
+        assistantMsgRequest.setUserId(userId);
+        assistantMsgRequest.setSessionId(sessionId);
+        chatMessageService.saveAssistantMessageAsync(assistantMsgRequest, partialResponse, "ollama");
+    }
+
+    /**
+     * 回放语义缓存中的回答，并像正常对话一样写入用户记忆和聊天记录
+     */
+    private Flux<String> replayCachedAnswer(String userId, String sessionId, String message, String answer) {
+        userChatMemoryService.addUserMessage(userId, message);
+        userChatMemoryService.addAssistantMessage(userId, answer);
+
+        ConsumerChatHistoryRequest assistantMsgRequest = new ConsumerChatHistoryRequest();
+        assistantMsgRequest.setUserId(userId);
+        assistantMsgRequest.setSessionId(sessionId);
+        chatMessageService.saveAssistantMessageAsync(assistantMsgRequest, answer, "semantic-cache");
+
+        log.info("语义缓存命中，回放缓存回答: userId={}, responseLength={}", userId, answer.length());
+        return Flux.fromIterable(semanticResponseCache.split(answer));
+    }
+
     /**
      * 调用LLM API
      */
@@ -134,6 +188,8 @@ public class LLMChatServiceImpl implements LLMChatService {
         try {
 //            return chatLanguageModel.chat(message);
             return assistant.chat(message);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("调用LLM API失败: {}", e.getMessage(), e);
             throw new RuntimeException("LLM API调用失败: " + e.getMessage(), e);
@@ -1,22 +1,38 @@
 package com.lore.master.service.consumer.chat.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
-import com.lore.master.data.entity.consumer.ConsumerChatMessage;
-import com.lore.master.service.consumer.chat.ConsumerChatMessageService;
+import com.lore.master.service.ai.ChatMemorySummarizer;
+import com.lore.master.service.ai.ConsumerChatMemoryStore;
+import com.lore.master.service.ai.SummarizingChatMemory;
+import com.lore.master.service.config.ChatMemoryConfig;
+import com.lore.master.service.consumer.chat.ChatSessionService;
 import com.lore.master.service.consumer.chat.UserChatMemoryService;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.ChatMemory;
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.Resource;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 用户ChatMemory管理服务实现类
@@ -25,50 +41,86 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class UserChatMemoryServiceImpl implements UserChatMemoryService {
 
+    /**
+     * 估算单条消息对象本身的堆占用（对象头、字段、String对象头等）
+     */
+    private static final int MESSAGE_OVERHEAD_BYTES = 64;
+
     @Resource
-    private ConsumerChatMessageService chatMessageService;
+    private ConsumerChatMemoryStore consumerChatMemoryStore;
 
-    // 缓存用户的ChatMemory，避免频繁从数据库加载
-    private final Map<String, ChatMemory> userMemoryCache = new ConcurrentHashMap<>();
+    @Resource
+    private ChatMemorySummarizer chatMemorySummarizer;
 
-    // 默认最大记忆消息数
-    private static final int DEFAULT_MAX_MESSAGES = 20;
+    @Resource
+    private ChatMemoryConfig chatMemoryConfig;
+
+    @Resource
+    private ChatSessionService chatSessionService;
+
+    // 按用户当前会话缓存ChatMemory，切换会话后自然加载新会话的记忆，切回时旧会话的记忆可能仍在缓存中；
+    // 按会话数和空闲时间淘汰，冷加载在独立线程池中异步完成
+    private AsyncLoadingCache<MemoryKey, ChatMemory> userMemoryCache;
+
+    private ExecutorService memoryLoader;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        memoryLoader = Executors.newFixedThreadPool(chatMemoryConfig.getLoaderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "chat-memory-loader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        userMemoryCache = Caffeine.newBuilder()
+                .maximumSize(chatMemoryConfig.getMaxUsers())
+                .expireAfterAccess(Duration.ofMinutes(chatMemoryConfig.getIdleMinutes()))
+                .executor(memoryLoader)
+                .recordStats()
+                .removalListener((MemoryKey key, ChatMemory memory, RemovalCause cause) ->
+                        log.debug("淘汰用户ChatMemory: userId={}, sessionId={}, cause={}", key.userId(), key.sessionId(), cause))
+                .buildAsync(this::loadChatMemoryFromDatabase);
+
+        log.info("初始化ChatMemory缓存: maxUsers={}, idleMinutes={}, maxTokens={}",
+                chatMemoryConfig.getMaxUsers(), chatMemoryConfig.getIdleMinutes(), chatMemoryConfig.getMaxTokens());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        memoryLoader.shutdown();
+    }
 
     /**
      * 获取用户的ChatMemory
      */
     public ChatMemory getUserChatMemory(String userId) {
-        return userMemoryCache.computeIfAbsent(userId, this::loadChatMemoryFromDatabase);
+        return getUserChatMemoryAsync(userId).join();
+    }
+
+    /**
+     * 异步获取用户的ChatMemory
+     */
+    public CompletableFuture<ChatMemory> getUserChatMemoryAsync(String userId) {
+        return userMemoryCache.get(new MemoryKey(userId, chatSessionService.getActiveSessionId(userId)));
     }
 
     /**
      * 从数据库加载ChatMemory
      */
-    private ChatMemory loadChatMemoryFromDatabase(String userId) {
-        log.info("为用户 {} 从数据库加载ChatMemory", userId);
-
-        // 创建ChatMemory，限制最大消息数
-        ChatMemory memory = MessageWindowChatMemory.withMaxMessages(DEFAULT_MAX_MESSAGES);
-
-        // 获取用户的最近消息
-        ConsumerChatHistoryRequest request = new ConsumerChatHistoryRequest();
-        request.setUserId(userId);
-        request.setMaxMessages(DEFAULT_MAX_MESSAGES);
-        List<ConsumerChatMessage> recentMessages = chatMessageService.getRecentMessages(request);
-
-        // 将消息添加到ChatMemory
-        for (ConsumerChatMessage msg : recentMessages) {
-            switch (msg.getRole()) {
-                case user:
-                    memory.add(UserMessage.from(msg.getContent()));
-                    break;
-                case assistant:
-                    memory.add(AiMessage.from(msg.getContent()));
-                    break;
-                case system:
-                    memory.add(SystemMessage.from(msg.getContent()));
-                    break;
-            }
+    private ChatMemory loadChatMemoryFromDatabase(MemoryKey key) {
+        String userId = key.userId();
+        log.info("为用户 {} 从数据库加载ChatMemory: sessionId={}", userId, key.sessionId());
+
+        // 创建ChatMemory，按Token预算裁剪，超出部分后台折叠成摘要
+        ChatMemory memory = chatMemorySummarizer.newChatMemory(userId);
+
+        // 将最近消息添加到ChatMemory；重建时超出预算的早期消息直接丢弃，不再重新摘要
+        List<ChatMessage> recentMessages = consumerChatMemoryStore.getMessages(userId, key.sessionId());
+        if (memory instanceof SummarizingChatMemory summarizingMemory) {
+            summarizingMemory.restore(recentMessages);
+        } else {
+            recentMessages.forEach(memory::add);
         }
 
         log.info("为用户 {} 加载了 {} 条历史消息到ChatMemory", userId, recentMessages.size());
@@ -98,7 +150,7 @@ public class UserChatMemoryServiceImpl implements UserChatMemoryService {
      */
     public void clearUserMemoryCache(ConsumerChatHistoryRequest request) {
         String userId = request.getUserId();
-        userMemoryCache.remove(userId);
+        userMemoryCache.synchronous().asMap().keySet().removeIf(key -> key.userId().equals(userId));
         log.info("清除用户ChatMemory缓存: userId={}", userId);
     }
 
@@ -106,7 +158,7 @@ public class UserChatMemoryServiceImpl implements UserChatMemoryService {
      * 清除所有ChatMemory缓存
      */
     public void clearAllMemoryCache() {
-        userMemoryCache.clear();
+        userMemoryCache.synchronous().invalidateAll();
         log.info("清除所有ChatMemory缓存");
     }
 
@@ -118,4 +170,72 @@ public class UserChatMemoryServiceImpl implements UserChatMemoryService {
         ChatMemory memory = getUserChatMemory(userId);
         return memory.messages().size();
     }
+
+    /**
+     * 获取ChatMemory缓存统计，包含命中率、淘汰数以及占用最大的用户
+     */
+    public Map<String, Object> getMemoryCacheStats() {
+        CacheStats stats = userMemoryCache.synchronous().stats();
+
+        List<Map<String, Object>> users = new ArrayList<>();
+        long totalMessages = 0;
+        long totalBytes = 0;
+        for (Map.Entry<MemoryKey, ChatMemory> entry : userMemoryCache.synchronous().asMap().entrySet()) {
+            List<ChatMessage> messages = entry.getValue().messages();
+            long bytes = estimateBytes(messages);
+            totalMessages += messages.size();
+            totalBytes += bytes;
+
+            Map<String, Object> user = new HashMap<>();
+            user.put("userId", entry.getKey().userId());
+            user.put("sessionId", entry.getKey().sessionId());
+            user.put("messageCount", messages.size());
+            user.put("estimatedBytes", bytes);
+            users.add(user);
+        }
+        users.sort(Comparator.comparingLong((Map<String, Object> user) -> (Long) user.get("estimatedBytes")).reversed());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("cachedUsers", users.size());
+        result.put("totalMessages", totalMessages);
+        result.put("totalEstimatedBytes", totalBytes);
+        result.put("hitRate", stats.hitRate());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("topUsers", users.subList(0, Math.min(users.size(), chatMemoryConfig.getStatsTopUsers())));
+        return result;
+    }
+
+    /**
+     * 估算消息列表的堆内存占用（字符按UTF-16计算）
+     */
+    private long estimateBytes(List<ChatMessage> messages) {
+        long bytes = 0;
+        for (ChatMessage message : messages) {
+            bytes += MESSAGE_OVERHEAD_BYTES + 2L * textLength(message);
+        }
+        return bytes;
+    }
+
+    private int textLength(ChatMessage message) {
+        if (message instanceof UserMessage userMessage) {
+            return userMessage.hasSingleText() ? userMessage.singleText().length() : 0;
+        }
+        if (message instanceof AiMessage aiMessage) {
+            return aiMessage.text() != null ? aiMessage.text().length() : 0;
+        }
+        if (message instanceof SystemMessage systemMessage) {
+            return systemMessage.text().length();
+        }
+        return 0;
+    }
+
+    /**
+     * 记忆缓存键：用户及其会话
+     */
+    private record MemoryKey(String userId, String sessionId) {
+    }
 }
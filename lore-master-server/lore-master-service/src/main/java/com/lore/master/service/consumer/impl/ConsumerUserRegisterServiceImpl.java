@@ -117,7 +117,7 @@ public class ConsumerUserRegisterServiceImpl implements ConsumerUserRegisterServ
         
         // 生成并设置用户ID
         log.info("开始生成用户ID");
-        String userId = userIdGenerator.generateUniqueUserId();
+        String userId = userIdGenerator.generateUserId();
         log.info("生成的用户ID: {}, 长度: {}, 是否为空: {}", userId, userId != null ? userId.length() : 0, userId == null || userId.isEmpty());
         
         if (userId == null || userId.isEmpty()) {
@@ -0,0 +1,81 @@
+package com.lore.master.service.consumer.impl;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * 按权重随机选下标的树状数组
+ *
+ * 修改一个权重、按权重抽样都是 O(log n)；权重为整数，反复修改不会累积浮点误差
+ */
+final class FenwickSampler {
+
+    // 1-based，tree[i] 为 (i - lowbit(i), i] 区间的权重和
+    private final long[] tree;
+    private final int highestBit;
+    private long total;
+
+    FenwickSampler(long[] weights) {
+        int n = weights.length;
+        tree = new long[n + 1];
+        for (int i = 1; i <= n; i++) {
+            tree[i] += weights[i - 1];
+            total += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                tree[parent] += tree[i];
+            }
+        }
+        highestBit = n == 0 ? 0 : Integer.highestOneBit(n);
+    }
+
+    int size() {
+        return tree.length - 1;
+    }
+
+    long total() {
+        return total;
+    }
+
+    long weight(int index) {
+        return prefixSum(index + 1) - prefixSum(index);
+    }
+
+    void set(int index, long weight) {
+        long delta = weight - weight(index);
+        total += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * 按权重随机选一个下标，总权重必须大于0
+     */
+    int sample(RandomGenerator random) {
+        return find(random.nextLong(total));
+    }
+
+    /**
+     * 返回满足 前index项权重和 <= target < 前index+1项权重和 的下标，权重为0的下标不会被选中
+     */
+    int find(long target) {
+        int position = 0;
+        long remaining = target;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    private long prefixSum(int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
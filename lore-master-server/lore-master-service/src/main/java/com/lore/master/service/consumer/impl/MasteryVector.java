@@ -0,0 +1,129 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.service.admin.KnowledgePointQuestions;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * 用户在一个学科下对各知识点的掌握度
+ *
+ * 掌握度（0~1）存放在与 KnowledgePointQuestions 知识点下标对齐的 float[] 中。
+ * 选题权重 = MIN_WEIGHT + (1 - 掌握度) * WEIGHT_SCALE，掌握越差越容易被选中，已掌握的知识点仍有少量复习机会；
+ * 权重放在树状数组中，答题后更新和按权重选知识点都是 O(log n)。
+ * 同一用户的请求可能并发，方法都加锁
+ */
+final class MasteryVector {
+
+    static final long WEIGHT_SCALE = 1000;
+    static final long MIN_WEIGHT = 50;
+
+    /**
+     * 选中最近出过的题目时最多重选的次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private KnowledgePointQuestions questions;
+    private float[] mastery;
+    private FenwickSampler sampler;
+
+    // 最近出过的题目ID，环形覆盖
+    private final long[] recent;
+    private int recentCursor;
+
+    MasteryVector(KnowledgePointQuestions questions, int recentSize) {
+        this.questions = questions;
+        this.mastery = new float[questions.size()];
+        this.sampler = new FenwickSampler(weights(mastery));
+        this.recent = new long[Math.max(recentSize, 0)];
+    }
+
+    /**
+     * 题目池重建后按知识点ID迁移掌握度，新出现的知识点从0开始，已没有题目的知识点被丢弃
+     */
+    synchronized void rebind(KnowledgePointQuestions next) {
+        if (next == questions || next.version() == questions.version()) {
+            return;
+        }
+        float[] migrated = new float[next.size()];
+        for (int i = 0; i < migrated.length; i++) {
+            int previous = questions.indexOf(next.knowledgePointId(i));
+            if (previous >= 0) {
+                migrated[i] = mastery[previous];
+            }
+        }
+        questions = next;
+        mastery = migrated;
+        sampler = new FenwickSampler(weights(migrated));
+    }
+
+    /**
+     * 记录一次作答，返回知识点新的掌握度；知识点不在当前题目池中时返回null
+     */
+    synchronized Double record(long knowledgePointId, boolean correct, double learningRate) {
+        int index = questions.indexOf(knowledgePointId);
+        if (index < 0) {
+            return null;
+        }
+        mastery[index] += (float) (learningRate * ((correct ? 1 : 0) - mastery[index]));
+        sampler.set(index, weight(mastery[index]));
+        return (double) mastery[index];
+    }
+
+    /**
+     * 知识点当前的掌握度，不在当前题目池中时返回null
+     */
+    synchronized Double mastery(long knowledgePointId) {
+        int index = questions.indexOf(knowledgePointId);
+        return index >= 0 ? (double) mastery[index] : null;
+    }
+
+    /**
+     * 选下一题：按权重选知识点，再取难度与掌握度相当的题目，尽量避开最近出过的题目；没有题目时返回0
+     */
+    synchronized long next(RandomGenerator random) {
+        if (sampler.size() == 0) {
+            return 0;
+        }
+        long picked = 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int index = sampler.sample(random);
+            picked = questions.pick(index, targetDifficulty(mastery[index]), random);
+            if (!isRecent(picked)) {
+                break;
+            }
+        }
+        if (recent.length > 0) {
+            recent[recentCursor] = picked;
+            recentCursor = (recentCursor + 1) % recent.length;
+        }
+        return picked;
+    }
+
+    /**
+     * 掌握度 0 对应难度1（入门），1 对应难度5（专家）
+     */
+    static int targetDifficulty(float mastery) {
+        return 1 + Math.round(mastery * 4);
+    }
+
+    private boolean isRecent(long questionId) {
+        for (long id : recent) {
+            if (id == questionId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] weights(float[] mastery) {
+        long[] weights = new long[mastery.length];
+        for (int i = 0; i < mastery.length; i++) {
+            weights[i] = weight(mastery[i]);
+        }
+        return weights;
+    }
+
+    private static long weight(float mastery) {
+        return MIN_WEIGHT + Math.round((1 - mastery) * WEIGHT_SCALE);
+    }
+}
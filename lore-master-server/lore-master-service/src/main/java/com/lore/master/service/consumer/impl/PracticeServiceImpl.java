@@ -0,0 +1,232 @@
+package com.lore.master.service.consumer.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lore.master.common.context.UserContext;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.data.dto.consumer.PracticeAnswerRequest;
+import com.lore.master.data.entity.admin.Question;
+import com.lore.master.data.repository.admin.QuestionRepository;
+import com.lore.master.data.vo.consumer.PracticeAnswerResultVO;
+import com.lore.master.data.vo.consumer.PracticeQuestionVO;
+import com.lore.master.service.admin.KnowledgePointQuestions;
+import com.lore.master.service.admin.QuestionSamplingService;
+import com.lore.master.service.config.PracticeConfig;
+import com.lore.master.service.consumer.PracticeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * C端自适应练习服务实现
+ *
+ * 掌握度向量只保存在内存中（按 用户 × 学科 缓存，空闲过期），服务重启或被淘汰后从0开始；
+ * 题目的作答次数和正确率由 QuestionAnswerStats 聚合后定时写库
+ */
+@Slf4j
+@Service
+public class PracticeServiceImpl implements PracticeService {
+
+    private static final int ACTIVE_STATUS = 1;
+
+    /**
+     * 选中的题目已被删除或停用（题目池尚未重建）时最多重选的次数
+     */
+    private static final int MAX_PICKS = 3;
+
+    private static final Set<String> TRUE_ANSWERS = Set.of("TRUE", "T", "Y", "YES", "1", "对", "正确", "是", "√");
+    private static final Set<String> FALSE_ANSWERS = Set.of("FALSE", "F", "N", "NO", "0", "错", "错误", "否", "×");
+
+    @Resource
+    private QuestionRepository questionRepository;
+
+    @Resource
+    private QuestionSamplingService questionSamplingService;
+
+    @Resource
+    private QuestionAnswerStats questionAnswerStats;
+
+    @Resource
+    private PracticeConfig practiceConfig;
+
+    // 用户ID:学科ID -> 掌握度向量
+    private Cache<String, MasteryVector> masteries;
+
+    @PostConstruct
+    public void init() {
+        masteries = Caffeine.newBuilder()
+                .maximumSize(practiceConfig.getMaxUsers())
+                .expireAfterAccess(Duration.ofMinutes(practiceConfig.getIdleMinutes()))
+                .build();
+    }
+
+    @Override
+    public PracticeQuestionVO nextQuestion(Long subjectId) {
+        String userId = currentUserId();
+        if (subjectId == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "学科ID不能为空");
+        }
+        KnowledgePointQuestions questions = questionSamplingService.knowledgePointQuestions(subjectId);
+        if (questions.size() == 0) {
+            return null;
+        }
+        MasteryVector vector = masteryVector(userId, subjectId, questions);
+        for (int pick = 0; pick < MAX_PICKS; pick++) {
+            Question question = questionRepository.findById(vector.next(ThreadLocalRandom.current()))
+                    .filter(this::isActive)
+                    .orElse(null);
+            if (question != null) {
+                Long knowledgePointId = question.getKnowledgePointId();
+                return toQuestionVO(question, knowledgePointId != null ? vector.mastery(knowledgePointId) : null);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<PracticeAnswerResultVO> submitAnswers(PracticeAnswerRequest request) {
+        String userId = currentUserId();
+        List<PracticeAnswerRequest.Answer> answers = request.getAnswers();
+        if (answers == null || answers.isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "答案不能为空");
+        }
+        if (answers.size() > practiceConfig.getMaxBatchSize()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "单次最多提交" + practiceConfig.getMaxBatchSize() + "个答案");
+        }
+
+        // 一次查出本批涉及的题目
+        Set<Long> questionIds = answers.stream()
+                .map(PracticeAnswerRequest.Answer::getQuestionId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Question> questions = questionRepository.findAllById(questionIds).stream()
+                .filter(this::isActive)
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+
+        List<PracticeAnswerResultVO> results = new ArrayList<>(answers.size());
+        for (PracticeAnswerRequest.Answer answer : answers) {
+            PracticeAnswerResultVO result = new PracticeAnswerResultVO();
+            result.setQuestionId(answer.getQuestionId());
+            Question question = questions.get(answer.getQuestionId());
+            if (question != null) {
+                Boolean correct = grade(question, answer);
+                result.setCorrect(correct);
+                result.setCorrectAnswer(question.getCorrectAnswer());
+                result.setExplanation(question.getExplanation());
+                result.setKnowledgePointId(question.getKnowledgePointId());
+                if (correct != null) {
+                    questionAnswerStats.record(question.getId(), correct);
+                    result.setMastery(recordMastery(userId, question, correct));
+                }
+            }
+            results.add(result);
+        }
+        log.debug("提交练习答案: userId={}, 答案数={}", userId, answers.size());
+        return results;
+    }
+
+    private Double recordMastery(String userId, Question question, boolean correct) {
+        if (question.getSubjectId() == null || question.getKnowledgePointId() == null) {
+            return null;
+        }
+        KnowledgePointQuestions questions = questionSamplingService.knowledgePointQuestions(question.getSubjectId());
+        if (questions.size() == 0) {
+            return null;
+        }
+        return masteryVector(userId, question.getSubjectId(), questions)
+                .record(question.getKnowledgePointId(), correct, practiceConfig.getLearningRate());
+    }
+
+    private MasteryVector masteryVector(String userId, Long subjectId, KnowledgePointQuestions questions) {
+        MasteryVector vector = masteries.get(userId + ":" + subjectId,
+                key -> new MasteryVector(questions, practiceConfig.getRecentSize()));
+        vector.rebind(questions);
+        return vector;
+    }
+
+    /**
+     * 客观题按正确答案判分；简答题、编程题无法自动判分，使用用户自评结果，未自评时返回null。
+     * 判断题的正确答案不是可识别的对错写法时按原文比较
+     */
+    static Boolean grade(Question question, PracticeAnswerRequest.Answer answer) {
+        Integer type = question.getType();
+        if (type == null || type >= 5 || question.getCorrectAnswer() == null) {
+            return answer.getCorrect();
+        }
+        if (answer.getAnswer() == null) {
+            return false;
+        }
+        String expected = question.getCorrectAnswer();
+        String actual = answer.getAnswer();
+        return switch (type) {
+            case 2 -> choiceLetters(expected).equals(choiceLetters(actual));
+            case 3 -> judgement(expected) != null
+                    ? judgement(expected).equals(judgement(actual))
+                    : expected.trim().equalsIgnoreCase(actual.trim());
+            case 4 -> normalizeText(expected).equalsIgnoreCase(normalizeText(actual));
+            default -> expected.trim().equalsIgnoreCase(actual.trim());
+        };
+    }
+
+    /**
+     * 多选答案按选项字母集合比较，忽略顺序和分隔符
+     */
+    private static String choiceLetters(String answer) {
+        return answer.toUpperCase().chars()
+                .filter(c -> c >= 'A' && c <= 'Z')
+                .distinct()
+                .sorted()
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+    }
+
+    private static Boolean judgement(String answer) {
+        String normalized = answer.trim().toUpperCase();
+        if (TRUE_ANSWERS.contains(normalized)) {
+            return true;
+        }
+        return FALSE_ANSWERS.contains(normalized) ? false : null;
+    }
+
+    private static String normalizeText(String answer) {
+        return answer.trim().replaceAll("\\s+", " ");
+    }
+
+    private boolean isActive(Question question) {
+        return Integer.valueOf(ACTIVE_STATUS).equals(question.getStatus());
+    }
+
+    private static String currentUserId() {
+        String userId = UserContext.getCurrentUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.NOT_LOGIN, "用户未登录");
+        }
+        return userId;
+    }
+
+    private static PracticeQuestionVO toQuestionVO(Question question, Double mastery) {
+        PracticeQuestionVO vo = new PracticeQuestionVO();
+        vo.setId(question.getId());
+        vo.setTitle(question.getTitle());
+        vo.setContent(question.getContent());
+        vo.setType(question.getType());
+        vo.setOptions(question.getOptions());
+        vo.setDifficultyLevel(question.getDifficultyLevel());
+        vo.setKnowledgePointId(question.getKnowledgePointId());
+        vo.setKnowledgePointName(question.getKnowledgePointName());
+        vo.setMastery(mastery);
+        vo.setEstimatedTime(question.getEstimatedTime());
+        return vo;
+    }
+}
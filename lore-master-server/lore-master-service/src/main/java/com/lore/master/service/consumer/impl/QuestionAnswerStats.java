@@ -0,0 +1,138 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.service.admin.impl.AdminBatchWriter;
+import com.lore.master.service.config.PracticeConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 题目作答统计的内存聚合
+ *
+ * 每道题一个 LongAdder，高32位为作答次数、低32位为答对次数，一次 add 同时累加两者；
+ * LongAdder 按线程分散到多个计数单元，答题线程之间不竞争同一个计数。
+ * 后台定时用 sumThenReset 取出增量（每个计数单元原子地取出并清零，作答和答对次数总是成对取出），
+ * 在一个事务内批量合并到 questions.usage_count 和 accuracy_rate。合并按增量进行，多个节点各自刷新互不覆盖；
+ * 写库失败时把增量加回计数器，下次重试
+ */
+@Slf4j
+@Component
+public class QuestionAnswerStats {
+
+    private static final long ATTEMPT = 1L << 32;
+    private static final long CORRECT_MASK = ATTEMPT - 1;
+
+    /**
+     * 参数依次为 答对次数、作答次数、作答次数、题目ID。
+     * MySQL按顺序执行SET赋值，后面的赋值读到已更新的值，accuracy_rate 必须在 usage_count 之前计算
+     */
+    private static final String APPLY_SQL = "UPDATE questions SET "
+            + "accuracy_rate = (COALESCE(accuracy_rate, 0) * COALESCE(usage_count, 0) + ? * 100.0) / (COALESCE(usage_count, 0) + ?), "
+            + "usage_count = COALESCE(usage_count, 0) + ? "
+            + "WHERE id = ?";
+
+    @Resource
+    private AdminBatchWriter adminBatchWriter;
+
+    @Resource(name = "adminTransactionManager")
+    private PlatformTransactionManager adminTransactionManager;
+
+    @Resource
+    private PracticeConfig practiceConfig;
+
+    // 题目ID -> 计数，条目不删除，数量不超过题目总数
+    private final ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledThreadPoolExecutor flusher;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(adminTransactionManager);
+        flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "answer-stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = practiceConfig.getFlushIntervalSeconds();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    /**
+     * 记录一次作答
+     */
+    public void record(long questionId, boolean correct) {
+        counters.computeIfAbsent(questionId, id -> new LongAdder()).add(correct ? ATTEMPT + 1 : ATTEMPT);
+    }
+
+    /**
+     * 尚未写库的作答次数
+     */
+    public long pendingAttempts() {
+        long pending = 0;
+        for (LongAdder counter : counters.values()) {
+            pending += counter.sum() >>> 32;
+        }
+        return pending;
+    }
+
+    /**
+     * 把累计的增量写入数据库，返回更新的题目数
+     */
+    public synchronized int flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        counters.forEach((questionId, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta != 0) {
+                deltas.put(questionId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Long, Long>> rows = new ArrayList<>(deltas.entrySet());
+        try {
+            transactionTemplate.executeWithoutResult(status -> adminBatchWriter.batchUpdate(APPLY_SQL, rows, (ps, row) -> {
+                long attempts = row.getValue() >>> 32;
+                ps.setLong(1, row.getValue() & CORRECT_MASK);
+                ps.setLong(2, attempts);
+                ps.setLong(3, attempts);
+                ps.setLong(4, row.getKey());
+            }));
+        } catch (RuntimeException e) {
+            rows.forEach(row -> counters.get(row.getKey()).add(row.getValue()));
+            throw e;
+        }
+        return rows.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            int updated = flush();
+            if (updated > 0) {
+                log.debug("作答统计写库: 题目数={}", updated);
+            }
+        } catch (Exception e) {
+            log.error("作答统计写库失败，增量保留到下次写入", e);
+        }
+    }
+}
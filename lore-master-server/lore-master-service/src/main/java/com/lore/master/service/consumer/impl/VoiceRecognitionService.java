@@ -2,11 +2,18 @@ package com.lore.master.service.consumer.impl;
 
 import com.lore.master.data.dto.consumer.VoiceTranscribeRequest;
 import com.lore.master.data.dto.consumer.VoiceTranscribeResponse;
+import com.lore.master.common.exception.BusinessException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * 语音识别服务
  *
@@ -17,6 +24,17 @@ import org.springframework.util.StringUtils;
 @Service
 public class VoiceRecognitionService {
     
+    /**
+     * 音频大小上限：讯飞单次最长接受60秒音频，音频按1280字节/40ms匀速发送，60秒对应1920000字节（约1.9MB）。
+     * 更大的音频发送时间会超过识别总超时
+     */
+    public static final long MAX_AUDIO_BYTES = 60 * 1000 / 40 * 1280;
+
+    /**
+     * 超出音频大小上限时的提示
+     */
+    public static final String AUDIO_TOO_LARGE_MESSAGE = "音频过长，请控制在60秒（约1.9MB）以内";
+    
     @Autowired
     private XfyunVoiceClient xfyunVoiceClient;
     
@@ -40,9 +58,9 @@ public class VoiceRecognitionService {
                 throw new IllegalArgumentException("音频数据不能为空");
             }
             
-            // 验证音频大小（限制10MB）
-            if (audioData.length > 10 * 1024 * 1024) {
-                throw new IllegalArgumentException("音频文件过大，请控制在10MB以内");
+            // 验证音频大小（60秒）
+            if (audioData.length > MAX_AUDIO_BYTES) {
+                throw new IllegalArgumentException(AUDIO_TOO_LARGE_MESSAGE);
             }
             
             // 验证音频格式
@@ -68,7 +86,7 @@ public class VoiceRecognitionService {
             VoiceTranscribeResponse response = VoiceTranscribeResponse.builder()
                     .text(recognizedText.trim())
                     .confidence(0.95) // 讯飞API通常有较高准确率
-                    .duration(estimateAudioDuration(audioData, format))
+                    .duration(estimateAudioDuration(audioData.length, format))
                     .resultCode("SUCCESS")
                     .provider("xfyun")
                     .processingTime(processingTime)
@@ -99,6 +117,60 @@ public class VoiceRecognitionService {
         }
     }
     
+    /**
+     * 语音转文字（流式）
+     * 在调用线程上边读取音频流边发送给讯飞，读完即返回，识别结果异步给出
+     *
+     * @param audio  音频流，由调用方关闭
+     * @param format 音频格式
+     * @param userId 用户ID
+     * @return 识别结果；参数错误和识别繁忙以异常结束，其他失败返回ERROR结果
+     */
+    public CompletableFuture<VoiceTranscribeResponse> transcribeVoiceAsync(InputStream audio, String format, String userId) {
+        long startTime = System.currentTimeMillis();
+        String lowerFormat = format == null ? "" : format.toLowerCase();
+        if (!isValidAudioFormat(lowerFormat)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("不支持的音频格式: " + format));
+        }
+        log.info("开始流式语音识别: userId={}, format={}", userId, lowerFormat);
+        
+        LimitedInputStream limited = new LimitedInputStream(audio, MAX_AUDIO_BYTES);
+        return xfyunVoiceClient.recognizeVoiceAsync(limited, lowerFormat).handle((text, error) -> {
+            long processingTime = System.currentTimeMillis() - startTime;
+            if (limited.getCount() == 0) {
+                throw new IllegalArgumentException("音频数据不能为空");
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof IllegalArgumentException || cause instanceof BusinessException) {
+                    log.warn("流式语音识别被拒绝: userId={}, error={}", userId, cause.getMessage());
+                    throw (RuntimeException) cause;
+                }
+                log.error("流式语音识别失败: userId={}, error={}", userId, cause.getMessage(), cause);
+                return VoiceTranscribeResponse.builder()
+                        .text("")
+                        .confidence(0.0)
+                        .duration(0.0)
+                        .resultCode("ERROR")
+                        .provider("xfyun")
+                        .processingTime(processingTime)
+                        .build();
+            }
+            
+            String recognizedText = StringUtils.hasText(text) ? text.trim() : "";
+            log.info("流式语音识别完成: userId={}, audioBytes={}, result={}, processingTime={}ms",
+                    userId, limited.getCount(), recognizedText, processingTime);
+            return VoiceTranscribeResponse.builder()
+                    .text(recognizedText)
+                    .confidence(0.95) // 讯飞API通常有较高准确率
+                    .duration(estimateAudioDuration(limited.getCount(), lowerFormat))
+                    .resultCode("SUCCESS")
+                    .provider("xfyun")
+                    .processingTime(processingTime)
+                    .build();
+        });
+    }
+    
     /**
      * 语音转文字（兼容旧版本）
      * 
@@ -120,18 +192,18 @@ public class VoiceRecognitionService {
     /**
      * 估算音频时长
      */
-    private double estimateAudioDuration(byte[] audioData, String format) {
+    private double estimateAudioDuration(long audioBytes, String format) {
         try {
             // 简单估算，实际项目中可以使用音频处理库获取精确时长
             if ("mp3".equals(format)) {
                 // MP3压缩比约为1:10
-                return audioData.length / (16000.0 * 2 * 0.1); // 16kHz, 16bit, 压缩比
+                return audioBytes / (16000.0 * 2 * 0.1); // 16kHz, 16bit, 压缩比
             } else if ("wav".equals(format)) {
                 // WAV无压缩
-                return audioData.length / (16000.0 * 2); // 16kHz, 16bit
+                return audioBytes / (16000.0 * 2); // 16kHz, 16bit
             } else {
                 // PCM原始数据
-                return audioData.length / (16000.0 * 2); // 16kHz, 16bit
+                return audioBytes / (16000.0 * 2); // 16kHz, 16bit
             }
         } catch (Exception e) {
             log.warn("估算音频时长失败: {}", e.getMessage());
@@ -161,4 +233,47 @@ public class VoiceRecognitionService {
             return "讯飞语音识别服务不可用";
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 统计读取字节数并限制上限的输入流
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        
+        private final long limit;
+        private long count;
+        
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                advance(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+        
+        long getCount() {
+            return count;
+        }
+        
+        private void advance(int read) {
+            count += read;
+            if (count > limit) {
+                throw new IllegalArgumentException(AUDIO_TOO_LARGE_MESSAGE);
+            }
+        }
+    }
+}
@@ -3,52 +3,101 @@ package com.lore.master.service.consumer.impl;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
 import com.lore.master.service.config.XfyunVoiceConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.apache.commons.codec.binary.Base64;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Queue;
 import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 讯飞语音识别客户端
  * 使用讯飞开放平台的免费语音识别服务
  * 免费额度：每天500次调用
  *
+ * 所有识别共用一个OkHttpClient。OkHttp的WebSocket读循环会占住调度器的一个运行名额直到连接关闭，
+ * 调度器的总上限不低于并发识别数，否则超过默认的64个连接后会排队。
+ * 连接建立前即可写入音频，帧先进入每次识别自己的发送队列。讯飞实时听写要求按音频实际时长匀速发送，
+ * 共用的定时线程按 frameIntervalMillis 每次取出一帧交给OkHttp发送。发送队列有上限（maxPendingFrames），
+ * 写满后写入线程等待发送腾出位置，录音文件上传按实时速率读取，不在内存中积压整段音频。回调线程即读循环线程，不做阻塞操作
+ *
  * @author lore-master
  * @since 2024-09-07
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class XfyunVoiceClient {
-    
-    @Autowired
-    private XfyunVoiceConfig config;
-    
-    private final OkHttpClient httpClient;
-    
-    public XfyunVoiceClient() {
+
+    private final XfyunVoiceConfig config;
+
+    private OkHttpClient httpClient;
+
+    // 进行中的识别名额
+    private Semaphore permits;
+
+    // 按帧间隔发送音频帧，发送只是放入OkHttp的队列，一个线程足够
+    private ScheduledExecutorService frameSender;
+
+    @PostConstruct
+    public void init() {
+        Dispatcher dispatcher = new Dispatcher();
+        // 额外留一个名额给可用性检查
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), config.getMaxConcurrent() + 1));
         this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(5, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
+                .dispatcher(dispatcher)
+                .connectTimeout(config.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeout(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getReadTimeout(), TimeUnit.MILLISECONDS)
                 .build();
+        this.permits = new Semaphore(config.getMaxConcurrent());
+        ScheduledThreadPoolExecutor sender = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "xfyun-frame-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sender.setRemoveOnCancelPolicy(true);
+        this.frameSender = sender;
     }
-    
+
+    @PreDestroy
+    public void destroy() {
+        frameSender.shutdownNow();
+        httpClient.dispatcher().cancelAll();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
     /**
      * 语音识别 - WebSocket API方式
      *
@@ -59,344 +108,455 @@ public class XfyunVoiceClient {
     public String recognizeVoice(byte[] audioData, String format) {
         try {
             log.info("开始调用讯飞语音识别，音频大小: {} bytes, 格式: {}", audioData.length, format);
-            
-            // 验证配置
-            if (config.getAppId() == null || config.getApiKey() == null || config.getApiSecret() == null) {
-                throw new RuntimeException("讯飞语音识别配置不完整，请检查APPID、APIKey和APISecret");
+            String result = recognizeVoiceAsync(new ByteArrayInputStream(audioData), format).join();
+            log.info("讯飞语音识别成功，结果: {}", result);
+            return result;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("讯飞语音识别失败: {}", cause.getMessage(), cause);
+            throw new RuntimeException("语音识别服务异常: " + cause.getMessage());
+        }
+    }
+
+    /**
+     * 流式语音识别
+     * 在调用线程上读取音频流，每读满一帧立即进入发送队列，不等整段音频读完；读完后返回，
+     * 音频按帧间隔继续发送，识别结果通过future异步给出
+     *
+     * @param audio  音频流，由调用方关闭
+     * @param format 音频格式 (mp3, wav, pcm)
+     * @return 识别结果
+     */
+    public CompletableFuture<String> recognizeVoiceAsync(InputStream audio, String format) {
+        Recognition recognition;
+        try {
+            recognition = open(format, null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        byte[] buffer = new byte[config.getFrameBytes()];
+        try {
+            int read;
+            while (!recognition.isDone() && (read = audio.read(buffer)) != -1) {
+                recognition.write(buffer, 0, read);
             }
-            
-            // 构建认证URL
-            String authUrl = buildAuthUrl();
-            log.debug("讯飞认证URL: {}", authUrl);
-            
-            // 使用CompletableFuture和CountDownLatch处理异步WebSocket响应
-            CompletableFuture<String> resultFuture = new CompletableFuture<>();
-            CountDownLatch latch = new CountDownLatch(1);
-            StringBuilder recognitionResult = new StringBuilder();
-            
-            // 创建WebSocket客户端
+            return recognition.finish();
+        } catch (IOException | RuntimeException e) {
+            recognition.cancel(e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 开始一次流式识别：占用一个识别名额并建立连接，名额在识别结束时释放
+     *
+     * @param format 音频格式 (mp3, wav, pcm)
+     */
+    public Recognition open(String format) {
+        return open(format, null);
+    }
+
+    /**
+     * 开始一次流式识别，识别过程中每收到新的识别片段，以当前累计文本回调onPartial（在OkHttp读线程上调用，不可阻塞）
+     *
+     * @param format    音频格式 (mp3, wav, pcm)
+     * @param onPartial 中间结果回调，可为null
+     */
+    public Recognition open(String format, Consumer<String> onPartial) {
+        // 验证配置
+        if (config.getAppId() == null || config.getApiKey() == null || config.getApiSecret() == null) {
+            throw new RuntimeException("讯飞语音识别配置不完整，请检查APPID、APIKey和APISecret");
+        }
+        if (!permits.tryAcquire()) {
+            log.warn("讯飞语音识别并发已满: maxConcurrent={}", config.getMaxConcurrent());
+            throw new BusinessException(ResultCode.VOICE_BUSY);
+        }
+        try {
+            return new Recognition(AudioEncoding.of(format), onPartial);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 当前进行中的识别数
+     */
+    public int getInFlightCount() {
+        return config.getMaxConcurrent() - permits.availablePermits();
+    }
+
+    /**
+     * 一次流式识别：音频分帧写入，识别结果通过future返回
+     */
+    public final class Recognition {
+
+        private final AudioEncoding encoding;
+        private final Consumer<String> onPartial;
+        private final WebSocket webSocket;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final StringBuilder recognitionResult = new StringBuilder();
+
+        // 未凑满一帧的音频
+        private final byte[] pending;
+        private int pendingLength;
+        private long audioBytes;
+        private int frameCount;
+
+        // 待发送的帧，由this锁保护，不超过maxPendingFrames；结束帧入队后ended为true
+        private final Queue<String> outbound = new ArrayDeque<>();
+        private boolean ended;
+        private volatile ScheduledFuture<?> sender;
+
+        private Recognition(AudioEncoding encoding, Consumer<String> onPartial) {
+            this.encoding = encoding;
+            this.onPartial = onPartial;
+            this.pending = new byte[config.getFrameBytes()];
+
             Request request = new Request.Builder()
-                    .url(authUrl)
+                    .url(buildAuthUrl())
                     .build();
-            
-            WebSocketListener listener = new WebSocketListener() {
-                @Override
-                public void onOpen(WebSocket webSocket, Response response) {
-                    log.debug("讯飞WebSocket连接成功");
-                    
+            this.webSocket = httpClient.newWebSocket(request, new RecognitionListener());
+
+            result.orTimeout(config.getRecognizeTimeout(), TimeUnit.MILLISECONDS)
+                    .whenComplete((text, error) -> {
+                        permits.release();
+                        if (error != null) {
+                            webSocket.cancel();
+                        }
+                        // 唤醒等待发送队列的写入方
+                        synchronized (this) {
+                            notifyAll();
+                        }
+                    });
+
+            // 第一帧：业务参数，连接建立前进入发送队列
+            sendFrame(0, null, true);
+            long interval = config.getFrameIntervalMillis();
+            if (interval > 0) {
+                // 固定间隔而非固定频率：定时线程偶尔延迟时不会补发积压的帧
+                sender = frameSender.scheduleWithFixedDelay(this::sendNext, 0, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * 写入音频数据，凑满一帧即发送；发送队列已满时等待
+         */
+        public void write(byte[] data, int offset, int length) {
+            if (result.isDone()) {
+                throw new IllegalStateException("识别已结束");
+            }
+            audioBytes += length;
+            while (length > 0) {
+                int copied = Math.min(length, pending.length - pendingLength);
+                System.arraycopy(data, offset, pending, pendingLength, copied);
+                pendingLength += copied;
+                offset += copied;
+                length -= copied;
+                if (pendingLength == pending.length) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * 音频写入完毕：发送剩余数据和结束帧，返回识别结果
+         */
+        public CompletableFuture<String> finish() {
+            if (!result.isDone()) {
+                if (pendingLength > 0) {
+                    flush();
+                }
+                sendFrame(2, null, false);
+                log.debug("音频数据写入完成，共 {} 字节，{}帧", audioBytes, frameCount);
+            }
+            return result;
+        }
+
+        /**
+         * 放弃识别并断开连接
+         */
+        public void cancel(Throwable reason) {
+            CancellationException cancellation = new CancellationException("识别已取消: " + reason.getMessage());
+            cancellation.initCause(reason);
+            result.completeExceptionally(cancellation);
+        }
+
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        /**
+         * 识别结果
+         */
+        public CompletableFuture<String> result() {
+            return result;
+        }
+
+        /**
+         * 已写入的音频字节数
+         */
+        public long getAudioBytes() {
+            return audioBytes;
+        }
+
+        private void flush() {
+            sendFrame(1, Arrays.copyOf(pending, pendingLength), false);
+            frameCount++;
+            pendingLength = 0;
+        }
+
+        private void sendFrame(int status, byte[] audio, boolean withBusiness) {
+            JSONObject frame = new JSONObject();
+            if (withBusiness) {
+                // 公共参数
+                JSONObject common = new JSONObject();
+                common.put("app_id", config.getAppId());
+                frame.put("common", common);
+
+                // 业务参数
+                JSONObject business = new JSONObject();
+                business.put("language", config.getLanguage());
+                business.put("domain", config.getDomain());
+                business.put("accent", "mandarin");
+                business.put("vinfo", 1);
+                business.put("vad_eos", 5000); // 减少静音检测时间
+                business.put("aue", encoding.aue()); // 使用正确的音频编码格式
+                frame.put("business", business);
+            }
+
+            JSONObject data = new JSONObject();
+            data.put("status", status); // 0第一帧 1中间帧 2结束帧
+            data.put("format", encoding.audioFormat());
+            data.put("encoding", encoding.encoding());
+            data.put("audio", audio == null ? "" : Base64.encodeBase64String(audio));
+            frame.put("data", data);
+
+            if (config.getFrameIntervalMillis() <= 0) {
+                send(frame.toJSONString());
+                return;
+            }
+            String json = frame.toJSONString();
+            synchronized (this) {
+                // 结束帧不受上限约束，finish不等待
+                while (status != 2 && outbound.size() >= config.getMaxPendingFrames() && !result.isDone()) {
                     try {
-                        // 发送音频数据
-                        sendAudioData(webSocket, audioData, format);
-                    } catch (Exception e) {
-                        log.error("发送音频数据失败: {}", e.getMessage(), e);
-                        resultFuture.completeExceptionally(e);
-                        latch.countDown();
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        cancel(e);
+                        throw new IllegalStateException("等待发送音频帧时被中断", e);
                     }
                 }
-                
-                @Override
-                public void onMessage(WebSocket webSocket, String text) {
-                    log.debug("收到讯飞响应: {}", text);
-                    
-                    try {
-                        JSONObject response = JSON.parseObject(text);
-                        Integer code = response.getInteger("code");
-                        
-                        if (code != null && code == 0) {
-                            // 解析识别结果
-                            JSONObject data = response.getJSONObject("data");
-                            if (data != null) {
-                                JSONObject result = data.getJSONObject("result");
-                                if (result != null) {
-                                    JSONArray ws = result.getJSONArray("ws");
-                                    if (ws != null && ws.size() > 0) {
-                                        for (int i = 0; i < ws.size(); i++) {
-                                            JSONObject w = ws.getJSONObject(i);
-                                            JSONArray cw = w.getJSONArray("cw");
-                                            if (cw != null && cw.size() > 0) {
-                                                for (int j = 0; j < cw.size(); j++) {
-                                                    JSONObject word = cw.getJSONObject(j);
-                                                    String wText = word.getString("w");
-                                                    if (wText != null && !wText.trim().isEmpty()) {
-                                                        recognitionResult.append(wText);
-                                                        log.debug("识别结果片段: [{}]", wText);
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                                
-                                // 检查是否结束
-                                Integer status = data.getInteger("status");
-                                if (status != null && status == 2) {
-                                    // 识别结束
-                                    String finalResult = recognitionResult.toString().trim();
-                                    log.info("语音识别结束，最终结果: [{}]", finalResult);
-                                    
-                                    if (finalResult.isEmpty()) {
-                                        log.warn("语音识别结果为空，可能原因: 1.音频数据无有效语音 2.音频格式不匹配 3.音频质量太低");
-                                        // 即使结果为空，也返回完成信号
-                                        resultFuture.complete("");
-                                    } else {
-                                        resultFuture.complete(finalResult);
-                                    }
-                                    latch.countDown();
-                                }
-                            }
-                        } else {
-                            // 错误响应
-                            String message = response.getString("message");
-                            String errorMsg = String.format("讯飞语音识别失败: code=%s, message=%s", code, message);
-                            log.error(errorMsg);
-                            resultFuture.completeExceptionally(new RuntimeException(errorMsg));
-                            latch.countDown();
+                if (result.isDone()) {
+                    return;
+                }
+                outbound.add(json);
+                ended = status == 2;
+            }
+        }
+
+        /**
+         * 定时线程每个间隔发送一帧；队列为空时等待后续写入，结束帧发出或识别结束后停止
+         */
+        private void sendNext() {
+            String frame;
+            synchronized (this) {
+                if (result.isDone()) {
+                    outbound.clear();
+                }
+                frame = outbound.poll();
+                notifyAll();
+                if (frame == null) {
+                    // 首次执行可能早于sender赋值，此时留到下一个间隔再停止
+                    if ((ended || result.isDone()) && sender != null) {
+                        sender.cancel(false);
+                    }
+                    return;
+                }
+            }
+            send(frame);
+        }
+
+        private void send(String frame) {
+            // 连接已失败时send返回false，结果由onFailure给出
+            if (!webSocket.send(frame)) {
+                log.debug("讯飞WebSocket已关闭，丢弃音频帧");
+            }
+        }
+
+        private final class RecognitionListener extends WebSocketListener {
+
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                log.debug("讯飞WebSocket连接成功");
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                log.debug("收到讯飞响应: {}", text);
+
+                try {
+                    JSONObject response = JSON.parseObject(text);
+                    Integer code = response.getInteger("code");
+
+                    if (code == null || code != 0) {
+                        // 错误响应
+                        String message = response.getString("message");
+                        String errorMsg = String.format("讯飞语音识别失败: code=%s, message=%s", code, message);
+                        log.error(errorMsg);
+                        result.completeExceptionally(new RuntimeException(errorMsg));
+                        return;
+                    }
+
+                    JSONObject data = response.getJSONObject("data");
+                    if (data == null) {
+                        return;
+                    }
+                    boolean appended = appendWords(data.getJSONObject("result"));
+
+                    // 检查是否结束
+                    Integer status = data.getInteger("status");
+                    if (appended && onPartial != null && (status == null || status != 2)) {
+                        notifyPartial();
+                    }
+                    if (status != null && status == 2) {
+                        String finalResult = recognitionResult.toString().trim();
+                        log.info("语音识别结束，最终结果: [{}]", finalResult);
+                        if (finalResult.isEmpty()) {
+                            log.warn("语音识别结果为空，可能原因: 1.音频数据无有效语音 2.音频格式不匹配 3.音频质量太低");
                         }
-                    } catch (Exception e) {
-                        log.error("解析讯飞响应失败: {}", e.getMessage(), e);
-                        resultFuture.completeExceptionally(e);
-                        latch.countDown();
+                        result.complete(finalResult);
+                        webSocket.close(1000, null);
                     }
+                } catch (Exception e) {
+                    log.error("解析讯飞响应失败: {}", e.getMessage(), e);
+                    result.completeExceptionally(e);
                 }
-                
-                @Override
-                public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(1000, null);
+            }
+
+            @Override
+            public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+                if (!result.isDone()) {
                     log.error("讯飞WebSocket连接失败: {}", t.getMessage(), t);
-                    resultFuture.completeExceptionally(new RuntimeException("讯飞WebSocket连接失败: " + t.getMessage()));
-                    latch.countDown();
+                    result.completeExceptionally(new RuntimeException("讯飞WebSocket连接失败: " + t.getMessage()));
                 }
-                
-                @Override
-                public void onClosed(WebSocket webSocket, int code, String reason) {
-                    log.debug("讯飞WebSocket连接关闭: code={}, reason={}", code, reason);
-                    if (!resultFuture.isDone()) {
-                        resultFuture.complete(recognitionResult.toString());
+            }
+
+            @Override
+            public void onClosed(WebSocket webSocket, int code, String reason) {
+                log.debug("讯飞WebSocket连接关闭: code={}, reason={}", code, reason);
+                result.complete(recognitionResult.toString().trim());
+            }
+
+            private void notifyPartial() {
+                try {
+                    onPartial.accept(recognitionResult.toString());
+                } catch (Exception e) {
+                    // 中间结果只用于展示，回调失败不影响识别
+                    log.warn("处理语音识别中间结果失败: {}", e.getMessage());
+                }
+            }
+
+            private boolean appendWords(JSONObject recognized) {
+                if (recognized == null) {
+                    return false;
+                }
+                JSONArray ws = recognized.getJSONArray("ws");
+                if (ws == null) {
+                    return false;
+                }
+                boolean appended = false;
+                for (int i = 0; i < ws.size(); i++) {
+                    JSONArray cw = ws.getJSONObject(i).getJSONArray("cw");
+                    if (cw == null) {
+                        continue;
+                    }
+                    for (int j = 0; j < cw.size(); j++) {
+                        String wText = cw.getJSONObject(j).getString("w");
+                        if (wText != null && !wText.trim().isEmpty()) {
+                            recognitionResult.append(wText);
+                            appended = true;
+                            log.debug("识别结果片段: [{}]", wText);
+                        }
                     }
-                    latch.countDown();
                 }
-            };
-            
-            // 开始WebSocket连接
-            WebSocket webSocket = httpClient.newWebSocket(request, listener);
-            
-            // 等待结果，最多等待30秒
-            boolean completed = latch.await(30, TimeUnit.SECONDS);
-            if (!completed) {
-                webSocket.close(1000, "超时");
-                throw new RuntimeException("讯飞语音识别超时");
+                return appended;
             }
-            
-            // 获取结果
-            String result = resultFuture.get(5, TimeUnit.SECONDS);
-            log.info("讯飞语音识别成功，结果: {}", result);
-            
-            return result;
-            
-        } catch (Exception e) {
-            log.error("讯飞语音识别失败: {}", e.getMessage(), e);
-            throw new RuntimeException("语音识别服务异常: " + e.getMessage());
         }
     }
-    
+
     /**
-     * 发送音频数据到WebSocket
+     * 音频格式对应的讯飞编码参数
      */
-    private void sendAudioData(WebSocket webSocket, byte[] audioData, String format) {
-        try {
-            log.debug("开始发送音频数据: 格式={}, 大小={}字节", format, audioData.length);
-            
-            // 根据音频格式确定编码参数
-            String aueFormat;
-            String audioFormat;
-            String encoding;
-            
+    private record AudioEncoding(String aue, String audioFormat, String encoding) {
+
+        static AudioEncoding of(String format) {
             if ("mp3".equalsIgnoreCase(format)) {
                 // MP3格式 - 讯飞支持lame编码的mp3
-                aueFormat = "lame";
-                audioFormat = "audio/mpeg";
-                encoding = "lame";
-                log.debug("使用MP3格式: lame编码");
-            } else if ("wav".equalsIgnoreCase(format)) {
-                // WAV格式，通常是PCM编码
-                aueFormat = "raw";
-                audioFormat = "audio/L16;rate=16000";
-                encoding = "raw";
-                log.debug("使用WAV格式: PCM编码");
-            } else {
-                // 默认为PCM原始格式
-                aueFormat = "raw";
-                audioFormat = "audio/L16;rate=16000";
-                encoding = "raw";
-                log.debug("使用默认PCM格式");
+                return new AudioEncoding("lame", "audio/mpeg", "lame");
             }
-            
-            log.debug("音频编码参数: aue={}, format={}, encoding={}", aueFormat, audioFormat, encoding);
-            
-            // 第一帧：发送开始标识和业务参数
-            JSONObject firstFrame = new JSONObject();
-            
-            // 公共参数
-            JSONObject common = new JSONObject();
-            common.put("app_id", config.getAppId());
-            firstFrame.put("common", common);
-            
-            // 业务参数
-            JSONObject business = new JSONObject();
-            business.put("language", config.getLanguage());
-            business.put("domain", config.getDomain());
-            business.put("accent", "mandarin");
-            business.put("vinfo", 1);
-            business.put("vad_eos", 5000); // 减少静音检测时间
-            business.put("aue", aueFormat); // 使用正确的音频编码格式
-            
-            log.debug("讯飞业务参数: language={}, domain={}, aue={}", 
-                    config.getLanguage(), config.getDomain(), aueFormat);
-            
-            firstFrame.put("business", business);
-            
-            // 第一帧数据参数
-            JSONObject data = new JSONObject();
-            data.put("status", 0); // 第一帧标识
-            data.put("format", audioFormat); // 使用正确的音频格式
-            data.put("encoding", encoding); // 使用正确的编码方式
-            data.put("audio", ""); // 第一帧不包含音频数据
-            firstFrame.put("data", data);
-            
-            // 发送第一帧
-            String firstFrameJson = firstFrame.toJSONString();
-            log.debug("发送第一帧: {}", firstFrameJson);
-            webSocket.send(firstFrameJson);
-            
-            // 等待一下确保第一帧发送完成
-            Thread.sleep(100);
-            
-            // 分块发送音频数据
-            int chunkSize = "mp3".equalsIgnoreCase(format) ? 1280 : 1280; // MP3和PCM使用相同块大小
-            int frameCount = 0;
-            
-            // 对于MP3格式，直接发送整个文件，不分块（因为MP3有帧结构）
-            if ("mp3".equalsIgnoreCase(format)) {
-                log.debug("发送MP3音频数据，不分块处理");
-                
-                JSONObject audioFrame = new JSONObject();
-                JSONObject frameData = new JSONObject();
-                frameData.put("status", 1); // 中间帧
-                frameData.put("format", audioFormat);
-                frameData.put("encoding", encoding);
-                frameData.put("audio", Base64.encodeBase64String(audioData));
-                audioFrame.put("data", frameData);
-                
-                String frameJson = audioFrame.toJSONString();
-                webSocket.send(frameJson);
-                frameCount = 1;
-                
-                log.debug("发送MP3数据帧，大小: {}字节", audioData.length);
-                
-                // 适当延时
-                Thread.sleep(200);
-            } else {
-                // 对于PCM/WAV格式，分块发送
-                log.debug("发送PCM/WAV音频数据，分块处理");
-                
-                for (int i = 0; i < audioData.length; i += chunkSize) {
-                    int end = Math.min(i + chunkSize, audioData.length);
-                    byte[] chunk = new byte[end - i];
-                    System.arraycopy(audioData, i, chunk, 0, end - i);
-                    
-                    JSONObject audioFrame = new JSONObject();
-                    JSONObject frameData = new JSONObject();
-                    frameData.put("status", 1); // 中间帧
-                    frameData.put("format", audioFormat);
-                    frameData.put("encoding", encoding);
-                    frameData.put("audio", Base64.encodeBase64String(chunk));
-                    audioFrame.put("data", frameData);
-                    
-                    String frameJson = audioFrame.toJSONString();
-                    webSocket.send(frameJson);
-                    frameCount++;
-                    
-                    // 适当延时，模拟实时传输
-                    Thread.sleep(40); // 增加延时，确保接收端有足够时间处理
-                }
-            }
-            
-            log.debug("音频数据发送完成，共发送{}帧", frameCount);
-            
-            // 等待一下确保所有数据帧发送完成
-            Thread.sleep(100);
-            
-            // 发送结束帧
-            JSONObject endFrame = new JSONObject();
-            JSONObject endData = new JSONObject();
-            endData.put("status", 2); // 结束帧标识
-            endData.put("format", audioFormat);
-            endData.put("encoding", encoding);
-            endData.put("audio", ""); // 结束帧不包含音频数据
-            endFrame.put("data", endData);
-            
-            String endFrameJson = endFrame.toJSONString();
-            log.debug("发送结束帧: {}", endFrameJson);
-            webSocket.send(endFrameJson);
-            
-            log.debug("音频数据发送完成，共 {} 字节，{}帧", audioData.length, frameCount);
-            
-        } catch (Exception e) {
-            log.error("发送音频数据失败: {}", e.getMessage(), e);
-            throw new RuntimeException("发送音频数据失败: " + e.getMessage());
+            // WAV通常是PCM编码，默认为PCM原始格式
+            return new AudioEncoding("raw", "audio/L16;rate=16000", "raw");
         }
     }
 
-    
     /**
      * 构建认证URL - WebSocket方式
      */
     private String buildAuthUrl() {
         try {
-            String baseUrl = "wss://iat-api.xfyun.cn/v2/iat";
-            URL url = new URL("https://iat-api.xfyun.cn/v2/iat"); // 用于HTTPS解析host
-            String host = url.getHost();
-            
+            String baseUrl = config.getUrl();
+            HttpUrl url = HttpUrl.get(baseUrl.replaceFirst("^ws", "http")); // 用于解析host和path
+            String host = url.host();
+
             // RFC1123格式的时间戳
             SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z", Locale.US);
             format.setTimeZone(TimeZone.getTimeZone("GMT"));
             String date = format.format(new Date());
-            
+
             // 构建签名字符串
             String signatureOrigin = "host: " + host + "\n" +
                                    "date: " + date + "\n" +
-                                   "GET /v2/iat HTTP/1.1";
-            
+                                   "GET " + url.encodedPath() + " HTTP/1.1";
+
             log.debug("签名原始字符串: {}", signatureOrigin);
-            
+
             // 进行hmac-sha256签名
             Mac mac = Mac.getInstance("HmacSHA256");
             SecretKeySpec spec = new SecretKeySpec(config.getApiSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
             mac.init(spec);
             byte[] hexDigits = mac.doFinal(signatureOrigin.getBytes(StandardCharsets.UTF_8));
             String sha = Base64.encodeBase64String(hexDigits);
-            
+
             // 构建 authorization 原始字符串
             String authorizationOrigin = String.format("api_key=\"%s\", algorithm=\"%s\", headers=\"%s\", signature=\"%s\"",
                     config.getApiKey(), "hmac-sha256", "host date request-line", sha);
-            
+
             // 对authorization进行Base64编码
             String authorization = Base64.encodeBase64String(authorizationOrigin.getBytes(StandardCharsets.UTF_8));
-            
+
             // 构建最终的WebSocket URL
-            String finalUrl = baseUrl + "?authorization=" + urlEncode(authorization) + 
-                             "&date=" + urlEncode(date) + 
+            String finalUrl = baseUrl + "?authorization=" + urlEncode(authorization) +
+                             "&date=" + urlEncode(date) +
                              "&host=" + urlEncode(host);
-            
+
             log.debug("认证URL: {}", finalUrl);
-            
+
             return finalUrl;
-            
+
         } catch (Exception e) {
             log.error("构建讯飞认证URL失败: {}", e.getMessage(), e);
             throw new RuntimeException("构建认证URL失败: " + e.getMessage());
         }
     }
-    
+
     /**
      * URL编码
      */
@@ -408,7 +568,7 @@ public class XfyunVoiceClient {
             return str;
         }
     }
-    
+
     /**
      * 检查服务可用性
      */
@@ -419,19 +579,19 @@ public class XfyunVoiceClient {
                 log.warn("讯飞语音识别配置不完整，请检查APPID、APIKey和APISecret");
                 return false;
             }
-            
+
             // 构建认证URL
             String authUrl = buildAuthUrl();
             log.debug("测试连接URL: {}", authUrl);
-            
+
             // 创建测试WebSocket连接
             Request request = new Request.Builder()
                     .url(authUrl)
                     .build();
-            
+
             CountDownLatch latch = new CountDownLatch(1);
             boolean[] available = {false};
-            
+
             WebSocketListener testListener = new WebSocketListener() {
                 @Override
                 public void onOpen(WebSocket webSocket, Response response) {
@@ -439,34 +599,33 @@ public class XfyunVoiceClient {
                     available[0] = true;
                     webSocket.close(1000, "test connection");
                 }
-                
+
                 @Override
                 public void onFailure(WebSocket webSocket, Throwable t, Response response) {
                     log.warn("测试WebSocket连接失败: {}", t.getMessage());
-                    available[0] = false;
                     latch.countDown();
                 }
-                
+
                 @Override
                 public void onClosed(WebSocket webSocket, int code, String reason) {
                     log.debug("测试WebSocket连接关闭: code={}, reason={}", code, reason);
                     latch.countDown();
                 }
             };
-            
+
             WebSocket webSocket = httpClient.newWebSocket(request, testListener);
-            
+
             // 等待5秒
             boolean completed = latch.await(5, TimeUnit.SECONDS);
             if (!completed) {
-                webSocket.close(1000, "timeout");
+                webSocket.cancel();
             }
-            
+
             return available[0];
-            
+
         } catch (Exception e) {
             log.warn("检查讯飞服务可用性失败: {}", e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+}
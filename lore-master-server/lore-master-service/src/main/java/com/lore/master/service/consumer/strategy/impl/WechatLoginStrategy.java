@@ -109,7 +109,7 @@ public class WechatLoginStrategy implements ConsumerUserLoginStrategy {
         if (StrUtil.isBlank(openid)) {
             throw new BusinessException(ResultCode.ERROR, "微信登录获取openid失败");
         }
-        String userId = userIdGenerator.generateUniqueUserId();
+        String userId = userIdGenerator.generateUserId();
 
         // 2. 创建新用户
         ConsumerUser user = new ConsumerUser();
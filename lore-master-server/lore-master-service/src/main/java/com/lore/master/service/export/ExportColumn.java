@@ -0,0 +1,17 @@
+package com.lore.master.service.export;
+
+import java.util.function.Function;
+
+/**
+ * 导出列
+ *
+ * @param name NDJSON中的字段名
+ * @param header CSV表头
+ * @param getter 从行对象取值
+ */
+public record ExportColumn<T>(String name, String header, Function<T, ?> getter) {
+
+    public static <T> ExportColumn<T> of(String name, String header, Function<T, ?> getter) {
+        return new ExportColumn<>(name, header, getter);
+    }
+}
@@ -0,0 +1,51 @@
+package com.lore.master.service.export;
+
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    /**
+     * 逗号分隔，带UTF-8 BOM，Excel可直接打开
+     */
+    CSV("text/csv;charset=UTF-8", "csv"),
+
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按名称解析，不区分大小写，为空时默认CSV
+     */
+    public static ExportFormat of(String value) {
+        if (!StringUtils.hasText(value)) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的导出格式: " + value);
+        }
+    }
+}
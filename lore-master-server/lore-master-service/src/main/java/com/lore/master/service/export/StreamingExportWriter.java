@@ -0,0 +1,139 @@
+package com.lore.master.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 逐行写出导出数据
+ *
+ * 每行写入固定大小的缓冲区，缓冲区满时写到输出流，内存占用与导出行数无关。
+ * 不关闭输出流，由调用方（通常是Servlet容器）负责
+ */
+public class StreamingExportWriter<T> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final List<ExportColumn<T>> columns;
+    private final Writer writer;
+    private final JsonGenerator json;
+
+    public StreamingExportWriter(OutputStream out, ExportFormat format, List<ExportColumn<T>> columns) throws IOException {
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.NDJSON) {
+            this.json = JSON_FACTORY.createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writeCsvHeader();
+        }
+    }
+
+    /**
+     * 写出一行
+     */
+    public void write(T row) throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            for (ExportColumn<T> column : columns) {
+                json.writeFieldName(column.name());
+                writeJsonValue(column.getter().apply(row));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } else {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(columns.get(i).getter().apply(row));
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    /**
+     * 写出缓冲区中剩余的数据
+     */
+    public void finish() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvHeader() throws IOException {
+        // BOM，Excel据此按UTF-8识别中文
+        writer.write('\uFEFF');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(columns.get(i).header());
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof LocalDateTime dateTime ? dateTime.format(DATE_TIME_FORMATTER) : value.toString();
+        if (!needsQuote(text)) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuote(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeJsonValue(Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof LocalDateTime dateTime) {
+            json.writeString(dateTime.format(DATE_TIME_FORMATTER));
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else if (value instanceof Integer || value instanceof Long) {
+            json.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Number number) {
+            json.writeNumber(number.toString());
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+}
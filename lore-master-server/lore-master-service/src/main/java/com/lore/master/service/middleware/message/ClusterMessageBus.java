@@ -0,0 +1,23 @@
+package com.lore.master.service.middleware.message;
+
+import java.util.function.Consumer;
+
+/**
+ * 节点间消息总线
+ *
+ * 用于多节点部署时在节点之间转发消息，实现由配置 lore.consumer.chat.cluster.transport 选择
+ */
+public interface ClusterMessageBus {
+
+    /**
+     * 向频道发布消息，所有订阅了该频道的节点（包括本节点）都会收到
+     */
+    void publish(String channel, String message);
+
+    /**
+     * 订阅频道
+     *
+     * @return 取消订阅的操作
+     */
+    Runnable subscribe(String channel, Consumer<String> listener);
+}
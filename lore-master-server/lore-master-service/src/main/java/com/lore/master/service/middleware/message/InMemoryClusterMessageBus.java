@@ -0,0 +1,40 @@
+package com.lore.master.service.middleware.message;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内消息总线
+ *
+ * 单机部署或测试时使用，发布时在调用线程上同步投递给所有订阅者
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "lore.consumer.chat.cluster.transport", havingValue = "memory")
+public class InMemoryClusterMessageBus implements ClusterMessageBus {
+
+    private final ConcurrentHashMap<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String channel, String message) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.error("消息订阅者处理失败: channel={}", channel, e);
+            }
+        }
+    }
+
+    @Override
+    public Runnable subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> listeners.getOrDefault(channel, List.of()).remove(listener);
+    }
+}
@@ -0,0 +1,75 @@
+package com.lore.master.service.middleware.message;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 基于Redis发布订阅的消息总线
+ *
+ * 订阅消息在单个线程上按到达顺序投递，订阅者应尽快返回
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "lore.consumer.chat.cluster.transport", havingValue = "redis", matchIfMissing = true)
+public class RedisClusterMessageBus implements ClusterMessageBus {
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private RedisMessageListenerContainer container;
+    private ExecutorService listenerExecutor;
+
+    @PostConstruct
+    public void init() {
+        listenerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-bus-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.setTaskExecutor(listenerExecutor);
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        container.destroy();
+        listenerExecutor.shutdownNow();
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        stringRedisTemplate.convertAndSend(channel, message);
+    }
+
+    @Override
+    public Runnable subscribe(String channel, Consumer<String> listener) {
+        ChannelTopic topic = new ChannelTopic(channel);
+        MessageListener messageListener = (message, pattern) -> {
+            try {
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                log.error("消息订阅者处理失败: channel={}", channel, e);
+            }
+        };
+        container.addMessageListener(messageListener, topic);
+        return () -> container.removeMessageListener(messageListener, topic);
+    }
+}
@@ -1,10 +1,10 @@
 package com.lore.master.service.middleware.storage.impl;
 
 import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.digest.DigestUtil;
 import com.lore.master.common.util.FileUtil;
+import com.lore.master.common.util.SnowflakeIdGenerator;
 import com.lore.master.data.dto.storage.FileUploadRequest;
 import com.lore.master.data.entity.storage.FileAccessLog;
 import com.lore.master.data.entity.storage.FileStorage;
@@ -43,6 +43,7 @@ public class FileStorageServiceImpl implements FileStorageService {
     private final FileAccessLogRepository fileAccessLogRepository;
     private final StorageStrategyFactory storageStrategyFactory;
     private final FileStorageProperties storageProperties;
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
 
     @Override
     @Transactional(value = "storageTransactionManager", rollbackFor = Exception.class)
@@ -120,7 +121,7 @@ public class FileStorageServiceImpl implements FileStorageService {
             
             // 创建文件存储实体
             FileStorage fileStorage = new FileStorage();
-            fileStorage.setFileId(IdUtil.simpleUUID());
+            fileStorage.setFileId(snowflakeIdGenerator.nextIdString());
             fileStorage.setOriginalName(originalFileName);
             fileStorage.setFileName(generateFileName(originalFileName, null));
             fileStorage.setFilePath(generateFilePath("default", null, fileStorage.getFileName()));
@@ -394,7 +395,7 @@ public class FileStorageServiceImpl implements FileStorageService {
     private FileStorage buildFileStorage(FileUploadRequest request, MultipartFile file,
                                        byte[] fileData, String md5Hash) {
         FileStorage fileStorage = new FileStorage();
-        fileStorage.setFileId(IdUtil.simpleUUID());
+        fileStorage.setFileId(snowflakeIdGenerator.nextIdString());
         fileStorage.setOriginalName(file.getOriginalFilename());
         fileStorage.setFileName(generateFileName(file.getOriginalFilename(), request.getCustomFileName()));
         fileStorage.setFilePath(generateFilePath(request.getBucketName(), request.getFilePath(), fileStorage.getFileName()));
@@ -453,7 +454,7 @@ public class FileStorageServiceImpl implements FileStorageService {
         }
         
         String extension = FileUtil.getFileExtension(originalFileName);
-        return IdUtil.simpleUUID() + (StrUtil.isNotBlank(extension) ? "." + extension : "");
+        return snowflakeIdGenerator.nextIdString() + (StrUtil.isNotBlank(extension) ? "." + extension : "");
     }
 
     /**
@@ -0,0 +1,37 @@
+package com.lore.master.service.search;
+
+import com.lore.master.data.entity.admin.KnowledgePoint;
+import com.lore.master.data.entity.admin.Question;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 题目和知识点搜索
+ *
+ * 只返回启用的数据，结果按相关度降序，分页参数中的排序被忽略。
+ * 实现由 lore.search.engine 选择，默认使用MySQL全文索引
+ */
+public interface SearchService {
+
+    /**
+     * 按关键词搜索题目标题和内容
+     */
+    Page<Question> searchQuestions(String keyword, Pageable pageable);
+
+    /**
+     * 搜索带有指定标签的题目
+     */
+    List<Question> searchQuestionsByTag(String tag);
+
+    /**
+     * 按关键词搜索知识点标题、内容和关键词
+     */
+    Page<KnowledgePoint> searchKnowledgePoints(String keyword, Pageable pageable);
+
+    /**
+     * 搜索带有指定标签的知识点
+     */
+    List<KnowledgePoint> searchKnowledgePointsByTag(String tag);
+}
@@ -0,0 +1,104 @@
+package com.lore.master.service.search.impl;
+
+import com.lore.master.data.entity.admin.KnowledgePoint;
+import com.lore.master.data.entity.admin.Question;
+import com.lore.master.data.repository.admin.KnowledgePointRepository;
+import com.lore.master.data.repository.admin.QuestionRepository;
+import com.lore.master.service.search.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 基于MySQL FULLTEXT索引（ngram分词）的搜索实现
+ *
+ * 关键词使用自然语言模式 MATCH ... AGAINST，按相关度排序；标签使用布尔模式的短语匹配。
+ * 索引见 lore-master-commands/sql/mysql/admin/fulltext_search_index.sql。
+ * ngram 把文本切成 ngram_token_size（默认2）个字符的词元，更短的关键词无法命中索引，回退到 LIKE 查询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "lore.search.engine", havingValue = "mysql", matchIfMissing = true)
+public class MySQLFulltextSearchService implements SearchService {
+
+    /**
+     * 与MySQL的 ngram_token_size 一致
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    private final QuestionRepository questionRepository;
+
+    private final KnowledgePointRepository knowledgePointRepository;
+
+    @Override
+    public Page<Question> searchQuestions(String keyword, Pageable pageable) {
+        String text = normalize(keyword);
+        if (text == null) {
+            return Page.empty(pageable);
+        }
+        if (isShort(text)) {
+            return questionRepository.searchByKeyword(text, pageable);
+        }
+        return questionRepository.searchByFulltext(text, unsorted(pageable));
+    }
+
+    @Override
+    public List<Question> searchQuestionsByTag(String tag) {
+        String text = normalize(tag);
+        if (text == null) {
+            return List.of();
+        }
+        return isShort(text) ? questionRepository.findByTag(text) : questionRepository.findByTagFulltext(phrase(text));
+    }
+
+    @Override
+    public Page<KnowledgePoint> searchKnowledgePoints(String keyword, Pageable pageable) {
+        String text = normalize(keyword);
+        if (text == null) {
+            return Page.empty(pageable);
+        }
+        if (isShort(text)) {
+            return knowledgePointRepository.searchByKeyword(text, pageable);
+        }
+        return knowledgePointRepository.searchByFulltext(text, unsorted(pageable));
+    }
+
+    @Override
+    public List<KnowledgePoint> searchKnowledgePointsByTag(String tag) {
+        String text = normalize(tag);
+        if (text == null) {
+            return List.of();
+        }
+        return isShort(text) ? knowledgePointRepository.findByTag(text) : knowledgePointRepository.findByTagFulltext(phrase(text));
+    }
+
+    private static String normalize(String keyword) {
+        return StringUtils.hasText(keyword) ? keyword.trim() : null;
+    }
+
+    private static boolean isShort(String text) {
+        return text.codePointCount(0, text.length()) < NGRAM_TOKEN_SIZE;
+    }
+
+    /**
+     * 布尔模式短语，要求词元按原顺序相邻；去掉会结束短语的双引号
+     */
+    private static String phrase(String text) {
+        return '"' + text.replace('"', ' ') + '"';
+    }
+
+    /**
+     * 原生查询已按相关度排序，再追加排序会覆盖相关度
+     */
+    private static Pageable unsorted(Pageable pageable) {
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : pageable;
+    }
+}
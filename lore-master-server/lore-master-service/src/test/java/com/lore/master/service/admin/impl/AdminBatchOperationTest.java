@@ -0,0 +1,294 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.entity.admin.AdminUser;
+import com.lore.master.data.entity.admin.KnowledgePoint;
+import com.lore.master.data.entity.admin.LearningSkillCatalog;
+import com.lore.master.data.repository.admin.AdminUserRepository;
+import com.lore.master.data.repository.admin.KnowledgePointRepository;
+import com.lore.master.data.repository.admin.LearningSkillCatalogRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 管理端集合式批量操作测试：批量启用/禁用、批量删除、CASE 语句重排，检查受影响的行和排序结果
+ *
+ * 需要MySQL，默认跳过。运行方式：
+ * mvn test -pl lore-master-service -am -Dtest=AdminBatchOperationTest -Dsurefire.failIfNoSpecifiedTests=false
+ *     -Dlore.it.mysql.url="jdbc:mysql://127.0.0.1:3306/lore_it?user=root&password=xxx"
+ * 测试在该库中按实体建表，结束后删表；库中已有同名表时跳过
+ */
+@EnabledIfSystemProperty(named = "lore.it.mysql.url", matches = ".+")
+class AdminBatchOperationTest {
+
+    private static final List<String> TABLES = List.of("learning_skill_catalog", "knowledge_points", "admin_users", "admin_knowledge_map");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+    private static EntityManager entityManager;
+    private static AdminBatchWriter adminBatchWriter;
+    private static LearningSkillCatalogServiceImpl skillCatalogService;
+    private static KnowledgePointServiceImpl knowledgePointService;
+    private static AdminUserServiceImpl adminUserService;
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getProperty("lore.it.mysql.url"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String table : TABLES) {
+            Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                    + "WHERE table_schema = DATABASE() AND table_name = ?", Integer.class, table);
+            assumeTrue(existing == 0, "测试库中已有 " + table + " 表");
+        }
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(LearningSkillCatalog.class.getName(),
+                KnowledgePoint.class.getName(), AdminUser.class.getName(), AdminKnowledgeMap.class.getName()));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        factoryBean.afterPropertiesSet();
+        entityManager = factoryBean.getObject().createEntityManager();
+
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        adminBatchWriter = new AdminBatchWriter(dataSource);
+        skillCatalogService = new LearningSkillCatalogServiceImpl(
+                repositoryFactory.getRepository(LearningSkillCatalogRepository.class), adminBatchWriter);
+        knowledgePointService = new KnowledgePointServiceImpl(
+                repositoryFactory.getRepository(KnowledgePointRepository.class), null);
+        adminUserService = new AdminUserServiceImpl(repositoryFactory.getRepository(AdminUserRepository.class));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (entityManager != null) {
+            entityManager.close();
+        }
+        if (factoryBean != null) {
+            factoryBean.destroy();
+        }
+    }
+
+    @BeforeEach
+    void clean() {
+        TABLES.forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void batchToggleUpdatesOnlyGivenSkills() {
+        skill("java", null, 1);
+        skill("go", null, 2);
+        skill("rust", null, 3);
+
+        inTransaction(() -> skillCatalogService.batchToggleSkillCatalogStatus(List.of(skillId("java"), skillId("rust")), false));
+        assertEquals(Map.of("java", false, "go", true, "rust", false), activeBySkill());
+
+        // 有不存在的ID时整批不执行
+        RuntimeException error = assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> skillCatalogService.batchToggleSkillCatalogStatus(List.of(skillId("go"), -1L), false)));
+        assertTrue(error.getMessage().contains("-1"), error.getMessage());
+        assertEquals(true, activeBySkill().get("go"));
+    }
+
+    @Test
+    void batchDeleteSkillsRequiresWholeSubtree() {
+        skill("java", null, 1);
+        skill("java_basic", "java", 1);
+        skill("java_basic_syntax", "java_basic", 1);
+        skill("java_advanced", "java", 2);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> skillCatalogService.batchDeleteSkillCatalog(
+                        List.of(skillId("java"), skillId("java_basic"), skillId("java_basic_syntax")))));
+        // 同批删除的子技能不算，只报告还有其他子技能的父级
+        assertTrue(error.getMessage().endsWith("[java]"), error.getMessage());
+        assertEquals(List.of("java", "java_advanced", "java_basic", "java_basic_syntax"), skillCodes());
+
+        // 父级与子级同批删除
+        inTransaction(() -> skillCatalogService.batchDeleteSkillCatalog(
+                List.of(skillId("java_basic"), skillId("java_basic_syntax"))));
+        assertEquals(List.of("java", "java_advanced"), skillCodes());
+    }
+
+    @Test
+    void reorderPutsGivenSkillsFirstAndKeepsTheRest() {
+        skill("java", null, 1);
+        skill("go", null, 2);
+        for (int i = 1; i <= 4; i++) {
+            skill("java_" + i, "java", i);
+            skill("go_" + i, "go", i);
+        }
+
+        inTransaction(() -> skillCatalogService.reorderSkillCatalog("java", List.of(skillId("java_3"), skillId("java_1"))));
+        assertEquals(orderedSortOrders("java_3", "java_1", "java_2", "java_4"), sortOrders("java"));
+        // 其他父级不受影响
+        assertEquals(orderedSortOrders("go_1", "go_2", "go_3", "go_4"), sortOrders("go"));
+
+        inTransaction(() -> skillCatalogService.reorderSkillCatalog(null, List.of(skillId("go"))));
+        assertEquals(orderedSortOrders("go", "java"), sortOrders(null));
+
+        // 不属于该父级的ID整批拒绝
+        assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> skillCatalogService.reorderSkillCatalog("java", List.of(skillId("java_4"), skillId("go_1")))));
+        assertEquals(orderedSortOrders("java_3", "java_1", "java_2", "java_4"), sortOrders("java"));
+    }
+
+    @Test
+    void batchDeleteKnowledgePointsRequiresWholeSubtree() {
+        long parent = knowledgePoint("kp_parent", null);
+        long child = knowledgePoint("kp_child", parent);
+        long grandchild = knowledgePoint("kp_grandchild", child);
+        long other = knowledgePoint("kp_other", null);
+
+        RuntimeException blocked = assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> knowledgePointService.batchDeleteKnowledgePoints(new Long[]{parent, child})));
+        // 同批删除的子知识点不算，只报告还有其他子知识点的节点
+        assertTrue(blocked.getMessage().endsWith("[" + child + "]"), blocked.getMessage());
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> knowledgePointService.batchDeleteKnowledgePoints(new Long[]{other, -1L})));
+        assertTrue(missing.getMessage().endsWith("[-1]"), missing.getMessage());
+        assertEquals(List.of("kp_child", "kp_grandchild", "kp_other", "kp_parent"), knowledgePointCodes());
+
+        assertTrue(inTransaction(() -> knowledgePointService.batchDeleteKnowledgePoints(new Long[]{parent, child, grandchild})));
+        assertEquals(List.of("kp_other"), knowledgePointCodes());
+    }
+
+    @Test
+    void batchDeleteAdminUsersProtectsSuperAdmin() {
+        long root = adminUser("root", "super_admin");
+        long alice = adminUser("alice", "admin");
+        long bob = adminUser("bob", "admin");
+
+        assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> adminUserService.batchDeleteAdminUsers(new Long[]{alice, root})));
+        assertThrows(RuntimeException.class, () -> inTransaction(
+                () -> adminUserService.batchDeleteAdminUsers(new Long[]{alice, -1L})));
+        assertEquals(List.of("alice", "bob", "root"), usernames());
+
+        assertTrue(inTransaction(() -> adminUserService.batchDeleteAdminUsers(new Long[]{alice, bob})));
+        assertEquals(List.of("root"), usernames());
+    }
+
+    @Test
+    void knowledgeMapSortOrdersAreUpdatedByNodeCode() {
+        for (int i = 1; i <= 3; i++) {
+            jdbcTemplate.update("INSERT INTO admin_knowledge_map (node_code, node_name, node_type, root_code, node_path, "
+                    + "level_depth, sort_order, difficulty_level, estimated_hours, status, updated_by) "
+                    + "VALUES (?, ?, 'LEAF', 'java', ?, 2, ?, 'EASY', 0, 'ACTIVE', 'seed')", "n" + i, "n" + i, "java/n" + i, i);
+        }
+        Map<String, Integer> sortOrders = new LinkedHashMap<>();
+        sortOrders.put("n3", 1);
+        sortOrders.put("n1", 3);
+
+        assertEquals(2, adminBatchWriter.updateSortOrders("admin_knowledge_map", "node_code", sortOrders, "tester"));
+        List<String> rows = jdbcTemplate.query("SELECT node_code, sort_order, updated_by FROM admin_knowledge_map ORDER BY sort_order",
+                (rs, i) -> rs.getString(1) + ":" + rs.getInt(2) + ":" + rs.getString(3));
+        assertEquals(List.of("n3:1:tester", "n2:2:seed", "n1:3:tester"), rows);
+    }
+
+    /**
+     * 服务方法不经过Spring代理，在这里开启事务执行；抛出异常时回滚
+     */
+    private static <T> T inTransaction(Supplier<T> action) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        try {
+            T result = action.get();
+            transaction.commit();
+            return result;
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            entityManager.clear();
+        }
+    }
+
+    private static void inTransaction(Runnable action) {
+        inTransaction(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static void skill(String code, String parentCode, int sortOrder) {
+        jdbcTemplate.update("INSERT INTO learning_skill_catalog (skill_code, skill_name, skill_path, level, parent_code, "
+                + "sort_order, is_active, created_time, updated_time) VALUES (?, ?, ?, ?, ?, ?, TRUE, NOW(), NOW())",
+                code, code, code, parentCode == null ? 1 : 2, parentCode, sortOrder);
+    }
+
+    private static long skillId(String code) {
+        return jdbcTemplate.queryForObject("SELECT id FROM learning_skill_catalog WHERE skill_code = ?", Long.class, code);
+    }
+
+    private static List<String> skillCodes() {
+        return jdbcTemplate.queryForList("SELECT skill_code FROM learning_skill_catalog ORDER BY skill_code", String.class);
+    }
+
+    private static Map<String, Boolean> activeBySkill() {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT skill_code, is_active FROM learning_skill_catalog",
+                rs -> {
+                    result.put(rs.getString(1), rs.getBoolean(2));
+                });
+        return result;
+    }
+
+    /**
+     * 同级技能按 sort_order 排列的 [技能编码:序号]
+     */
+    private static List<String> sortOrders(String parentCode) {
+        return jdbcTemplate.query("SELECT skill_code, sort_order FROM learning_skill_catalog WHERE parent_code <=> ? ORDER BY sort_order, id",
+                (rs, i) -> rs.getString(1) + ":" + rs.getInt(2), parentCode);
+    }
+
+    private static List<String> orderedSortOrders(String... codes) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) {
+            result.add(codes[i] + ":" + (i + 1));
+        }
+        return result;
+    }
+
+    private static long knowledgePoint(String code, Long parentId) {
+        jdbcTemplate.update("INSERT INTO knowledge_points (title, code, parent_id, status, create_time, modify_time) "
+                + "VALUES (?, ?, ?, 1, NOW(), NOW())", code, code, parentId);
+        return jdbcTemplate.queryForObject("SELECT id FROM knowledge_points WHERE code = ?", Long.class, code);
+    }
+
+    private static List<String> knowledgePointCodes() {
+        return jdbcTemplate.queryForList("SELECT code FROM knowledge_points ORDER BY code", String.class);
+    }
+
+    private static long adminUser(String username, String role) {
+        jdbcTemplate.update("INSERT INTO admin_users (username, password, role, status, create_time, modify_time) "
+                + "VALUES (?, 'x', ?, 1, NOW(), NOW())", username, role);
+        return jdbcTemplate.queryForObject("SELECT id FROM admin_users WHERE username = ?", Long.class, username);
+    }
+
+    private static List<String> usernames() {
+        return jdbcTemplate.queryForList("SELECT username FROM admin_users ORDER BY username", String.class);
+    }
+}
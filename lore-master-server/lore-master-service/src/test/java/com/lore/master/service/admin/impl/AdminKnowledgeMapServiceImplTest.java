@@ -0,0 +1,209 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.data.dto.admin.AdminKnowledgeMapRequest;
+import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.entity.admin.AdminKnowledgeMapClosure;
+import com.lore.master.data.repository.admin.AdminKnowledgeMapClosureRepository;
+import com.lore.master.data.repository.admin.AdminKnowledgeMapRepository;
+import com.lore.master.data.vo.admin.BulkImportResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 知识图谱服务测试：闭包表重建前的成环检查，批量导入的校验、解析顺序和闭包关系
+ */
+@ExtendWith(MockitoExtension.class)
+class AdminKnowledgeMapServiceImplTest {
+
+    @Mock
+    private AdminKnowledgeMapRepository adminKnowledgeMapRepository;
+
+    @Mock
+    private AdminKnowledgeMapClosureRepository closureRepository;
+
+    @Mock
+    private SkillTreeCache skillTreeCache;
+
+    @Mock
+    private AdminBatchWriter adminBatchWriter;
+
+    @InjectMocks
+    private AdminKnowledgeMapServiceImpl adminKnowledgeMapService;
+
+    // SQL -> 写入的行
+    private final Map<String, List<Object>> written = new HashMap<>();
+
+    @Test
+    void findCyclesReportsOnlyNodesOnTheCycle() {
+        Map<String, String> parentByCode = new HashMap<>();
+        // 正常的树 root <- a <- b
+        parentByCode.put("a", "root");
+        parentByCode.put("b", "a");
+        // 环 x -> y -> z -> x，w 挂在环上但不在环内
+        parentByCode.put("x", "y");
+        parentByCode.put("y", "z");
+        parentByCode.put("z", "x");
+        parentByCode.put("w", "x");
+        // 指向自身
+        parentByCode.put("s", "s");
+
+        List<String> cyclic = AdminKnowledgeMapServiceImpl.findCycles(parentByCode);
+        assertEquals(Set.of("x", "y", "z", "s"), Set.copyOf(cyclic));
+        assertEquals(4, cyclic.size());
+    }
+
+    @Test
+    void findCyclesOnTreeIsEmpty() {
+        assertTrue(AdminKnowledgeMapServiceImpl.findCycles(Map.of("a", "root", "b", "a", "c", "a")).isEmpty());
+    }
+
+    @Test
+    void rebuildClosureRejectsCyclesBeforeTouchingTheTable() {
+        when(adminKnowledgeMapRepository.findAllParentLinks()).thenReturn(List.of(
+                new Object[]{"a", "b"}, new Object[]{"b", "a"}, new Object[]{"c", "root"}));
+
+        BusinessException error = assertThrows(BusinessException.class, () -> adminKnowledgeMapService.rebuildClosure());
+        assertTrue(error.getMessage().contains("a") && error.getMessage().contains("b"));
+        assertFalse(error.getMessage().contains("c"));
+        verify(closureRepository, never()).deleteAllRows();
+        verify(closureRepository, never()).insertRowsAtDepth(anyInt());
+    }
+
+    @Test
+    void rebuildClosureExpandsUntilNoRowsAreAdded() {
+        when(adminKnowledgeMapRepository.findAllParentLinks()).thenReturn(List.of(
+                new Object[]{"a", "root"}, new Object[]{"b", "a"}));
+        when(closureRepository.insertSelfRows()).thenReturn(3);
+        when(closureRepository.insertRowsAtDepth(1)).thenReturn(2);
+        when(closureRepository.insertRowsAtDepth(2)).thenReturn(1);
+        when(closureRepository.insertRowsAtDepth(3)).thenReturn(0);
+
+        assertEquals(6, adminKnowledgeMapService.rebuildClosure());
+        verify(closureRepository).deleteAllRows();
+        verify(closureRepository, never()).insertRowsAtDepth(4);
+    }
+
+    @Test
+    void importResolvesTopDownAndBuildsClosureInMemory() {
+        stubBatchWriter();
+        when(adminKnowledgeMapRepository.findByNodeCodeIn(any())).thenReturn(List.of(node("java", null, 1, "java")));
+        when(adminKnowledgeMapRepository.findMaxSortOrderByParentCodes(any())).thenReturn(List.<Object[]>of(new Object[]{"java", 3}));
+        when(closureRepository.findByDescendantCodeIn(any())).thenReturn(List.of(new AdminKnowledgeMapClosure("java", "java", 0)));
+
+        // 子节点排在父节点之前提交
+        BulkImportResult result = adminKnowledgeMapService.importNodes(List.of(
+                request("b", "a", 3),
+                request("a", "java", 2),
+                request("java", null, 1)));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertTrue(result.getErrors().isEmpty());
+        List<AdminKnowledgeMap> nodes = writtenRows("INSERT INTO admin_knowledge_map ");
+        assertEquals(List.of("a", "b"), nodes.stream().map(AdminKnowledgeMap::getNodeCode).toList());
+        assertEquals("java/a", nodes.get(0).getNodePath());
+        assertEquals("java/a/b", nodes.get(1).getNodePath());
+        // 接在已有兄弟节点之后；a 是批内新节点，其下从1开始
+        assertEquals(4, nodes.get(0).getSortOrder());
+        assertEquals(1, nodes.get(1).getSortOrder());
+
+        List<AdminKnowledgeMapClosure> closure = writtenRows("INSERT INTO admin_knowledge_map_closure");
+        assertEquals(List.of("a>a:0", "java>a:1", "b>b:0", "a>b:1", "java>b:2"),
+                closure.stream().map(c -> c.getAncestorCode() + ">" + c.getDescendantCode() + ":" + c.getDepth()).toList());
+        verify(skillTreeCache).onChanged("java");
+    }
+
+    @Test
+    void importReportsDuplicatesAndFailsChildrenOfFailedRows() {
+        stubBatchWriter();
+        when(adminKnowledgeMapRepository.findByNodeCodeIn(any())).thenReturn(List.of(node("java", null, 1, "java")));
+
+        AdminKnowledgeMapRequest nameless = request("x", "java", 2);
+        nameless.setNodeName(null);
+        AdminKnowledgeMapRequest wrongRoot = request("r", "java", 2);
+        wrongRoot.setRootCode("python");
+        BulkImportResult result = adminKnowledgeMapService.importNodes(List.of(
+                request("a", "java", 2),
+                request("a", "java", 2),
+                nameless,
+                request("y", "x", 3),
+                request("z", "y", 4),
+                request("jump", "java", 4),
+                wrongRoot,
+                request("lost", "nowhere", 2)));
+
+        assertEquals(1, result.getImported());
+        assertEquals(7, result.getFailed());
+        assertEquals(List.of(
+                "1 a 节点编码与第0行重复",
+                "2 x 节点名称不能为空",
+                "3 y 父节点导入失败：x",
+                "4 z 父节点导入失败：y",
+                "5 jump 层级深度与父节点不一致：java",
+                "6 r 根节点编码与父节点不一致：java",
+                "7 lost 父节点不存在：nowhere"),
+                result.getErrors().stream().map(e -> e.getRow() + " " + e.getCode() + " " + e.getMessage()).toList());
+    }
+
+    private void stubBatchWriter() {
+        when(adminBatchWriter.batchUpdate(anyString(), anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<?> rows = invocation.getArgument(1);
+            written.put(invocation.getArgument(0), new ArrayList<>(rows));
+            return rows.size();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> writtenRows(String sqlPrefix) {
+        return (List<T>) written.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(sqlPrefix))
+                .findFirst()
+                .orElseThrow()
+                .getValue();
+    }
+
+    private static AdminKnowledgeMap node(String code, String parentCode, int depth, String path) {
+        AdminKnowledgeMap node = new AdminKnowledgeMap();
+        node.setNodeCode(code);
+        node.setParentCode(parentCode);
+        node.setLevelDepth(depth);
+        node.setNodePath(path);
+        node.setRootCode("java");
+        node.setStatus("ACTIVE");
+        return node;
+    }
+
+    private static AdminKnowledgeMapRequest request(String code, String parentCode, int depth) {
+        AdminKnowledgeMapRequest request = new AdminKnowledgeMapRequest();
+        request.setNodeCode(code);
+        request.setNodeName(code);
+        request.setNodeType(depth == 1 ? "ROOT" : "LEAF");
+        request.setParentCode(parentCode);
+        request.setRootCode("java");
+        request.setLevelDepth(depth);
+        return request;
+    }
+}
@@ -0,0 +1,99 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.data.dto.admin.LearningSkillCatalogDTO;
+import com.lore.master.data.entity.admin.LearningSkillCatalog;
+import com.lore.master.data.repository.admin.LearningSkillCatalogRepository;
+import com.lore.master.data.vo.admin.BulkImportResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * 技能目录批量导入测试：校验、批内重复、按层级解析和失败传递
+ */
+@ExtendWith(MockitoExtension.class)
+class LearningSkillCatalogServiceImplTest {
+
+    @Mock
+    private LearningSkillCatalogRepository skillCatalogRepository;
+
+    @Mock
+    private AdminBatchWriter adminBatchWriter;
+
+    @InjectMocks
+    private LearningSkillCatalogServiceImpl learningSkillCatalogService;
+
+    private final List<LearningSkillCatalog> inserted = new ArrayList<>();
+
+    @Test
+    void importResolvesTopDownAndReportsRowErrors() {
+        when(adminBatchWriter.batchUpdate(anyString(), anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<LearningSkillCatalog> rows = invocation.getArgument(1);
+            inserted.addAll(rows);
+            return rows.size();
+        });
+        when(skillCatalogRepository.findBySkillCodeIn(any())).thenReturn(List.of(catalog("existing", 1)));
+        when(skillCatalogRepository.findMaxSortOrderOfTopLevel()).thenReturn(5);
+
+        LearningSkillCatalogDTO top = dto("top", null, 1);
+        top.setSortOrder(null);
+        LearningSkillCatalogDTO nameless = dto("nameless", "top", 2);
+        nameless.setSkillName(null);
+        // 子级排在父级之前提交
+        BulkImportResult result = learningSkillCatalogService.importSkillCatalogData(List.of(
+                dto("c", "b", 3),
+                dto("b", "top", 2),
+                top,
+                dto("top", null, 1),
+                dto("existing", null, 1),
+                dto("lost", "nowhere", 2),
+                dto("orphan", "lost", 3),
+                dto("jump", "top", 3),
+                nameless));
+
+        assertEquals(9, result.getTotal());
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertEquals(List.of(
+                "3 top 技能编码与第2行重复",
+                "5 lost 父级不存在: nowhere",
+                "6 orphan 父级导入失败: lost",
+                "7 jump 层级与父级不匹配: top",
+                "8 nameless 技能名称不能为空"),
+                result.getErrors().stream().map(e -> e.getRow() + " " + e.getCode() + " " + e.getMessage()).toList());
+
+        assertEquals(List.of("top", "top/b", "top/b/c"), inserted.stream().map(LearningSkillCatalog::getSkillPath).toList());
+        // 未指定排序的一级分类接在已有分类之后
+        assertEquals(6, inserted.get(0).getSortOrder());
+        assertEquals("b", inserted.get(2).getParentCode());
+    }
+
+    private static LearningSkillCatalog catalog(String code, int level) {
+        LearningSkillCatalog catalog = new LearningSkillCatalog();
+        catalog.setSkillCode(code);
+        catalog.setSkillPath(code);
+        catalog.setLevel(level);
+        return catalog;
+    }
+
+    private static LearningSkillCatalogDTO dto(String code, String parentCode, int level) {
+        LearningSkillCatalogDTO dto = new LearningSkillCatalogDTO();
+        dto.setSkillCode(code);
+        dto.setSkillName(code);
+        dto.setParentCode(parentCode);
+        dto.setLevel(level);
+        return dto;
+    }
+}
@@ -0,0 +1,88 @@
+package com.lore.master.service.admin.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * QuestionPool 抽样和分层分配测试
+ */
+class QuestionPoolTest {
+
+    @Test
+    void sampleReturnsDistinctIdsMatchingFilter() {
+        // 学科1：难度1~3各100题，题型1；学科2：难度1共50题
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            rows.add(new Object[]{id, 1L, (int) ((id - 1) / 100) + 1, 1, null});
+        }
+        for (long id = 301; id <= 350; id++) {
+            rows.add(new Object[]{id, 2L, 1, 1, null});
+        }
+        QuestionPool pool = QuestionPool.build(rows, 1);
+        Random random = new Random(7);
+
+        long[] ids = pool.sample(1L, 2, null, 30, random);
+        assertEquals(30, ids.length);
+        assertEquals(30, Arrays.stream(ids).distinct().count());
+        assertTrue(Arrays.stream(ids).allMatch(id -> id > 100 && id <= 200));
+
+        long[] all = pool.sample(null, 1, 1, 1000, random);
+        assertEquals(150, all.length);
+        assertEquals(150, Arrays.stream(all).distinct().count());
+
+        assertEquals(0, pool.sample(3L, null, null, 10, random).length);
+    }
+
+    @Test
+    void sampleIsUniformAcrossGroups() {
+        List<long[]> pools = List.of(new long[]{0, 1, 2}, new long[]{3}, new long[]{4, 5, 6, 7, 8, 9});
+        int[] hits = new int[10];
+        Random random = new Random(42);
+        for (int round = 0; round < 20000; round++) {
+            for (long id : QuestionPool.sample(pools, 3, random)) {
+                hits[(int) id]++;
+            }
+        }
+        // 每个元素被选中的概率为 3/10，期望 6000 次
+        for (int hit : hits) {
+            assertTrue(Math.abs(hit - 6000) < 300, Arrays.toString(hits));
+        }
+    }
+
+    @Test
+    void stratifiedSampleIsOrderedByDifficulty() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 60; id++) {
+            rows.add(new Object[]{id, 1L, (int) ((id - 1) / 20) + 1, 1, null});
+        }
+        long[] ids = QuestionPool.build(rows, 1).sampleStratified(1L, 1, 9, Map.of(1, 1, 2, 1, 3, 1), new Random(3));
+
+        assertEquals(9, ids.length);
+        long[] difficulties = Arrays.stream(ids).map(id -> (id - 1) / 20 + 1).toArray();
+        assertArrayEquals(new long[]{1, 1, 1, 2, 2, 2, 3, 3, 3}, difficulties);
+    }
+
+    @Test
+    void allocateRedistributesShortfall() {
+        SortedMap<Integer, Integer> available = new TreeMap<>(Map.of(1, 100, 2, 100, 3, 2));
+
+        // 3:3:4 分配 10 道题，难度3只有2道，差额按 3:3 补给难度1和2
+        assertEquals(Map.of(1, 4, 2, 4, 3, 2), QuestionPool.allocate(10, available, Map.of(1, 3, 2, 3, 3, 4)));
+        // 未给权重时按题目数量分配
+        assertEquals(Map.of(1, 5, 2, 5), QuestionPool.allocate(10, available, Map.of()));
+        // 权重为0的难度不抽取，题目总数不足时全部取出
+        assertEquals(Map.of(3, 2), QuestionPool.allocate(10, available, Map.of(3, 1)));
+        assertEquals(Map.of(1, 100, 2, 100, 3, 2), QuestionPool.allocate(500, available, null));
+    }
+}
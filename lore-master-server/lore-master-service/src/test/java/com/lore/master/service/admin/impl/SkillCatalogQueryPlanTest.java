@@ -0,0 +1,177 @@
+package com.lore.master.service.admin.impl;
+
+import com.lore.master.data.dto.admin.LearningSkillCatalogQueryDTO;
+import com.lore.master.data.entity.admin.LearningSkillCatalog;
+import com.lore.master.data.repository.admin.LearningSkillCatalogRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 技能目录动态查询的执行计划测试
+ *
+ * 需要MySQL，默认跳过。运行方式：
+ * mvn test -pl lore-master-service -am -Dtest=SkillCatalogQueryPlanTest -Dsurefire.failIfNoSpecifiedTests=false
+ *     -Dlore.it.mysql.url="jdbc:mysql://127.0.0.1:3306/lore_it?user=root&password=xxx"
+ * 测试在该库中按实体建表、写入约一万行数据，结束后删表；库中已有 learning_skill_catalog 表时跳过
+ */
+@EnabledIfSystemProperty(named = "lore.it.mysql.url", matches = ".+")
+class SkillCatalogQueryPlanTest {
+
+    private static final int ROOTS = 20;
+    private static final int CHILDREN = 20;
+    private static final int GRANDCHILDREN = 25;
+
+    /**
+     * 查询执行的SQL，由 StatementInspector 记录
+     */
+    private static final List<String> EXECUTED_SQL = new ArrayList<>();
+
+    private static JdbcTemplate jdbcTemplate;
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+    private static EntityManager entityManager;
+    private static LearningSkillCatalogRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getProperty("lore.it.mysql.url"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_schema = DATABASE() AND table_name = 'learning_skill_catalog'", Integer.class);
+        assumeTrue(existing == 0, "测试库中已有 learning_skill_catalog 表");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(LearningSkillCatalog.class.getName()));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                // 条件值直接写入SQL，拿到的语句可以原样 EXPLAIN
+                "hibernate.criteria.value_handling_mode", "inline",
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    EXECUTED_SQL.add(sql);
+                    return sql;
+                }));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        repository = new JpaRepositoryFactory(entityManager).getRepository(LearningSkillCatalogRepository.class);
+
+        seed();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (entityManager != null) {
+            entityManager.close();
+        }
+        if (factoryBean != null) {
+            factoryBean.destroy();
+        }
+    }
+
+    @Test
+    void parentCodeFilterUsesParentIndex() {
+        LearningSkillCatalogQueryDTO query = new LearningSkillCatalogQueryDTO().setParentCode("r3_c7");
+
+        assertEquals(GRANDCHILDREN, find(query).size());
+        assertUsesIndex("idx_parent_code");
+    }
+
+    @Test
+    void pathPrefixFilterUsesPathIndex() {
+        LearningSkillCatalogQueryDTO query = new LearningSkillCatalogQueryDTO().setSkillPathPrefix("r5/r5_c2/");
+
+        assertEquals(GRANDCHILDREN, find(query).size());
+        assertUsesIndex("idx_skill_path");
+    }
+
+    @Test
+    void levelFilterUsesLevelIndex() {
+        LearningSkillCatalogQueryDTO query = new LearningSkillCatalogQueryDTO().setLevel(1);
+
+        assertEquals(ROOTS, find(query).size());
+        assertUsesIndex("idx_level");
+    }
+
+    @Test
+    void absentFiltersAreNotRendered() {
+        find(new LearningSkillCatalogQueryDTO().setParentCode("r1_c1"));
+
+        String where = lastSql().toLowerCase().replaceFirst("^.* where ", "");
+        assertFalse(where.contains("is null"), where);
+        assertFalse(where.contains("skill_path"), where);
+        assertTrue(where.contains("parent_code"), where);
+    }
+
+    private static List<LearningSkillCatalog> find(LearningSkillCatalogQueryDTO query) {
+        EXECUTED_SQL.clear();
+        List<LearningSkillCatalog> result = repository.findAll(
+                LearningSkillCatalogServiceImpl.buildSpecification(query), Sort.by("level", "sortOrder"));
+        entityManager.clear();
+        return result;
+    }
+
+    private static String lastSql() {
+        return EXECUTED_SQL.get(EXECUTED_SQL.size() - 1);
+    }
+
+    /**
+     * EXPLAIN 最近一次查询，断言没有全表扫描且使用了指定索引（可能与其他索引合并使用）
+     */
+    private static void assertUsesIndex(String index) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + lastSql());
+        assertEquals(1, plan.size(), plan.toString());
+        Map<String, Object> row = plan.get(0);
+        assertNotEquals("ALL", row.get("type"), plan.toString());
+        String key = (String) row.get("key");
+        assertTrue(key != null && List.of(key.split(",")).contains(index), plan.toString());
+    }
+
+    private static void seed() {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int r = 0; r < ROOTS; r++) {
+            String root = "r" + r;
+            rows.add(row(root, root, 1, null, r, now));
+            for (int c = 0; c < CHILDREN; c++) {
+                String child = root + "_c" + c;
+                rows.add(row(child, root + "/" + child, 2, root, c, now));
+                for (int g = 0; g < GRANDCHILDREN; g++) {
+                    String grandchild = child + "_g" + g;
+                    rows.add(row(grandchild, root + "/" + child + "/" + grandchild, 3, child, g, now));
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO learning_skill_catalog (skill_code, skill_name, skill_path, level, parent_code, "
+                + "sort_order, is_active, created_time, updated_time, created_by, updated_by) "
+                + "VALUES (?, ?, ?, ?, ?, ?, TRUE, ?, ?, 'test', 'test')", rows);
+        jdbcTemplate.execute("ANALYZE TABLE learning_skill_catalog");
+    }
+
+    private static Object[] row(String code, String path, int level, String parentCode, int sortOrder, LocalDateTime now) {
+        return new Object[]{code, code, path, level, parentCode, sortOrder, now, now};
+    }
+}
@@ -0,0 +1,261 @@
+package com.lore.master.service.admin.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lore.master.data.entity.admin.AdminKnowledgeMap;
+import com.lore.master.data.repository.admin.AdminKnowledgeMapRepository;
+import com.lore.master.data.vo.admin.AdminKnowledgeMapTreeResponse;
+import com.lore.master.service.config.ChatClusterConfig;
+import com.lore.master.service.config.SkillTreeConfig;
+import com.lore.master.service.middleware.message.ClusterMessageBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 技能树快照缓存测试：快照构建、变更刷新和通知、定期后台刷新、过期重建、重建期间的并发读取和变更
+ */
+@ExtendWith(MockitoExtension.class)
+class SkillTreeCacheTest {
+
+    private static final String CHANNEL = "lore:chat:ws:skill-tree";
+
+    @Mock
+    private AdminKnowledgeMapRepository adminKnowledgeMapRepository;
+
+    @Mock
+    private ClusterMessageBus clusterMessageBus;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private ChatClusterConfig chatClusterConfig = new ChatClusterConfig();
+
+    @Spy
+    private SkillTreeConfig skillTreeConfig = new SkillTreeConfig();
+
+    @InjectMocks
+    private SkillTreeCache skillTreeCache;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private Consumer<String> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ArgumentCaptor<Consumer<String>> captor = ArgumentCaptor.forClass(Consumer.class);
+        when(clusterMessageBus.subscribe(anyString(), captor.capture())).thenReturn(() -> { });
+        skillTreeCache.ticker = nanos::get;
+        skillTreeCache.init();
+        listener = captor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        skillTreeCache.destroy();
+    }
+
+    @Test
+    void snapshotIsBuiltOnceAndShared() {
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE"))
+                .thenReturn(javaTree("Java"));
+
+        SkillTreeCache.Snapshot snapshot = skillTreeCache.get("java");
+        assertSame(snapshot, skillTreeCache.get("java"));
+        verify(adminKnowledgeMapRepository, times(1)).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE");
+
+        AdminKnowledgeMapTreeResponse tree = snapshot.tree();
+        assertEquals("Java", tree.getRootName());
+        // 子节点按sortOrder排序
+        assertEquals(List.of("basic", "advanced"), tree.getChildren().stream().map(AdminKnowledgeMapTreeResponse.TreeNode::getNodeCode).toList());
+        assertEquals("syntax", tree.getChildren().get(0).getChildren().get(0).getNodeCode());
+        assertEquals(4, snapshot.nodeCount());
+        assertTrue(snapshot.json().rawValue().toString().contains("\"rootName\":\"Java\""));
+    }
+
+    @Test
+    void missingTreeIsNotCached() {
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("go", "ACTIVE"))
+                .thenReturn(List.of());
+
+        assertNull(skillTreeCache.get("go"));
+        assertNull(skillTreeCache.get("go"));
+        verify(adminKnowledgeMapRepository, times(2)).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("go", "ACTIVE");
+    }
+
+    @Test
+    void onChangedRefreshesLocallyThenNotifiesOtherNodes() {
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE"))
+                .thenReturn(javaTree("Java"), javaTree("Java进阶"));
+        SkillTreeCache.Snapshot old = skillTreeCache.get("java");
+
+        skillTreeCache.onChanged("java");
+        // 返回时本节点已经换上新快照
+        assertEquals("Java进阶", skillTreeCache.get("java").tree().getRootName());
+        assertNotSame(old, skillTreeCache.get("java"));
+        verify(clusterMessageBus).publish(CHANNEL, "java");
+
+        // 未缓存的技能树不提前加载
+        skillTreeCache.onChanged("go");
+        verify(adminKnowledgeMapRepository, never()).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("go", "ACTIVE");
+        verify(clusterMessageBus).publish(CHANNEL, "go");
+    }
+
+    @Test
+    void notificationFromOtherNodeRefreshesAllCachedRoots() throws Exception {
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE"))
+                .thenReturn(javaTree("Java"), javaTree("Java进阶"));
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("python", "ACTIVE"))
+                .thenReturn(List.of(node("python", "Python", "ROOT", null, 1)), List.of());
+        skillTreeCache.get("java");
+        skillTreeCache.get("python");
+
+        listener.accept("*");
+
+        await(() -> "Java进阶".equals(skillTreeCache.get("java").tree().getRootName()));
+        // 技能树已被删除，快照随之移除
+        await(() -> skillTreeCache.get("python") == null);
+        verify(clusterMessageBus, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    void staleSnapshotIsServedWhileRefreshingInBackground() throws Exception {
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE"))
+                .thenReturn(javaTree("Java"))
+                .thenAnswer(invocation -> {
+                    proceed.await();
+                    return javaTree("Java进阶");
+                });
+        SkillTreeCache.Snapshot old = skillTreeCache.get("java");
+
+        advanceSeconds(skillTreeConfig.getRefreshAfterWriteSeconds() - 1);
+        assertSame(old, skillTreeCache.get("java"));
+        verify(adminKnowledgeMapRepository, times(1)).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE");
+
+        advanceSeconds(2);
+        // 超过刷新时间后读取不等待重建，仍拿到旧快照
+        assertSame(old, skillTreeCache.get("java"));
+        assertSame(old, skillTreeCache.get("java"));
+
+        proceed.countDown();
+        await(() -> "Java进阶".equals(skillTreeCache.get("java").tree().getRootName()));
+        verify(adminKnowledgeMapRepository, times(2)).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE");
+    }
+
+    @Test
+    void expiredSnapshotIsRebuiltOnRead() {
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE"))
+                .thenReturn(javaTree("Java"), javaTree("Java进阶"));
+        skillTreeCache.get("java");
+
+        advanceSeconds(skillTreeConfig.getExpireAfterWriteSeconds() + 1);
+        // 过期后同步重建，不再返回旧快照
+        assertEquals("Java进阶", skillTreeCache.get("java").tree().getRootName());
+        verify(adminKnowledgeMapRepository, times(2)).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE");
+    }
+
+    @Test
+    void readersKeepOldSnapshotDuringConcurrentRebuild() throws Exception {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(adminKnowledgeMapRepository.findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc("java", "ACTIVE"))
+                .thenReturn(javaTree("Java"))
+                .thenAnswer(invocation -> {
+                    rebuilding.countDown();
+                    proceed.await();
+                    return javaTree("Java进阶");
+                })
+                .thenReturn(javaTree("Java高级"));
+        SkillTreeCache.Snapshot old = skillTreeCache.get("java");
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> skillTreeCache.onChanged("java"), executor);
+            assertTrue(rebuilding.await(5, TimeUnit.SECONDS));
+            // 重建期间提交的第二次变更等第一次重建完成后再建一次，不会读到旧数据
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> skillTreeCache.onChanged("java"), executor);
+
+            List<CompletableFuture<SkillTreeCache.Snapshot>> readers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                readers.add(CompletableFuture.supplyAsync(() -> skillTreeCache.get("java"), executor));
+            }
+            for (CompletableFuture<SkillTreeCache.Snapshot> reader : readers) {
+                assertSame(old, reader.get(5, TimeUnit.SECONDS));
+            }
+            assertFalse(first.isDone());
+            assertFalse(second.isDone());
+
+            proceed.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("Java高级", skillTreeCache.get("java").tree().getRootName());
+        verify(adminKnowledgeMapRepository, times(3)).findByRootCodeAndStatusOrderByLevelDepthAscSortOrderAsc(any(), any());
+        verify(clusterMessageBus, times(2)).publish(CHANNEL, "java");
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static void await(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.get());
+    }
+
+    private static List<AdminKnowledgeMap> javaTree(String rootName) {
+        return List.of(
+                node("java", rootName, "ROOT", null, 1),
+                node("advanced", "进阶", "BRANCH", "java", 2),
+                node("basic", "基础", "BRANCH", "java", 1),
+                node("syntax", "语法", "LEAF", "basic", 1));
+    }
+
+    private static AdminKnowledgeMap node(String code, String name, String nodeType, String parentCode, int sortOrder) {
+        AdminKnowledgeMap node = new AdminKnowledgeMap();
+        node.setNodeCode(code);
+        node.setNodeName(name);
+        node.setNodeType(nodeType);
+        node.setParentCode(parentCode);
+        node.setRootCode("java");
+        node.setSortOrder(sortOrder);
+        return node;
+    }
+}
@@ -0,0 +1,76 @@
+package com.lore.master.service.ai;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.service.AiServices;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每条消息构建AiServices代理 vs 全局单例+ChatMemoryProvider 的单消息开销对比
+ *
+ * 使用空实现的模型，只测量代理构建和记忆绑定本身的耗时，直接运行main方法即可
+ */
+public class AssistantProxyBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int WARMUP = 20_000;
+    private static final int MEASURE = 100_000;
+
+    private static final ChatLanguageModel NOOP_MODEL = new ChatLanguageModel() {
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            return Response.from(AiMessage.from("ok"));
+        }
+    };
+
+    public static void main(String[] args) {
+        Map<String, ChatMemory> memories = new ConcurrentHashMap<>();
+
+        AssistantServiceConf.UserAssistant shared = AiServices.builder(AssistantServiceConf.UserAssistant.class)
+                .chatLanguageModel(NOOP_MODEL)
+                .chatMemoryProvider(id -> memory(memories, String.valueOf(id)))
+                .build();
+
+        run("per-message build", WARMUP, i -> perMessage(memories, i));
+        run("shared + provider", WARMUP, i -> shared.chat(userId(i), "hi"));
+
+        long before = run("per-message build", MEASURE, i -> perMessage(memories, i));
+        long after = run("shared + provider", MEASURE, i -> shared.chat(userId(i), "hi"));
+
+        System.out.printf("per-message: %.2f us/msg, shared: %.2f us/msg%n",
+                before / 1000.0 / MEASURE, after / 1000.0 / MEASURE);
+    }
+
+    private static void perMessage(Map<String, ChatMemory> memories, int i) {
+        AssistantServiceConf.Assistant assistant = AiServices.builder(AssistantServiceConf.Assistant.class)
+                .chatLanguageModel(NOOP_MODEL)
+                .chatMemory(memory(memories, userId(i)))
+                .build();
+        assistant.chat("hi");
+    }
+
+    private static ChatMemory memory(Map<String, ChatMemory> memories, String userId) {
+        return memories.computeIfAbsent(userId, id -> MessageWindowChatMemory.withMaxMessages(20));
+    }
+
+    private static String userId(int i) {
+        return "user_" + (i % USERS);
+    }
+
+    private static long run(String name, int iterations, java.util.function.IntConsumer body) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            body.accept(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-18s %,d msgs in %,d ms%n", name, iterations, elapsed / 1_000_000);
+        return elapsed;
+    }
+}
@@ -0,0 +1,219 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.service.config.LlmRouterConfig;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * LLM路由测试：许可排队、排队超时降载、主后端不健康时切换和指标
+ */
+@ExtendWith(MockitoExtension.class)
+class LlmRouterTest {
+
+    private static final ChatRequest REQUEST = ChatRequest.builder().messages(UserMessage.from("你好")).build();
+
+    @Mock
+    private ChatLanguageModel ollamaChatLanguageModel;
+
+    @Mock
+    private StreamingChatLanguageModel ollamaStreamingChatModel;
+
+    @Mock
+    private ChatLanguageModel qwenChatLanguageModel;
+
+    @Mock
+    private StreamingChatLanguageModel qwenStreamingChatLanguageModel;
+
+    @Spy
+    private LlmRouterConfig llmRouterConfig = new LlmRouterConfig();
+
+    @InjectMocks
+    private LlmRouter llmRouter;
+
+    @BeforeEach
+    void setUp() {
+        llmRouterConfig.setOllama(new LlmRouterConfig.Backend(1, 1));
+        llmRouterConfig.setQwen(new LlmRouterConfig.Backend(1, 1));
+        llmRouterConfig.setFailureThreshold(1);
+        llmRouterConfig.setCooldownMillis(60000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        llmRouter.destroy();
+    }
+
+    @Test
+    void exhaustedPermitsQueueUntilReleased() throws Exception {
+        llmRouterConfig.setFailoverEnabled(false);
+        llmRouter.init();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(ollamaChatLanguageModel.chat(REQUEST)).thenAnswer(invocation -> {
+            started.countDown();
+            proceed.await();
+            return response("第一个");
+        }).thenReturn(response("第二个"));
+
+        CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(() -> llmRouter.chatModel().chat(REQUEST));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ChatResponse> second = CompletableFuture.supplyAsync(() -> llmRouter.chatModel().chat(REQUEST));
+        awaitStat("ollama", "queueDepth", 1);
+        assertFalse(second.isDone());
+
+        proceed.countDown();
+        assertEquals("第一个", first.get(5, TimeUnit.SECONDS).aiMessage().text());
+        assertEquals("第二个", second.get(5, TimeUnit.SECONDS).aiMessage().text());
+        Map<String, Object> stats = stats("ollama");
+        assertEquals(2L, stats.get("successCount"));
+        assertEquals(1, stats.get("maxQueueDepth"));
+        assertEquals(0, stats.get("active"));
+        assertTrue((Double) stats.get("averageQueueWaitMillis") > 0);
+    }
+
+    @Test
+    void queueTimeoutAndFullQueueAreShedAsBusy() throws Exception {
+        llmRouterConfig.setFailoverEnabled(false);
+        llmRouterConfig.setQueueTimeoutMillis(100L);
+        llmRouter.init();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(ollamaChatLanguageModel.chat(REQUEST)).thenAnswer(invocation -> {
+            started.countDown();
+            proceed.await();
+            return response("完成");
+        });
+
+        CompletableFuture<ChatResponse> holder = CompletableFuture.supplyAsync(() -> llmRouter.chatModel().chat(REQUEST));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // 占满唯一的排队位，等待超时
+        CompletableFuture<ChatResponse> queued = CompletableFuture.supplyAsync(() -> llmRouter.chatModel().chat(REQUEST));
+        awaitStat("ollama", "queueDepth", 1);
+        // 排队已满，立即拒绝
+        BusinessException rejected = assertThrows(BusinessException.class, () -> llmRouter.chatModel().chat(REQUEST));
+        assertEquals(ResultCode.LLM_BUSY.getCode(), rejected.getCode());
+
+        Exception timedOut = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(timedOut.getCause() instanceof BusinessException);
+        assertEquals(ResultCode.LLM_BUSY.getCode(), ((BusinessException) timedOut.getCause()).getCode());
+
+        proceed.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        Map<String, Object> stats = stats("ollama");
+        assertEquals(3L, stats.get("requestCount"));
+        assertEquals(1L, stats.get("rejectedCount"));
+        assertEquals(1L, stats.get("queueTimeoutCount"));
+        assertEquals(1L, stats.get("successCount"));
+        verify(ollamaChatLanguageModel, times(1)).chat(REQUEST);
+    }
+
+    @Test
+    void failsOverToSecondaryAndSkipsUnhealthyPrimary() {
+        llmRouter.init();
+        when(ollamaChatLanguageModel.chat(REQUEST)).thenThrow(new IllegalStateException("连接被拒绝"));
+        when(qwenChatLanguageModel.chat(REQUEST)).thenReturn(response("来自qwen"));
+
+        // 主后端失败，在备用后端上重试
+        assertEquals("来自qwen", llmRouter.chatModel().chat(REQUEST).aiMessage().text());
+        assertEquals(false, stats("ollama").get("healthy"));
+        // 主后端冷却期内直接走备用后端
+        assertEquals("来自qwen", llmRouter.chatModel().chat(REQUEST).aiMessage().text());
+
+        verify(ollamaChatLanguageModel, times(1)).chat(REQUEST);
+        verify(qwenChatLanguageModel, times(2)).chat(REQUEST);
+        assertEquals(1L, stats("ollama").get("failureCount"));
+        assertEquals(1L, stats("ollama").get("requestCount"));
+        assertEquals(2L, stats("qwen").get("successCount"));
+    }
+
+    @Test
+    void streamFailsOverBeforeFirstToken() throws Exception {
+        llmRouter.init();
+        doAnswer(invocation -> {
+            invocation.<StreamingChatResponseHandler>getArgument(1).onError(new IllegalStateException("连接被拒绝"));
+            return null;
+        }).when(ollamaStreamingChatModel).chat(any(ChatRequest.class), any());
+        doAnswer(invocation -> {
+            StreamingChatResponseHandler handler = invocation.getArgument(1);
+            handler.onPartialResponse("你");
+            handler.onPartialResponse("好");
+            handler.onCompleteResponse(response("你好"));
+            return null;
+        }).when(qwenStreamingChatLanguageModel).chat(any(ChatRequest.class), any());
+
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        CompletableFuture<ChatResponse> done = new CompletableFuture<>();
+        llmRouter.streamingModel().chat(REQUEST, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                tokens.add(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                done.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                done.completeExceptionally(error);
+            }
+        });
+
+        assertEquals("你好", done.get(5, TimeUnit.SECONDS).aiMessage().text());
+        assertEquals(List.of("你", "好"), tokens);
+        assertEquals(1L, stats("ollama").get("failureCount"));
+        assertEquals(1L, stats("qwen").get("successCount"));
+        verify(ollamaChatLanguageModel, never()).chat(any(ChatRequest.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats(String backend) {
+        return (Map<String, Object>) llmRouter.getStats().get(backend);
+    }
+
+    private void awaitStat(String backend, String key, Object expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(stats(backend).get(key)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, stats(backend).get(key));
+    }
+
+    private static ChatResponse response(String text) {
+        return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.lore.master.service.ai;
+
+import com.lore.master.data.dto.chat.ChatStreamFrame;
+import com.lore.master.service.config.ChatStreamConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 可续传流式回答测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ResumableChatStreamsTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Spy
+    private ChatStreamConfig chatStreamConfig = new ChatStreamConfig();
+
+    @InjectMocks
+    private ResumableChatStreams resumableChatStreams;
+
+    private final AtomicInteger generations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        chatStreamConfig.setCoalesceEnabled(false);
+        resumableChatStreams.init();
+    }
+
+    @Test
+    void resumeReplaysFramesWithoutGeneratingAgain() {
+        List<ChatStreamFrame> first = resumableChatStreams.subscribe("u1", "m1", -1, source("a", "b")).collectList().block(TIMEOUT);
+        assertEquals(List.of("start", "delta", "delta", "end"), types(first));
+
+        List<ChatStreamFrame> resumed = resumableChatStreams.subscribe("u1", "m1", 1, source("x")).collectList().block(TIMEOUT);
+        assertEquals(List.of(2L, 3L), resumed.stream().map(ChatStreamFrame::getSeq).toList());
+        assertEquals(1, generations.get());
+    }
+
+    @Test
+    void resumeOfUnknownStreamReturnsTerminalError() {
+        List<ChatStreamFrame> frames = resumableChatStreams.subscribe("u1", "gone", 4, source("x")).collectList().block(TIMEOUT);
+
+        assertEquals(List.of("error"), types(frames));
+        assertEquals(5L, frames.get(0).getSeq());
+        assertEquals(0, generations.get());
+    }
+
+    @Test
+    void requestWithoutMessageDoesNotStartStream() {
+        List<ChatStreamFrame> frames = resumableChatStreams.subscribe("u1", "m2", -1, null).collectList().block(TIMEOUT);
+
+        assertEquals(List.of("error"), types(frames));
+    }
+
+    private Supplier<Flux<String>> source(String... tokens) {
+        return () -> {
+            generations.incrementAndGet();
+            return Flux.just(tokens);
+        };
+    }
+
+    private static List<String> types(List<ChatStreamFrame> frames) {
+        return frames.stream().map(ChatStreamFrame::getType).toList();
+    }
+}
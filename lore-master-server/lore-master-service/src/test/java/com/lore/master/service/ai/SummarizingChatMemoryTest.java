@@ -0,0 +1,55 @@
+package com.lore.master.service.ai;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Token预算记忆测试
+ */
+class SummarizingChatMemoryTest {
+
+    @Test
+    void restoreTrimsToBudgetWithoutSummarizing() {
+        CountingSummarizer summarizer = new CountingSummarizer();
+        SummarizingChatMemory memory = new SummarizingChatMemory("u1", 60, new EstimatingTokenizer(), summarizer);
+
+        memory.restore(conversation(20));
+        assertEquals(0, summarizer.submitted);
+        assertTrue(memory.tokenCount() <= 60);
+        // 保留最近的整轮对话
+        List<ChatMessage> messages = memory.messages();
+        assertTrue(messages.get(0) instanceof UserMessage);
+        assertEquals(AiMessage.from("回答19"), messages.get(messages.size() - 1));
+
+        // 重建后的新消息超出预算时照常摘要
+        memory.add(UserMessage.from("新的问题，比较长的一段描述"));
+        assertEquals(1, summarizer.submitted);
+    }
+
+    private static List<ChatMessage> conversation(int rounds) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            messages.add(UserMessage.from("问题" + i));
+            messages.add(AiMessage.from("回答" + i));
+        }
+        return messages;
+    }
+
+    private static class CountingSummarizer extends ChatMemorySummarizer {
+
+        int submitted;
+
+        @Override
+        void submit(SummarizingChatMemory memory) {
+            submitted++;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.lore.master.service.ai;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lore.master.data.dto.chat.ChatStreamFrame;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 逐token发送 vs TokenCoalescer合并发送 的帧率和CPU开销对比
+ *
+ * 模拟若干路并发的流式回答，每路按固定速率吐出短token，每帧做一次JSON序列化并写一次/dev/null
+ * （对应WebSocket下行帧的编码和系统调用开销），统计每秒帧数和每路流每秒消耗的CPU时间，直接运行main方法即可
+ */
+public class TokenCoalescerBenchmark {
+
+    private static final int STREAMS = 200;
+    private static final int TOKENS_PER_SECOND = 150;
+    private static final Duration DURATION = Duration.ofSeconds(5);
+    private static final String[] TOKENS = {"Spring", " Boot", "是", "一个", "基于", "Spring", "的", "快速", "开发", "框架", "，", "它"};
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    public static void main(String[] args) throws Exception {
+        // 预热
+        run("warmup", false, Duration.ofSeconds(2));
+        run("warmup", true, Duration.ofSeconds(2));
+
+        run("per-token", false, DURATION);
+        run("coalesced(50ms/1KB)", true, DURATION);
+    }
+
+    private static void run(String name, boolean coalesce, Duration duration) throws Exception {
+        LongAdder frames = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        long tokensPerStream = TOKENS_PER_SECOND * duration.toSeconds();
+        CountDownLatch done = new CountDownLatch(STREAMS);
+
+        long cpuBefore = processCpuNanos();
+        long startTime = System.nanoTime();
+        List<Disposable> subscriptions = new ArrayList<>();
+        List<FileChannel> channels = new ArrayList<>();
+        for (int stream = 0; stream < STREAMS; stream++) {
+            AtomicLong seq = new AtomicLong();
+            FileChannel channel = FileChannel.open(Path.of("/dev/null"), StandardOpenOption.WRITE);
+            channels.add(channel);
+            Flux<String> tokens = Flux.interval(Duration.ofNanos(1_000_000_000L / TOKENS_PER_SECOND))
+                    .take(tokensPerStream)
+                    .map(i -> TOKENS[(int) (i % TOKENS.length)]);
+            if (coalesce) {
+                tokens = TokenCoalescer.coalesce(tokens, Duration.ofMillis(50), 1024);
+            }
+            subscriptions.add(tokens.doFinally(signal -> done.countDown()).subscribe(delta -> {
+                ChatStreamFrame frame = ChatStreamFrame.of(ChatStreamFrame.DELTA, seq.getAndIncrement(), "m1");
+                frame.setDelta(delta);
+                try {
+                    byte[] payload = OBJECT_MAPPER.writeValueAsBytes(frame);
+                    channel.write(ByteBuffer.wrap(payload));
+                    bytes.add(payload.length);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                frames.increment();
+            }));
+        }
+        done.await();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        double cpuMillis = (processCpuNanos() - cpuBefore) / 1e6;
+        subscriptions.forEach(Disposable::dispose);
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+
+        System.out.printf("%-20s streams=%d frames/s=%.0f (%.1f per stream) bytes/s=%.0f cpu=%.2f ms per stream-second%n",
+                name, STREAMS, frames.sum() / seconds, frames.sum() / seconds / STREAMS,
+                bytes.sum() / seconds, cpuMillis / STREAMS / seconds);
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
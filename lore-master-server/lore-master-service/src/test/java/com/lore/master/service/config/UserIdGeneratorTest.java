@@ -0,0 +1,51 @@
+package com.lore.master.service.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户ID编码测试：序列值与8位编码一一对应
+ */
+class UserIdGeneratorTest {
+
+    private static final long HALF = 34L * 34 * 34 * 34;
+    private static final long CODE_SPACE = HALF * HALF;
+
+    @Test
+    void blockOfSequencesRoundTripsToDistinctCodes() {
+        Set<String> codes = new HashSet<>();
+        for (long sequence = 0; sequence < 200_000; sequence++) {
+            String code = UserIdGenerator.encode(sequence);
+            assertEquals(sequence, UserIdGenerator.decode(code));
+            assertTrue(codes.add(code), "重复编码: " + code);
+        }
+    }
+
+    @Test
+    void boundaryValuesRoundTrip() {
+        Set<String> codes = new HashSet<>();
+        long[] boundaries = {0, 1, HALF - 1, HALF, HALF + 1, CODE_SPACE - HALF, CODE_SPACE - 2, CODE_SPACE - 1};
+        for (long sequence : boundaries) {
+            String code = UserIdGenerator.encode(sequence);
+            assertEquals(8, code.length());
+            assertEquals(sequence, UserIdGenerator.decode(code));
+            assertTrue(codes.add(code), "重复编码: " + code);
+            assertTrue(new UserIdGenerator().isValidUserId("2026" + code), code);
+        }
+    }
+
+    @Test
+    void outOfRangeAndInvalidInputsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> UserIdGenerator.encode(-1));
+        assertThrows(IllegalArgumentException.class, () -> UserIdGenerator.encode(CODE_SPACE));
+        assertThrows(IllegalArgumentException.class, () -> UserIdGenerator.decode("0000000"));
+        // I 和 O 不在字符表中
+        assertThrows(IllegalArgumentException.class, () -> UserIdGenerator.decode("0000000I"));
+    }
+}
@@ -0,0 +1,282 @@
+package com.lore.master.service.consumer.chat.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.lore.master.common.util.SnowflakeIdGenerator;
+import com.lore.master.data.entity.consumer.ConsumerChatMessage;
+import com.lore.master.service.config.ChatPersistenceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * 聊天消息写入器测试：spool追加、崩溃回放、队列溢出回放、失败重试和分段删除
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatMessageWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private ChatPersistenceConfig chatPersistenceConfig = new ChatPersistenceConfig();
+
+    @Spy
+    private SnowflakeIdGenerator snowflakeIdGenerator = new SnowflakeIdGenerator(1, 0);
+
+    @InjectMocks
+    private ChatMessageWriter chatMessageWriter;
+
+    @TempDir
+    Path root;
+
+    private Path nodeDir;
+
+    // 每次INSERT批次写入的消息ID
+    private final List<List<String>> insertedBatches = new CopyOnWriteArrayList<>();
+
+    // 包含该消息的INSERT批次抛出异常，模拟数据库不可用
+    private volatile String failOnMessageId;
+
+    private boolean opened;
+
+    @BeforeEach
+    void setUp() {
+        chatPersistenceConfig.setSpoolDir(root.toString());
+        nodeDir = root.resolve("node-1");
+        lenient().doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (!sql.startsWith("INSERT")) {
+                return new int[0][];
+            }
+            Collection<ConsumerChatMessage> messages = invocation.getArgument(1);
+            List<String> ids = messages.stream().map(ConsumerChatMessage::getMessageId).toList();
+            if (failOnMessageId != null && ids.contains(failOnMessageId)) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            insertedBatches.add(ids);
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (opened) {
+            chatMessageWriter.closeSpool();
+        }
+    }
+
+    @Test
+    void writeAppendsToSpoolAndFlushDeletesSegment() throws IOException {
+        open();
+        chatMessageWriter.write(message("m1"));
+        chatMessageWriter.write(message("m2"));
+
+        List<Path> segments = segments(nodeDir);
+        assertEquals(1, segments.size());
+        assertEquals(List.of("m1", "m2"), readIds(segments.get(0)));
+
+        assertTrue(chatMessageWriter.flushOnce());
+        assertEquals(List.of(List.of("m1", "m2")), insertedBatches);
+        // 已落库的分段删除，只剩新打开的空分段
+        List<Path> remaining = segments(nodeDir);
+        assertEquals(1, remaining.size());
+        assertEquals(0, Files.size(remaining.get(0)));
+        assertFalse(remaining.contains(segments.get(0)));
+    }
+
+    @Test
+    void failedInsertIsRetriedAndSegmentKeptUntilWritten() throws IOException {
+        open();
+        failOnMessageId = "m1";
+        chatMessageWriter.write(message("m1"));
+        assertFalse(chatMessageWriter.flushOnce());
+        assertEquals(List.of("m1"), nonEmptySegmentIds());
+
+        failOnMessageId = null;
+        chatMessageWriter.write(message("m2"));
+        assertTrue(chatMessageWriter.flushOnce());
+        assertEquals(List.of(List.of("m1", "m2")), insertedBatches);
+        assertTrue(nonEmptySegmentIds().isEmpty());
+    }
+
+    @Test
+    void crashReplayStreamsSegmentsInBatches() throws IOException {
+        Files.createDirectories(nodeDir);
+        writeSegment(nodeDir.resolve("chat-spool-5.log"), "a1", "a2", "a3", "a4", "a5");
+        // 崩溃时写了一半的行
+        Files.writeString(nodeDir.resolve("chat-spool-5.log"), "{\"messageId\":\"a6\",", StandardOpenOption.APPEND);
+        chatPersistenceConfig.setBatchSize(2);
+        open();
+
+        assertTrue(chatMessageWriter.flushOnce());
+        assertEquals(List.of(List.of("a1", "a2"), List.of("a3", "a4"), List.of("a5")), insertedBatches);
+        assertFalse(Files.exists(nodeDir.resolve("chat-spool-5.log")));
+    }
+
+    @Test
+    void replayFailureKeepsOnlyUnwrittenSegments() throws IOException {
+        Files.createDirectories(nodeDir);
+        writeSegment(nodeDir.resolve("chat-spool-1.log"), "a1");
+        writeSegment(nodeDir.resolve("chat-spool-2.log"), "b1");
+        open();
+
+        failOnMessageId = "b1";
+        assertFalse(chatMessageWriter.flushOnce());
+        assertFalse(Files.exists(nodeDir.resolve("chat-spool-1.log")));
+        assertTrue(Files.exists(nodeDir.resolve("chat-spool-2.log")));
+
+        failOnMessageId = null;
+        assertTrue(chatMessageWriter.flushOnce());
+        assertEquals(List.of(List.of("a1"), List.of("b1")), insertedBatches);
+        assertFalse(Files.exists(nodeDir.resolve("chat-spool-2.log")));
+    }
+
+    @Test
+    void queueOverflowReplaysFromSpool() throws IOException {
+        chatPersistenceConfig.setQueueCapacity(2);
+        open();
+        chatMessageWriter.write(message("m1"));
+        chatMessageWriter.write(message("m2"));
+        chatMessageWriter.write(message("m3"));
+
+        assertTrue(chatMessageWriter.flushOnce());
+        assertEquals(List.of(List.of("m1", "m2", "m3")), insertedBatches);
+        assertTrue(nonEmptySegmentIds().isEmpty());
+    }
+
+    @Test
+    void adoptsSegmentsOnlyFromExitedInstances() throws IOException {
+        Path exited = root.resolve("node-2");
+        Path running = root.resolve("node-3");
+        Files.createDirectories(exited);
+        Files.createDirectories(running);
+        writeSegment(exited.resolve("chat-spool-1.log"), "x1");
+        writeSegment(running.resolve("chat-spool-1.log"), "r1");
+
+        try (FileChannel channel = FileChannel.open(running.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            open();
+            assertTrue(chatMessageWriter.flushOnce());
+        }
+
+        assertEquals(List.of(List.of("x1")), insertedBatches);
+        assertTrue(segments(exited).isEmpty());
+        // 运行中实例的分段保持原样
+        assertEquals(List.of("r1"), readIds(running.resolve("chat-spool-1.log")));
+    }
+
+    @Test
+    void lockedSpoolDirRejectsSecondInstance() throws IOException {
+        Files.createDirectories(nodeDir);
+        try (FileChannel channel = FileChannel.open(nodeDir.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            assertThrows(IllegalStateException.class, () -> chatMessageWriter.openSpool());
+        }
+    }
+
+    @Test
+    void concurrentWritesWithFsyncAreAllSpooled() throws Exception {
+        chatPersistenceConfig.setSpoolFsync(true);
+        open();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        chatMessageWriter.write(message(thread + "-" + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(400, nonEmptySegmentIds().size());
+        assertTrue(chatMessageWriter.flushOnce());
+        assertEquals(400, insertedBatches.stream().mapToInt(List::size).sum());
+    }
+
+    private void open() throws IOException {
+        chatMessageWriter.openSpool();
+        opened = true;
+    }
+
+    private List<String> nonEmptySegmentIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (Path segment : segments(nodeDir)) {
+            ids.addAll(readIds(segment));
+        }
+        return ids;
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("chat-spool-")).sorted().toList();
+        }
+    }
+
+    private static List<String> readIds(Path segment) throws IOException {
+        return Files.readAllLines(segment, StandardCharsets.UTF_8).stream()
+                .map(line -> JSON.parseObject(line, ConsumerChatMessage.class).getMessageId())
+                .toList();
+    }
+
+    private static void writeSegment(Path segment, String... messageIds) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String messageId : messageIds) {
+            lines.append(JSON.toJSONString(message(messageId))).append('\n');
+        }
+        Files.writeString(segment, lines, StandardCharsets.UTF_8);
+    }
+
+    private static ConsumerChatMessage message(String messageId) {
+        return ConsumerChatMessage.builder()
+                .messageId(messageId)
+                .userId("u1")
+                .sessionId("s1")
+                .role(ConsumerChatMessage.MessageRole.user)
+                .content("你好")
+                .createTime(LocalDateTime.now())
+                .build();
+    }
+}
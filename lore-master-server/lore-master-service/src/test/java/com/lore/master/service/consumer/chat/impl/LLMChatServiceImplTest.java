@@ -0,0 +1,177 @@
+package com.lore.master.service.consumer.chat.impl;
+
+import com.lore.master.data.entity.consumer.ConsumerChatMessage;
+import com.lore.master.service.ai.AssistantServiceConf;
+import com.lore.master.service.ai.SemanticResponseCache;
+import com.lore.master.service.consumer.chat.ConsumerChatMessageService;
+import com.lore.master.service.consumer.chat.UserChatMemoryService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.ToolExecution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 流式对话与语义缓存测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LLMChatServiceImplTest {
+
+    private static final String QUESTION = "什么是JVM";
+
+    @Mock
+    private AssistantServiceConf.Assistant assistant;
+
+    @Mock
+    private AssistantServiceConf.UserAssistant userAssistant;
+
+    @Mock
+    private ConsumerChatMessageService chatMessageService;
+
+    @Mock
+    private UserChatMemoryService userChatMemoryService;
+
+    @Mock
+    private SemanticResponseCache semanticResponseCache;
+
+    @InjectMocks
+    private LLMChatServiceImpl llmChatService;
+
+    private SemanticResponseCache.Probe probe;
+
+    @BeforeEach
+    void setUp() {
+        probe = mock(SemanticResponseCache.Probe.class);
+        lenient().when(chatMessageService.saveUserMessageAsync(any())).thenReturn(ConsumerChatMessage.builder().sessionId("s1").build());
+    }
+
+    @Test
+    void onlyAnswerWithoutHistoryIsCached() {
+        // 同一个问题：alice 的记忆里有此前的对话，bob 没有
+        ChatMemory aliceMemory = MessageWindowChatMemory.withMaxMessages(10);
+        aliceMemory.add(UserMessage.from("我在准备Java面试，之前学过GC"));
+        aliceMemory.add(AiMessage.from("好的，我们继续"));
+        when(userChatMemoryService.getUserChatMemory("alice")).thenReturn(aliceMemory);
+        when(userChatMemoryService.getUserChatMemory("bob")).thenReturn(MessageWindowChatMemory.withMaxMessages(10));
+        when(userAssistant.stream("alice", QUESTION)).thenReturn(new FakeTokenStream("结合你准备的面试，", "JVM是..."));
+        when(userAssistant.stream("bob", QUESTION)).thenReturn(new FakeTokenStream("JVM是", "Java虚拟机"));
+        when(semanticResponseCache.probe(QUESTION)).thenReturn(probe);
+
+        List<String> aliceTokens = llmChatService.sendMessageStream(QUESTION, "alice").collectList().block();
+        assertEquals(List.of("结合你准备的面试，", "JVM是..."), aliceTokens);
+        verify(semanticResponseCache, never()).store(any(), any(), anyLong());
+
+        llmChatService.sendMessageStream(QUESTION, "bob").collectList().block();
+        verify(semanticResponseCache).store(eq(probe), eq("JVM是Java虚拟机"), anyLong());
+        verify(semanticResponseCache).probe(QUESTION);
+    }
+
+    @Test
+    void followUpInConversationSkipsCache() {
+        // "为什么"之类的追问可能与缓存中的独立问题相似，已有对话时不查缓存，也不回放
+        ChatMemory memory = MessageWindowChatMemory.withMaxMessages(10);
+        memory.add(UserMessage.from(QUESTION));
+        memory.add(AiMessage.from("JVM是Java虚拟机"));
+        when(userChatMemoryService.getUserChatMemory("alice")).thenReturn(memory);
+        when(userAssistant.stream("alice", "为什么")).thenReturn(new FakeTokenStream("因为", "..."));
+
+        assertEquals(List.of("因为", "..."), llmChatService.sendMessageStream("为什么", "alice").collectList().block());
+        verify(semanticResponseCache, never()).probe(any());
+        verify(semanticResponseCache, never()).store(any(), any(), anyLong());
+        verify(userChatMemoryService, never()).addAssistantMessage(any(), any());
+    }
+
+    @Test
+    void sharedAssistantAnswerIsNotCached() {
+        when(assistant.chat(QUESTION)).thenReturn("JVM是Java虚拟机");
+
+        assertEquals("JVM是Java虚拟机", llmChatService.sendMessage(QUESTION, "alice"));
+        verify(semanticResponseCache, never()).probe(any());
+        verify(semanticResponseCache, never()).store(any(), any(), anyLong());
+    }
+
+    /**
+     * 在start时同步回放给定token的TokenStream
+     */
+    private static class FakeTokenStream implements TokenStream {
+
+        private final List<String> tokens;
+        private Consumer<String> partialHandler;
+        private Consumer<ChatResponse> completeHandler;
+
+        FakeTokenStream(String... tokens) {
+            this.tokens = List.of(tokens);
+        }
+
+        @Override
+        public TokenStream onPartialResponse(Consumer<String> handler) {
+            partialHandler = handler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onNext(Consumer<String> handler) {
+            return onPartialResponse(handler);
+        }
+
+        @Override
+        public TokenStream onRetrieved(Consumer<List<Content>> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onToolExecuted(Consumer<ToolExecution> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onCompleteResponse(Consumer<ChatResponse> handler) {
+            completeHandler = handler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onComplete(Consumer<Response<AiMessage>> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onError(Consumer<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream ignoreErrors() {
+            return this;
+        }
+
+        @Override
+        public void start() {
+            tokens.forEach(partialHandler);
+            completeHandler.accept(ChatResponse.builder().aiMessage(AiMessage.from(String.join("", tokens))).build());
+        }
+    }
+}
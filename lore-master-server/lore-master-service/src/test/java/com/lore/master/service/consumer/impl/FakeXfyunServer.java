@@ -0,0 +1,227 @@
+package com.lore.master.service.consumer.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地模拟的讯飞听写WebSocket服务，用于测试和压测XfyunVoiceClient
+ *
+ * 按讯飞协议接收 status=0/1/2 的JSON帧，收到结束帧后返回一段识别结果"收到N字节"并关闭连接。
+ * 可设置每帧处理耗时和结束后的识别耗时来模拟真实服务的处理速度。
+ * 讯飞要求按音频实时速率发送，可设置最小帧间隔：音频帧到达明显快于该间隔时返回 {@link #TOO_FAST_CODE} 并关闭连接
+ */
+public class FakeXfyunServer implements Closeable {
+
+    /**
+     * 发送过快时返回的错误码，模拟值，不是讯飞文档中的错误码
+     */
+    public static final int TOO_FAST_CODE = 10899;
+
+    private final MockWebServer server = new MockWebServer();
+
+    private volatile long frameDelayMillis;
+    private volatile long finalDelayMillis;
+    private volatile int errorCode;
+    private volatile boolean silent;
+    private volatile long minFrameIntervalMillis;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger maxOpenConnections = new AtomicInteger();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong audioFrames = new AtomicLong();
+    private final CountDownLatch firstAudioFrame = new CountDownLatch(1);
+
+    public FakeXfyunServer() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().withWebSocketUpgrade(new Session());
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * 客户端配置用的识别地址
+     */
+    public String url() {
+        return "ws://" + server.getHostName() + ":" + server.getPort() + "/v2/iat";
+    }
+
+    /**
+     * 每个音频帧的处理耗时
+     */
+    public FakeXfyunServer frameDelayMillis(long millis) {
+        this.frameDelayMillis = millis;
+        return this;
+    }
+
+    /**
+     * 收到结束帧后返回结果前的耗时
+     */
+    public FakeXfyunServer finalDelayMillis(long millis) {
+        this.finalDelayMillis = millis;
+        return this;
+    }
+
+    /**
+     * 收到第一帧后直接返回错误码，0表示正常识别
+     */
+    public FakeXfyunServer errorCode(int code) {
+        this.errorCode = code;
+        return this;
+    }
+
+    /**
+     * 不返回任何结果，用于超时测试
+     */
+    public FakeXfyunServer silent(boolean silent) {
+        this.silent = silent;
+        return this;
+    }
+
+    /**
+     * 音频帧的最小平均间隔，0表示不检查。第n帧（从0开始）距第一帧不得早于 (n-2)*间隔，允许两帧的抖动
+     */
+    public FakeXfyunServer minFrameIntervalMillis(long millis) {
+        this.minFrameIntervalMillis = millis;
+        return this;
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public int getMaxOpenConnections() {
+        return maxOpenConnections.get();
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public long getAudioFrames() {
+        return audioFrames.get();
+    }
+
+    /**
+     * 收到任意连接的第一个音频帧时释放
+     */
+    public CountDownLatch firstAudioFrame() {
+        return firstAudioFrame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * 一次识别连接
+     */
+    private final class Session extends WebSocketListener {
+        private long audioBytes;
+        private boolean open;
+        private long firstAudioNanos;
+        private int audioIndex;
+
+        @Override
+        public synchronized void onOpen(WebSocket webSocket, Response response) {
+            open = true;
+            totalConnections.incrementAndGet();
+            maxOpenConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            JSONObject data = JSON.parseObject(text).getJSONObject("data");
+            int status = data.getIntValue("status");
+            if (status == 0 && errorCode != 0) {
+                webSocket.send("{\"code\":" + errorCode + ",\"message\":\"fake error\",\"sid\":\"fake\"}");
+                close(webSocket);
+                return;
+            }
+            String audio = data.getString("audio");
+            if (audio != null && !audio.isEmpty()) {
+                if (tooFast()) {
+                    webSocket.send("{\"code\":" + TOO_FAST_CODE + ",\"message\":\"audio sent too fast\",\"sid\":\"fake\"}");
+                    close(webSocket);
+                    return;
+                }
+                audioBytes += Base64.getDecoder().decode(audio).length;
+                audioFrames.incrementAndGet();
+                firstAudioFrame.countDown();
+                sleep(frameDelayMillis);
+            }
+            if (status == 2 && !silent) {
+                sleep(finalDelayMillis);
+                webSocket.send("{\"code\":0,\"message\":\"success\",\"sid\":\"fake\",\"data\":{\"status\":2,"
+                        + "\"result\":{\"ws\":[{\"cw\":[{\"w\":\"收到" + audioBytes + "字节\"}]}]}}}");
+                close(webSocket);
+            }
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            close(webSocket);
+        }
+
+        @Override
+        public void onClosed(WebSocket webSocket, int code, String reason) {
+            release();
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            release();
+        }
+
+        private boolean tooFast() {
+            long now = System.nanoTime();
+            int index = audioIndex++;
+            if (index == 0) {
+                firstAudioNanos = now;
+                return false;
+            }
+            long min = minFrameIntervalMillis;
+            return min > 0 && now - firstAudioNanos < TimeUnit.MILLISECONDS.toNanos((index - 2) * min);
+        }
+
+        private void close(WebSocket webSocket) {
+            webSocket.close(1000, null);
+        }
+
+        private synchronized void release() {
+            if (open) {
+                open = false;
+                openConnections.decrementAndGet();
+            }
+        }
+
+        private void sleep(long millis) {
+            if (millis <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.service.admin.KnowledgePointQuestions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 树状数组抽样和掌握度向量测试
+ */
+class MasteryVectorTest {
+
+    @Test
+    void fenwickFindsIndexByPrefixSum() {
+        FenwickSampler sampler = new FenwickSampler(new long[]{3, 0, 5, 2});
+        assertEquals(10, sampler.total());
+        assertEquals(0, sampler.find(0));
+        assertEquals(0, sampler.find(2));
+        // 权重为0的下标不会被选中
+        assertEquals(2, sampler.find(3));
+        assertEquals(2, sampler.find(7));
+        assertEquals(3, sampler.find(9));
+
+        sampler.set(1, 4);
+        sampler.set(2, 1);
+        assertEquals(10, sampler.total());
+        assertEquals(4, sampler.weight(1));
+        assertEquals(1, sampler.find(3));
+        assertEquals(2, sampler.find(7));
+        assertEquals(3, sampler.find(8));
+    }
+
+    @Test
+    void weakKnowledgePointsArePickedMoreOften() {
+        // 知识点 10、20，各有难度1和难度5的题目
+        KnowledgePointQuestions questions = questions(1, new long[]{10, 20});
+        MasteryVector vector = new MasteryVector(questions, 0);
+        for (int i = 0; i < 20; i++) {
+            vector.record(10, true, 0.3);
+        }
+        assertTrue(vector.mastery(10) > 0.99);
+        assertEquals(0.0, vector.mastery(20));
+
+        Random random = new Random(11);
+        int weak = 0;
+        int expertQuestions = 0;
+        for (int i = 0; i < 10000; i++) {
+            long id = vector.next(random);
+            if (id / 100 == 20) {
+                weak++;
+            } else if (id % 100 == 5) {
+                expertQuestions++;
+            }
+        }
+        // 权重约为 1050 : 50
+        assertTrue(weak > 9300 && weak < 9750, "weak=" + weak);
+        // 已掌握的知识点出难度5的题目
+        assertEquals(10000 - weak, expertQuestions);
+    }
+
+    @Test
+    void rebindKeepsMasteryByKnowledgePointId() {
+        MasteryVector vector = new MasteryVector(questions(1, new long[]{10, 20}), 0);
+        vector.record(20, true, 0.5);
+
+        vector.rebind(questions(2, new long[]{5, 20, 30}));
+        assertEquals(0.5, vector.mastery(20));
+        assertEquals(0.0, vector.mastery(30));
+        assertNull(vector.mastery(10));
+        assertNull(vector.record(10, true, 0.5));
+    }
+
+    /**
+     * 每个知识点 k 有两道题：k*100+1（难度1）和 k*100+5（难度5）
+     */
+    private static KnowledgePointQuestions questions(long version, long[] knowledgePointIds) {
+        long[][][] questionIds = new long[knowledgePointIds.length][KnowledgePointQuestions.DIFFICULTY_BUCKETS][];
+        for (int i = 0; i < knowledgePointIds.length; i++) {
+            for (int bucket = 0; bucket < KnowledgePointQuestions.DIFFICULTY_BUCKETS; bucket++) {
+                questionIds[i][bucket] = bucket == 1 || bucket == 5
+                        ? new long[]{knowledgePointIds[i] * 100 + bucket}
+                        : new long[0];
+            }
+        }
+        return new KnowledgePointQuestions(version, knowledgePointIds, questionIds);
+    }
+}
@@ -0,0 +1,81 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.data.dto.consumer.PracticeAnswerRequest;
+import com.lore.master.data.entity.admin.Question;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 练习判分测试
+ */
+class PracticeGradingTest {
+
+    @Test
+    void multipleChoiceIgnoresOrderCaseAndSeparators() {
+        assertTrue(grade(2, "A,C", "ca"));
+        assertTrue(grade(2, "A,C", "C、A"));
+        assertTrue(grade(2, "ABD", "d b a"));
+        assertTrue(grade(2, "A,C", "A,C,C"));
+        assertFalse(grade(2, "A,C", "A"));
+        assertFalse(grade(2, "A,C", "A,B,C"));
+        assertFalse(grade(2, "A,C", ""));
+    }
+
+    @Test
+    void judgementAcceptsEquivalentSpellings() {
+        assertTrue(grade(3, "TRUE", "对"));
+        assertTrue(grade(3, "对", " yes "));
+        assertTrue(grade(3, "√", "t"));
+        assertTrue(grade(3, "错误", "False"));
+        assertTrue(grade(3, "×", "0"));
+        assertFalse(grade(3, "对", "错"));
+        assertFalse(grade(3, "FALSE", "1"));
+        // 无法识别的作答判错
+        assertFalse(grade(3, "对", "不知道"));
+    }
+
+    @Test
+    void judgementWithUnrecognizedCorrectAnswerFallsBackToText() {
+        assertTrue(grade(3, "Right", " right "));
+        assertFalse(grade(3, "Right", "TRUE"));
+    }
+
+    @Test
+    void singleChoiceAndBlankComparison() {
+        assertTrue(grade(1, "B", " b "));
+        assertFalse(grade(1, "B", "C"));
+        assertTrue(grade(4, "hash  map", " Hash map"));
+        assertFalse(grade(4, "hashmap", "hash map"));
+    }
+
+    @Test
+    void subjectiveQuestionsUseSelfAssessment() {
+        Question question = question(5, "参考答案");
+        assertNull(PracticeServiceImpl.grade(question, answer("随便写", null)));
+        assertEquals(true, PracticeServiceImpl.grade(question, answer("随便写", true)));
+        // 客观题未作答判错
+        assertEquals(false, PracticeServiceImpl.grade(question(1, "A"), answer(null, true)));
+    }
+
+    private static boolean grade(int type, String correctAnswer, String answer) {
+        return PracticeServiceImpl.grade(question(type, correctAnswer), answer(answer, null));
+    }
+
+    private static Question question(int type, String correctAnswer) {
+        Question question = new Question();
+        question.setType(type);
+        question.setCorrectAnswer(correctAnswer);
+        return question;
+    }
+
+    private static PracticeAnswerRequest.Answer answer(String answer, Boolean correct) {
+        PracticeAnswerRequest.Answer result = new PracticeAnswerRequest.Answer();
+        result.setAnswer(answer);
+        result.setCorrect(correct);
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.service.admin.impl.AdminBatchWriter;
+import com.lore.master.service.config.PracticeConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 作答统计聚合测试：写库参数和写库失败后增量保留
+ */
+@ExtendWith(MockitoExtension.class)
+class QuestionAnswerStatsTest {
+
+    @Mock
+    private AdminBatchWriter adminBatchWriter;
+
+    @Mock
+    private PlatformTransactionManager adminTransactionManager;
+
+    @Spy
+    private PracticeConfig practiceConfig = new PracticeConfig();
+
+    @InjectMocks
+    private QuestionAnswerStats questionAnswerStats;
+
+    // 题目ID -> 写库参数
+    private final Map<Long, PreparedStatement> statements = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        // 定时写库不在测试期间触发
+        practiceConfig.setFlushIntervalSeconds(3600);
+        questionAnswerStats.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        questionAnswerStats.destroy();
+    }
+
+    @Test
+    void flushWritesCorrectAndAttemptDeltasPerQuestion() throws Exception {
+        stubWriter();
+        questionAnswerStats.record(1L, true);
+        questionAnswerStats.record(1L, false);
+        questionAnswerStats.record(1L, true);
+        questionAnswerStats.record(2L, false);
+        assertEquals(4, questionAnswerStats.pendingAttempts());
+
+        assertEquals(2, questionAnswerStats.flush());
+        assertEquals(0, questionAnswerStats.pendingAttempts());
+        // 参数依次为 答对次数、作答次数、作答次数、题目ID
+        verifyParameters(statements.get(1L), 2, 3, 1);
+        verifyParameters(statements.get(2L), 0, 1, 2);
+
+        // 没有新的作答时不写库
+        assertEquals(0, questionAnswerStats.flush());
+    }
+
+    @Test
+    void failedWriteRestoresDeltas() throws Exception {
+        doThrow(new IllegalStateException("数据库不可用"))
+                .when(adminBatchWriter).batchUpdate(anyString(), anyCollection(), any());
+        questionAnswerStats.record(1L, true);
+        questionAnswerStats.record(1L, false);
+
+        assertThrows(IllegalStateException.class, () -> questionAnswerStats.flush());
+        assertEquals(2, questionAnswerStats.pendingAttempts());
+
+        // 失败期间的新作答与保留的增量合并，下次一起写入
+        questionAnswerStats.record(1L, true);
+        stubWriter();
+        assertEquals(1, questionAnswerStats.flush());
+        verifyParameters(statements.get(1L), 2, 3, 1);
+        assertEquals(1, statements.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubWriter() {
+        doAnswer(invocation -> {
+            Collection<Map.Entry<Long, Long>> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Map.Entry<Long, Long>> setter = invocation.getArgument(2);
+            for (Map.Entry<Long, Long> row : rows) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                setter.setValues(ps, row);
+                statements.put(row.getKey(), ps);
+            }
+            return rows.size();
+        }).when(adminBatchWriter).batchUpdate(anyString(), anyCollection(), any());
+    }
+
+    private static void verifyParameters(PreparedStatement ps, long correct, long attempts, long questionId) throws Exception {
+        verify(ps).setLong(1, correct);
+        verify(ps).setLong(2, attempts);
+        verify(ps).setLong(3, attempts);
+        verify(ps).setLong(4, questionId);
+    }
+}
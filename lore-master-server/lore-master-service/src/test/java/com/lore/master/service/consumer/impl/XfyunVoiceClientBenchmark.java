@@ -0,0 +1,151 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.service.config.XfyunVoiceConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 先缓冲整段音频再识别 vs 边上传边识别 的延迟对比
+ *
+ * 使用本地模拟的讯飞服务（每帧处理耗时、结束后识别耗时可调），客户端按固定速率模拟上传，
+ * 统计从开始上传到拿到结果的端到端延迟，以及请求线程被占用的时间，直接运行main方法即可
+ */
+public class XfyunVoiceClientBenchmark {
+
+    private static final int CONCURRENCY = 50;
+    private static final int ROUNDS = 3;
+    private static final int AUDIO_BYTES = 1280 * 50;
+    // 上传速度：与实时录音一致，每40ms到达一帧，整段约2秒
+    private static final long UPLOAD_INTERVAL_MILLIS = 40;
+    private static final long SERVER_FRAME_MILLIS = 5;
+    private static final long SERVER_FINAL_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        try (FakeXfyunServer server = new FakeXfyunServer()
+                .frameDelayMillis(SERVER_FRAME_MILLIS)
+                .finalDelayMillis(SERVER_FINAL_MILLIS)) {
+            XfyunVoiceConfig config = new XfyunVoiceConfig();
+            config.setAppId("fake-app");
+            config.setApiKey("fake-key");
+            config.setApiSecret("fake-secret");
+            config.setUrl(server.url());
+            config.setMaxConcurrent(CONCURRENCY);
+            config.setRecognizeTimeout(60_000L);
+            XfyunVoiceClient client = new XfyunVoiceClient(config);
+            client.init();
+
+            ExecutorService requestThreads = Executors.newFixedThreadPool(CONCURRENCY);
+            try {
+                // 预热
+                run("warmup", client, requestThreads, false);
+                run("warmup", client, requestThreads, true);
+
+                run("buffered", client, requestThreads, false);
+                run("streaming", client, requestThreads, true);
+            } finally {
+                requestThreads.shutdownNow();
+                client.destroy();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, XfyunVoiceClient client, ExecutorService requestThreads, boolean streaming) throws Exception {
+        long[] latencies = new long[CONCURRENCY * ROUNDS];
+        long[] threadHeld = new long[CONCURRENCY * ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            Future<?>[] futures = new Future<?>[CONCURRENCY];
+            CompletableFuture<?>[] results = new CompletableFuture<?>[CONCURRENCY];
+            for (int i = 0; i < CONCURRENCY; i++) {
+                int index = round * CONCURRENCY + i;
+                CompletableFuture<String> result = new CompletableFuture<>();
+                results[i] = result;
+                futures[i] = requestThreads.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        InputStream upload = new PacedInputStream(AUDIO_BYTES, UPLOAD_INTERVAL_MILLIS);
+                        if (streaming) {
+                            // 请求线程只负责读上传，读完即释放
+                            client.recognizeVoiceAsync(upload, "pcm").whenComplete((text, error) -> {
+                                latencies[index] = System.nanoTime() - start;
+                                complete(result, text, error);
+                            });
+                        } else {
+                            // 原流程：先把上传读成byte[]，再同步等待识别结果
+                            byte[] audio = upload.readAllBytes();
+                            String text = client.recognizeVoice(audio, "pcm");
+                            latencies[index] = System.nanoTime() - start;
+                            result.complete(text);
+                        }
+                    } catch (Exception e) {
+                        result.completeExceptionally(e);
+                    }
+                    threadHeld[index] = System.nanoTime() - start;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            CompletableFuture.allOf(results).get(60, TimeUnit.SECONDS);
+        }
+
+        Arrays.sort(latencies);
+        Arrays.sort(threadHeld);
+        System.out.printf("%-10s concurrency=%d latency p50=%dms p99=%dms max=%dms, request thread held p50=%dms%n",
+                name, CONCURRENCY, percentile(latencies, 50), percentile(latencies, 99),
+                TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length - 1]), percentile(threadHeld, 50));
+    }
+
+    private static void complete(CompletableFuture<String> result, String text, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(text);
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = Math.min(sorted.length - 1, sorted.length * percentile / 100);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[index]);
+    }
+
+    /**
+     * 按固定速率每次到达一帧的输入流，模拟客户端上传
+     */
+    private static final class PacedInputStream extends InputStream {
+        private final ByteArrayInputStream data;
+        private final long intervalMillis;
+
+        private PacedInputStream(int size, long intervalMillis) {
+            this.data = new ByteArrayInputStream(new byte[size]);
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override
+        public int read() {
+            return data.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (data.available() == 0) {
+                return -1;
+            }
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return data.read(b, off, Math.min(len, 1280));
+        }
+    }
+}
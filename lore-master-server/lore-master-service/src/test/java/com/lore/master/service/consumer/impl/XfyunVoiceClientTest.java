@@ -0,0 +1,230 @@
+package com.lore.master.service.consumer.impl;
+
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
+import com.lore.master.service.config.XfyunVoiceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * XfyunVoiceClient 流式发送、并发限制和失败处理测试，使用本地模拟的讯飞服务
+ */
+class XfyunVoiceClientTest {
+
+    private FakeXfyunServer server;
+    private XfyunVoiceClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 客户端按40ms一帧发送，模拟服务按30ms检查，发送过快的帧会被拒绝
+        server = new FakeXfyunServer().minFrameIntervalMillis(30);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.destroy();
+        }
+        server.close();
+    }
+
+    @Test
+    void framesAreSentWhileUploadIsStillBeingRead() throws Exception {
+        client = newClient(4, 10_000);
+        CountDownLatch firstFrame = server.firstAudioFrame();
+        // 前半段读完后，只有服务端已经收到音频帧才继续读后半段
+        InputStream upload = new SequenceInputStream(new ByteArrayInputStream(new byte[1280 * 3]), new InputStream() {
+            private int remaining = 1280 * 2;
+
+            @Override
+            public int read() throws java.io.IOException {
+                if (remaining == 1280 * 2) {
+                    try {
+                        if (!firstFrame.await(5, TimeUnit.SECONDS)) {
+                            throw new java.io.IOException("上传读完前服务端没有收到音频帧");
+                        }
+                    } catch (InterruptedException e) {
+                        throw new java.io.IOException(e);
+                    }
+                }
+                return remaining-- > 0 ? 0 : -1;
+            }
+        });
+
+        String text = client.recognizeVoiceAsync(upload, "pcm").get(5, TimeUnit.SECONDS);
+        assertEquals("收到6400字节", text);
+        assertEquals(5, server.getAudioFrames());
+        assertEquals(0, client.getInFlightCount());
+    }
+
+    @Test
+    void recordedAudioIsPacedAtRealTimeRate() throws Exception {
+        client = newClient(4, 10_000);
+        long start = System.nanoTime();
+        CompletableFuture<String> result = client.recognizeVoiceAsync(new ByteArrayInputStream(new byte[1280 * 10]), "pcm");
+        // 录音文件一次读完，读取线程不等待发送
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals("收到12800字节", result.get(5, TimeUnit.SECONDS));
+        assertEquals(10, server.getAudioFrames());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(9 * 40));
+    }
+
+    @Test
+    void fullSendQueueBlocksTheReader() throws Exception {
+        XfyunVoiceConfig config = newConfig(4, 10_000);
+        config.setMaxPendingFrames(2);
+        client = new XfyunVoiceClient(config);
+        client.init();
+        long start = System.nanoTime();
+        CompletableFuture<String> result = client.recognizeVoiceAsync(new ByteArrayInputStream(new byte[1280 * 12]), "pcm");
+        // 队列只容纳2帧，读取线程随发送速率前进，读完时大部分帧已经发出
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(8 * 40));
+
+        assertEquals("收到15360字节", result.get(5, TimeUnit.SECONDS));
+        assertEquals(12, server.getAudioFrames());
+    }
+
+    @Test
+    void cancelWakesBlockedWriter() throws Exception {
+        XfyunVoiceConfig config = newConfig(4, 10_000);
+        config.setMaxPendingFrames(1);
+        client = new XfyunVoiceClient(config);
+        client.init();
+        XfyunVoiceClient.Recognition recognition = client.open("pcm");
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            byte[] frame = new byte[1280];
+            while (!recognition.isDone()) {
+                recognition.write(frame, 0, frame.length);
+            }
+        });
+        Thread.sleep(200);
+
+        assertFalse(writer.isDone());
+
+        recognition.cancel(new IllegalStateException("客户端取消"));
+        // 写入方从等待中返回并结束循环
+        writer.get(5, TimeUnit.SECONDS);
+        assertThrows(IllegalStateException.class, () -> recognition.write(new byte[1280], 0, 1280));
+        assertEquals(0, client.getInFlightCount());
+    }
+
+    @Test
+    void unpacedClientIsRejectedByServer() {
+        XfyunVoiceConfig config = newConfig(4, 10_000);
+        config.setFrameIntervalMillis(0L);
+        client = new XfyunVoiceClient(config);
+        client.init();
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> client.recognizeVoiceAsync(new ByteArrayInputStream(new byte[1280 * 10]), "pcm").get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains(String.valueOf(FakeXfyunServer.TOO_FAST_CODE)));
+    }
+
+    @Test
+    void syncApiStillWorks() {
+        client = newClient(4, 10_000);
+        assertEquals("收到1000字节", client.recognizeVoice(new byte[1000], "wav"));
+    }
+
+    @Test
+    void concurrencyLimitRejectsAndReleases() throws Exception {
+        client = newClient(2, 10_000);
+        XfyunVoiceClient.Recognition first = client.open("pcm");
+        XfyunVoiceClient.Recognition second = client.open("pcm");
+
+        BusinessException busy = assertThrows(BusinessException.class, () -> client.open("pcm"));
+        assertEquals(ResultCode.VOICE_BUSY.getCode(), busy.getCode());
+
+        first.write(new byte[100], 0, 100);
+        assertEquals("收到100字节", first.finish().get(5, TimeUnit.SECONDS));
+        XfyunVoiceClient.Recognition third = client.open("pcm");
+
+        second.finish().get(5, TimeUnit.SECONDS);
+        third.finish().get(5, TimeUnit.SECONDS);
+        assertEquals(0, client.getInFlightCount());
+    }
+
+    @Test
+    void recognitionsBeyondDefaultDispatcherLimitRunConcurrently() throws Exception {
+        client = newClient(70, 10_000);
+        List<XfyunVoiceClient.Recognition> recognitions = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            recognitions.add(client.open("pcm"));
+        }
+        // OkHttp调度器默认最多64个运行中的调用，WebSocket在连接关闭前一直占用名额
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getOpenConnections() < 70 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(70, server.getMaxOpenConnections());
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (XfyunVoiceClient.Recognition recognition : recognitions) {
+            results.add(recognition.finish());
+        }
+        for (CompletableFuture<String> result : results) {
+            assertEquals("收到0字节", result.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void serverErrorFailsTheRecognition() {
+        server.errorCode(10165);
+        client = newClient(4, 10_000);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> client.recognizeVoiceAsync(new ByteArrayInputStream(new byte[3000]), "pcm").get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("10165"));
+        assertEquals(0, client.getInFlightCount());
+    }
+
+    @Test
+    void silentServerTimesOutAndReleasesPermit() throws Exception {
+        server.silent(true);
+        client = newClient(1, 300);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> client.recognizeVoiceAsync(new ByteArrayInputStream(new byte[3000]), "pcm").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(0, client.getInFlightCount());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getOpenConnections() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getOpenConnections());
+    }
+
+    private XfyunVoiceClient newClient(int maxConcurrent, long recognizeTimeout) {
+        XfyunVoiceClient voiceClient = new XfyunVoiceClient(newConfig(maxConcurrent, recognizeTimeout));
+        voiceClient.init();
+        return voiceClient;
+    }
+
+    private XfyunVoiceConfig newConfig(int maxConcurrent, long recognizeTimeout) {
+        XfyunVoiceConfig config = new XfyunVoiceConfig();
+        config.setAppId("fake-app");
+        config.setApiKey("fake-key");
+        config.setApiSecret("fake-secret");
+        config.setUrl(server.url());
+        config.setMaxConcurrent(maxConcurrent);
+        config.setRecognizeTimeout(recognizeTimeout);
+        return config;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lore.master.service.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * StreamingExportWriter CSV转义和NDJSON格式测试
+ */
+class StreamingExportWriterTest {
+
+    private record Row(Long id, String name, LocalDateTime time, Boolean active) {
+    }
+
+    private static final List<ExportColumn<Row>> COLUMNS = List.of(
+            ExportColumn.of("id", "ID", Row::id),
+            ExportColumn.of("name", "名称", Row::name),
+            ExportColumn.of("time", "时间", Row::time),
+            ExportColumn.of("active", "启用", Row::active));
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2026, 10, 19, 8, 30, 0);
+
+    @Test
+    void csvQuotesSpecialCharactersAndStartsWithBom() throws IOException {
+        String csv = export(ExportFormat.CSV, new Row(1L, "a,\"b\"\nc", TIME, true), new Row(2L, null, null, null));
+        assertEquals("\uFEFFID,名称,时间,启用\r\n"
+                + "1,\"a,\"\"b\"\"\nc\",2026-10-19 08:30:00,true\r\n"
+                + "2,,,\r\n", csv);
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        String ndjson = export(ExportFormat.NDJSON, new Row(1L, "a\"b", TIME, true), new Row(2L, null, null, null));
+        assertEquals("{\"id\":1,\"name\":\"a\\\"b\",\"time\":\"2026-10-19 08:30:00\",\"active\":true}\n"
+                + "{\"id\":2,\"name\":null,\"time\":null,\"active\":null}\n", ndjson);
+    }
+
+    @Test
+    void formatDefaultsToCsvAndIgnoresCase() {
+        assertEquals(ExportFormat.CSV, ExportFormat.of(null));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.of(" NdJson "));
+    }
+
+    private static String export(ExportFormat format, Row... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingExportWriter<Row> writer = new StreamingExportWriter<>(out, format, COLUMNS);
+        for (Row row : rows) {
+            writer.write(row);
+        }
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -23,7 +23,7 @@ public class CorsConfig {
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowCredentials(true)
                         .allowedHeaders("*", "Authorization", "Content-Type", "X-Requested-With")
-                        .exposedHeaders("Authorization");
+                        .exposedHeaders("Authorization", "Content-Disposition");
             }
         };
     }
@@ -6,7 +6,9 @@ import com.lore.master.data.dto.business.CourseRequest;
 import com.lore.master.data.vo.business.CoursePageVO;
 import com.lore.master.data.vo.business.CourseListPageVO;
 import com.lore.master.data.vo.business.CourseVO;
+import com.lore.master.service.admin.AdminExportService;
 import com.lore.master.service.business.BusinessCourseService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
@@ -25,6 +27,7 @@ import jakarta.validation.Valid;
 public class AdminCourseController {
 
     private final BusinessCourseService courseService;
+    private final AdminExportService adminExportService;
 
     /**
      * 分页查询课程列表
@@ -124,4 +127,16 @@ public class AdminCourseController {
         Boolean result = courseService.deleteCourse(courseId);
         return Result.success(result);
     }
+
+    /**
+     * 流式导出课程文件（不含正文内容），format 为 csv（默认）或 ndjson
+     */
+    @PostMapping("/export")
+    public void exportCourses(@RequestBody CourseQueryDTO queryDTO,
+                              @RequestParam(required = false) String format,
+                              HttpServletResponse response) {
+        log.info("管理端导出课程，format：{}，参数：{}", format, queryDTO);
+        ExportDownload.write(response, "courses", format,
+                (exportFormat, out) -> adminExportService.exportCourses(queryDTO, exportFormat, out));
+    }
 }
@@ -5,6 +5,7 @@ import com.lore.master.data.dto.admin.AdminKnowledgeMapQueryRequest;
 import com.lore.master.data.dto.admin.AdminKnowledgeMapRequest;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapResponse;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapTreeResponse;
+import com.lore.master.data.vo.admin.BulkImportResult;
 import com.lore.master.service.admin.AdminKnowledgeMapService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +44,24 @@ public class AdminKnowledgeMapController {
         }
     }
 
+    /**
+     * 批量导入知识图谱节点，返回每个失败行的原因
+     */
+    @PostMapping("/importNodes")
+    public Result<BulkImportResult> importNodes(@RequestBody List<AdminKnowledgeMapRequest> requests) {
+        try {
+            log.info("批量导入知识图谱节点，节点数：{}", requests.size());
+
+            BulkImportResult result = adminKnowledgeMapService.importNodes(requests);
+
+            log.info("批量导入知识图谱节点完成，导入：{}，跳过：{}，失败：{}", result.getImported(), result.getSkipped(), result.getFailed());
+            return Result.success(result);
+        } catch (Exception e) {
+            log.error("批量导入知识图谱节点失败", e);
+            return Result.error("导入节点失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 删除知识图谱节点
      */
@@ -227,4 +246,67 @@ public class AdminKnowledgeMapController {
         }
     }
 
+    /**
+     * 查询节点的所有祖先节点
+     */
+    @PostMapping("/getAncestors")
+    public Result<List<AdminKnowledgeMapResponse>> getAncestors(@RequestParam String nodeCode) {
+        try {
+            List<AdminKnowledgeMapResponse> ancestors = adminKnowledgeMapService.getAncestors(nodeCode);
+            return Result.success(ancestors);
+        } catch (Exception e) {
+            log.error("查询祖先节点失败，节点编码：{}", nodeCode, e);
+            return Result.error("查询祖先节点失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询节点指定距离内的子孙节点
+     */
+    @PostMapping("/getDescendants")
+    public Result<List<AdminKnowledgeMapResponse>> getDescendants(
+            @RequestParam String nodeCode,
+            @RequestParam(required = false) Integer depthLimit) {
+        try {
+            List<AdminKnowledgeMapResponse> descendants = adminKnowledgeMapService.getDescendants(nodeCode, depthLimit);
+            return Result.success(descendants);
+        } catch (Exception e) {
+            log.error("查询子孙节点失败，节点编码：{}", nodeCode, e);
+            return Result.error("查询子孙节点失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 判断节点是否为另一节点的祖先
+     */
+    @PostMapping("/isAncestor")
+    public Result<Boolean> isAncestor(
+            @RequestParam String ancestorCode,
+            @RequestParam String descendantCode) {
+        try {
+            return Result.success(adminKnowledgeMapService.isAncestor(ancestorCode, descendantCode));
+        } catch (Exception e) {
+            log.error("判断祖先关系失败，祖先节点编码：{}，子孙节点编码：{}", ancestorCode, descendantCode, e);
+            return Result.error("判断祖先关系失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 重建闭包表（回填或修复）
+     */
+    @PostMapping("/rebuildClosure")
+    public Result<Integer> rebuildClosure() {
+        try {
+            log.info("重建知识图谱闭包表");
+
+            Integer rows = adminKnowledgeMapService.rebuildClosure();
+
+            log.info("重建知识图谱闭包表成功，关系行数：{}", rows);
+            return Result.success(rows);
+        } catch (Exception e) {
+            log.error("重建知识图谱闭包表失败", e);
+            return Result.error("重建闭包表失败：" + e.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,80 @@
+package com.lore.master.web.admin.controller;
+
+import com.alibaba.fastjson2.JSON;
+import com.lore.master.common.result.Result;
+import com.lore.master.service.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 导出文件下载响应
+ *
+ * 设置下载响应头后把输出流交给导出服务直接写出。开始写出之前出错时返回JSON错误信息；
+ * 已经开始写出后无法再修改状态码，只能中断连接，客户端会得到不完整的文件
+ */
+@Slf4j
+final class ExportDownload {
+
+    private static final DateTimeFormatter FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private ExportDownload() {
+    }
+
+    @FunctionalInterface
+    interface Export {
+        /**
+         * @return 导出行数
+         */
+        long write(ExportFormat format, OutputStream out) throws IOException;
+    }
+
+    /**
+     * @param fileName 文件名前缀，实际文件名为 前缀_时间.扩展名
+     * @param format 导出格式，为空时默认CSV
+     */
+    static void write(HttpServletResponse response, String fileName, String format, Export export) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        String fullName = fileName + "_" + LocalDateTime.now().format(FILE_TIME_FORMATTER) + "." + exportFormat.getExtension();
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fullName, StandardCharsets.UTF_8).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        try {
+            long rows = export.write(exportFormat, response.getOutputStream());
+            log.info("导出文件完成: fileName={}, rows={}", fullName, rows);
+        } catch (Exception e) {
+            log.error("导出文件失败: fileName={}", fullName, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "导出失败: " + e.getMessage());
+            } else {
+                throw new IllegalStateException("导出文件中断: " + fullName, e);
+            }
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, int code, String message) {
+        try {
+            response.setStatus(code);
+            response.setContentType("application/json;charset=UTF-8");
+            response.getOutputStream().write(JSON.toJSONString(Result.error(code, message)).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("写入错误响应失败", e);
+        }
+    }
+}
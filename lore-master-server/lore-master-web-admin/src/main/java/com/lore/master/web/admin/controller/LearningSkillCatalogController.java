@@ -5,8 +5,11 @@ import com.lore.master.data.dto.admin.LearningSkillCatalogDTO;
 import com.lore.master.data.dto.admin.LearningSkillCatalogQueryDTO;
 import com.lore.master.data.validation.CreateGroup;
 import com.lore.master.data.validation.UpdateGroup;
+import com.lore.master.data.vo.admin.BulkImportResult;
 import com.lore.master.data.vo.admin.LearningSkillCatalogVO;
+import com.lore.master.service.admin.AdminExportService;
 import com.lore.master.service.admin.LearningSkillCatalogService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -28,6 +31,7 @@ import java.util.List;
 public class LearningSkillCatalogController {
 
     private final LearningSkillCatalogService skillCatalogService;
+    private final AdminExportService adminExportService;
 
     /**
      * 创建技能目录
@@ -254,6 +258,23 @@ public class LearningSkillCatalogController {
         }
     }
 
+    /**
+     * 拖拽排序：按给定顺序重排同一父级下的技能目录
+     */
+    @PutMapping("/reorder")
+    public Result<String> reorderSkillCatalog(
+            @RequestParam(required = false) String parentCode,
+            @RequestBody @NotEmpty List<Long> orderedIds) {
+        log.info("重排技能目录: parentCode={}, orderedIds={}", parentCode, orderedIds);
+        try {
+            skillCatalogService.reorderSkillCatalog(parentCode, orderedIds);
+            return Result.success("排序调整成功");
+        } catch (Exception e) {
+            log.error("重排技能目录失败", e);
+            return Result.error("排序调整失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 移动技能目录到新的父级
      */
@@ -318,14 +339,14 @@ public class LearningSkillCatalogController {
     }
 
     /**
-     * 导入技能目录数据
+     * 导入技能目录数据，返回每个失败行的原因
      */
     @PostMapping("/import")
-    public Result<String> importSkillCatalogData(@RequestBody @NotEmpty List<LearningSkillCatalogDTO> dataList) {
+    public Result<BulkImportResult> importSkillCatalogData(@RequestBody @NotEmpty List<LearningSkillCatalogDTO> dataList) {
         log.info("导入技能目录数据: {} 条", dataList.size());
         try {
-            skillCatalogService.importSkillCatalogData(dataList);
-            return Result.success("导入成功");
+            BulkImportResult result = skillCatalogService.importSkillCatalogData(dataList);
+            return Result.success("导入完成", result);
         } catch (Exception e) {
             log.error("导入技能目录数据失败", e);
             return Result.error("导入失败: " + e.getMessage());
@@ -345,4 +366,16 @@ public class LearningSkillCatalogController {
             return Result.error("导出失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 流式导出技能目录文件，format 为 csv（默认）或 ndjson
+     */
+    @PostMapping("/export/file")
+    public void exportSkillCatalogFile(@RequestBody LearningSkillCatalogQueryDTO queryDTO,
+                                       @RequestParam(required = false) String format,
+                                       HttpServletResponse response) {
+        log.info("导出技能目录文件: format={}, 条件={}", format, queryDTO);
+        ExportDownload.write(response, "skill_catalog", format,
+                (exportFormat, out) -> adminExportService.exportSkillCatalog(queryDTO, exportFormat, out));
+    }
 }
@@ -2,10 +2,15 @@ package com.lore.master.web.admin.controller;
 
 import com.lore.master.common.result.Result;
 import com.lore.master.data.entity.admin.Question;
+import com.lore.master.service.admin.AdminExportService;
+import com.lore.master.service.admin.QuestionSamplingService;
+import com.lore.master.service.search.SearchService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -22,6 +27,12 @@ import java.util.Map;
 @RequestMapping("/api/admin/questions")
 @RequiredArgsConstructor
 public class QuestionController {
+
+    private final AdminExportService adminExportService;
+
+    private final QuestionSamplingService questionSamplingService;
+
+    private final SearchService searchService;
     
     /**
      * 分页查询题目
@@ -139,6 +150,87 @@ public class QuestionController {
         }
     }
     
+    /**
+     * 流式导出题目文件，format 为 csv（默认）或 ndjson，过滤参数为空时不过滤
+     */
+    @GetMapping("/export")
+    public void exportQuestions(@RequestParam(required = false) Integer type,
+                                @RequestParam(required = false) Long subjectId,
+                                @RequestParam(required = false) Long knowledgePointId,
+                                @RequestParam(required = false) Integer difficultyLevel,
+                                @RequestParam(required = false) Integer status,
+                                @RequestParam(required = false) String format,
+                                HttpServletResponse response) {
+        log.info("导出题目: format={}, type={}, subjectId={}, knowledgePointId={}, difficultyLevel={}, status={}",
+                format, type, subjectId, knowledgePointId, difficultyLevel, status);
+        ExportDownload.write(response, "questions", format, (exportFormat, out) -> adminExportService.exportQuestions(
+                type, subjectId, knowledgePointId, difficultyLevel, status, exportFormat, out));
+    }
+
+    /**
+     * 根据标签搜索题目
+     */
+    @GetMapping("/search/tag/{tag}")
+    public Result<List<Question>> searchQuestionsByTag(@PathVariable String tag) {
+        try {
+            return Result.success(searchService.searchQuestionsByTag(tag));
+        } catch (Exception e) {
+            log.error("根据标签搜索题目失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 全文搜索题目，按相关度排序
+     */
+    @GetMapping("/search/keyword")
+    public Result<Page<Question>> searchQuestionsByKeyword(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Pageable pageable = PageRequest.of(page, size);
+            return Result.success(searchService.searchQuestions(keyword, pageable));
+        } catch (Exception e) {
+            log.error("全文搜索题目失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 随机抽题，条件为空时不限
+     */
+    @GetMapping("/random")
+    public Result<List<Question>> getRandomQuestions(@RequestParam(required = false) Long subjectId,
+                                                     @RequestParam(required = false) Integer difficultyLevel,
+                                                     @RequestParam(required = false) Integer type,
+                                                     @RequestParam(defaultValue = "10") Integer count) {
+        try {
+            log.info("随机抽题: subjectId={}, difficultyLevel={}, type={}, count={}", subjectId, difficultyLevel, type, count);
+            return Result.success(questionSamplingService.randomQuestions(subjectId, difficultyLevel, type, count));
+        } catch (Exception e) {
+            log.error("随机抽题失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 按难度分层生成练习卷，请求体为 难度等级 -> 权重，为空时按各难度题目数量分配
+     */
+    @PostMapping("/practice-test")
+    public Result<List<Question>> generatePracticeTest(@RequestParam(required = false) Long subjectId,
+                                                       @RequestParam(required = false) Integer type,
+                                                       @RequestParam(defaultValue = "20") Integer count,
+                                                       @RequestBody(required = false) Map<Integer, Integer> difficultyWeights) {
+        try {
+            log.info("生成练习卷: subjectId={}, type={}, count={}, difficultyWeights={}", subjectId, type, count, difficultyWeights);
+            return Result.success(questionSamplingService.generatePracticeTest(subjectId, type, count, difficultyWeights));
+        } catch (Exception e) {
+            log.error("生成练习卷失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取题目统计信息
      */
@@ -1,6 +1,7 @@
 package com.lore.master.web.consumer.config;
 
 import com.lore.master.web.consumer.interceptor.LoginInterceptor;
+import com.lore.master.web.consumer.interceptor.OpsInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -16,11 +17,15 @@ public class WebConfig implements WebMvcConfigurer {
 
     private final LoginInterceptor loginInterceptor;
 
+    private final OpsInterceptor opsInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(loginInterceptor)
                 .addPathPatterns("/api/user/profile/**", "/api/user/study/**")
                 .excludePathPatterns("/api/user/register/**", "/api/user/login/**");
+        registry.addInterceptor(opsInterceptor)
+                .addPathPatterns("/api/ops/**");
     }
     
     @Override
@@ -1,15 +1,24 @@
 package com.lore.master.web.consumer.controller;
 
 import com.lore.master.common.result.Result;
+import com.lore.master.data.dto.chat.ChatStreamFrame;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
+import com.lore.master.service.ai.ResumableChatStreams;
+import com.lore.master.service.ai.TokenCoalescer;
+import com.lore.master.service.config.ChatStreamConfig;
 import com.lore.master.service.consumer.chat.LLMChatService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
+
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * AI聊天控制器
@@ -28,6 +37,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ChatController {
     private final LLMChatService llmChatService;
+    private final ChatStreamConfig chatStreamConfig;
+    private final ResumableChatStreams resumableChatStreams;
 
 
 
@@ -48,7 +59,68 @@ public class ChatController {
         log.info("接收HTTP流式聊天请求: userId={}, message={}", userId, message);
         log.warn("注意：小程序无法接收真正的HTTP流式数据，建议使用WebSocket");
 
-        return llmChatService.sendMessageStream(message, userId);
+        // 合并token，减少小块写出
+        return TokenCoalescer.coalesce(llmChatService.sendMessageStream(message, userId), chatStreamConfig);
+    }
+
+    /**
+     * SSE流式聊天（text/event-stream）
+     *
+     * 每个事件的id为帧序号，event为帧类型，data为ChatStreamFrame的JSON；期间定时发送心跳注释。
+     * 断线后带上同一messageId和Last-Event-ID重新请求，从缓存中续传，不会重新生成；
+     * 回答已过期或不在当前节点时返回error帧，客户端需要重新发起对话。
+     * 未传messageId时由服务端生成，客户端可从start帧中取得
+     */
+    @PostMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamFrame>> sendMessageSse(@RequestBody ConsumerChatHistoryRequest request,
+                                                                 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return sse(request.getUserId(), request.getContent(), request.getMessageId(), lastEventId);
+    }
+
+    /**
+     * SSE流式聊天（GET形式，供浏览器EventSource使用，自动重连时会带上Last-Event-ID）
+     */
+    @GetMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamFrame>> sendMessageSseGet(@RequestParam String userId,
+                                                                    @RequestParam(required = false) String message,
+                                                                    @RequestParam(required = false) String messageId,
+                                                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return sse(userId, message, messageId, lastEventId);
+    }
+
+    private Flux<ServerSentEvent<ChatStreamFrame>> sse(String userId, String message, String messageId, String lastEventId) {
+        String streamId = messageId != null && !messageId.isEmpty() ? messageId : UUID.randomUUID().toString();
+        long lastSeq = parseLastEventId(lastEventId);
+        log.info("接收SSE聊天请求: userId={}, messageId={}, lastEventId={}", userId, streamId, lastEventId);
+
+        // 消息为空时不能发起新的生成，只能续传已有的回答
+        Supplier<Flux<String>> source = message == null || message.isBlank()
+                ? null
+                : () -> llmChatService.sendMessageStream(message, userId);
+        Flux<ServerSentEvent<ChatStreamFrame>> events = resumableChatStreams
+                .subscribe(userId, streamId, lastSeq, source)
+                .map(frame -> ServerSentEvent.builder(frame)
+                        .id(String.valueOf(frame.getSeq()))
+                        .event(frame.getType())
+                        .build());
+
+        // 心跳注释防止代理和移动网络因空闲断开连接，回答结束时一并停止
+        Flux<ServerSentEvent<ChatStreamFrame>> heartbeats = Flux
+                .interval(Duration.ofSeconds(chatStreamConfig.getSseHeartbeatSeconds()))
+                .map(i -> ServerSentEvent.<ChatStreamFrame>builder().comment("heartbeat").build());
+        return events.publish(shared -> Flux.merge(shared, heartbeats.takeUntilOther(shared.ignoreElements())));
+    }
+
+    private long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            log.warn("无效的Last-Event-ID: {}", lastEventId);
+            return -1;
+        }
     }
 
     /**
@@ -2,7 +2,9 @@ package com.lore.master.web.consumer.controller;
 
 import com.lore.master.common.annotation.RequireLogin;
 import com.lore.master.common.context.UserContext;
+import com.lore.master.common.exception.BusinessException;
 import com.lore.master.common.result.Result;
+import com.lore.master.data.dto.chat.ChatHistoryPage;
 import com.lore.master.data.dto.chat.ConsumerChatHistoryRequest;
 import com.lore.master.data.dto.chat.UserIdRequest;
 import com.lore.master.data.entity.consumer.ConsumerChatMessage;
@@ -49,6 +51,25 @@ public class ChatHistoryController {
         }
     }
 
+    /**
+     * 按游标分页获取会话聊天历史（默认当前会话，可指定sessionId）
+     */
+    @PostMapping("/history/page")
+    @RequireLogin
+    public Result<ChatHistoryPage> getChatHistoryPage(@RequestBody ConsumerChatHistoryRequest request) {
+        String userId = UserContext.getCurrentUserId();
+        log.info("游标分页获取聊天历史: userId={}, sessionId={}, cursor={}", userId, request.getSessionId(), request.getCursor());
+        request.setUserId(userId);
+        try {
+            return Result.success(chatMessageService.getMessagesByCursor(request));
+        } catch (BusinessException e) {
+            return Result.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("获取聊天历史失败: userId={}, error={}", userId, e.getMessage(), e);
+            return Result.error("获取聊天历史失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取用户消息总数
      */
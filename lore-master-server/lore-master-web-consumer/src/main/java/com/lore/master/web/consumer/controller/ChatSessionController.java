@@ -0,0 +1,97 @@
+package com.lore.master.web.consumer.controller;
+
+import com.lore.master.common.annotation.RequireLogin;
+import com.lore.master.common.context.UserContext;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.Result;
+import com.lore.master.data.dto.chat.ChatSessionDTO;
+import com.lore.master.data.dto.chat.ChatSessionRequest;
+import com.lore.master.service.consumer.chat.ChatSessionService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 聊天会话控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/chat/session")
+public class ChatSessionController {
+
+    @Resource
+    private ChatSessionService chatSessionService;
+
+    /**
+     * 创建新会话并切换为当前会话
+     */
+    @PostMapping("/create")
+    @RequireLogin
+    public Result<ChatSessionDTO> createSession(@RequestBody ChatSessionRequest request) {
+        String userId = UserContext.getCurrentUserId();
+        log.info("创建聊天会话: userId={}, title={}", userId, request.getTitle());
+        try {
+            return Result.success(chatSessionService.createSession(userId, request));
+        } catch (Exception e) {
+            log.error("创建聊天会话失败: userId={}, error={}", userId, e.getMessage(), e);
+            return Result.error("创建聊天会话失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取会话列表
+     */
+    @PostMapping("/list")
+    @RequireLogin
+    public Result<List<ChatSessionDTO>> listSessions(@RequestBody ChatSessionRequest request) {
+        String userId = UserContext.getCurrentUserId();
+        try {
+            return Result.success(chatSessionService.listSessions(userId, request));
+        } catch (Exception e) {
+            log.error("获取聊天会话列表失败: userId={}, error={}", userId, e.getMessage(), e);
+            return Result.error("获取聊天会话列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 切换当前会话
+     */
+    @PostMapping("/switch")
+    @RequireLogin
+    public Result<ChatSessionDTO> switchSession(@RequestBody ChatSessionRequest request) {
+        String userId = UserContext.getCurrentUserId();
+        log.info("切换聊天会话: userId={}, sessionId={}", userId, request.getSessionId());
+        try {
+            return Result.success(chatSessionService.switchSession(userId, request.getSessionId()));
+        } catch (BusinessException e) {
+            return Result.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("切换聊天会话失败: userId={}, error={}", userId, e.getMessage(), e);
+            return Result.error("切换聊天会话失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 归档会话
+     */
+    @PostMapping("/archive")
+    @RequireLogin
+    public Result<String> archiveSession(@RequestBody ChatSessionRequest request) {
+        String userId = UserContext.getCurrentUserId();
+        log.info("归档聊天会话: userId={}, sessionId={}", userId, request.getSessionId());
+        try {
+            chatSessionService.archiveSession(userId, request.getSessionId());
+            return Result.success("会话已归档");
+        } catch (BusinessException e) {
+            return Result.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("归档聊天会话失败: userId={}, error={}", userId, e.getMessage(), e);
+            return Result.error("归档聊天会话失败: " + e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.lore.master.web.consumer.controller;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.lore.master.common.result.Result;
 import com.lore.master.data.vo.admin.AdminKnowledgeMapResponse;
-import com.lore.master.data.vo.admin.AdminKnowledgeMapTreeResponse;
 import com.lore.master.service.admin.AdminKnowledgeMapService;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
@@ -25,14 +25,14 @@ public class KnowledgeMapController {
     private final AdminKnowledgeMapService adminKnowledgeMapService;
 
     /**
-     * 查询完整的技能树结构（思维导图）
+     * 查询完整的技能树结构（思维导图），数据为缓存的技能树JSON，直接写出
      */
     @PostMapping("/getSkillTree")
-    public Result<AdminKnowledgeMapTreeResponse> getSkillTree(@RequestParam @NotBlank String rootCode) {
+    public Result<RawValue> getSkillTree(@RequestParam @NotBlank String rootCode) {
         try {
             log.info("消费者端查询技能树结构，根节点编码：{}", rootCode);
 
-            AdminKnowledgeMapTreeResponse tree = adminKnowledgeMapService.getSkillTree(rootCode);
+            RawValue tree = adminKnowledgeMapService.getSkillTreeJson(rootCode);
 
             log.info("消费者端查询技能树结构成功，根节点编码：{}", rootCode);
             return Result.success("查询成功", tree);
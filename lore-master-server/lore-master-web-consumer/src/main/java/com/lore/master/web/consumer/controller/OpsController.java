@@ -0,0 +1,70 @@
+package com.lore.master.web.consumer.controller;
+
+import com.lore.master.common.result.Result;
+import com.lore.master.service.ai.LlmRouter;
+import com.lore.master.service.ai.SemanticResponseCache;
+import com.lore.master.service.consumer.chat.UserChatMemoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.annotation.Resource;
+import java.util.Map;
+
+/**
+ * 运维统计控制器，统计均为本节点内存数据，访问需要运维令牌（见 OpsInterceptor）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/ops")
+public class OpsController {
+
+    @Resource
+    private UserChatMemoryService userChatMemoryService;
+
+    @Resource
+    private SemanticResponseCache semanticResponseCache;
+
+    @Resource
+    private LlmRouter llmRouter;
+
+    /**
+     * 获取ChatMemory缓存统计
+     */
+    @GetMapping("/chat/memory/stats")
+    public Result<Map<String, Object>> getMemoryCacheStats() {
+        try {
+            return Result.success(userChatMemoryService.getMemoryCacheStats());
+        } catch (Exception e) {
+            log.error("获取ChatMemory缓存统计失败: error={}", e.getMessage(), e);
+            return Result.error("获取ChatMemory缓存统计失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取语义响应缓存统计
+     */
+    @GetMapping("/chat/cache/stats")
+    public Result<Map<String, Object>> getSemanticCacheStats() {
+        try {
+            return Result.success(semanticResponseCache.getStats());
+        } catch (Exception e) {
+            log.error("获取语义缓存统计失败: error={}", e.getMessage(), e);
+            return Result.error("获取语义缓存统计失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取LLM后端路由统计（并发、排队深度、延迟、健康状态）
+     */
+    @GetMapping("/llm/stats")
+    public Result<Map<String, Object>> getLlmRouterStats() {
+        try {
+            return Result.success(llmRouter.getStats());
+        } catch (Exception e) {
+            log.error("获取LLM路由统计失败: error={}", e.getMessage(), e);
+            return Result.error("获取LLM路由统计失败: " + e.getMessage());
+        }
+    }
+}
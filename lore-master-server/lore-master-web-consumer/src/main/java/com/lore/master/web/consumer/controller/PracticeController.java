@@ -0,0 +1,59 @@
+package com.lore.master.web.consumer.controller;
+
+import com.lore.master.common.annotation.RequireLogin;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.Result;
+import com.lore.master.data.dto.consumer.PracticeAnswerRequest;
+import com.lore.master.data.vo.consumer.PracticeAnswerResultVO;
+import com.lore.master.data.vo.consumer.PracticeQuestionVO;
+import com.lore.master.service.consumer.PracticeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * C端自适应练习控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/user/practice")
+@RequiredArgsConstructor
+public class PracticeController {
+
+    private final PracticeService practiceService;
+
+    /**
+     * 获取下一道练习题，学科下没有可练习的题目时返回空数据
+     */
+    @GetMapping("/next")
+    @RequireLogin
+    public Result<PracticeQuestionVO> nextQuestion(@RequestParam Long subjectId) {
+        try {
+            return Result.success(practiceService.nextQuestion(subjectId));
+        } catch (BusinessException e) {
+            return Result.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("获取练习题失败: subjectId={}", subjectId, e);
+            return Result.error("获取练习题失败，请稍后重试");
+        }
+    }
+
+    /**
+     * 批量提交答案，返回与提交顺序一致的判分结果
+     */
+    @PostMapping("/answers")
+    @RequireLogin
+    public Result<List<PracticeAnswerResultVO>> submitAnswers(@Valid @RequestBody PracticeAnswerRequest request) {
+        try {
+            return Result.success(practiceService.submitAnswers(request));
+        } catch (BusinessException e) {
+            return Result.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("提交练习答案失败", e);
+            return Result.error("提交答案失败，请稍后重试");
+        }
+    }
+}
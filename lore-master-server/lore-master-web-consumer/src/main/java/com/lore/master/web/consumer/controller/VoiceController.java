@@ -1,6 +1,7 @@
 package com.lore.master.web.consumer.controller;
 
 import com.lore.master.common.annotation.RequireLogin;
+import com.lore.master.common.exception.BusinessException;
 import com.lore.master.common.context.UserContext;
 import com.lore.master.common.result.Result;
 import com.lore.master.data.dto.consumer.VoiceTranscribeRequest;
@@ -14,8 +15,11 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 语音识别控制器
@@ -75,9 +79,9 @@ public class VoiceController {
                 return Result.error("音频格式不能为空");
             }
             
-            // 验证文件大小（限制10MB）
-            if (request.getFileSize() > 10 * 1024 * 1024) {
-                return Result.error("音频文件过大，请控制在10MB以内");
+            // 验证文件大小（60秒）
+            if (request.getFileSize() > VoiceRecognitionService.MAX_AUDIO_BYTES) {
+                return Result.error(VoiceRecognitionService.AUDIO_TOO_LARGE_MESSAGE);
             }
             
             // 验证音频格式
@@ -99,8 +103,8 @@ public class VoiceController {
                 return Result.error("音频数据为空");
             }
             
-            if (audioBytes.length > 10 * 1024 * 1024) {
-                return Result.error("音频文件过大，请控制在10MB以内");
+            if (audioBytes.length > VoiceRecognitionService.MAX_AUDIO_BYTES) {
+                return Result.error(VoiceRecognitionService.AUDIO_TOO_LARGE_MESSAGE);
             }
             
             // 构建服务请求对象（修改userId为从 UserContext 获取）
@@ -140,6 +144,61 @@ public class VoiceController {
         }
     }
     
+    /**
+     * 语音转文字（流式上传）
+     * 请求体为原始音频数据，边接收边转发给讯飞，待发送的音频帧有上限，发送跟不上时暂停读取请求体，不在内存中攒整段音频；
+     * 上传读完后释放请求线程，识别结果异步返回
+     *
+     * @param format 音频格式 (mp3, wav, pcm)
+     * @param httpRequest HTTP请求，请求体为音频数据
+     * @return 识别结果
+     */
+    @PostMapping("/transcribe/stream")
+    @RequireLogin
+    public CompletableFuture<Result<VoiceTranscribeResponse>> transcribeVoiceStream(
+            @RequestParam String format,
+            HttpServletRequest httpRequest) {
+        
+        String userId = UserContext.getCurrentUserId();
+        if (userId == null) {
+            return CompletableFuture.completedFuture(Result.error("用户未登录"));
+        }
+        if (!isValidAudioFormat(format)) {
+            return CompletableFuture.completedFuture(Result.error("不支持的音频文件格式，仅支持MP3、WAV格式"));
+        }
+        if (httpRequest.getContentLengthLong() > VoiceRecognitionService.MAX_AUDIO_BYTES) {
+            return CompletableFuture.completedFuture(Result.error(VoiceRecognitionService.AUDIO_TOO_LARGE_MESSAGE));
+        }
+        log.info("收到流式语音转文字请求: userId={}, contentLength={}, format={}, clientIP={}",
+                userId, httpRequest.getContentLengthLong(), format, getClientIP(httpRequest));
+        
+        try {
+            return voiceRecognitionService.transcribeVoiceAsync(httpRequest.getInputStream(), format.toLowerCase(), userId)
+                    .thenApply(response -> {
+                        if ("ERROR".equals(response.getResultCode())) {
+                            log.error("流式语音识别失败: userId={}, provider={}", userId, response.getProvider());
+                            return Result.<VoiceTranscribeResponse>error("语音识别失败，请稍后重试");
+                        }
+                        return Result.success(response);
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof BusinessException businessException) {
+                            return Result.error(businessException.getCode(), businessException.getMessage());
+                        }
+                        if (cause instanceof IllegalArgumentException) {
+                            log.warn("流式语音识别参数错误: userId={}, error={}", userId, cause.getMessage());
+                            return Result.error(cause.getMessage());
+                        }
+                        log.error("流式语音识别异常: userId={}, error={}", userId, cause.getMessage(), cause);
+                        return Result.error("语音识别服务异常，请稍后重试");
+                    });
+        } catch (IOException e) {
+            log.error("读取音频数据失败: userId={}, error={}", userId, e.getMessage());
+            return CompletableFuture.completedFuture(Result.error("音频数据读取失败"));
+        }
+    }
+    
     /**
      * 获取语音识别服务状态
      */
@@ -0,0 +1,301 @@
+package com.lore.master.web.consumer.handler;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lore.master.service.config.ChatClusterConfig;
+import com.lore.master.service.config.ChatWebSocketConfig;
+import com.lore.master.service.middleware.message.ClusterMessageBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集群WebSocket会话注册表
+ *
+ * 本节点的连接登记在本地，按用户建索引；广播和按用户推送先投递本地连接，再通过消息总线转发给其他节点，
+ * 各节点只投递自己持有的连接。投递只是放入连接自己的发送队列，由扇出线程池并行发送，
+ * 单个接收过慢的客户端只会占住一个发送线程，不会拖慢整次广播
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatSessionRegistry {
+
+    /**
+     * 单次最多连续发送的消息数，超过后让出线程给其他连接
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    private final ClusterMessageBus clusterMessageBus;
+    private final ChatClusterConfig chatClusterConfig;
+    private final ChatWebSocketConfig chatWebSocketConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    // 本节点的连接
+    private final ConcurrentHashMap<String, LocalSession> sessions = new ConcurrentHashMap<>();
+
+    // 用户ID -> 本节点上该用户的连接ID
+    private final ConcurrentHashMap<String, Set<String>> userSessions = new ConcurrentHashMap<>();
+
+    private String nodeId;
+    private ExecutorService fanoutExecutor;
+    private Runnable unsubscribe;
+
+    @PostConstruct
+    public void init() {
+        nodeId = StringUtils.hasText(chatClusterConfig.getNodeId())
+                ? chatClusterConfig.getNodeId() : UUID.randomUUID().toString();
+        AtomicInteger threadIndex = new AtomicInteger();
+        fanoutExecutor = Executors.newFixedThreadPool(chatClusterConfig.getFanoutThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "ws-fanout-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        unsubscribe = clusterMessageBus.subscribe(chatClusterConfig.getChannel(), this::onClusterMessage);
+        log.info("WebSocket会话注册表启动: nodeId={}, channel={}", nodeId, chatClusterConfig.getChannel());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribe.run();
+        fanoutExecutor.shutdownNow();
+    }
+
+    /**
+     * 登记新连接，返回带发送缓冲的线程安全会话
+     */
+    public WebSocketSession register(WebSocketSession session) {
+        // 发送超时或缓冲超限时直接关闭连接
+        LocalSession local = new LocalSession(new ConcurrentWebSocketSessionDecorator(session,
+                chatWebSocketConfig.getSendTimeLimitMillis(), chatWebSocketConfig.getSendBufferSizeLimit()));
+        sessions.put(session.getId(), local);
+        Object userId = session.getAttributes().get("userId");
+        if (userId instanceof String uid) {
+            bindUser(session.getId(), uid);
+        }
+        return local.session;
+    }
+
+    /**
+     * 连接认证后绑定用户，同一连接重复绑定时以最后一次为准
+     */
+    public void bindUser(String sessionId, String userId) {
+        LocalSession local = sessions.get(sessionId);
+        if (local == null || userId == null || userId.equals(local.userId)) {
+            return;
+        }
+        unbindUser(sessionId, local.userId);
+        local.userId = userId;
+        userSessions.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(sessionId);
+    }
+
+    /**
+     * 注销连接
+     */
+    public void unregister(String sessionId) {
+        LocalSession local = sessions.remove(sessionId);
+        if (local != null) {
+            unbindUser(sessionId, local.userId);
+            local.queue.clear();
+        }
+    }
+
+    /**
+     * 本节点上的线程安全会话，不存在时返回null
+     */
+    public WebSocketSession getSession(String sessionId) {
+        LocalSession local = sessions.get(sessionId);
+        return local == null ? null : local.session;
+    }
+
+    /**
+     * 本节点的连接数
+     */
+    public int getLocalSessionCount() {
+        return sessions.size();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 广播到集群内所有连接
+     */
+    public void broadcast(String message) {
+        deliverLocal(null, message);
+        publish(null, message);
+    }
+
+    /**
+     * 推送到集群内某个用户的所有连接
+     */
+    public void sendToUser(String userId, String message) {
+        deliverLocal(userId, message);
+        publish(userId, message);
+    }
+
+    private void publish(String userId, String message) {
+        ClusterEnvelope envelope = new ClusterEnvelope();
+        envelope.setOrigin(nodeId);
+        envelope.setUserId(userId);
+        envelope.setPayload(message);
+        try {
+            clusterMessageBus.publish(chatClusterConfig.getChannel(), objectMapper.writeValueAsString(envelope));
+        } catch (Exception e) {
+            // 本节点已投递，转发失败只影响其他节点
+            log.error("转发集群消息失败: userId={}", userId, e);
+        }
+    }
+
+    private void onClusterMessage(String raw) {
+        try {
+            ClusterEnvelope envelope = objectMapper.readValue(raw, ClusterEnvelope.class);
+            if (nodeId.equals(envelope.getOrigin())) {
+                return;
+            }
+            deliverLocal(envelope.getUserId(), envelope.getPayload());
+        } catch (Exception e) {
+            log.error("处理集群消息失败: message={}", raw, e);
+        }
+    }
+
+    private void deliverLocal(String userId, String message) {
+        Collection<LocalSession> targets;
+        if (userId == null) {
+            targets = sessions.values();
+        } else {
+            Set<String> sessionIds = userSessions.get(userId);
+            if (sessionIds == null) {
+                return;
+            }
+            targets = sessionIds.stream().map(sessions::get).filter(local -> local != null).toList();
+        }
+        for (LocalSession local : targets) {
+            local.enqueue(message);
+        }
+    }
+
+    private void unbindUser(String sessionId, String userId) {
+        if (userId != null) {
+            userSessions.computeIfPresent(userId, (key, ids) -> {
+                ids.remove(sessionId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * 本节点的一个连接及其待发送队列
+     */
+    private final class LocalSession {
+        private final WebSocketSession session;
+        private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile String userId;
+
+        private LocalSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void enqueue(String message) {
+            if (queued.incrementAndGet() > chatClusterConfig.getSessionQueueCapacity()) {
+                queued.decrementAndGet();
+                log.warn("WebSocket待发送队列已满，关闭连接: sessionId={}", session.getId());
+                close();
+                return;
+            }
+            queue.offer(message);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    fanoutExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                for (int i = 0; i < DRAIN_BATCH; i++) {
+                    String message = queue.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    queued.decrementAndGet();
+                    if (!send(message)) {
+                        queue.clear();
+                        queued.set(0);
+                        break;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private boolean send(String message) {
+            if (!session.isOpen()) {
+                return false;
+            }
+            try {
+                session.sendMessage(new TextMessage(message));
+                return true;
+            } catch (SessionLimitExceededException e) {
+                log.warn("WebSocket客户端接收过慢，连接已关闭: sessionId={}, reason={}", session.getId(), e.getMessage());
+            } catch (IOException e) {
+                log.error("发送WebSocket消息失败: sessionId={}", session.getId(), e);
+            }
+            return false;
+        }
+
+        private void close() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.warn("关闭WebSocket连接失败: sessionId={}", session.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 节点间转发的消息，userId为空表示广播
+     */
+    @Data
+    public static class ClusterEnvelope {
+        private String origin;
+        private String userId;
+        private String payload;
+    }
+}
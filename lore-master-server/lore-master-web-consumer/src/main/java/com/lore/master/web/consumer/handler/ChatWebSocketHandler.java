@@ -1,36 +1,75 @@
 package com.lore.master.web.consumer.handler;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lore.master.common.context.UserContext;
+import com.lore.master.common.exception.BusinessException;
+import com.lore.master.common.result.ResultCode;
 import com.lore.master.common.util.JwtUtil;
+import com.lore.master.data.dto.chat.ChatStreamFrame;
+import com.lore.master.service.ai.TokenCoalescer;
+import com.lore.master.service.config.ChatStreamConfig;
+import com.lore.master.service.config.ChatWebSocketConfig;
 import com.lore.master.service.consumer.chat.LLMChatService;
+import com.lore.master.service.consumer.impl.XfyunVoiceClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 聊天WebSocket处理器
+ *
+ * 文本消息为JSON指令：auth、chat（默认）、stop，以及语音输入的 voice_start、voice_end、voice_cancel；
+ * 二进制消息为voice_start与voice_end之间的音频帧（16kHz 16bit 单声道PCM），边收边转发给讯飞识别，
+ * 识别中间结果以partial帧推回，最终文本以transcript帧推回后直接作为聊天消息开始生成，不需要客户端再发一次
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class ChatWebSocketHandler extends TextWebSocketHandler {
+public class ChatWebSocketHandler extends AbstractWebSocketHandler {
 
     private final LLMChatService llmChatService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    // 存储活跃的WebSocket会话
-    private final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final ChatWebSocketConfig chatWebSocketConfig;
+    private final ChatStreamConfig chatStreamConfig;
+    private final ChatSessionRegistry chatSessionRegistry;
+    private final XfyunVoiceClient xfyunVoiceClient;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    // 各会话进行中的生成，停止或连接关闭时取消
+    private final ConcurrentHashMap<String, Generation> generations = new ConcurrentHashMap<>();
+
+    // 各用户进行中的生成数
+    private final ConcurrentHashMap<String, Integer> userGenerations = new ConcurrentHashMap<>();
+
+    // 各会话进行中的语音输入
+    private final ConcurrentHashMap<String, VoiceInput> voiceInputs = new ConcurrentHashMap<>();
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = session.getId();
-        sessions.put(sessionId, session);
+        session.setBinaryMessageSizeLimit(chatWebSocketConfig.getMaxBinaryMessageBytes());
+        // 登记为带发送缓冲的线程安全会话，模型回调线程可以直接发送；发送超时或缓冲超限时关闭连接，由afterConnectionClosed取消生成
+        chatSessionRegistry.register(session);
 
         // 获取认证信息
         Boolean authenticated = (Boolean) session.getAttributes().get("authenticated");
@@ -65,67 +104,299 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
                 return;
             }
 
+            // 处理停止消息
+            if ("stop".equals(messageType)) {
+                stopGeneration(session);
+                return;
+            }
+
+            // 处理语音输入消息
+            if ("voice_start".equals(messageType)) {
+                startVoiceInput(session, jsonNode);
+                return;
+            }
+            if ("voice_end".equals(messageType)) {
+                finishVoiceInput(session);
+                return;
+            }
+            if ("voice_cancel".equals(messageType)) {
+                stopVoiceInput(session);
+                return;
+            }
+
             // 处理聊天消息
             if (jsonNode.has("message")) {
                 String userMessage = jsonNode.get("message").asText();
                 String messageId = jsonNode.has("messageId") ? jsonNode.get("messageId").asText() : null;
 
-                // 从会话属性中获取用户ID
-                String userId = (String) session.getAttributes().get("userId");
-                Boolean authenticated = (Boolean) session.getAttributes().get("authenticated");
-
-                log.info("解析聊天消息: userId={}, authenticated={}, message={}, messageId={}",
-                    userId, authenticated, userMessage, messageId);
-
-                // 检查认证状态
-                if (!Boolean.TRUE.equals(authenticated)) {
-                    sendMessage(session, "[ERROR]请先进行身份验证");
-                    return;
-                }
+                log.info("解析聊天消息: userId={}, message={}, messageId={}",
+                    session.getAttributes().get("userId"), userMessage, messageId);
 
-                if (userId == null || "anonymous".equals(userId)) {
-                    sendMessage(session, "[ERROR]无效的用户身份");
+                String userId = authenticatedUserId(session, messageId);
+                if (userId == null) {
                     return;
                 }
 
-                // 发送开始标记
-                sendMessage(session, "[STREAM_START]");
-
-                // 调用流式服务并实时发送
-                llmChatService.sendMessageStream(userMessage, userId)
-                    .doOnNext(chunk -> {
-                        try {
-//                            log.debug("发送流式数据块: sessionId={}, chunk={}", sessionId, chunk);
-                            sendMessage(session, chunk);
-                        } catch (Exception e) {
-                            log.error("发送流式数据失败: sessionId={}", sessionId, e);
-                        }
-                    })
-                    .doOnComplete(() -> {
-                        try {
-                            log.info("流式响应完成: sessionId={}", sessionId);
-                            sendMessage(session, "[STREAM_END]");
-                        } catch (Exception e) {
-                            log.error("发送完成标记失败: sessionId={}", sessionId, e);
-                        }
-                    })
-                    .doOnError(error -> {
-                        try {
-                            log.error("流式响应错误: sessionId={}", sessionId, error);
-                            sendMessage(session, "[STREAM_ERROR]" + error.getMessage());
-                        } catch (Exception e) {
-                            log.error("发送错误标记失败: sessionId={}", sessionId, e);
-                        }
-                    })
-                    .subscribe();
+                startGeneration(session, userId, userMessage, messageId, 0);
             } else {
-                sendMessage(session, "[ERROR]无效的消息格式");
+                sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, null, "无效的消息格式"));
             }
 
         } catch (Exception e) {
             log.error("处理WebSocket消息失败: sessionId={}", sessionId, e);
-            sendMessage(session, "[ERROR]消息处理失败: " + e.getMessage());
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, null, "消息处理失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 处理语音帧：转发给进行中的识别
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        VoiceInput voiceInput = voiceInputs.get(session.getId());
+        if (voiceInput == null) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, null, "请先发送voice_start再发送语音数据"));
+            return;
+        }
+        ByteBuffer payload = message.getPayload();
+        byte[] audio = new byte[payload.remaining()];
+        payload.get(audio);
+        try {
+            voiceInput.recognition.write(audio, 0, audio.length);
+        } catch (IllegalStateException e) {
+            // 识别已结束，结果由识别完成回调推送
+            log.debug("语音识别已结束，丢弃语音帧: sessionId={}", session.getId());
+        }
+    }
+
+    /**
+     * 开始一次语音输入：每个会话同时只有一次语音输入，识别完成后自动开始生成
+     */
+    private void startVoiceInput(WebSocketSession session, JsonNode jsonNode) {
+        String sessionId = session.getId();
+        String messageId = jsonNode.has("messageId") ? jsonNode.get("messageId").asText() : null;
+        String format = jsonNode.has("format") ? jsonNode.get("format").asText() : "pcm";
+
+        String userId = authenticatedUserId(session, messageId);
+        if (userId == null) {
+            return;
+        }
+
+        VoiceInput voiceInput = new VoiceInput(messageId);
+        if (voiceInputs.putIfAbsent(sessionId, voiceInput) != null) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, messageId, "上一段语音仍在识别中"));
+            return;
+        }
+        try {
+            voiceInput.recognition = xfyunVoiceClient.open(format, text -> {
+                ChatStreamFrame frame = ChatStreamFrame.of(ChatStreamFrame.PARTIAL, voiceInput.seq.getAndIncrement(), messageId);
+                frame.setDelta(text);
+                sendFrame(session, frame);
+            });
+        } catch (BusinessException e) {
+            voiceInputs.remove(sessionId, voiceInput);
+            sendFrame(session, errorFrame(ChatStreamFrame.BUSY, 0, messageId, e.getMessage()));
+            return;
+        } catch (RuntimeException e) {
+            voiceInputs.remove(sessionId, voiceInput);
+            log.error("开始语音识别失败: sessionId={}", sessionId, e);
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, messageId, "语音识别服务不可用"));
+            return;
+        }
+        log.info("开始语音输入: sessionId={}, userId={}, messageId={}, format={}", sessionId, userId, messageId, format);
+
+        // 识别结果在OkHttp读线程上完成，开始生成会加载记忆等，切到弹性线程执行
+        voiceInput.recognition.result().whenComplete((text, error) -> Schedulers.boundedElastic().schedule(
+                () -> onVoiceRecognized(session, userId, voiceInput, text, error)));
+    }
+
+    /**
+     * 语音输入结束：发送剩余音频，等待最终识别结果
+     */
+    private void finishVoiceInput(WebSocketSession session) {
+        VoiceInput voiceInput = voiceInputs.get(session.getId());
+        if (voiceInput == null) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, null, "没有进行中的语音输入"));
+            return;
+        }
+        voiceInput.recognition.finish();
+    }
+
+    /**
+     * 客户端取消语音输入
+     */
+    private void stopVoiceInput(WebSocketSession session) {
+        VoiceInput voiceInput = cancelVoiceInput(session.getId(), "客户端取消");
+        if (voiceInput != null) {
+            sendFrame(session, ChatStreamFrame.of(ChatStreamFrame.STOPPED, voiceInput.seq.getAndIncrement(), voiceInput.messageId));
+        }
+    }
+
+    private VoiceInput cancelVoiceInput(String sessionId, String reason) {
+        VoiceInput voiceInput = voiceInputs.remove(sessionId);
+        if (voiceInput != null && voiceInput.recognition != null) {
+            voiceInput.recognition.cancel(new IllegalStateException(reason));
         }
+        return voiceInput;
+    }
+
+    /**
+     * 识别结束：推送最终文本并直接开始生成
+     */
+    private void onVoiceRecognized(WebSocketSession session, String userId, VoiceInput voiceInput, String text, Throwable error) {
+        String sessionId = session.getId();
+        String messageId = voiceInput.messageId;
+        // 已被取消或被新的语音输入替换，客户端已收到STOPPED，迟到的结果直接丢弃
+        if (!voiceInputs.remove(sessionId, voiceInput)) {
+            log.info("语音输入已取消: sessionId={}, messageId={}", sessionId, messageId);
+            return;
+        }
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                log.info("语音输入已取消: sessionId={}, messageId={}", sessionId, messageId);
+                return;
+            }
+            log.error("语音识别失败: sessionId={}, messageId={}, error={}", sessionId, messageId, cause.getMessage());
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, voiceInput.seq.getAndIncrement(), messageId, "语音识别失败，请重试"));
+            return;
+        }
+        if (!StringUtils.hasText(text)) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, voiceInput.seq.getAndIncrement(), messageId, "未识别到有效语音"));
+            return;
+        }
+
+        log.info("语音识别完成: sessionId={}, messageId={}, text={}", sessionId, messageId, text);
+        ChatStreamFrame transcript = ChatStreamFrame.of(ChatStreamFrame.TRANSCRIPT, voiceInput.seq.getAndIncrement(), messageId);
+        transcript.setDelta(text);
+        sendFrame(session, transcript);
+        if (session.isOpen()) {
+            startGeneration(session, userId, text, messageId, voiceInput.seq.get());
+        }
+    }
+
+    /**
+     * 已认证的用户ID；未认证时推送错误帧并返回null
+     */
+    private String authenticatedUserId(WebSocketSession session, String messageId) {
+        String userId = (String) session.getAttributes().get("userId");
+        Boolean authenticated = (Boolean) session.getAttributes().get("authenticated");
+
+        // 检查认证状态
+        if (!Boolean.TRUE.equals(authenticated)) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, messageId, "请先进行身份验证"));
+            return null;
+        }
+
+        if (userId == null || "anonymous".equals(userId)) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, messageId, "无效的用户身份"));
+            return null;
+        }
+        return userId;
+    }
+
+    /**
+     * 开始一次流式生成：每个会话同时只有一个生成，每个用户的生成数不超过上限
+     *
+     * @param firstSeq 第一帧的序号，语音输入时接在识别帧之后
+     */
+    private void startGeneration(WebSocketSession session, String userId, String userMessage, String messageId, long firstSeq) {
+        String sessionId = session.getId();
+        Generation generation = new Generation(messageId, firstSeq);
+        if (generations.putIfAbsent(sessionId, generation) != null) {
+            sendFrame(session, errorFrame(ChatStreamFrame.ERROR, 0, messageId, "上一条消息仍在生成中，请等待完成或先停止"));
+            return;
+        }
+        if (!tryAcquireGeneration(userId)) {
+            generations.remove(sessionId, generation);
+            sendFrame(session, errorFrame(ChatStreamFrame.BUSY, 0, messageId, "您同时进行的对话过多，请等待当前回答完成"));
+            return;
+        }
+
+        try {
+            // 发送开始帧
+            sendFrame(session, ChatStreamFrame.of(ChatStreamFrame.START, generation.seq.getAndIncrement(), messageId));
+
+            // 调用流式服务，合并token后按delta帧发送
+            generation.subscription.update(TokenCoalescer.coalesce(llmChatService.sendMessageStream(userMessage, userId), chatStreamConfig)
+                .doOnNext(chunk -> {
+                    try {
+//                        log.debug("发送流式数据块: sessionId={}, chunk={}", sessionId, chunk);
+                        ChatStreamFrame frame = ChatStreamFrame.of(ChatStreamFrame.DELTA, generation.seq.getAndIncrement(), messageId);
+                        frame.setDelta(chunk);
+                        sendFrame(session, frame);
+                    } catch (Exception e) {
+                        log.error("发送流式数据失败: sessionId={}", sessionId, e);
+                    }
+                })
+                .doOnComplete(() -> {
+                    try {
+                        log.info("流式响应完成: sessionId={}, frames={}", sessionId, generation.seq.get() + 1);
+                        sendFrame(session, ChatStreamFrame.of(ChatStreamFrame.END, generation.seq.getAndIncrement(), messageId));
+                    } catch (Exception e) {
+                        log.error("发送完成帧失败: sessionId={}", sessionId, e);
+                    }
+                })
+                .doOnError(error -> {
+                    try {
+                        if (isBusy(error)) {
+                            log.warn("LLM服务繁忙，拒绝流式请求: sessionId={}", sessionId);
+                            sendFrame(session, errorFrame(ChatStreamFrame.BUSY, generation.seq.getAndIncrement(), messageId, error.getMessage()));
+                            return;
+                        }
+                        log.error("流式响应错误: sessionId={}", sessionId, error);
+                        sendFrame(session, errorFrame(ChatStreamFrame.ERROR, generation.seq.getAndIncrement(), messageId, error.getMessage()));
+                    } catch (Exception e) {
+                        log.error("发送错误帧失败: sessionId={}", sessionId, e);
+                    }
+                })
+                .doOnCancel(() -> log.info("流式响应已取消: sessionId={}, userId={}", sessionId, userId))
+                .doFinally(signal -> {
+                    generations.remove(sessionId, generation);
+                    releaseGeneration(userId);
+                })
+                .subscribe(chunk -> { }, error -> { }));
+        } catch (RuntimeException e) {
+            generations.remove(sessionId, generation);
+            releaseGeneration(userId);
+            throw e;
+        }
+    }
+
+    /**
+     * 停止当前会话进行中的生成
+     */
+    private void stopGeneration(WebSocketSession session) {
+        Generation generation = cancelGeneration(session.getId());
+        if (generation != null) {
+            sendFrame(session, ChatStreamFrame.of(ChatStreamFrame.STOPPED, generation.seq.getAndIncrement(), generation.messageId));
+        }
+    }
+
+    private Generation cancelGeneration(String sessionId) {
+        Generation generation = generations.remove(sessionId);
+        if (generation != null) {
+            generation.subscription.dispose();
+        }
+        return generation;
+    }
+
+    private boolean tryAcquireGeneration(String userId) {
+        int limit = chatWebSocketConfig.getMaxConcurrentGenerationsPerUser();
+        boolean[] acquired = new boolean[1];
+        userGenerations.compute(userId, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseGeneration(String userId) {
+        userGenerations.computeIfPresent(userId, (key, count) -> count <= 1 ? null : count - 1);
     }
 
     /**
@@ -154,6 +425,7 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
                     session.getAttributes().put("authenticated", true);
                     session.getAttributes().put("token", token);
                     session.getAttributes().put("userId", tokenUserId != null ? tokenUserId : userId);
+                    chatSessionRegistry.bindUser(sessionId, tokenUserId != null ? tokenUserId : userId);
 
                     sendMessage(session, "[AUTH_SUCCESS]身份验证成功！");
                     log.info("WebSocket认证成功: sessionId={}, userId={}", sessionId, tokenUserId != null ? tokenUserId : userId);
@@ -175,42 +447,108 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         String sessionId = session.getId();
         log.error("WebSocket传输错误: sessionId={}", sessionId, exception);
-        sessions.remove(sessionId);
+        chatSessionRegistry.unregister(sessionId);
+        cancelGeneration(sessionId);
+        cancelVoiceInput(sessionId, "连接异常");
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
         String sessionId = session.getId();
-        sessions.remove(sessionId);
+        chatSessionRegistry.unregister(sessionId);
+        cancelGeneration(sessionId);
+        cancelVoiceInput(sessionId, "连接关闭");
         log.info("WebSocket连接关闭: sessionId={}, status={}", sessionId, closeStatus);
     }
 
+    private boolean isBusy(Throwable error) {
+        return error instanceof BusinessException businessException
+                && businessException.getCode() == ResultCode.LLM_BUSY.getCode();
+    }
+
+    private ChatStreamFrame errorFrame(String type, long seq, String messageId, String message) {
+        ChatStreamFrame frame = ChatStreamFrame.of(type, seq, messageId);
+        frame.setMessage(message);
+        return frame;
+    }
+
+    /**
+     * 发送JSON帧到WebSocket客户端
+     */
+    private void sendFrame(WebSocketSession session, ChatStreamFrame frame) {
+        try {
+            sendMessage(session, objectMapper.writeValueAsString(frame));
+        } catch (JsonProcessingException e) {
+            log.error("序列化流式帧失败: sessionId={}, type={}", session.getId(), frame.getType(), e);
+        }
+    }
+
     /**
      * 发送消息到WebSocket客户端
      */
     private void sendMessage(WebSocketSession session, String message) {
+        WebSocketSession target = chatSessionRegistry.getSession(session.getId());
+        if (target == null) {
+            target = session;
+        }
         try {
-            if (session.isOpen()) {
-                session.sendMessage(new TextMessage(message));
+            if (target.isOpen()) {
+                target.sendMessage(new TextMessage(message));
             } else {
                 log.warn("WebSocket会话已关闭，无法发送消息: sessionId={}", session.getId());
             }
+        } catch (SessionLimitExceededException e) {
+            log.warn("WebSocket客户端接收过慢，连接已关闭: sessionId={}, reason={}", session.getId(), e.getMessage());
         } catch (IOException e) {
             log.error("发送WebSocket消息失败: sessionId={}", session.getId(), e);
         }
     }
 
     /**
-     * 广播消息到所有连接的客户端
+     * 广播消息到集群内所有连接的客户端
      */
     public void broadcastMessage(String message) {
-        sessions.values().forEach(session -> sendMessage(session, message));
+        chatSessionRegistry.broadcast(message);
     }
 
     /**
-     * 获取活跃连接数
+     * 推送消息到集群内某个用户的所有连接
+     */
+    public void sendToUser(String userId, String message) {
+        chatSessionRegistry.sendToUser(userId, message);
+    }
+
+    /**
+     * 获取本节点活跃连接数
      */
     public int getActiveConnectionCount() {
-        return sessions.size();
+        return chatSessionRegistry.getLocalSessionCount();
+    }
+
+    /**
+     * 会话中进行中的一次生成
+     */
+    private static final class Generation {
+        private final Disposable.Swap subscription = Disposables.swap();
+        private final AtomicLong seq;
+        private final String messageId;
+
+        private Generation(String messageId, long firstSeq) {
+            this.messageId = messageId;
+            this.seq = new AtomicLong(firstSeq);
+        }
+    }
+
+    /**
+     * 会话中进行中的一次语音输入
+     */
+    private static final class VoiceInput {
+        private final AtomicLong seq = new AtomicLong();
+        private final String messageId;
+        private volatile XfyunVoiceClient.Recognition recognition;
+
+        private VoiceInput(String messageId) {
+            this.messageId = messageId;
+        }
     }
 }
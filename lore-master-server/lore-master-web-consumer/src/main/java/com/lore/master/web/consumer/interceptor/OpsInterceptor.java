@@ -0,0 +1,50 @@
+package com.lore.master.web.consumer.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lore.master.common.result.Result;
+import com.lore.master.service.config.OpsConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 运维接口拦截器
+ *
+ * 运维接口暴露所有用户的缓存统计，不使用用户登录态，只接受配置的运维令牌
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpsInterceptor implements HandlerInterceptor {
+
+    public static final String TOKEN_HEADER = "X-Ops-Token";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final OpsConfig opsConfig;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if ("OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+
+        String expected = opsConfig.getToken();
+        String token = request.getHeader(TOKEN_HEADER);
+        if (expected == null || expected.isBlank() || token == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("拒绝运维接口访问: uri={}, remote={}", request.getRequestURI(), request.getRemoteAddr());
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write(objectMapper.writeValueAsString(Result.error(403, "无权访问")));
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,143 @@
+package com.lore.master.web.consumer.handler;
+
+import com.lore.master.service.config.ChatClusterConfig;
+import com.lore.master.service.config.ChatWebSocketConfig;
+import com.lore.master.service.middleware.message.InMemoryClusterMessageBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 集群会话注册表测试：两个节点共用进程内消息总线
+ */
+public class ChatSessionRegistryTest {
+
+    private final InMemoryClusterMessageBus bus = new InMemoryClusterMessageBus();
+    private final List<ChatSessionRegistry> registries = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        registries.forEach(ChatSessionRegistry::destroy);
+    }
+
+    @Test
+    public void testBroadcastReachesAllNodes() throws Exception {
+        ChatSessionRegistry node1 = newNode("node-1");
+        ChatSessionRegistry node2 = newNode("node-2");
+        WebSocketSession session1 = mockSession("s1", "u1");
+        WebSocketSession session2 = mockSession("s2", "u2");
+        node1.register(session1);
+        node2.register(session2);
+
+        node1.broadcast("hello");
+
+        verify(session1, timeout(1000)).sendMessage(new TextMessage("hello"));
+        verify(session2, timeout(1000)).sendMessage(new TextMessage("hello"));
+    }
+
+    @Test
+    public void testSendToUserOnlyReachesThatUser() throws Exception {
+        ChatSessionRegistry node1 = newNode("node-1");
+        ChatSessionRegistry node2 = newNode("node-2");
+        WebSocketSession session1 = mockSession("s1", "u1");
+        WebSocketSession session2 = mockSession("s2", null);
+        WebSocketSession session3 = mockSession("s3", "u3");
+        node1.register(session1);
+        node2.register(session2);
+        node2.register(session3);
+        // 认证后绑定用户
+        node2.bindUser("s2", "u1");
+
+        node1.sendToUser("u1", "to-u1");
+
+        verify(session1, timeout(1000)).sendMessage(new TextMessage("to-u1"));
+        verify(session2, timeout(1000)).sendMessage(new TextMessage("to-u1"));
+        Thread.sleep(100);
+        verify(session3, never()).sendMessage(any());
+    }
+
+    @Test
+    public void testSlowClientDoesNotStallBroadcast() throws Exception {
+        ChatSessionRegistry node = newNode("node-1");
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession slow = mockSession("slow", "u1");
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(slow).sendMessage(any());
+        node.register(slow);
+        List<WebSocketSession> fast = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            WebSocketSession session = mockSession("fast-" + i, "u" + i);
+            fast.add(session);
+            node.register(session);
+        }
+
+        long start = System.nanoTime();
+        node.broadcast("m1");
+        node.broadcast("m2");
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200), "广播不应阻塞调用线程");
+        for (WebSocketSession session : fast) {
+            verify(session, timeout(1000)).sendMessage(new TextMessage("m1"));
+            verify(session, timeout(1000)).sendMessage(new TextMessage("m2"));
+        }
+        release.countDown();
+    }
+
+    @Test
+    public void testUnregister() throws Exception {
+        ChatSessionRegistry node = newNode("node-1");
+        WebSocketSession removed = mockSession("s1", "u1");
+        WebSocketSession remaining = mockSession("s2", "u1");
+        node.register(removed);
+        node.register(remaining);
+        assertEquals(2, node.getLocalSessionCount());
+        node.unregister("s1");
+        assertEquals(1, node.getLocalSessionCount());
+
+        node.sendToUser("u1", "after-unregister");
+
+        // 同一用户仍在线的连接收到消息后，注销的连接不应再有发送
+        verify(remaining, timeout(1000)).sendMessage(new TextMessage("after-unregister"));
+        verify(removed, never()).sendMessage(any());
+    }
+
+    private ChatSessionRegistry newNode(String nodeId) {
+        ChatClusterConfig clusterConfig = new ChatClusterConfig();
+        clusterConfig.setNodeId(nodeId);
+        clusterConfig.setFanoutThreads(4);
+        ChatSessionRegistry registry = new ChatSessionRegistry(bus, clusterConfig, new ChatWebSocketConfig());
+        registry.init();
+        registries.add(registry);
+        return registry;
+    }
+
+    private WebSocketSession mockSession(String id, String userId) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        if (userId != null) {
+            attributes.put("userId", userId);
+        }
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        doAnswer(invocation -> null).when(session).sendMessage(any(WebSocketMessage.class));
+        return session;
+    }
+}
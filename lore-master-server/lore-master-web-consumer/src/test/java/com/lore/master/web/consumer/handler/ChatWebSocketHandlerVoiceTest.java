@@ -0,0 +1,195 @@
+package com.lore.master.web.consumer.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lore.master.data.dto.chat.ChatStreamFrame;
+import com.lore.master.service.config.ChatStreamConfig;
+import com.lore.master.service.config.ChatWebSocketConfig;
+import com.lore.master.service.consumer.chat.LLMChatService;
+import com.lore.master.service.consumer.impl.XfyunVoiceClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 语音输入子协议测试：讯飞识别由可控的假识别代替，识别片段和结果由测试推送
+ */
+public class ChatWebSocketHandlerVoiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ChatStreamFrame> frames = new CopyOnWriteArrayList<>();
+
+    private LLMChatService llmChatService;
+    private XfyunVoiceClient xfyunVoiceClient;
+    private XfyunVoiceClient.Recognition recognition;
+    private CompletableFuture<String> result;
+    private ArgumentCaptor<Consumer<String>> onPartial;
+    private WebSocketSession session;
+    private ChatWebSocketHandler handler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        llmChatService = mock(LLMChatService.class);
+        xfyunVoiceClient = mock(XfyunVoiceClient.class);
+        recognition = mock(XfyunVoiceClient.Recognition.class);
+        result = new CompletableFuture<>();
+        onPartial = ArgumentCaptor.forClass(Consumer.class);
+        when(xfyunVoiceClient.open(eq("pcm"), onPartial.capture())).thenReturn(recognition);
+        when(recognition.result()).thenReturn(result);
+        doAnswer(invocation -> result.completeExceptionally(new CancellationException("识别已取消")))
+                .when(recognition).cancel(any());
+
+        ChatStreamConfig streamConfig = new ChatStreamConfig();
+        // 关闭合并，每个token对应一个delta帧
+        streamConfig.setCoalesceEnabled(false);
+        handler = new ChatWebSocketHandler(llmChatService, new ChatWebSocketConfig(), streamConfig,
+                mock(ChatSessionRegistry.class), xfyunVoiceClient);
+
+        session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("authenticated", true);
+        attributes.put("userId", "u1");
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        doAnswer(invocation -> {
+            String payload = ((TextMessage) invocation.getArgument(0)).getPayload();
+            if (payload.startsWith("{")) {
+                frames.add(objectMapper.readValue(payload, ChatStreamFrame.class));
+            }
+            return null;
+        }).when(session).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    public void testBinaryBeforeVoiceStartIsRejected() throws Exception {
+        handler.handleMessage(session, new BinaryMessage(new byte[320]));
+
+        assertEquals(1, frames.size());
+        assertEquals(ChatStreamFrame.ERROR, frames.get(0).getType());
+        assertTrue(frames.get(0).getMessage().contains("voice_start"));
+        verify(xfyunVoiceClient, never()).open(anyString(), any());
+    }
+
+    @Test
+    public void testPartialFramesThenTranscript() throws Exception {
+        when(llmChatService.sendMessageStream("你好", "u1")).thenReturn(Flux.never());
+        text("{\"type\":\"voice_start\",\"messageId\":\"m1\"}");
+        handler.handleMessage(session, new BinaryMessage(new byte[320]));
+        verify(recognition).write(any(byte[].class), eq(0), eq(320));
+
+        onPartial.getValue().accept("你");
+        onPartial.getValue().accept("你好");
+        text("{\"type\":\"voice_end\"}");
+        verify(recognition).finish();
+        result.complete("你好");
+
+        // 识别完成后直接开始生成，不需要客户端再发一次
+        awaitFrames(4);
+        assertFrame(frames.get(0), ChatStreamFrame.PARTIAL, 0, "你");
+        assertFrame(frames.get(1), ChatStreamFrame.PARTIAL, 1, "你好");
+        assertFrame(frames.get(2), ChatStreamFrame.TRANSCRIPT, 2, "你好");
+        assertEquals("m1", frames.get(2).getMessageId());
+        assertEquals(ChatStreamFrame.START, frames.get(3).getType());
+    }
+
+    @Test
+    public void testVoiceCancelStopsRecognition() throws Exception {
+        text("{\"type\":\"voice_start\",\"messageId\":\"m1\"}");
+        handler.handleMessage(session, new BinaryMessage(new byte[320]));
+        onPartial.getValue().accept("你");
+
+        text("{\"type\":\"voice_cancel\"}");
+        verify(recognition).cancel(any());
+        assertFrame(frames.get(1), ChatStreamFrame.STOPPED, 1, null);
+
+        // 取消后的语音帧不再转发，也不会开始生成
+        handler.handleMessage(session, new BinaryMessage(new byte[320]));
+        verify(recognition).write(any(byte[].class), anyInt(), anyInt());
+        assertEquals(ChatStreamFrame.ERROR, frames.get(2).getType());
+        Thread.sleep(100);
+        assertEquals(3, frames.size());
+        verify(llmChatService, never()).sendMessageStream(anyString(), anyString());
+    }
+
+    @Test
+    public void testLateTranscriptAfterCancelIsDropped() throws Exception {
+        // 取消与识别完成竞争：取消时识别结果已在路上，最终仍以文本完成
+        doAnswer(invocation -> null).when(recognition).cancel(any());
+        text("{\"type\":\"voice_start\",\"messageId\":\"m1\"}");
+        handler.handleMessage(session, new BinaryMessage(new byte[320]));
+        text("{\"type\":\"voice_end\"}");
+
+        text("{\"type\":\"voice_cancel\"}");
+        assertFrame(frames.get(0), ChatStreamFrame.STOPPED, 0, null);
+        result.complete("你好");
+
+        // 客户端已收到STOPPED，迟到的识别结果既不推送也不开始生成
+        Thread.sleep(200);
+        assertEquals(1, frames.size(), "frames=" + frames);
+        verify(llmChatService, never()).sendMessageStream(anyString(), anyString());
+    }
+
+    @Test
+    public void testGenerationContinuesSeqAfterTranscript() throws Exception {
+        when(llmChatService.sendMessageStream("讲讲递归", "u1")).thenReturn(Flux.just("递归", "是"));
+        text("{\"type\":\"voice_start\",\"messageId\":\"m1\"}");
+        onPartial.getValue().accept("讲讲");
+        text("{\"type\":\"voice_end\"}");
+        result.complete("讲讲递归");
+
+        awaitFrames(6);
+        assertFrame(frames.get(0), ChatStreamFrame.PARTIAL, 0, "讲讲");
+        assertFrame(frames.get(1), ChatStreamFrame.TRANSCRIPT, 1, "讲讲递归");
+        assertFrame(frames.get(2), ChatStreamFrame.START, 2, null);
+        assertFrame(frames.get(3), ChatStreamFrame.DELTA, 3, "递归");
+        assertFrame(frames.get(4), ChatStreamFrame.DELTA, 4, "是");
+        assertFrame(frames.get(5), ChatStreamFrame.END, 5, null);
+        frames.forEach(frame -> assertEquals("m1", frame.getMessageId()));
+    }
+
+    private void text(String payload) throws Exception {
+        handler.handleMessage(session, new TextMessage(payload));
+    }
+
+    /**
+     * 识别结果在弹性线程上处理，等待帧到齐
+     */
+    private void awaitFrames(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (frames.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, frames.size(), "frames=" + frames);
+    }
+
+    private void assertFrame(ChatStreamFrame frame, String type, long seq, String delta) {
+        assertEquals(type, frame.getType());
+        assertEquals(seq, frame.getSeq());
+        assertEquals(delta, frame.getDelta());
+    }
+}
@@ -6,5 +6,8 @@ echo "📍 端口: 8080"
 echo "🌐 访问地址: http://localhost:8080"
 echo ""
 
+# 本地开发默认节点ID，多实例部署时为每个实例设置不同的LORE_NODE_ID
+export LORE_NODE_ID=${LORE_NODE_ID:-2}
+
 # 构建并启动应用
 mvn -pl lore-master-web-admin spring-boot:run
\ No newline at end of file
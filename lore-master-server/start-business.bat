@@ -6,6 +6,9 @@ echo 📍 端口: 8081
 echo 🌐 访问地址: http://localhost:8081
 echo.
 
+REM 本地开发默认节点ID，多实例部署时为每个实例设置不同的LORE_NODE_ID
+if not defined LORE_NODE_ID set LORE_NODE_ID=3
+
 REM 构建并启动应用
 mvn -pl lore-master-web-business spring-boot:run
 